@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.BufferChangedEvent;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * Caches the results of {@link ITypeRoot#codeSelect(int, int)}. Clients send
+ * hover, highlight, definition and code lens requests for the same position at
+ * the same time: the first request resolves the selection, the concurrent
+ * ones wait for its result instead of resolving it again.
+ *
+ * The results of a type root are discarded when its buffer changes, and all
+ * the results are discarded when the Java model changes.
+ */
+public final class CodeSelectCache implements IBufferChangedListener, IElementChangedListener {
+
+	private static final int MAX_ENTRIES = 64;
+	private static final long WAIT_INTERVAL = 50;
+
+	private static final CodeSelectCache instance = new CodeSelectCache();
+
+	private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	private final Set<IBuffer> buffers = new HashSet<>();
+	private final AtomicBoolean listening = new AtomicBoolean();
+
+	private CodeSelectCache() {
+	}
+
+	public static CodeSelectCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the elements at the given offset of the type root.
+	 *
+	 * @param root
+	 *            the type root
+	 * @param buffer
+	 *            the buffer the offset was computed from
+	 * @param offset
+	 *            the offset of the selection
+	 * @param monitor
+	 *            a progress monitor, may be <code>null</code>
+	 * @return the selected elements, or <code>null</code> if the monitor was
+	 *         cancelled while waiting for a concurrent resolution
+	 * @throws JavaModelException
+	 *             if the selection can't be resolved
+	 */
+	public IJavaElement[] codeSelect(ITypeRoot root, IBuffer buffer, int offset, IProgressMonitor monitor) throws JavaModelException {
+		if (listening.compareAndSet(false, true)) {
+			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+		Key key = new Key(root.getHandleIdentifier(), offset);
+		CompletableFuture<IJavaElement[]> result;
+		boolean resolve = false;
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			if (entry != null && entry.buffer == buffer) {
+				result = entry.result;
+			} else {
+				result = new CompletableFuture<>();
+				entries.put(key, new Entry(buffer, result));
+				if (buffer != null && buffers.add(buffer)) {
+					buffer.addBufferChangedListener(this);
+				}
+				resolve = true;
+			}
+		}
+		if (resolve) {
+			try {
+				result.complete(root.codeSelect(offset, 0));
+			} catch (JavaModelException | RuntimeException e) {
+				synchronized (entries) {
+					Entry entry = entries.get(key);
+					if (entry != null && entry.result == result) {
+						entries.remove(key);
+					}
+				}
+				result.completeExceptionally(e);
+				throw e;
+			}
+		}
+		return await(result, monitor);
+	}
+
+	private static IJavaElement[] await(CompletableFuture<IJavaElement[]> result, IProgressMonitor monitor) throws JavaModelException {
+		while (true) {
+			try {
+				IJavaElement[] elements = result.get(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+				return elements == null ? null : elements.clone();
+			} catch (TimeoutException e) {
+				if (monitor != null && monitor.isCanceled()) {
+					return null;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof JavaModelException) {
+					throw (JavaModelException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new JavaModelException(new CoreException(StatusFactory.newErrorStatus(cause.getMessage(), cause)));
+			}
+		}
+	}
+
+	@Override
+	public void bufferChanged(BufferChangedEvent event) {
+		IBuffer buffer = event.getBuffer();
+		synchronized (entries) {
+			for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+				if (it.next().buffer == buffer) {
+					it.remove();
+				}
+			}
+			buffers.remove(buffer);
+		}
+		buffer.removeBufferChangedListener(this);
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		clear();
+	}
+
+	/**
+	 * Discards all the cached results.
+	 */
+	public void clear() {
+		IBuffer[] listened;
+		synchronized (entries) {
+			entries.clear();
+			listened = buffers.toArray(new IBuffer[buffers.size()]);
+			buffers.clear();
+		}
+		for (IBuffer buffer : listened) {
+			buffer.removeBufferChangedListener(this);
+		}
+	}
+
+	private static final class Key {
+		private final String handle;
+		private final int offset;
+
+		Key(String handle, int offset) {
+			this.handle = handle;
+			this.offset = offset;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(handle, offset);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return offset == other.offset && handle.equals(other.handle);
+		}
+	}
+
+	private static final class Entry {
+		private final IBuffer buffer;
+		private final CompletableFuture<IJavaElement[]> result;
+
+		Entry(IBuffer buffer, CompletableFuture<IJavaElement[]> result) {
+			this.buffer = buffer;
+			this.result = result;
+		}
+	}
+}
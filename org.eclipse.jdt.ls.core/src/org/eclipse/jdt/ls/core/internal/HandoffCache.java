@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.FoldingRange;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Results computed by the syntax server, handed off to the standard server.
+ *
+ * Clients run the syntax server while the standard server imports the
+ * workspace. When enabled with the
+ * {@link org.eclipse.jdt.ls.core.internal.preferences.Preferences#JAVA_SERVER_HANDOFF_ENABLED_KEY}
+ * preference, the syntax server stores the outline and folding ranges it
+ * computed for a file in a folder shared with the standard server, under the
+ * hash of the file contents. Until its workspace is initialized, the standard
+ * server answers these requests from the stored results of the unchanged
+ * files. Semantic tokens are not handed off, the syntax server can't resolve
+ * the bindings without the classpath.
+ *
+ * The folder is set with the {@link JDTEnvironmentUtils#HANDOFF_CACHE_DIR}
+ * environment variable or system property, which must point both servers to
+ * the same folder. It defaults to a <code>handoff-cache</code> folder in the
+ * state location of the server, which is not shared.
+ */
+public class HandoffCache {
+
+	private static final String DEFAULT_FOLDER_NAME = "handoff-cache";
+	private static final String SNAPSHOT_EXTENSION = ".json.gz";
+	private static final int MAX_SNAPSHOTS = 1000;
+	private static final int PRUNE_INTERVAL = 50;
+	/**
+	 * The results of a document are written once no other result was computed
+	 * for it during this delay, in milliseconds
+	 */
+	private static final long WRITE_DELAY = 500;
+
+	private static HandoffCache instance;
+
+	private final File directory;
+	private final Gson gson = new GsonBuilder().create();
+	private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+	private final Job writeJob;
+	private int writes;
+
+	public HandoffCache(File directory) {
+		this.directory = directory;
+		this.writeJob = new Job("Hand off results") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				List<PendingWrite> writes;
+				synchronized (pendingWrites) {
+					writes = new ArrayList<>(pendingWrites.values());
+					pendingWrites.clear();
+				}
+				for (PendingWrite write : writes) {
+					putSnapshot(write.contents, snapshot -> write.updates.forEach(update -> update.accept(snapshot)));
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		writeJob.setSystem(true);
+		writeJob.setPriority(Job.DECORATE);
+	}
+
+	public static synchronized HandoffCache getInstance() {
+		if (instance == null) {
+			String folder = JDTEnvironmentUtils.getHandoffCacheDirectory();
+			File directory;
+			if (folder != null) {
+				directory = new File(folder);
+			} else {
+				JavaLanguageServerPlugin plugin = JavaLanguageServerPlugin.getInstance();
+				directory = plugin == null ? null : plugin.getStateLocation().append(DEFAULT_FOLDER_NAME).toFile();
+			}
+			instance = new HandoffCache(directory);
+		}
+		return instance;
+	}
+
+	/**
+	 * @return whether the results are handed off
+	 */
+	public static boolean isEnabled() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		return preferenceManager != null && preferenceManager.getPreferences().isHandoffEnabled();
+	}
+
+	/**
+	 * Returns the results stored for the current contents of the given
+	 * document.
+	 *
+	 * @param uri
+	 *            the document uri
+	 * @return the stored results, or <code>null</code> if there are none
+	 */
+	public Snapshot get(String uri) {
+		if (!isEnabled()) {
+			return null;
+		}
+		String contents = getContents(uri);
+		return contents == null ? null : getSnapshot(contents);
+	}
+
+	/**
+	 * Updates the results stored for the current contents of the given
+	 * document. The updates of a document are written together, once the
+	 * results of its current contents are computed.
+	 *
+	 * @param uri
+	 *            the document uri
+	 * @param update
+	 *            sets the computed results on the stored snapshot
+	 */
+	public void put(String uri, Consumer<Snapshot> update) {
+		if (directory == null || !isEnabled()) {
+			return;
+		}
+		String contents = getContents(uri);
+		if (contents == null) {
+			return;
+		}
+		synchronized (pendingWrites) {
+			PendingWrite write = pendingWrites.get(uri);
+			if (write == null || !write.contents.equals(contents)) {
+				// the results of the previous contents are outdated
+				write = new PendingWrite(contents);
+				pendingWrites.put(uri, write);
+			}
+			write.updates.add(update);
+		}
+		writeJob.schedule(WRITE_DELAY);
+	}
+
+	/**
+	 * Returns the results stored for the given contents.
+	 *
+	 * @param contents
+	 *            the file contents
+	 * @return the stored results, or <code>null</code> if there are none
+	 */
+	public Snapshot getSnapshot(String contents) {
+		if (directory == null) {
+			return null;
+		}
+		File file = getFile(contents);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(file.toPath())), StandardCharsets.UTF_8)) {
+			return gson.fromJson(reader, Snapshot.class);
+		} catch (IOException | JsonParseException e) {
+			JavaLanguageServerPlugin.logException("Unable to read " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Updates the results stored for the given contents.
+	 *
+	 * @param contents
+	 *            the file contents
+	 * @param update
+	 *            sets the computed results on the stored snapshot
+	 */
+	public synchronized void putSnapshot(String contents, Consumer<Snapshot> update) {
+		if (directory == null) {
+			return;
+		}
+		Snapshot snapshot = getSnapshot(contents);
+		if (snapshot == null) {
+			snapshot = new Snapshot();
+		}
+		update.accept(snapshot);
+		File file = getFile(contents);
+		try {
+			Files.createDirectories(directory.toPath());
+			// the standard server may read the snapshot at any time, write it aside and move it
+			Path temp = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+			try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8)) {
+				gson.toJson(snapshot, writer);
+			}
+			Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to write " + file, e);
+		}
+		if (++writes % PRUNE_INTERVAL == 0) {
+			prune();
+		}
+	}
+
+	/**
+	 * Deletes the least recently written snapshots above
+	 * {@link #MAX_SNAPSHOTS}.
+	 */
+	private void prune() {
+		File[] snapshots = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_EXTENSION));
+		if (snapshots == null || snapshots.length <= MAX_SNAPSHOTS) {
+			return;
+		}
+		Arrays.sort(snapshots, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < snapshots.length - MAX_SNAPSHOTS; i++) {
+			snapshots[i].delete();
+		}
+	}
+
+	private File getFile(String contents) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(contents.getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder(digest.length * 2 + SNAPSHOT_EXTENSION.length());
+			for (byte b : digest) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(directory, name.append(SNAPSHOT_EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String getContents(String uri) {
+		ICompilationUnit unit = JDTUtils.resolveCompilationUnit(uri);
+		if (unit == null || !unit.isWorkingCopy()) {
+			return null;
+		}
+		try {
+			return unit.getBuffer().getContents();
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	private static final class PendingWrite {
+		private final String contents;
+		private final List<Consumer<Snapshot>> updates = new ArrayList<>();
+
+		PendingWrite(String contents) {
+			this.contents = contents;
+		}
+	}
+
+	/**
+	 * The results computed for a file. Each of them is <code>null</code> when
+	 * it wasn't computed.
+	 */
+	public static final class Snapshot {
+		private List<DocumentSymbol> documentSymbols;
+		private List<FoldingRange> foldingRanges;
+
+		public List<DocumentSymbol> getDocumentSymbols() {
+			return documentSymbols;
+		}
+
+		public void setDocumentSymbols(List<DocumentSymbol> documentSymbols) {
+			this.documentSymbols = documentSymbols;
+		}
+
+		public List<FoldingRange> getFoldingRanges() {
+			return foldingRanges;
+		}
+
+		public void setFoldingRanges(List<FoldingRange> foldingRanges) {
+			this.foldingRanges = foldingRanges;
+		}
+	}
+}
@@ -14,9 +14,17 @@ package org.eclipse.jdt.ls.core.internal;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
@@ -24,11 +32,14 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.ILocalVariable;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -36,8 +47,15 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ITypeParameter;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.SourceRange;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -47,6 +65,7 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.core.BinaryMember;
 import org.eclipse.jdt.ls.core.internal.handlers.CompletionResolveHandler;
+import org.eclipse.jdt.ls.core.internal.handlers.JsonRpcHelpers;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
 import org.eclipse.jdt.ls.core.internal.javadoc.JavadocContentAccess2;
 import org.eclipse.jdt.ls.core.internal.managers.IBuildSupport;
@@ -79,6 +98,41 @@ public class HoverInfoProvider {
 
 	private static final String LANGUAGE_ID = "java";
 
+	private static final int MAX_CACHED_HOVERS = 500;
+
+	/**
+	 * The rendered hovers, by element handle identifier and content stamp of
+	 * the declaring openable. A hover also renders other units (inherited
+	 * javadoc, package-info, constant values), so the hovers of source elements
+	 * are removed on any source change. The hovers of binary elements only
+	 * render binaries, they are removed when their class file or one of its
+	 * parents changes.
+	 */
+	private static final Map<String, CachedHover> hoverCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedHover> eldest) {
+			return size() > MAX_CACHED_HOVERS;
+		}
+	});
+
+	private static final AtomicBoolean listening = new AtomicBoolean();
+
+	private static final AtomicLong modelStamp = new AtomicLong();
+
+	private static final IElementChangedListener invalidator = event -> {
+		modelStamp.incrementAndGet();
+		Set<String> changed = new HashSet<>();
+		boolean sourceChanged = collectChanges(event.getDelta(), changed);
+		if (changed.isEmpty()) {
+			return;
+		}
+		synchronized (hoverCache) {
+			hoverCache.values().removeIf(hover -> (sourceChanged && !hover.binary) || changed.stream().anyMatch(hover.typeRoot::startsWith));
+		}
+	};
+
 	private final ITypeRoot unit;
 
 	private final PreferenceManager preferenceManager;
@@ -121,7 +175,7 @@ public class HoverInfoProvider {
 			if (monitor.isCanceled()) {
 				return cancelled(res);
 			}
-			if (JDTEnvironmentUtils.isSyntaxServer() || isResolved(curr, monitor)) {
+			if (JDTEnvironmentUtils.isSyntaxServer() || isResolved(curr, line, column, monitor)) {
 				IBuffer buffer = curr.getOpenable().getBuffer();
 				if (buffer == null && curr instanceof BinaryMember) {
 					IClassFile classFile = ((BinaryMember) curr).getClassFile();
@@ -135,6 +189,16 @@ public class HoverInfoProvider {
 				if (monitor.isCanceled()) {
 					return cancelled(res);
 				}
+				if (listening.compareAndSet(false, true)) {
+					JavaCore.addElementChangedListener(invalidator, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				}
+				long stamp = modelStamp.get();
+				String cacheKey = getCacheKey(curr, buffer != null);
+				CachedHover cached = cacheKey == null ? null : hoverCache.get(cacheKey);
+				if (cached != null) {
+					res.addAll(cached.hover);
+					return res;
+				}
 				MarkedString signature = computeSignature(curr);
 				if (signature != null) {
 					res.add(Either.forRight(signature));
@@ -146,6 +210,9 @@ public class HoverInfoProvider {
 				if (javadoc != null && javadoc.getValue() != null && !javadoc.getValue().isBlank()) {
 					res.add(Either.forLeft(javadoc.getValue()));
 				}
+				if (cacheKey != null && !monitor.isCanceled() && stamp == modelStamp.get()) {
+					hoverCache.put(cacheKey, new CachedHover(curr, new ArrayList<>(res)));
+				}
 			}
 		} catch (Exception e) {
 			JavaLanguageServerPlugin.logException("Error computing hover", e);
@@ -162,7 +229,55 @@ public class HoverInfoProvider {
 		return res;
 	}
 
-	private boolean isResolved(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+	/**
+	 * Releases the rendered hovers.
+	 */
+	public static void clearCache() {
+		hoverCache.clear();
+	}
+
+	/**
+	 * Collects the handle identifiers of the changed type roots, or of their
+	 * closest changed parent when the delta doesn't go down to the type roots.
+	 *
+	 * @return whether a source may have changed
+	 */
+	private static boolean collectChanges(IJavaElementDelta delta, Set<String> changed) {
+		IJavaElement element = delta.getElement();
+		int type = element.getElementType();
+		if (type != IJavaElement.COMPILATION_UNIT && type != IJavaElement.CLASS_FILE && delta.getKind() == IJavaElementDelta.CHANGED) {
+			IJavaElementDelta[] children = delta.getAffectedChildren();
+			if (children.length > 0) {
+				boolean sourceChanged = false;
+				for (IJavaElementDelta child : children) {
+					sourceChanged |= collectChanges(child, changed);
+				}
+				return sourceChanged;
+			}
+			if ((delta.getFlags() & ~(IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) == 0) {
+				// only non Java resources changed
+				return false;
+			}
+		}
+		changed.add(element.getHandleIdentifier());
+		return type != IJavaElement.CLASS_FILE;
+	}
+
+	/**
+	 * Returns the key of the hover of the given element, or <code>null</code>
+	 * if the contents of its openable can't be stamped.
+	 */
+	private static String getCacheKey(IJavaElement element, boolean hasSource) {
+		IJavaElement openable = (IJavaElement) element.getOpenable();
+		String stamp = openable == null ? null : JDTUtils.getContentStamp(openable);
+		if (stamp == null) {
+			return null;
+		}
+		// the source of a library can be attached later on
+		return element.getHandleIdentifier() + "#" + stamp + ":" + hasSource;
+	}
+
+	private boolean isResolved(IJavaElement element, int line, int column, IProgressMonitor monitor) throws CoreException {
 		if (!(unit instanceof ICompilationUnit)) {
 			return true;
 		}
@@ -175,6 +290,18 @@ public class HoverInfoProvider {
 		if (unit.getResource() != null && !unit.getResource().exists()) {
 			return true;
 		}
+		// the shared AST is usually there already, and tells it from the binding of the hovered name
+		CompilationUnit ast = CoreASTProvider.getInstance().getAST(unit, CoreASTProvider.WAIT_YES, monitor);
+		if (ast != null) {
+			int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+			ASTNode node = offset < 0 ? null : NodeFinder.perform(ast, offset, 0);
+			if (node instanceof Name) {
+				IBinding binding = ((Name) node).resolveBinding();
+				if (binding != null) {
+					return !binding.isRecovered();
+				}
+			}
+		}
 		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.ALL_OCCURRENCES);
 		final boolean[] res = new boolean[1];
 		res[0] = false;
@@ -320,4 +447,16 @@ public class HoverInfoProvider {
 		}
 
 	}
+
+	private static final class CachedHover {
+		private final String typeRoot;
+		private final boolean binary;
+		private final List<Either<String, MarkedString>> hover;
+
+		private CachedHover(IJavaElement element, List<Either<String, MarkedString>> hover) {
+			this.typeRoot = ((IJavaElement) element.getOpenable()).getHandleIdentifier();
+			this.binary = element.getOpenable() instanceof IClassFile;
+			this.hover = hover;
+		}
+	}
 }
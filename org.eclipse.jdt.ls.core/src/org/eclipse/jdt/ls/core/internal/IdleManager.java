@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.manipulation.CoreASTProvider;
+import org.eclipse.jdt.ls.core.internal.commands.TypeHierarchyCommand;
+import org.eclipse.jdt.ls.core.internal.corext.refactoring.rename.RippleMethodFinder2;
+import org.eclipse.jdt.ls.core.internal.corrections.QuickFixCache;
+import org.eclipse.jdt.ls.core.internal.handlers.CallHierarchyHandler;
+import org.eclipse.jdt.ls.core.internal.handlers.CompletionResponses;
+import org.eclipse.jdt.ls.core.internal.handlers.DocumentSymbolHandler;
+import org.eclipse.jdt.ls.core.internal.handlers.SignatureHelpHandler;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.StreamMessageConsumer;
+
+/**
+ * Releases memory while the client sends no message.
+ *
+ * After the idle timeout (<code>java.server.idleTimeout</code>, in minutes),
+ * the request caches and the shared AST are released. After twice the timeout,
+ * the binary package fragment roots are closed, once no job is running.
+ * Everything is recomputed on demand on the next request. The released memory
+ * is reclaimed by the regular garbage collections.
+ */
+public final class IdleManager implements Function<MessageConsumer, MessageConsumer> {
+
+	private static final long CHECK_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+	private volatile long lastActivityTime = System.currentTimeMillis();
+	private long stageActivityTime;
+	private int stage;
+	private final ScheduledExecutorService executor;
+
+	public IdleManager() {
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Idle Manager");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(() -> check(System.currentTimeMillis(), getTimeout()), CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the periodic idle checks.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Returns the trimming stage reached after being idle for the given time.
+	 *
+	 * @param idleMillis
+	 *            the time since the last message
+	 * @param timeoutMillis
+	 *            the idle timeout, 0 when disabled
+	 * @return the stage, from 0 (active) to 2
+	 */
+	public static int getStage(long idleMillis, long timeoutMillis) {
+		if (timeoutMillis <= 0) {
+			return 0;
+		}
+		return (int) Math.min(idleMillis / timeoutMillis, 2);
+	}
+
+	/**
+	 * Releases the memory of the stages reached at the given time.
+	 *
+	 * @param now
+	 *            the current time
+	 * @param timeoutMillis
+	 *            the idle timeout, 0 when disabled
+	 * @return the stage reached
+	 */
+	public synchronized int check(long now, long timeoutMillis) {
+		long activityTime = lastActivityTime;
+		if (activityTime != stageActivityTime) {
+			// messages came in since the last check
+			stageActivityTime = activityTime;
+			stage = 0;
+		}
+		int target = getStage(now - activityTime, timeoutMillis);
+		while (stage < target) {
+			if (stage == 1 && !Job.getJobManager().isIdle()) {
+				// retry once the jobs are done
+				break;
+			}
+			stage++;
+			trim(stage);
+		}
+		return stage;
+	}
+
+	private static long getTimeout() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager == null) {
+			return 0;
+		}
+		return TimeUnit.MINUTES.toMillis(preferenceManager.getPreferences().getIdleTimeout());
+	}
+
+	private static void trim(int stage) {
+		String released;
+		try {
+			switch (stage) {
+				case 1:
+					CompletionResponses.clear();
+					CallHierarchyHandler.clearCache();
+					SignatureHelpHandler.clearSession();
+					CodeSelectCache.getInstance().clear();
+					QuickFixCache.getInstance().clear();
+					HoverInfoProvider.clearCache();
+					DocumentSymbolHandler.clearCache();
+					TypeHierarchyCommand.clearCache();
+					RippleMethodFinder2.clearCache();
+					CoreASTProvider.getInstance().disposeAST();
+					QuickFixCache quickFixes = QuickFixCache.getInstance();
+					released = "request caches and shared AST (quick fixes cached for " + quickFixes.getHitCount() + " of " + (quickFixes.getHitCount() + quickFixes.getMissCount()) + " problems so far)";
+					break;
+				default:
+					released = closeBinaryRoots() + " binary package fragment roots";
+					break;
+			}
+		} catch (Exception e) {
+			JavaLanguageServerPlugin.logException("Failed to release memory while idle", e);
+			return;
+		}
+		JavaLanguageServerPlugin.logInfo("Idle stage " + stage + " released the " + released);
+	}
+
+	private static int closeBinaryRoots() throws JavaModelException {
+		int closed = 0;
+		IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+		for (IJavaProject project : projects) {
+			if (!project.isOpen()) {
+				continue;
+			}
+			for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+				if (root.getKind() == IPackageFragmentRoot.K_BINARY && root.isOpen()) {
+					root.close();
+					closed++;
+				}
+			}
+		}
+		return closed;
+	}
+
+	@Override
+	public MessageConsumer apply(final MessageConsumer consumer) {
+		if (consumer instanceof StreamMessageConsumer || consumer instanceof OutboundMessageWriter) {
+			// the messages sent to the client don't count as activity
+			return consumer;
+		}
+		//inject our own consumer to track the client activity
+		return message -> {
+			lastActivityTime = System.currentTimeMillis();
+			consumer.consume(message);
+		};
+	}
+}
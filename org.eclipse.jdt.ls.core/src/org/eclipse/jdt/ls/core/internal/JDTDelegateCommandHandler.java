@@ -14,11 +14,13 @@ package org.eclipse.jdt.ls.core.internal;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.ls.core.internal.commands.BuildPathCommand;
 import org.eclipse.jdt.ls.core.internal.commands.DiagnosticsCommand;
+import org.eclipse.jdt.ls.core.internal.commands.JavaModelCacheCommand;
 import org.eclipse.jdt.ls.core.internal.commands.OrganizeImportsCommand;
 import org.eclipse.jdt.ls.core.internal.commands.ProjectCommand;
 import org.eclipse.jdt.ls.core.internal.commands.ProjectCommand.ClasspathOptions;
@@ -83,6 +85,9 @@ public class JDTDelegateCommandHandler implements IDelegateCommandHandler {
 					return SemanticTokensCommand.provide((String) arguments.get(0));
 				case "java.project.getSemanticTokensLegend":
 					return new SemanticTokensLegend();
+				case "java.server.tuneModelCaches":
+					Map<String, Object> settings = arguments.isEmpty() ? null : (Map<String, Object>) arguments.get(0);
+					return JavaModelCacheCommand.tuneModelCaches(settings);
 				case "java.project.import":
 					ProjectCommand.importProject(monitor);
 					return null;
@@ -30,6 +30,19 @@ public class JDTEnvironmentUtils {
 	 */
 	public static final String SOCKET_STREAM_DEBUG = "socket.stream.debug";
 
+	/**
+	 * Environment variable or system property setting the folder shared by the
+	 * syntax server and the standard server, where the syntax server hands off
+	 * its results.
+	 */
+	public static final String HANDOFF_CACHE_DIR = "handoff.cache.dir";
+
+	/**
+	 * Environment variable or system property setting the number of messages
+	 * queued for the client above which log messages and progress reports wait.
+	 */
+	public static final String OUTBOUND_HIGH_WATER_MARK = "outbound.high.water.mark";
+
 	/**
 	 * Returns with the client port if set. Otherwise, returns with {@code null}.
 	 * Throw an {@link IllegalStateException} if the port is set but it has an
@@ -72,4 +85,30 @@ public class JDTEnvironmentUtils {
 	public static boolean isSyntaxServer() {
 		return Boolean.parseBoolean(Environment.get(SYNTAX_SERVER_ID, "false"));
 	}
+
+	/**
+	 * Returns the folder where the syntax server hands off its results, or
+	 * {@code null} if not set.
+	 */
+	public static String getHandoffCacheDirectory() {
+		return Environment.get(HANDOFF_CACHE_DIR);
+	}
+
+	/**
+	 * Returns the number of messages queued for the client above which low
+	 * priority notifications wait. Defaults to
+	 * {@link OutboundMessageWriter#DEFAULT_HIGH_WATER_MARK} if not set or
+	 * invalid.
+	 */
+	public static int getOutboundHighWaterMark() {
+		String highWaterMark = Environment.get(OUTBOUND_HIGH_WATER_MARK);
+		if (highWaterMark != null) {
+			try {
+				return Integer.parseInt(highWaterMark);
+			} catch (NumberFormatException e) {
+				JavaLanguageServerPlugin.logError(OUTBOUND_HIGH_WATER_MARK + " value (" + highWaterMark + ") is not an int, falling back on " + OutboundMessageWriter.DEFAULT_HIGH_WATER_MARK);
+			}
+		}
+		return OutboundMessageWriter.DEFAULT_HIGH_WATER_MARK;
+	}
 }
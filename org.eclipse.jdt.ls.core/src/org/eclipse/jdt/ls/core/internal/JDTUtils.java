@@ -64,6 +64,7 @@ import org.eclipse.jdt.core.IMemberValuePair;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IOpenable;
 import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -127,6 +128,7 @@ import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
@@ -706,6 +708,37 @@ public final class JDTUtils {
 		return null;
 	}
 
+	/**
+	 * Returns a stamp of the contents of the given openable element, which
+	 * changes whenever the contents change.
+	 *
+	 * @param openable
+	 *            a compilation unit or a class file
+	 * @return the stamp, or <code>null</code> if the contents can't be stamped
+	 */
+	public static String getContentStamp(IJavaElement openable) {
+		if (openable instanceof ICompilationUnit && ((ICompilationUnit) openable).isWorkingCopy()) {
+			IBuffer buffer;
+			try {
+				buffer = ((ICompilationUnit) openable).getBuffer();
+			} catch (JavaModelException e) {
+				return null;
+			}
+			if (buffer instanceof DocumentAdapter && ((DocumentAdapter) buffer).getDocument() instanceof IDocumentExtension4) {
+				IDocument document = ((DocumentAdapter) buffer).getDocument();
+				return System.identityHashCode(document) + ":" + ((IDocumentExtension4) document).getModificationStamp();
+			}
+			return null;
+		}
+		IResource resource = openable.getResource();
+		if (resource != null) {
+			// the modification stamp starts over when the file is created again
+			return resource.getModificationStamp() + ":" + resource.getLocalTimeStamp();
+		}
+		IPackageFragmentRoot root = (IPackageFragmentRoot) openable.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		return root == null ? null : String.valueOf(root.getPath().toFile().lastModified());
+	}
+
 	public static ISourceRange getNameRange(IJavaElement element) throws JavaModelException {
 		ISourceRange nameRange = null;
 		if (element instanceof IMember) {
@@ -725,7 +758,7 @@ public final class JDTUtils {
 		return nameRange;
 	}
 
-	private static ISourceRange getSourceRange(IJavaElement element) throws JavaModelException {
+	public static ISourceRange getSourceRange(IJavaElement element) throws JavaModelException {
 		ISourceRange sourceRange = null;
 		if (element instanceof IMember) {
 			IMember member = (IMember) element;
@@ -936,12 +969,13 @@ public final class JDTUtils {
 		if (unit == null || monitor.isCanceled()) {
 			return null;
 		}
-		int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), line, column);
+		IBuffer buffer = unit.getBuffer();
+		int offset = JsonRpcHelpers.toOffset(buffer, line, column);
 		if (monitor != null && monitor.isCanceled()) {
 			return null;
 		}
 		if (offset > -1) {
-			return unit.codeSelect(offset, 0);
+			return CodeSelectCache.getInstance().codeSelect(unit, buffer, offset, monitor);
 		}
 		return null;
 	}
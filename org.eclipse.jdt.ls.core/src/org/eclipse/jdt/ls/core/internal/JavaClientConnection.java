@@ -34,6 +34,8 @@ import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.ShowMessageRequestParams;
 import org.eclipse.lsp4j.UnregistrationParams;
 import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.services.JsonNotification;
 import org.eclipse.lsp4j.services.LanguageClient;
 
@@ -75,8 +77,15 @@ public class JavaClientConnection {
 
 	}
 
+	/**
+	 * The <code>$/progress</code> notification, also used to report partial
+	 * results.
+	 */
+	private static final String PROGRESS_NOTIFICATION = "$/progress";
+
 	private final LogHandler logHandler;
 	private final JavaLanguageClient client;
+	private Endpoint remoteEndpoint;
 
 	public JavaClientConnection(JavaLanguageClient client) {
 		this.client = client;
@@ -92,6 +101,38 @@ public class JavaClientConnection {
 		return this.client.executeClientCommand(new ExecuteCommandParams(id, ImmutableList.copyOf(params))).join();
 	}
 
+	/**
+	 * Sets the raw endpoint of the client, used to send notifications whose
+	 * payload is not covered by the typed {@link JavaLanguageClient} methods.
+	 *
+	 * @param remoteEndpoint
+	 *            the remote endpoint, may be <code>null</code>
+	 */
+	public void setRemoteEndpoint(Endpoint remoteEndpoint) {
+		this.remoteEndpoint = remoteEndpoint;
+	}
+
+	/**
+	 * @return whether partial results can be sent to the client
+	 */
+	public boolean isPartialResultSupported() {
+		return remoteEndpoint != null;
+	}
+
+	/**
+	 * Sends a partial result of a request to the client.
+	 *
+	 * @param token
+	 *            the <code>partialResultToken</code> of the request
+	 * @param value
+	 *            the partial result, of the same type as the request result
+	 */
+	public void sendPartialResult(Either<String, Integer> token, Object value) {
+		if (remoteEndpoint != null) {
+			remoteEndpoint.notify(PROGRESS_NOTIFICATION, new PartialResultProgressParams(token, value));
+		}
+	}
+
 	public void sendNotification(String id, Object... params) {
 		client.sendNotification(new ExecuteCommandParams(id, ImmutableList.copyOf(params)));
 	}
@@ -74,8 +74,12 @@ import org.eclipse.jdt.ls.core.internal.preferences.StandardPreferenceManager;
 import org.eclipse.jdt.ls.core.internal.syntaxserver.SyntaxLanguageServer;
 import org.eclipse.jdt.ls.core.internal.syntaxserver.SyntaxProjectsManager;
 import org.eclipse.jface.text.templates.TemplateVariableResolver;
+import org.eclipse.lsp4j.jsonrpc.Endpoint;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.services.ServiceEndpoints;
 import org.eclipse.text.templates.ContextTypeRegistry;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -386,14 +390,16 @@ public class JavaLanguageServerPlugin extends Plugin {
 			InputStream in = connectionFactory.getInputStream();
 			OutputStream out = connectionFactory.getOutputStream();
 			Function<MessageConsumer, MessageConsumer> wrapper;
+			IdleManager idleManager = new IdleManager();
 			if ("false".equals(System.getProperty("watchParentProcess"))) {
-				wrapper = it -> it;
+				wrapper = idleManager;
 			} else {
-				wrapper = new ParentProcessWatcher(this.languageServer);
+				wrapper = idleManager.andThen(new ParentProcessWatcher(this.languageServer));
 			}
-			launcher = Launcher.createLauncher(protocol, JavaLanguageClient.class, in, out, executorService, wrapper);
+			launcher = createLauncher(in, out, executorService, wrapper);
 		}
 		protocol.connectClient(launcher.getRemoteProxy());
+		protocol.getClientConnection().setRemoteEndpoint(launcher.getRemoteEndpoint());
 		launcher.startListening();
 	}
 
@@ -416,6 +422,26 @@ public class JavaLanguageServerPlugin extends Plugin {
 		return this.protocol.getWorkingCopyOwner();
 	}
 
+	private Launcher<JavaLanguageClient> createLauncher(InputStream in, OutputStream out, ExecutorService executorService, Function<MessageConsumer, MessageConsumer> wrapper) {
+		return new Launcher.Builder<JavaLanguageClient>() {
+			@Override
+			protected RemoteEndpoint createRemoteEndpoint(MessageJsonHandler jsonHandler) {
+				// serialize and write the messages sent to the client from a dedicated thread
+				MessageConsumer outgoingMessageStream = new OutboundMessageWriter(output, jsonHandler, JDTEnvironmentUtils.getOutboundHighWaterMark());
+				outgoingMessageStream = wrapMessageConsumer(outgoingMessageStream);
+				Endpoint localEndpoint = ServiceEndpoints.toEndpoint(localServices);
+				RemoteEndpoint remoteEndpoint;
+				if (exceptionHandler == null) {
+					remoteEndpoint = new RemoteEndpoint(outgoingMessageStream, localEndpoint);
+				} else {
+					remoteEndpoint = new RemoteEndpoint(outgoingMessageStream, localEndpoint, exceptionHandler);
+				}
+				jsonHandler.setMethodProvider(remoteEndpoint);
+				return remoteEndpoint;
+			}
+		}.setLocalService(protocol).setRemoteInterface(JavaLanguageClient.class).setInput(in).setOutput(out).setExecutorService(executorService).wrapMessages(wrapper).create();
+	}
+
 	public static JavaLanguageServerPlugin getInstance() {
 		return pluginInstance;
 	}
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.internal.core.BufferManager;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.util.LRUCache;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+
+/**
+ * Sizes the Java model caches from the preferences.
+ *
+ * JDT sizes its caches once, from the maximum heap size and the
+ * <code>org.eclipse.jdt.core.javamodelcache.ratio</code> system properties.
+ * The limits are changed here on the live caches, so a new size applies
+ * without restarting the server. The ratios are percentages of the JDT
+ * defaults, the memory budget is a percentage of the maximum heap size which
+ * the caches should use, estimated from the average size of an entry.
+ *
+ * JDT replaces the jar type cache with one of the default size when a
+ * classpath changes, so its limit is applied again after each classpath
+ * change.
+ */
+public final class JavaModelCaches {
+
+	public static final String OPENABLE_CACHE = "openable";
+	public static final String ROOT_CACHE = "root";
+	public static final String PACKAGE_CACHE = "package";
+	public static final String JAR_TYPE_CACHE = "jarType";
+	public static final String BUFFER_CACHE = "buffer";
+
+	// the default sizes of JavaModelCache, per 64MB of heap, and of BufferManager
+	private static final int DEFAULT_OPENABLE_SIZE = 250;
+	private static final int DEFAULT_ROOT_SIZE = 50;
+	private static final int DEFAULT_PKG_SIZE = 500;
+	private static final int DEFAULT_BUFFER_SIZE = 60;
+
+	// the estimated average size of an entry, in bytes
+	private static final long OPENABLE_FOOTPRINT = 50 * 1024;
+	private static final long ROOT_FOOTPRINT = 4 * 1024;
+	private static final long PKG_FOOTPRINT = 2 * 1024;
+	private static final long JAR_TYPE_FOOTPRINT = 10 * 1024;
+	private static final long BUFFER_FOOTPRINT = 20 * 1024;
+
+	private static final int MIN_SIZE = 10;
+
+	private static final int CLASSPATH_CHANGE = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	private static boolean configured;
+	private static int jarTypeLimit;
+	private static final AtomicBoolean listening = new AtomicBoolean();
+	private static final IElementChangedListener classpathListener = event -> {
+		for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+			if ((delta.getFlags() & CLASSPATH_CHANGE) != 0) {
+				restoreJarTypeLimit();
+				return;
+			}
+		}
+	};
+
+	private JavaModelCaches() {
+		//Don't instantiate
+	}
+
+	/**
+	 * Applies the cache sizes of the given preferences. The caches keep the
+	 * sizes computed by JDT as long as the preferences are left to their
+	 * defaults.
+	 *
+	 * @param preferences
+	 *            the preferences
+	 */
+	public static void configure(Preferences preferences) {
+		configure(preferences.getModelCacheOpenableRatio(), preferences.getModelCacheElementRatio(), preferences.getModelCacheJarTypeRatio(), preferences.getModelCacheBufferRatio(), preferences.getModelCacheMemoryBudget());
+	}
+
+	/**
+	 * Applies the given cache sizes.
+	 *
+	 * @param openableRatio
+	 *            the percentage of the default size of the openable cache
+	 * @param elementRatio
+	 *            the percentage of the default size of the root and package
+	 *            caches
+	 * @param jarTypeRatio
+	 *            the percentage of the default size of the jar type cache
+	 * @param bufferRatio
+	 *            the percentage of the default size of the buffer cache
+	 * @param memoryBudget
+	 *            the percentage of the heap the caches should use, 0 to use the
+	 *            ratios as is
+	 */
+	public static synchronized void configure(int openableRatio, int elementRatio, int jarTypeRatio, int bufferRatio, int memoryBudget) {
+		openableRatio = getRatio(openableRatio);
+		elementRatio = getRatio(elementRatio);
+		jarTypeRatio = getRatio(jarTypeRatio);
+		bufferRatio = getRatio(bufferRatio);
+		boolean isDefault = memoryBudget <= 0 && openableRatio == 100 && elementRatio == 100 && jarTypeRatio == 100 && bufferRatio == 100;
+		if (isDefault && !configured) {
+			return;
+		}
+		configured = true;
+		Map<String, Integer> limits = computeLimits(openableRatio, elementRatio, jarTypeRatio, bufferRatio, memoryBudget, Runtime.getRuntime().maxMemory());
+		jarTypeLimit = limits.get(JAR_TYPE_CACHE);
+		if (listening.compareAndSet(false, true)) {
+			JavaCore.addElementChangedListener(classpathListener, ElementChangedEvent.POST_CHANGE);
+		}
+		try {
+			JavaModelManager manager = JavaModelManager.getJavaModelManager();
+			Map<String, LRUCache<?, ?>> caches = getCaches();
+			synchronized (manager) {
+				for (Map.Entry<String, LRUCache<?, ?>> entry : caches.entrySet()) {
+					if (!BUFFER_CACHE.equals(entry.getKey())) {
+						entry.getValue().setSpaceLimit(limits.get(entry.getKey()));
+					}
+				}
+			}
+			LRUCache<?, ?> buffers = caches.get(BUFFER_CACHE);
+			synchronized (buffers) {
+				buffers.setSpaceLimit(limits.get(BUFFER_CACHE));
+			}
+			JavaLanguageServerPlugin.logInfo("Java model cache limits: " + limits);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Unable to size the Java model caches", e);
+		}
+	}
+
+	private static synchronized void restoreJarTypeLimit() {
+		try {
+			LRUCache<?, ?> jarTypes = getCaches().get(JAR_TYPE_CACHE);
+			synchronized (JavaModelManager.getJavaModelManager()) {
+				if (jarTypes.getSpaceLimit() != jarTypeLimit) {
+					jarTypes.setSpaceLimit(jarTypeLimit);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Unable to size the jar type cache", e);
+		}
+	}
+
+	/**
+	 * Computes the number of entries of each cache.
+	 *
+	 * @param openableRatio
+	 *            the percentage of the default size of the openable cache
+	 * @param elementRatio
+	 *            the percentage of the default size of the root and package
+	 *            caches
+	 * @param jarTypeRatio
+	 *            the percentage of the default size of the jar type cache
+	 * @param bufferRatio
+	 *            the percentage of the default size of the buffer cache
+	 * @param memoryBudget
+	 *            the percentage of the heap the caches should use, 0 to use the
+	 *            ratios as is
+	 * @param maxMemory
+	 *            the maximum heap size
+	 * @return the cache sizes, by cache name
+	 */
+	public static Map<String, Integer> computeLimits(int openableRatio, int elementRatio, int jarTypeRatio, int bufferRatio, int memoryBudget, long maxMemory) {
+		// same as JavaModelCache.getMemoryRatio()
+		double memoryRatio = maxMemory == Long.MAX_VALUE ? 4d : ((double) maxMemory) / (64 * 0x100000);
+		double openable = DEFAULT_OPENABLE_SIZE * memoryRatio * openableRatio / 100;
+		double root = DEFAULT_ROOT_SIZE * memoryRatio * elementRatio / 100;
+		double pkg = DEFAULT_PKG_SIZE * memoryRatio * elementRatio / 100;
+		double jarType = DEFAULT_OPENABLE_SIZE * memoryRatio * jarTypeRatio / 100;
+		double buffer = DEFAULT_BUFFER_SIZE * bufferRatio / 100d;
+		if (memoryBudget > 0 && maxMemory != Long.MAX_VALUE) {
+			double footprint = openable * OPENABLE_FOOTPRINT + root * ROOT_FOOTPRINT + pkg * PKG_FOOTPRINT + jarType * JAR_TYPE_FOOTPRINT + buffer * BUFFER_FOOTPRINT;
+			if (footprint > 0) {
+				double scale = maxMemory * (memoryBudget / 100d) / footprint;
+				openable *= scale;
+				root *= scale;
+				pkg *= scale;
+				jarType *= scale;
+				buffer *= scale;
+			}
+		}
+		Map<String, Integer> limits = new LinkedHashMap<>();
+		limits.put(OPENABLE_CACHE, toLimit(openable));
+		limits.put(ROOT_CACHE, toLimit(root));
+		limits.put(PACKAGE_CACHE, toLimit(pkg));
+		limits.put(JAR_TYPE_CACHE, toLimit(jarType));
+		limits.put(BUFFER_CACHE, toLimit(buffer));
+		return limits;
+	}
+
+	private static int getRatio(int ratio) {
+		return ratio > 0 ? ratio : Preferences.JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT;
+	}
+
+	private static int toLimit(double size) {
+		return (int) Math.max(MIN_SIZE, Math.min(size, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Returns the limit and the occupancy of each cache. JDT doesn't count the
+	 * cache hits, so no hit rate is reported.
+	 *
+	 * @return the statistics, by cache name
+	 */
+	public static Map<String, CacheStatistics> getStatistics() {
+		Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+		try {
+			Map<String, LRUCache<?, ?>> caches = getCaches();
+			synchronized (JavaModelManager.getJavaModelManager()) {
+				for (Map.Entry<String, LRUCache<?, ?>> entry : caches.entrySet()) {
+					LRUCache<?, ?> cache = entry.getValue();
+					statistics.put(entry.getKey(), new CacheStatistics(cache.getSpaceLimit(), cache.getCurrentSpace(), cache.fillingRatio()));
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Unable to read the Java model caches", e);
+		}
+		return statistics;
+	}
+
+	private static Map<String, LRUCache<?, ?>> getCaches() throws ReflectiveOperationException {
+		Object modelCache = getField(JavaModelManager.getJavaModelManager(), "cache");
+		Map<String, LRUCache<?, ?>> caches = new LinkedHashMap<>();
+		caches.put(OPENABLE_CACHE, (LRUCache<?, ?>) getField(modelCache, "openableCache"));
+		caches.put(ROOT_CACHE, (LRUCache<?, ?>) getField(modelCache, "rootCache"));
+		caches.put(PACKAGE_CACHE, (LRUCache<?, ?>) getField(modelCache, "pkgCache"));
+		caches.put(JAR_TYPE_CACHE, (LRUCache<?, ?>) getField(modelCache, "jarTypeCache"));
+		caches.put(BUFFER_CACHE, (LRUCache<?, ?>) getField(BufferManager.getDefaultBufferManager(), "openBuffers"));
+		return caches;
+	}
+
+	private static Object getField(Object target, String name) throws ReflectiveOperationException {
+		Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(target);
+	}
+
+	public static final class CacheStatistics {
+		private final int limit;
+		private final int size;
+		private final double fillingRatio;
+
+		public CacheStatistics(int limit, int size, double fillingRatio) {
+			this.limit = limit;
+			this.size = size;
+			this.fillingRatio = fillingRatio;
+		}
+
+		public int getLimit() {
+			return limit;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public double getFillingRatio() {
+			return fillingRatio;
+		}
+	}
+}
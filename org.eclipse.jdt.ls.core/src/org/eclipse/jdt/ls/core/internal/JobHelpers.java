@@ -165,6 +165,13 @@ public final class JobHelpers {
 		waitForJobs(InitializeJobMatcher.INSTANCE, MAX_TIME_MILLIS);
 	}
 
+	/**
+	 * @return <code>true</code> while the workspace is initialized
+	 */
+	public static boolean isInitializing() {
+		return Job.getJobManager().find(BaseInitHandler.JAVA_LS_INITIALIZATION_JOBS).length > 0;
+	}
+
 	public static void waitForDownloadSourcesJobs(int maxTimeMillis) {
 		waitForJobs(DownloadSourcesJobMatcher.INSTANCE, maxTimeMillis);
 	}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.WorkDoneProgressKind;
+import org.eclipse.lsp4j.WorkDoneProgressNotification;
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * Writes the messages sent to the client from a dedicated thread.
+ *
+ * The callers only queue their messages. The writer thread serializes them
+ * straight into a reused buffer, and writes all the queued messages at once,
+ * with a single flush. Once more messages than the high water mark are
+ * queued, the low priority notifications (log messages and progress reports)
+ * are dropped, so they can't delay the responses, nor block their senders.
+ * The notifications beginning or ending a progress are always sent.
+ *
+ * A response which can't be serialized is replaced with an error response.
+ * Once the client can't be written to, the writer stops and rejects the
+ * messages it is given.
+ */
+public final class OutboundMessageWriter implements MessageConsumer {
+
+	public static final int DEFAULT_HIGH_WATER_MARK = 256;
+
+	private static final Set<String> LOW_PRIORITY_METHODS = new HashSet<>(Arrays.asList("window/logMessage", "$/progress", "language/progressReport"));
+
+	private static final int MAX_BATCH_SIZE = 64 * 1024;
+	private static final int MAX_RETAINED_SIZE = 4 * 1024 * 1024;
+
+	private final OutputStream output;
+	private final MessageJsonHandler jsonHandler;
+	private final int highWaterMark;
+	private final BlockingQueue<Message> queue = new LinkedBlockingQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private Buffer content = new Buffer();
+	private Writer contentWriter = new OutputStreamWriter(content, StandardCharsets.UTF_8);
+	private Buffer batch = new Buffer();
+	private volatile IOException failure;
+
+	public OutboundMessageWriter(OutputStream output, MessageJsonHandler jsonHandler, int highWaterMark) {
+		this.output = output;
+		this.jsonHandler = jsonHandler;
+		this.highWaterMark = highWaterMark > 0 ? highWaterMark : DEFAULT_HIGH_WATER_MARK;
+		Thread writerThread = new Thread(this::run, "Outbound Message Writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	@Override
+	public void consume(Message message) {
+		IOException failure = this.failure;
+		if (failure != null) {
+			throw new JsonRpcException(failure);
+		}
+		if (pending.get() >= highWaterMark && isLowPriority(message) && !isProgressBoundary(message)) {
+			dropped.incrementAndGet();
+			return;
+		}
+		pending.incrementAndGet();
+		queue.add(message);
+	}
+
+	/**
+	 * @return the number of low priority notifications dropped so far
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	public static boolean isLowPriority(Message message) {
+		return message instanceof NotificationMessage && LOW_PRIORITY_METHODS.contains(((NotificationMessage) message).getMethod());
+	}
+
+	/**
+	 * Returns whether the given notification begins or ends a progress,
+	 * which the client would otherwise keep showing.
+	 */
+	private static boolean isProgressBoundary(Message message) {
+		Object params = ((NotificationMessage) message).getParams();
+		if (params instanceof ProgressReport) {
+			return ((ProgressReport) params).isComplete();
+		}
+		if (params instanceof ProgressParams) {
+			Object value = ((ProgressParams) params).getValue();
+			if (value instanceof Either) {
+				value = ((Either<?, ?>) value).get();
+			}
+			return value instanceof WorkDoneProgressNotification && ((WorkDoneProgressNotification) value).getKind() != WorkDoneProgressKind.report;
+		}
+		return false;
+	}
+
+	private void run() {
+		List<Message> messages = new ArrayList<>();
+		while (failure == null) {
+			try {
+				messages.add(queue.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			queue.drainTo(messages);
+			try {
+				for (Message message : messages) {
+					append(message);
+					if (batch.size() >= MAX_BATCH_SIZE) {
+						flush();
+					}
+				}
+				flush();
+			} catch (IOException e) {
+				// the client is gone, reject the next messages and discard the queued ones
+				failure = e;
+				queue.clear();
+				JavaLanguageServerPlugin.logException("Unable to write to the client", e);
+			} finally {
+				pending.addAndGet(-messages.size());
+				messages.clear();
+			}
+		}
+	}
+
+	private void append(Message message) throws IOException {
+		content.reset();
+		try {
+			jsonHandler.serialize(message, contentWriter);
+			contentWriter.flush();
+		} catch (RuntimeException e) {
+			JavaLanguageServerPlugin.logException("Unable to serialize " + message, e);
+			// drop what was encoded of the failed message
+			contentWriter = new OutputStreamWriter(content, StandardCharsets.UTF_8);
+			if (message instanceof ResponseMessage && ((ResponseMessage) message).getError() == null) {
+				// the client still gets a response for its request
+				ResponseMessage response = new ResponseMessage();
+				response.setRawId(((ResponseMessage) message).getRawId());
+				response.setError(new ResponseError(ResponseErrorCode.InternalError, "Unable to serialize the response: " + e.getMessage(), null));
+				append(response);
+			}
+			return;
+		}
+		batch.write(("Content-Length: " + content.size() + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		content.writeTo(batch);
+	}
+
+	private void flush() throws IOException {
+		if (batch.size() == 0) {
+			return;
+		}
+		output.write(batch.getBuffer(), 0, batch.size());
+		output.flush();
+		batch.reset();
+		// don't hold on to the memory of a huge message
+		if (batch.getBuffer().length > MAX_RETAINED_SIZE) {
+			batch = new Buffer();
+		}
+		if (content.getBuffer().length > MAX_RETAINED_SIZE) {
+			content = new Buffer();
+			contentWriter = new OutputStreamWriter(content, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * A byte array output stream giving access to its buffer, so it's written
+	 * without being copied.
+	 */
+	private static final class Buffer extends ByteArrayOutputStream {
+
+		Buffer() {
+			super(8 * 1024);
+		}
+
+		byte[] getBuffer() {
+			return buf;
+		}
+	}
+}
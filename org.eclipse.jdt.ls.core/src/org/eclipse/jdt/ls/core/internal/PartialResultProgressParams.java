@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Parameters of a <code>$/progress</code> notification carrying a partial
+ * result of a request, as described by the <code>partialResultToken</code>
+ * of the request parameters.
+ */
+public class PartialResultProgressParams {
+
+	/**
+	 * The partial result token provided by the client.
+	 */
+	private Either<String, Integer> token;
+
+	/**
+	 * The partial result, of the same type as the request result.
+	 */
+	private Object value;
+
+	public PartialResultProgressParams(Either<String, Integer> token, Object value) {
+		this.token = token;
+		this.value = value;
+	}
+
+	public Either<String, Integer> getToken() {
+		return token;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+}
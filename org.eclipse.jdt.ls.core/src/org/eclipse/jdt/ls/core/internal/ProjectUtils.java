@@ -18,16 +18,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
-import org.codehaus.plexus.util.DirectoryScanner;
 import org.eclipse.buildship.core.internal.configuration.GradleProjectNature;
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IFolder;
@@ -58,9 +59,9 @@ public final class ProjectUtils {
 
 	public static final String WORKSPACE_LINK = "_";
 
-	private static final String JAR_SUFFIX = ".jar";
+	public static final String JAR_SUFFIX = ".jar";
 
-	private static final String SOURCE_JAR_SUFFIX = "-sources.jar";
+	public static final String SOURCE_JAR_SUFFIX = "-sources.jar";
 
 	private ProjectUtils() {
 		//No instanciation
@@ -355,13 +356,26 @@ public final class ProjectUtils {
 			return;
 		}
 		IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
-		List<IClasspathEntry> newEntries = Arrays.stream(rawClasspath).filter(cpe -> cpe.getEntryKind() != IClasspathEntry.CPE_LIBRARY).collect(Collectors.toCollection(ArrayList::new));
-
+		Map<IPath, IPath> sourcesByBinary = new LinkedHashMap<>();
 		for (Map.Entry<Path, IPath> library : libraries.entrySet()) {
+			sourcesByBinary.put(new org.eclipse.core.runtime.Path(library.getKey().toString()), library.getValue());
+		}
+		// Keep the unchanged library entries in place, only the added, removed or re-attached libraries are updated
+		List<IClasspathEntry> newEntries = new ArrayList<>(rawClasspath.length + sourcesByBinary.size());
+		for (IClasspathEntry entry : rawClasspath) {
+			if (entry.getEntryKind() != IClasspathEntry.CPE_LIBRARY) {
+				newEntries.add(entry);
+			} else if (sourcesByBinary.containsKey(entry.getPath())) {
+				IPath source = sourcesByBinary.remove(entry.getPath());
+				newEntries.add(Objects.equals(source, entry.getSourceAttachmentPath()) ? entry : JavaCore.newLibraryEntry(entry.getPath(), source, null));
+			}
+		}
+
+		for (Map.Entry<IPath, IPath> library : sourcesByBinary.entrySet()) {
 			if (monitor.isCanceled()) {
 				return;
 			}
-			IPath binary = new org.eclipse.core.runtime.Path(library.getKey().toString());
+			IPath binary = library.getKey();
 			IPath source = library.getValue();
 			IClasspathEntry newEntry = JavaCore.newLibraryEntry(binary, source, null);
 			JavaLanguageServerPlugin.logInfo(">> Adding " + binary + " to the classpath");
@@ -375,46 +389,6 @@ public final class ProjectUtils {
 		}
 	}
 
-	public static Set<Path> collectBinaries(IPath projectDir, Set<String> include, Set<String> exclude, IProgressMonitor monitor) throws CoreException {
-		Set<Path> binaries = new LinkedHashSet<>();
-		Map<IPath, Set<String>> includeByPrefix = groupGlobsByPrefix(projectDir, include);
-		Set<IPath> excludeResolved = exclude.stream().map(glob -> resolveGlobPath(projectDir, glob)).collect(Collectors.toSet());
-		for (IPath baseDir: includeByPrefix.keySet()) {
-			Path base = baseDir.toFile().toPath();
-			if (monitor.isCanceled()) {
-				return binaries;
-			}
-			if (Files.isRegularFile(base)) {
-				if (isBinary(base))	{
-					binaries.add(base);
-				}
-				continue; // base is a regular file path
-			}
-			if (!Files.isDirectory(base)) {
-				continue; // base does not exist
-			}
-			Set<String> subInclude = includeByPrefix.get(baseDir);
-			Set<String> subExclude = excludeResolved.stream().map(glob -> glob.makeRelativeTo(baseDir).toOSString()).collect(Collectors.toSet());
-			DirectoryScanner scanner = new DirectoryScanner();
-			try {
-				scanner.setIncludes(subInclude.toArray(new String[subInclude.size()]));
-				scanner.setExcludes(subExclude.toArray(new String[subExclude.size()]));
-				scanner.addDefaultExcludes();
-				scanner.setBasedir(base.toFile());
-				scanner.scan();
-			} catch (IllegalStateException e) {
-				throw new CoreException(StatusFactory.newErrorStatus("Unable to collect binaries", e));
-			}
-			for (String result: scanner.getIncludedFiles()) {
-				Path file = base.resolve(result);
-				if (isBinary(file))	{
-					binaries.add(file);
-				}
-			}
-		}
-		return binaries;
-	}
-
 	public static IPath detectSources(Path file) {
 		String filename = file.getFileName().toString();
 		//better approach would be to (also) resolve sources using Maven central, or anything smarter really
@@ -423,7 +397,7 @@ public final class ProjectUtils {
 		return Files.isRegularFile(sourcePath) ? new org.eclipse.core.runtime.Path(sourcePath.toString()) : null;
 	}
 
-	private static boolean isBinary(Path file) {
+	public static boolean isBinary(Path file) {
 		String fileName = file.getFileName().toString();
 		return (fileName.endsWith(JAR_SUFFIX)
 				//skip source jar files
@@ -442,7 +416,7 @@ public final class ProjectUtils {
 		return pattern;
 	}
 
-	private static Map<IPath, Set<String>> groupGlobsByPrefix(IPath base, Set<String> globs) {
+	public static Map<IPath, Set<String>> groupGlobsByPrefix(IPath base, Set<String> globs) {
 		Map<IPath, Set<String>> groupedPatterns = new HashMap<>();
 		for (String glob: globs) {
 			IPath pattern = resolveGlobPath(base, glob); // Resolve to absolute path
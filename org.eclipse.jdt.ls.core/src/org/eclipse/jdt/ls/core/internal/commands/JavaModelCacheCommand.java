@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.commands;
+
+import static org.eclipse.jdt.ls.core.internal.handlers.MapFlattener.getInt;
+
+import java.util.Map;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.JavaModelCaches;
+import org.eclipse.jdt.ls.core.internal.JavaModelCaches.CacheStatistics;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+
+public class JavaModelCacheCommand {
+
+	/**
+	 * Resizes the Java model caches and reports their occupancy.
+	 * <p>
+	 * The change is transient: the settings which aren't given keep their
+	 * preference value, and the preferences themselves are left unchanged, so
+	 * the next configuration change applies the
+	 * <code>java.server.modelCache.*</code> preferences again.
+	 * </p>
+	 *
+	 * @param settings
+	 *            the <code>java.server.modelCache.*</code> settings to change,
+	 *            or <code>null</code> to only report the occupancy
+	 * @return the statistics of each cache
+	 */
+	public static Map<String, CacheStatistics> tuneModelCaches(Map<String, Object> settings) {
+		if (settings != null && !settings.isEmpty()) {
+			Preferences preferences = JavaLanguageServerPlugin.getPreferencesManager().getPreferences();
+			int openableRatio = getInt(settings, Preferences.JAVA_SERVER_MODEL_CACHE_OPENABLE_RATIO_KEY, preferences.getModelCacheOpenableRatio());
+			int elementRatio = getInt(settings, Preferences.JAVA_SERVER_MODEL_CACHE_ELEMENT_RATIO_KEY, preferences.getModelCacheElementRatio());
+			int jarTypeRatio = getInt(settings, Preferences.JAVA_SERVER_MODEL_CACHE_JAR_TYPE_RATIO_KEY, preferences.getModelCacheJarTypeRatio());
+			int bufferRatio = getInt(settings, Preferences.JAVA_SERVER_MODEL_CACHE_BUFFER_RATIO_KEY, preferences.getModelCacheBufferRatio());
+			int memoryBudget = getInt(settings, Preferences.JAVA_SERVER_MODEL_CACHE_MEMORY_BUDGET_KEY, preferences.getModelCacheMemoryBudget());
+			JavaModelCaches.configure(openableRatio, elementRatio, jarTypeRatio, bufferRatio, memoryBudget);
+		}
+		return JavaModelCaches.getStatistics();
+	}
+}
@@ -13,6 +13,7 @@
 package org.eclipse.jdt.ls.core.internal.commands;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -23,6 +24,7 @@ import org.eclipse.jdt.core.IOrdinaryClassFile;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
@@ -43,6 +45,14 @@ import org.eclipse.lsp4j.TypeHierarchyParams;
 
 public class TypeHierarchyCommand {
 
+	private static final int MAX_CACHED_HIERARCHIES = 10;
+
+	/**
+	 * The hierarchies of the recently requested focus types, most recently
+	 * used last
+	 */
+	private static final List<CachedHierarchy> cachedHierarchies = new ArrayList<>();
+
 	public TypeHierarchyItem typeHierarchy(TypeHierarchyParams params, IProgressMonitor monitor) {
 		if (params == null) {
 			return null;
@@ -176,7 +186,22 @@ public class TypeHierarchyCommand {
 		if (monitor.isCanceled() || resolve <= 0) {
 			return;
 		}
-		ITypeHierarchy typeHierarchy = (direction == TypeHierarchyDirection.Parents) ? type.newSupertypeHierarchy(DefaultWorkingCopyOwner.PRIMARY, monitor) : type.newTypeHierarchy(type.getJavaProject(), DefaultWorkingCopyOwner.PRIMARY, monitor);
+		ITypeHierarchy typeHierarchy = getTypeHierarchy(type, direction, monitor);
+		if (typeHierarchy != null) {
+			resolve(item, type, typeHierarchy, direction, resolve, monitor);
+		}
+	}
+
+	/**
+	 * Resolves the given item from the hierarchy built for the request. The
+	 * hierarchy holds all the subtypes of its subtypes and all the supertypes
+	 * of its supertypes, but not the other subtypes of a supertype, so the
+	 * items resolved in both directions look up their own hierarchy.
+	 */
+	private void resolve(TypeHierarchyItem item, IType type, ITypeHierarchy typeHierarchy, TypeHierarchyDirection direction, int resolve, IProgressMonitor monitor) throws JavaModelException {
+		if (monitor.isCanceled() || resolve <= 0) {
+			return;
+		}
 		if (direction == TypeHierarchyDirection.Children || direction == TypeHierarchyDirection.Both) {
 			List<TypeHierarchyItem> childrenItems = new ArrayList<TypeHierarchyItem>();
 			IType[] children = typeHierarchy.getSubtypes(type);
@@ -185,7 +210,11 @@ public class TypeHierarchyCommand {
 				if (childItem == null) {
 					continue;
 				}
-				resolve(childItem, childType, direction, resolve - 1, monitor);
+				if (direction == TypeHierarchyDirection.Both) {
+					resolve(childItem, childType, direction, resolve - 1, monitor);
+				} else {
+					resolve(childItem, childType, typeHierarchy, direction, resolve - 1, monitor);
+				}
 				childrenItems.add(childItem);
 			}
 			item.setChildren(childrenItems);
@@ -198,10 +227,110 @@ public class TypeHierarchyCommand {
 				if (parentItem == null) {
 					continue;
 				}
-				resolve(parentItem, parentType, direction, resolve - 1, monitor);
+				if (direction == TypeHierarchyDirection.Both) {
+					resolve(parentItem, parentType, direction, resolve - 1, monitor);
+				} else {
+					resolve(parentItem, parentType, typeHierarchy, direction, resolve - 1, monitor);
+				}
 				parentsItems.add(parentItem);
 			}
 			item.setParents(parentsItems);
 		}
 	}
+
+	/**
+	 * Returns a hierarchy holding the types of the given direction around the
+	 * given type. A recently built hierarchy is reused when it holds them, so
+	 * the expansions of the items of a hierarchy don't build new ones.
+	 */
+	private static ITypeHierarchy getTypeHierarchy(IType type, TypeHierarchyDirection direction, IProgressMonitor monitor) throws JavaModelException {
+		boolean supertypesOnly = direction == TypeHierarchyDirection.Parents;
+		synchronized (cachedHierarchies) {
+			for (int i = cachedHierarchies.size() - 1; i >= 0; i--) {
+				CachedHierarchy cached = cachedHierarchies.get(i);
+				if (cached.covers(type, direction)) {
+					cachedHierarchies.remove(i);
+					cachedHierarchies.add(cached);
+					return cached.getHierarchy(monitor);
+				}
+			}
+		}
+		ITypeHierarchy typeHierarchy = supertypesOnly ? type.newSupertypeHierarchy(DefaultWorkingCopyOwner.PRIMARY, monitor) : type.newTypeHierarchy(type.getJavaProject(), DefaultWorkingCopyOwner.PRIMARY, monitor);
+		if (monitor.isCanceled()) {
+			return typeHierarchy;
+		}
+		synchronized (cachedHierarchies) {
+			cachedHierarchies.add(new CachedHierarchy(type, typeHierarchy, supertypesOnly));
+			if (cachedHierarchies.size() > MAX_CACHED_HIERARCHIES) {
+				cachedHierarchies.remove(0).dispose();
+			}
+		}
+		return typeHierarchy;
+	}
+
+	/**
+	 * Releases the hierarchies of the recently requested focus types.
+	 */
+	public static void clearCache() {
+		synchronized (cachedHierarchies) {
+			cachedHierarchies.forEach(CachedHierarchy::dispose);
+			cachedHierarchies.clear();
+		}
+	}
+
+	/**
+	 * A hierarchy built for a focus type, refreshed when the types it holds
+	 * change.
+	 */
+	private static final class CachedHierarchy implements ITypeHierarchyChangedListener {
+		private final IType focus;
+		private final ITypeHierarchy hierarchy;
+		private final boolean supertypesOnly;
+		private volatile boolean changed;
+
+		CachedHierarchy(IType focus, ITypeHierarchy hierarchy, boolean supertypesOnly) {
+			this.focus = focus;
+			this.hierarchy = hierarchy;
+			this.supertypesOnly = supertypesOnly;
+			hierarchy.addTypeHierarchyChangedListener(this);
+		}
+
+		/**
+		 * Returns whether the hierarchy holds all the types of the given
+		 * direction around the given type.
+		 */
+		boolean covers(IType type, TypeHierarchyDirection direction) {
+			if (focus.equals(type)) {
+				return direction == TypeHierarchyDirection.Parents || !supertypesOnly;
+			}
+			if (changed) {
+				// the types it holds may be out of date
+				return false;
+			}
+			if (direction == TypeHierarchyDirection.Parents) {
+				return Arrays.asList(hierarchy.getAllSupertypes(focus)).contains(type);
+			}
+			if (direction == TypeHierarchyDirection.Children) {
+				return !supertypesOnly && Arrays.asList(hierarchy.getAllSubtypes(focus)).contains(type);
+			}
+			return false;
+		}
+
+		synchronized ITypeHierarchy getHierarchy(IProgressMonitor monitor) throws JavaModelException {
+			if (changed) {
+				changed = false;
+				hierarchy.refresh(monitor);
+			}
+			return hierarchy;
+		}
+
+		@Override
+		public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
+			changed = true;
+		}
+
+		void dispose() {
+			hierarchy.removeTypeHierarchyChangedListener(this);
+		}
+	}
 }
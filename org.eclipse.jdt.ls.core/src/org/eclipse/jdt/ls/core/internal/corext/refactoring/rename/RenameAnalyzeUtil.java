@@ -20,16 +20,21 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.JavaModelException;
@@ -37,9 +42,12 @@ import org.eclipse.jdt.core.SourceRange;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.NodeFinder;
@@ -54,12 +62,15 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
 import org.eclipse.jdt.internal.corext.refactoring.util.JavaStatusContext;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.Messages;
 import org.eclipse.jdt.ls.core.internal.corext.SourceRangeFactory;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.ls.core.internal.corext.refactoring.base.JavaStringStatusContext;
 import org.eclipse.jdt.ls.core.internal.corext.util.SearchUtils;
 import org.eclipse.jdt.ls.core.internal.corext.util.TextChangeManager;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences.RenameVerification;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Region;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
@@ -417,6 +428,168 @@ class RenameAnalyzeUtil {
 		result.addError(message, context);
 	}
 
+//--- find missing changes in BOTH directions, from the bindings of the new content
+
+	/**
+	 * Returns whether the rename changes are verified from the bindings of the
+	 * affected compilation units, rather than by searching the references of
+	 * the new elements. The fast verification has to be asked for.
+	 *
+	 * @return <code>true</code> for the fast verification
+	 */
+	static boolean isFastVerification() {
+		PreferenceManager preferenceManager= JavaLanguageServerPlugin.getPreferencesManager();
+		return preferenceManager != null && preferenceManager.getPreferences().getRenameVerification() == RenameVerification.fast;
+	}
+
+	/**
+	 * Reports the same errors as
+	 * {@link #analyzeRenameChanges2(TextChangeManager, SearchResultGroup[], SearchResultGroup[], String)},
+	 * without searching the references of the new elements. The new working
+	 * copies are resolved in one batch per project: every updated old
+	 * reference must resolve to a new element, and no other name of the new
+	 * working copies may resolve to one. The compilation units without old
+	 * reference, which aren't changed, aren't checked.
+	 *
+	 * @param manager the changes of the rename
+	 * @param oldReferences the references of the renamed elements
+	 * @param newWorkingCopies the working copies of all the changed compilation units
+	 * @param newElements the renamed elements, in the new working copies
+	 * @param ignoredElements the members of the new working copies whose references aren't reported
+	 * @param newElementName the new name
+	 * @param owner the owner of the new working copies
+	 * @param pm the progress monitor
+	 * @return the status of the analysis
+	 */
+	static RefactoringStatus analyzeRenameChanges3(TextChangeManager manager, SearchResultGroup[] oldReferences, ICompilationUnit[] newWorkingCopies, IJavaElement[] newElements,
+			IJavaElement[] ignoredElements, String newElementName, WorkingCopyOwner owner, IProgressMonitor pm) {
+		RefactoringStatus result= new RefactoringStatus();
+
+		Map<ICompilationUnit, SearchMatch[]> cuToOldResults= new HashMap<>(oldReferences.length);
+		for (int i= 0; i < oldReferences.length; i++) {
+			ICompilationUnit cu= oldReferences[i].getCompilationUnit();
+			if (cu != null) {
+				cuToOldResults.put(cu.getPrimary(), oldReferences[i].getSearchResults());
+			}
+		}
+		Set<String> newHandles= new HashSet<>();
+		for (int i= 0; i < newElements.length; i++) {
+			if (newElements[i] != null) {
+				newHandles.add(newElements[i].getHandleIdentifier());
+			}
+		}
+
+		Map<IJavaProject, List<ICompilationUnit>> projectToWorkingCopies= new LinkedHashMap<>();
+		for (int i= 0; i < newWorkingCopies.length; i++) {
+			projectToWorkingCopies.computeIfAbsent(newWorkingCopies[i].getJavaProject(), project -> new ArrayList<>()).add(newWorkingCopies[i]);
+		}
+		pm.beginTask("", newWorkingCopies.length); //$NON-NLS-1$
+		try {
+			for (Entry<IJavaProject, List<ICompilationUnit>> entry : projectToWorkingCopies.entrySet()) {
+				ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+				parser.setProject(entry.getKey());
+				parser.setCompilerOptions(RefactoringASTParser.getCompilerOptions(entry.getKey()));
+				parser.setResolveBindings(true);
+				parser.setBindingsRecovery(IASTSharedValues.SHARED_BINDING_RECOVERY);
+				parser.setStatementsRecovery(IASTSharedValues.SHARED_AST_STATEMENT_RECOVERY);
+				parser.setWorkingCopyOwner(owner);
+				List<ICompilationUnit> workingCopies= entry.getValue();
+				parser.createASTs(workingCopies.toArray(new ICompilationUnit[workingCopies.size()]), new String[0], new ASTRequestor() {
+					@Override
+					public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+						ICompilationUnit cu= source.getPrimary();
+						SearchMatch[] oldMatches= cuToOldResults.get(cu);
+						TextChange change= manager.get(cu);
+						Map<Integer, SearchMatch> updatedOldOffsets= oldMatches == null ? new HashMap<>() : getUpdatedChangeOffsets(change, oldMatches);
+						analyzeChanges(cu, source, ast, updatedOldOffsets, newHandles, ignoredElements, newElementName, result);
+						pm.worked(1);
+					}
+				}, new SubProgressMonitor(pm, 0));
+			}
+		} finally {
+			pm.done();
+		}
+		return result;
+	}
+
+	private static void analyzeChanges(ICompilationUnit cu, ICompilationUnit newWorkingCopy, CompilationUnit newCUNode, Map<Integer, SearchMatch> updatedOldOffsets, Set<String> newHandles,
+			IJavaElement[] ignoredElements, String newElementName, RefactoringStatus result) {
+		newCUNode.accept(new ASTVisitor(true) {
+			@Override
+			public boolean visit(SimpleName node) {
+				if (!newElementName.equals(node.getIdentifier())) {
+					return false;
+				}
+				SearchMatch oldMatch= updatedOldOffsets.remove(Integer.valueOf(node.getStartPosition()));
+				if (node.isDeclaration()) {
+					return false;
+				}
+				boolean isNewElement= isNewElement(node.resolveBinding(), newHandles);
+				if (oldMatch != null && !isNewElement) {
+					addShadowsError(cu, oldMatch, result);
+				} else if (oldMatch == null && isNewElement && !isInElements(newWorkingCopy, node.getStartPosition(), ignoredElements)) {
+					addReferenceShadowedError(cu, getOldSourceRange(newWorkingCopy, node.getStartPosition()), newElementName, result);
+				}
+				return false;
+			}
+		});
+		for (Iterator<SearchMatch> iter= updatedOldOffsets.values().iterator(); iter.hasNext();) {
+			// remaining old matches are not found any more -> they have been shadowed
+			addShadowsError(cu, iter.next(), result);
+		}
+	}
+
+	private static boolean isNewElement(IBinding binding, Set<String> newHandles) {
+		if (binding instanceof IVariableBinding) {
+			binding= ((IVariableBinding) binding).getVariableDeclaration();
+		} else if (binding instanceof IMethodBinding) {
+			binding= ((IMethodBinding) binding).getMethodDeclaration();
+		}
+		IJavaElement element= binding == null ? null : binding.getJavaElement();
+		return element != null && newHandles.contains(element.getHandleIdentifier());
+	}
+
+	private static boolean isInElements(ICompilationUnit newWorkingCopy, int offset, IJavaElement[] elements) {
+		if (elements == null) {
+			return false;
+		}
+		for (int i= 0; i < elements.length; i++) {
+			if (elements[i] instanceof ISourceReference && newWorkingCopy.equals(elements[i].getAncestor(IJavaElement.COMPILATION_UNIT))) {
+				try {
+					ISourceRange range= ((ISourceReference) elements[i]).getSourceRange();
+					if (SourceRange.isAvailable(range) && range.getOffset() <= offset && offset < range.getOffset() + range.getLength()) {
+						return true;
+					}
+				} catch (JavaModelException e) {
+					// not in this element
+				}
+			}
+		}
+		return false;
+	}
+
+	private static ISourceRange getOldSourceRange(ICompilationUnit newWorkingCopy, int offset) {
+		// cannot transfom offset in preview to offset in original -> just show enclosing member
+		try {
+			IJavaElement newElement= newWorkingCopy.getElementAt(offset);
+			IJavaElement primaryElement= newElement == null ? null : newElement.getPrimaryElement();
+			if (primaryElement != null && primaryElement.exists() && primaryElement instanceof ISourceReference) {
+				return ((ISourceReference) primaryElement).getSourceRange();
+			}
+		} catch (JavaModelException e) {
+			// can live without source range
+		}
+		return null;
+	}
+
+	private static void addReferenceShadowedError(ICompilationUnit cu, ISourceRange range, String newElementName, RefactoringStatus result) {
+		RefactoringStatusContext context= JavaStatusContext.create(cu, range);
+		String message= Messages.format(
+				RefactoringCoreMessages.RenameAnalyzeUtil_reference_shadowed,
+				new String[] {BasicElementLabels.getFileName(cu), BasicElementLabels.getJavaElementName(newElementName)});
+		result.addError(message, context);
+	}
+
 	/**
 	 * This method analyzes a set of local variable renames inside one cu. It checks whether
 	 * any new compile errors have been introduced by the rename(s) and whether the correct
@@ -886,6 +886,10 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 			newWorkingCopies= RenameAnalyzeUtil.createNewWorkingCopies(compilationUnitsToModify.toArray(new ICompilationUnit[compilationUnitsToModify.size()]),
 					fChangeManager, newWCOwner, new SubProgressMonitor(pm, 1));
 
+			if (RenameAnalyzeUtil.isFastVerification()) {
+				result.merge(analyzeNewReferences(new SubProgressMonitor(pm, 1), oldReferences, newWCOwner, newWorkingCopies));
+				return result;
+			}
 			SearchResultGroup[] newReferences= getNewReferences(new SubProgressMonitor(pm, 1), result, newWCOwner, newWorkingCopies);
 			result.merge(RenameAnalyzeUtil.analyzeRenameChanges2(fChangeManager, oldReferences, newReferences, getNewElementName()));
 			return result;
@@ -899,6 +903,20 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 		}
 	}
 
+	private RefactoringStatus analyzeNewReferences(IProgressMonitor pm, SearchResultGroup[] oldReferences, WorkingCopyOwner owner, ICompilationUnit[] newWorkingCopies) {
+		ICompilationUnit declaringCuWorkingCopy= RenameAnalyzeUtil.findWorkingCopyForCu(newWorkingCopies, fField.getCompilationUnit());
+		IJavaElement[] newElements= new IJavaElement[0];
+		IJavaElement[] ignoredElements= new IJavaElement[0];
+		if (declaringCuWorkingCopy != null) {
+			newElements= new IJavaElement[] { getFieldInWorkingCopy(declaringCuWorkingCopy, getNewElementName()) };
+			if (fDelegateUpdating && RefactoringAvailabilityTester.isDelegateCreationAvailable(getField())) {
+				// The references inside the delegate are OK and must not be reported.
+				ignoredElements= new IJavaElement[] { getFieldInWorkingCopy(declaringCuWorkingCopy, getCurrentElementName()) };
+			}
+		}
+		return RenameAnalyzeUtil.analyzeRenameChanges3(fChangeManager, oldReferences, newWorkingCopies, newElements, ignoredElements, getNewElementName(), owner, pm);
+	}
+
 	private SearchResultGroup[] getNewReferences(IProgressMonitor pm, RefactoringStatus status, WorkingCopyOwner owner, ICompilationUnit[] newWorkingCopies) throws CoreException {
 		pm.beginTask("", 2); //$NON-NLS-1$
 		ICompilationUnit declaringCuWorkingCopy= RenameAnalyzeUtil.findWorkingCopyForCu(newWorkingCopies, fField.getCompilationUnit());
@@ -568,6 +568,10 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 				wcNewMethods[i]= getMethodInWorkingCopy(method, getNewElementName(), typeWc);
 			}
 
+			if (RenameAnalyzeUtil.isFastVerification()) {
+				result.merge(batchAnalyzeNewOccurrences(wcNewMethods, wcOldMethods, newDeclarationWCs, new SubProgressMonitor(pm, 3)));
+				return result;
+			}
 //			SearchResultGroup[] newOccurrences= findNewOccurrences(newMethods, newDeclarationWCs, new SubProgressMonitor(pm, 3));
 			SearchResultGroup[] newOccurrences= batchFindNewOccurrences(wcNewMethods, wcOldMethods, newDeclarationWCs, new SubProgressMonitor(pm, 3), result);
 
@@ -675,6 +679,41 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 		return newResults;
 	}
 
+	private RefactoringStatus batchAnalyzeNewOccurrences(IMethod[] wcNewMethods, IMethod[] wcOldMethods, ICompilationUnit[] newDeclarationWCs, IProgressMonitor pm) throws CoreException {
+		pm.beginTask("", 2); //$NON-NLS-1$
+
+		ArrayList<ICompilationUnit> needWCs= new ArrayList<>();
+		HashSet<ICompilationUnit> declaringCUs= new HashSet<>(newDeclarationWCs.length);
+		for (int i= 0; i < newDeclarationWCs.length; i++) {
+			declaringCUs.add(newDeclarationWCs[i].getPrimary());
+		}
+		for (int i= 0; i < fOccurrences.length; i++) {
+			ICompilationUnit cu= fOccurrences[i].getCompilationUnit();
+			if (cu != null && declaringCUs.add(cu)) {
+				needWCs.add(cu);
+			}
+		}
+		ICompilationUnit[] otherWCs= null;
+		try {
+			otherWCs= RenameAnalyzeUtil.createNewWorkingCopies(
+					needWCs.toArray(new ICompilationUnit[needWCs.size()]),
+					fChangeManager, fWorkingCopyOwner, new SubProgressMonitor(pm, 1));
+			ICompilationUnit[] newWCs= new ICompilationUnit[newDeclarationWCs.length + otherWCs.length];
+			System.arraycopy(newDeclarationWCs, 0, newWCs, 0, newDeclarationWCs.length);
+			System.arraycopy(otherWCs, 0, newWCs, newDeclarationWCs.length, otherWCs.length);
+			// the occurrences inside the delegate(s) are OK and must not be reported
+			IMethod[] ignoredMethods= getDelegateUpdating() ? wcOldMethods : new IMethod[0];
+			return RenameAnalyzeUtil.analyzeRenameChanges3(fChangeManager, fOccurrences, newWCs, wcNewMethods, ignoredMethods, getNewElementName(), fWorkingCopyOwner, new SubProgressMonitor(pm, 1));
+		} finally {
+			pm.done();
+			if (otherWCs != null) {
+				for (int i= 0; i < otherWCs.length; i++) {
+					otherWCs[i].discardWorkingCopy();
+				}
+			}
+		}
+	}
+
 	private ICompilationUnit[] getDeclarationCUs() {
 		Set<ICompilationUnit> cus= new HashSet<>();
 		for (Iterator<IMethod> iter= fMethodsToRename.iterator(); iter.hasNext();) {
@@ -20,15 +20,29 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IRegion;
@@ -51,6 +65,40 @@ import org.eclipse.jdt.ls.core.internal.corext.util.SearchUtils;
 
 public class RippleMethodFinder2 {
 
+	private static final int MAX_CACHED_RESULTS= 32;
+
+	private static final int HIERARCHY_THREADS= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Builds the hierarchies of the roots, without competing with the common
+	 * pool for the other requests
+	 */
+	private static final ThreadPoolExecutor HIERARCHY_EXECUTOR= new ThreadPoolExecutor(HIERARCHY_THREADS, HIERARCHY_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+		Thread thread= new Thread(r, "Ripple Hierarchy Builder"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		HIERARCHY_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Incremented on every change of the Java model, or of a primary working
+	 * copy. The cached results are only valid for the stamp they were computed
+	 * with, which spans the condition checks and the preview of a refactoring.
+	 */
+	private static final AtomicLong fgModelStamp= new AtomicLong();
+	private static final AtomicBoolean fgListening= new AtomicBoolean();
+	private static final Map<String, CachedResult> fgCache= new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+			return size() > MAX_CACHED_RESULTS;
+		}
+	};
+
 	private final IMethod fMethod;
 	private List<IMethod> fDeclarations;
 	private ITypeHierarchy fHierarchy;
@@ -63,6 +111,7 @@ public class RippleMethodFinder2 {
 	private final boolean fExcludeBinaries;
 	private final ReferencesInBinaryContext fBinaryRefs;
 	private Map<IMethod, SearchMatch> fDeclarationToMatch;
+	private final List<SearchMatch> fBinaryMatches= new ArrayList<>();
 
 	private static class MultiMap<K, V> {
 		HashMap<K, Collection<V>> fImplementation= new HashMap<>();
@@ -80,6 +129,32 @@ public class RippleMethodFinder2 {
 			return fImplementation.get(key);
 		}
 	}
+	private static class CachedResult {
+		final long fStamp;
+		final IMethod[] fMethods;
+		final SearchMatch[] fBinaryMatches;
+
+		CachedResult(long stamp, IMethod[] methods, List<SearchMatch> binaryMatches) {
+			fStamp= stamp;
+			fMethods= methods;
+			fBinaryMatches= binaryMatches.toArray(new SearchMatch[binaryMatches.size()]);
+		}
+	}
+
+	private static class ModelStampUpdater implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (event.getType() == ElementChangedEvent.POST_RECONCILE) {
+				IJavaElement element= event.getDelta().getElement();
+				if (element instanceof ICompilationUnit && !((ICompilationUnit) element).isPrimary()) {
+					// the working copies of other owners aren't searched
+					return;
+				}
+			}
+			fgModelStamp.incrementAndGet();
+		}
+	}
+
 	private static class UnionFind {
 		HashMap<IType, IType> fElementToRepresentative= new HashMap<>();
 
@@ -148,7 +223,7 @@ public class RippleMethodFinder2 {
 				return new IMethod[]{ method };
 			}
 
-			return new RippleMethodFinder2(method, excludeBinaries).getAllRippleMethods(pm, owner);
+			return new RippleMethodFinder2(method, excludeBinaries).getCachedRippleMethods(excludeBinaries ? "#sources" : "#all", pm, owner); //$NON-NLS-1$ //$NON-NLS-2$
 		} finally{
 			pm.done();
 		}
@@ -163,12 +238,49 @@ public class RippleMethodFinder2 {
 				return new IMethod[]{ method };
 			}
 
-			return new RippleMethodFinder2(method, binaryRefs).getAllRippleMethods(pm, owner);
+			return new RippleMethodFinder2(method, binaryRefs).getCachedRippleMethods("#binaryRefs", pm, owner); //$NON-NLS-1$
 		} finally{
 			pm.done();
 		}
 	}
 
+	/**
+	 * Discards the cached ripple methods.
+	 */
+	public static void clearCache() {
+		synchronized (fgCache) {
+			fgCache.clear();
+		}
+	}
+
+	private IMethod[] getCachedRippleMethods(String kind, IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
+		if (owner != null) {
+			return getAllRippleMethods(pm, owner);
+		}
+		if (fgListening.compareAndSet(false, true)) {
+			JavaCore.addElementChangedListener(new ModelStampUpdater(), ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+		long stamp= fgModelStamp.get();
+		String key= fMethod.getHandleIdentifier() + kind;
+		CachedResult cached;
+		synchronized (fgCache) {
+			cached= fgCache.get(key);
+		}
+		if (cached != null && cached.fStamp == stamp) {
+			if (fBinaryRefs != null) {
+				for (int i= 0; i < cached.fBinaryMatches.length; i++) {
+					fBinaryRefs.add(cached.fBinaryMatches[i]);
+				}
+			}
+			return cached.fMethods.clone();
+		}
+		IMethod[] rippleMethods= getAllRippleMethods(pm, owner);
+		synchronized (fgCache) {
+			fgCache.put(key, new CachedResult(stamp, rippleMethods.clone(), fBinaryMatches));
+		}
+		return rippleMethods;
+	}
+
 	private IMethod[] getAllRippleMethods(IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
 		IMethod[] rippleMethods= findAllRippleMethods(pm, owner);
 		if (fDeclarationToMatch == null) {
@@ -181,6 +293,7 @@ public class RippleMethodFinder2 {
 			if (match != null) {
 				iter.remove();
 				fBinaryRefs.add((SearchMatch) match);
+				fBinaryMatches.add((SearchMatch) match);
 			}
 		}
 		fDeclarationToMatch= null;
@@ -206,7 +319,6 @@ public class RippleMethodFinder2 {
 			throw new OperationCanceledException();
 		}
 
-		fHierarchy= null;
 		fRootTypes= null;
 
 		Map<IType, List<IType>> partitioning= new HashMap<>();
@@ -262,6 +374,11 @@ public class RippleMethodFinder2 {
 			return relatedMethods.toArray(new IMethod[relatedMethods.size()]);
 		}
 
+		List<IType> lookedUpTypes= new ArrayList<>(relatedTypes);
+		lookedUpTypes.addAll(alienTypes);
+		createRootHierarchies(lookedUpTypes, pm, owner);
+		fHierarchy= null;
+
 		//find all subtypes of related types:
 		HashSet<IType> relatedSubTypes= new HashSet<>();
 		List<IType> relatedTypesToProcess= new ArrayList<>(relatedTypes);
@@ -350,6 +467,76 @@ public class RippleMethodFinder2 {
 		return null;
 	}
 
+	/**
+	 * Creates in parallel the hierarchies of the root types the given types
+	 * will be looked up in, as they are independent from each other. For each
+	 * type, that's the first root of its partition whose hierarchy contains
+	 * it, as in {@link #getCachedHierarchy(IType, WorkingCopyOwner, IProgressMonitor)}.
+	 * The hierarchies of the other roots are only created if they're looked
+	 * up later on.
+	 */
+	private void createRootHierarchies(List<IType> types, IProgressMonitor pm, WorkingCopyOwner owner) throws JavaModelException {
+		Set<IType> roots= new LinkedHashSet<>();
+		for (Iterator<IType> iter= types.iterator(); iter.hasNext();) {
+			IType type= iter.next();
+			IType rep= fUnionFind.find(type);
+			Collection<IType> collection= rep == null ? null : fRootReps.get(rep);
+			if (collection == null) {
+				continue;
+			}
+			List<IType> supertypes= Arrays.asList(fHierarchy.getAllSupertypes(type));
+			for (Iterator<IType> rootIter= collection.iterator(); rootIter.hasNext();) {
+				IType root= rootIter.next();
+				if (root.equals(type) || supertypes.contains(root) || Arrays.asList(fHierarchy.getAllSupertypes(root)).contains(type)) {
+					roots.add(root);
+					break;
+				}
+			}
+		}
+		if (roots.size() < 2) {
+			return;
+		}
+		// the hierarchies are built concurrently, each one stops once the refactoring is canceled
+		IProgressMonitor cancelMonitor= new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return pm.isCanceled();
+			}
+		};
+		List<Future<ITypeHierarchy>> futures= new ArrayList<>(roots.size());
+		for (IType root : roots) {
+			futures.add(HIERARCHY_EXECUTOR.submit(() -> pm.isCanceled() ? null : root.newTypeHierarchy(owner, cancelMonitor)));
+		}
+		try {
+			Iterator<IType> rootIter= roots.iterator();
+			for (Future<ITypeHierarchy> future : futures) {
+				IType root= rootIter.next();
+				ITypeHierarchy hierarchy= future.get();
+				if (hierarchy != null) {
+					fRootHierarchies.put(root, hierarchy);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof JavaModelException) {
+				throw (JavaModelException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<ITypeHierarchy> future : futures) {
+				future.cancel(false);
+			}
+		}
+		if (pm.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
 	private void findAllDeclarations(IProgressMonitor monitor, WorkingCopyOwner owner) throws CoreException {
 		fDeclarations= new ArrayList<>();
 
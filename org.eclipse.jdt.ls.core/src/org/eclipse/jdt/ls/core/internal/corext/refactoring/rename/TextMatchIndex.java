@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.corext.refactoring.rename;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.search.text.MappedFileCharSequenceProvider;
+
+/**
+ * Tells which Java files may contain a word, so the textual matches of a
+ * rename are only searched in the files that can have some.
+ *
+ * For each file, the words it contains (the runs of letters, digits and
+ * underscores, as delimited by {@link RefactoringScanner}) are stored in a
+ * Bloom filter. A filter is built when the file is first queried, and kept
+ * until a resource delta changes or removes the file. Filters also record
+ * the modification stamp of their file, so a filter built from an outdated
+ * content is never used.
+ *
+ * The filters are stored in the plugin state location between sessions.
+ */
+public final class TextMatchIndex implements IResourceChangeListener {
+
+	private static final String SERIALIZATION_FILE_NAME = ".text-match-index";
+	private static final int MAX_ENTRIES = 50000;
+	/**
+	 * With 10 bits per word and 3 hash functions, about 2% of the files
+	 * without a word are reported as possibly containing it.
+	 */
+	private static final int BITS_PER_WORD = 10;
+	private static final int HASH_COUNT = 3;
+
+	private static TextMatchIndex instance;
+
+	private final File stateFile;
+	private final MappedFileCharSequenceProvider contentProvider = new MappedFileCharSequenceProvider();
+	/**
+	 * Filters by file full path
+	 */
+	private final Map<String, Filter> filters = new LinkedHashMap<String, Filter>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Filter> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	TextMatchIndex(File stateLocation) {
+		this.stateFile = stateLocation == null ? null : new File(stateLocation, SERIALIZATION_FILE_NAME);
+		load();
+	}
+
+	/**
+	 * Returns the shared index, listening to the workspace changes from its
+	 * first use.
+	 *
+	 * @return the index
+	 */
+	public static synchronized TextMatchIndex getInstance() {
+		if (instance == null) {
+			JavaLanguageServerPlugin plugin = JavaLanguageServerPlugin.getInstance();
+			instance = new TextMatchIndex(plugin == null ? null : plugin.getStateLocation().toFile());
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(instance, IResourceChangeEvent.POST_CHANGE);
+		}
+		return instance;
+	}
+
+	/**
+	 * Stops listening to the workspace changes and stores the shared index, if
+	 * it was used.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(instance);
+			instance.save();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Checks whether the content of the given file may contain the given word.
+	 * The answer is <code>true</code> when the file can't be read, or when the
+	 * word isn't made of letters, digits and underscores only.
+	 *
+	 * @param file
+	 *            the file, as saved on disk
+	 * @param word
+	 *            the word to look for
+	 * @return <code>false</code> if the file doesn't contain the word
+	 */
+	public boolean mayContain(IFile file, String word) {
+		if (!isWord(word)) {
+			return true;
+		}
+		long stamp = file.getModificationStamp();
+		if (stamp == IResource.NULL_STAMP) {
+			return true;
+		}
+		long localTimeStamp = file.getLocalTimeStamp();
+		String key = file.getFullPath().toString();
+		Filter filter;
+		synchronized (filters) {
+			filter = filters.get(key);
+		}
+		if (filter == null || filter.stamp != stamp || filter.localTimeStamp != localTimeStamp) {
+			// read outside of the lock, files are read concurrently
+			filter = build(file, stamp, localTimeStamp);
+			if (filter == null) {
+				return true;
+			}
+			synchronized (filters) {
+				filters.put(key, filter);
+			}
+		}
+		return filter.mayContain(word);
+	}
+
+	private Filter build(IFile file, long stamp, long localTimeStamp) {
+		Set<String> words = new HashSet<>();
+		CharSequence content = null;
+		try {
+			content = contentProvider.newCharSequence(file);
+			collectWords(content, words);
+		} catch (CoreException | IOException | RuntimeException e) {
+			// FileCharSequenceException is thrown while reading a streamed content
+			JavaLanguageServerPlugin.logException("Failed to index " + file.getFullPath(), e);
+			return null;
+		} finally {
+			if (content != null) {
+				try {
+					contentProvider.releaseCharSequence(content);
+				} catch (IOException e) {
+					// nothing to release
+				}
+			}
+		}
+		Filter filter = new Filter(stamp, localTimeStamp, words.size());
+		for (String word : words) {
+			filter.add(word);
+		}
+		return filter;
+	}
+
+	static void collectWords(CharSequence content, Set<String> words) {
+		int length = content.length();
+		int i = 0;
+		while (i < length) {
+			if (isWordPart(content.charAt(i))) {
+				int start = i++;
+				while (i < length && isWordPart(content.charAt(i))) {
+					i++;
+				}
+				words.add(content.subSequence(start, i).toString());
+			} else {
+				i++;
+			}
+		}
+	}
+
+	static boolean isWord(String word) {
+		if (word == null || word.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (!isWordPart(word.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same characters as in {@link RefactoringScanner}'s whole word check.
+	 */
+	private static boolean isWordPart(char ch) {
+		return Character.isLetterOrDigit(ch) || ch == '_';
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		try {
+			delta.accept(d -> {
+				IResource resource = d.getResource();
+				if (resource.getType() == IResource.FILE) {
+					if (JavaCore.isJavaLikeFileName(resource.getName()) && (d.getKind() == IResourceDelta.REMOVED || (d.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0)) {
+						remove(resource.getFullPath().toString(), false);
+					}
+					return false;
+				}
+				if (resource.getType() != IResource.ROOT && (d.getKind() == IResourceDelta.REMOVED || (d.getFlags() & IResourceDelta.OPEN) != 0)) {
+					remove(resource.getFullPath().addTrailingSeparator().toString(), true);
+					return false;
+				}
+				return true;
+			});
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Failed to update the text match index", e);
+		}
+	}
+
+	private void remove(String path, boolean prefix) {
+		synchronized (filters) {
+			if (!prefix) {
+				filters.remove(path);
+				return;
+			}
+			for (Iterator<String> iterator = filters.keySet().iterator(); iterator.hasNext();) {
+				if (iterator.next().startsWith(path)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stores the index in the plugin state location.
+	 */
+	public void save() {
+		if (stateFile == null) {
+			return;
+		}
+		Map<String, Filter> snapshot;
+		synchronized (filters) {
+			snapshot = new LinkedHashMap<>(filters);
+		}
+		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
+			outStream.writeObject(snapshot);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while serialization of the text match index", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void load() {
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		Map<String, Filter> loaded;
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
+			loaded = (Map<String, Filter>) ois.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while deserialization of the text match index", e);
+			return;
+		}
+		synchronized (filters) {
+			filters.putAll(loaded);
+		}
+	}
+
+	/**
+	 * A Bloom filter of the words of a file.
+	 */
+	private static final class Filter implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final long stamp;
+		private final long localTimeStamp;
+		private final long[] bits;
+
+		private Filter(long stamp, long localTimeStamp, int wordCount) {
+			this.stamp = stamp;
+			this.localTimeStamp = localTimeStamp;
+			this.bits = new long[Math.max(1, (wordCount * BITS_PER_WORD + 63) / 64)];
+		}
+
+		private void add(String word) {
+			int hash = word.hashCode();
+			int increment = getIncrement(hash);
+			int size = bits.length * 64;
+			for (int i = 0; i < HASH_COUNT; i++) {
+				int bit = Math.floorMod(hash + i * increment, size);
+				bits[bit >>> 6] |= 1L << bit;
+			}
+		}
+
+		private boolean mayContain(String word) {
+			int hash = word.hashCode();
+			int increment = getIncrement(hash);
+			int size = bits.length * 64;
+			for (int i = 0; i < HASH_COUNT; i++) {
+				int bit = Math.floorMod(hash + i * increment, size);
+				if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static int getIncrement(int hash) {
+			// a second hash, derived from the first one (double hashing)
+			return Integer.rotateLeft(hash * 0x9E3779B9, 16) | 1;
+		}
+	}
+}
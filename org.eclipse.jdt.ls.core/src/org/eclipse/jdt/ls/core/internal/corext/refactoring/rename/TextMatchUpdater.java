@@ -18,7 +18,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -57,12 +63,29 @@ class TextMatchUpdater {
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_name,
 			RefactoringCoreMessages.TextMatchUpdater_textualMatches_description));
 
+	private static final int SCAN_THREADS= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Scans the candidates, without competing with the common pool for the
+	 * other requests
+	 */
+	private static final ThreadPoolExecutor SCAN_EXECUTOR= new ThreadPoolExecutor(SCAN_THREADS, SCAN_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+		Thread thread= new Thread(r, "Text Match Scanner"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		SCAN_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
 	private final IJavaSearchScope fScope;
 	private final TextChangeManager fManager;
 	private final SearchResultGroup[] fReferences;
 	private final boolean fOnlyQualified;
 
-	private final RefactoringScanner fScanner;
+	private final String fCurrentName;
+	private final String fCurrentQualifier;
 	private final String fNewName;
 	private final int fCurrentNameLength;
 
@@ -76,8 +99,9 @@ class TextMatchUpdater {
 		fOnlyQualified= onlyQualified;
 
 		fNewName= newName;
+		fCurrentName= currentName;
+		fCurrentQualifier= currentQualifier;
 		fCurrentNameLength= currentName.length();
-		fScanner= new RefactoringScanner(currentName, currentQualifier);
 	}
 
 	static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified) throws JavaModelException{
@@ -92,14 +116,16 @@ class TextMatchUpdater {
 		try{
 			IProject[] projectsInScope= getProjectsInScope();
 
-			pm.beginTask("", projectsInScope.length); //$NON-NLS-1$
+			pm.beginTask("", 2 * projectsInScope.length); //$NON-NLS-1$
 
+			List<ICompilationUnit> candidates= new ArrayList<>();
 			for (int i =0 ; i < projectsInScope.length; i++){
 				if (pm.isCanceled()) {
 					throw new OperationCanceledException();
 				}
-				addTextMatches(projectsInScope[i], new SubProgressMonitor(pm, 1));
+				addCandidates(projectsInScope[i], candidates, new SubProgressMonitor(pm, 1));
 			}
+			addTextMatches(candidates, new SubProgressMonitor(pm, projectsInScope.length));
 		} finally{
 			pm.done();
 		}
@@ -121,7 +147,7 @@ class TextMatchUpdater {
 		return projectsInScope.toArray(new IProject[projectsInScope.size()]);
 	}
 
-	private void addTextMatches(IResource resource, IProgressMonitor pm) throws JavaModelException{
+	private void addCandidates(IResource resource, List<ICompilationUnit> candidates, IProgressMonitor pm) throws JavaModelException{
 		try{
 			String task= RefactoringCoreMessages.TextMatchUpdater_searching + resource.getFullPath();
 			if (resource instanceof IFile){
@@ -136,7 +162,7 @@ class TextMatchUpdater {
 				if (! fScope.encloses(element)) {
 					return;
 				}
-				addCuTextMatches((ICompilationUnit) element);
+				candidates.add((ICompilationUnit) element);
 
 			} else if (resource instanceof IContainer){
 				IResource[] members= ((IContainer) resource).members();
@@ -147,7 +173,7 @@ class TextMatchUpdater {
 						throw new OperationCanceledException();
 					}
 
-					addTextMatches(members[i], new SubProgressMonitor(pm, 1));
+					addCandidates(members[i], candidates, new SubProgressMonitor(pm, 1));
 				}
 			}
 		} catch (JavaModelException e){
@@ -159,13 +185,69 @@ class TextMatchUpdater {
 		}
 	}
 
-	private void addCuTextMatches(ICompilationUnit cu) throws JavaModelException{
-		fScanner.scan(cu);
-		Set<TextMatch> matches= fScanner.getMatches(); //Set of TextMatch
-		if (matches.size() == 0) {
-			return;
+	/**
+	 * Scans the candidates in a bounded pool, then adds the text updates in the
+	 * order of the candidates, as the change manager isn't thread safe. The
+	 * saved files are only scanned if the {@link TextMatchIndex} tells they may
+	 * contain the current name; the open working copies are always scanned.
+	 */
+	private void addTextMatches(List<ICompilationUnit> candidates, IProgressMonitor pm) throws JavaModelException{
+		try{
+			pm.beginTask("", candidates.size()); //$NON-NLS-1$
+			TextMatchIndex index= TextMatchIndex.getInstance();
+			List<Future<CuTextMatches>> futures= new ArrayList<>(candidates.size());
+			for (ICompilationUnit cu : candidates) {
+				futures.add(SCAN_EXECUTOR.submit(() -> {
+					if (pm.isCanceled()) {
+						return null;
+					}
+					IResource resource= cu.getResource();
+					if (!cu.isWorkingCopy() && resource instanceof IFile && !index.mayContain((IFile) resource, fCurrentName)) {
+						return null;
+					}
+					RefactoringScanner scanner= new RefactoringScanner(fCurrentName, fCurrentQualifier);
+					scanner.scan(cu);
+					Set<TextMatch> matches= scanner.getMatches(); //Set of TextMatch
+					return matches.isEmpty() ? null : new CuTextMatches(cu, matches);
+				}));
+			}
+			List<CuTextMatches> results= new ArrayList<>();
+			try {
+				for (Future<CuTextMatches> future : futures) {
+					CuTextMatches result= future.get();
+					if (result != null) {
+						results.add(result);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof JavaModelException) {
+					throw (JavaModelException) e.getCause();
+				}
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				for (Future<CuTextMatches> future : futures) {
+					future.cancel(false);
+				}
+			}
+			if (pm.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			for (CuTextMatches result : results) {
+				addCuTextMatches(result.fCu, result.fMatches);
+			}
+			pm.worked(candidates.size());
+		} finally{
+			pm.done();
 		}
+	}
 
+	private void addCuTextMatches(ICompilationUnit cu, Set<TextMatch> matches) {
 		removeReferences(cu, matches);
 		if (matches.size() != 0) {
 			addTextUpdates(cu, matches);
@@ -210,4 +292,15 @@ class TextMatchUpdater {
 			}
 		}
 	}
+
+	private static final class CuTextMatches {
+
+		private final ICompilationUnit fCu;
+		private final Set<TextMatch> fMatches;
+
+		private CuTextMatches(ICompilationUnit cu, Set<TextMatch> matches) {
+			fCu= cu;
+			fMatches= matches;
+		}
+	}
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.corrections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.internal.ui.text.correction.IProblemLocationCore;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.ChangeCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+
+/**
+ * Caches the quick fixes of a problem. Moving the cursor within a problem
+ * sends the same problem again: its quick fixes are reused as long as the
+ * compilation unit, its options, the preferences and the Java model don't
+ * change.
+ *
+ * The proposals are keyed by compilation unit, content stamp, problem id and
+ * problem range. The selection is part of the key only when it isn't an empty
+ * selection within the problem, as some quick fixes extend to the selection.
+ * Any change of the Java model, including the reconcile of a working copy,
+ * invalidates all the proposals, since quick fixes also depend on the other
+ * compilation units.
+ */
+public final class QuickFixCache implements IElementChangedListener {
+
+	private static final int MAX_ENTRIES = 64;
+
+	private static final QuickFixCache instance = new QuickFixCache();
+
+	private final Map<String, List<ChangeCorrectionProposal>> entries = new LinkedHashMap<String, List<ChangeCorrectionProposal>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<ChangeCorrectionProposal>> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	private final AtomicBoolean listening = new AtomicBoolean();
+	private final AtomicLong modelStamp = new AtomicLong();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	private QuickFixCache() {
+	}
+
+	public static QuickFixCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the quick fixes of the given problem, computing them with the
+	 * given processor unless they are cached.
+	 *
+	 * @param processor
+	 *            the quick fix processor
+	 * @param context
+	 *            the invocation context
+	 * @param problem
+	 *            the problem to fix
+	 * @return the proposals, a list the caller may modify
+	 * @throws CoreException
+	 *             if the quick fixes can't be computed
+	 */
+	public List<ChangeCorrectionProposal> getCorrections(QuickFixProcessor processor, IInvocationContext context, IProblemLocationCore problem) throws CoreException {
+		if (listening.compareAndSet(false, true)) {
+			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		}
+		long stamp = modelStamp.get();
+		String key = getKey(context, problem, stamp);
+		if (key != null) {
+			List<ChangeCorrectionProposal> proposals;
+			synchronized (entries) {
+				proposals = entries.get(key);
+			}
+			if (proposals != null) {
+				hitCount.incrementAndGet();
+				return new ArrayList<>(proposals);
+			}
+		}
+		missCount.incrementAndGet();
+		List<ChangeCorrectionProposal> proposals = processor.getCorrections(context, new IProblemLocationCore[] { problem });
+		if (key != null && stamp == modelStamp.get()) {
+			synchronized (entries) {
+				entries.put(key, Collections.unmodifiableList(new ArrayList<>(proposals)));
+			}
+		}
+		return new ArrayList<>(proposals);
+	}
+
+	private static String getKey(IInvocationContext context, IProblemLocationCore problem, long stamp) {
+		ICompilationUnit unit = context.getCompilationUnit();
+		String contentStamp = JDTUtils.getContentStamp(unit);
+		if (contentStamp == null) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder(unit.getHandleIdentifier());
+		key.append('#').append(contentStamp);
+		key.append('#').append(stamp);
+		key.append('#').append(unit.getOptions(true).hashCode());
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager != null) {
+			// the preferences are replaced when they change, except for the filtered types
+			Preferences preferences = preferenceManager.getPreferences();
+			key.append('#').append(System.identityHashCode(preferences)).append(':').append(Arrays.hashCode(preferences.getFilteredTypes()));
+		}
+		key.append('#').append(problem.getProblemId());
+		key.append('#').append(problem.getOffset()).append(':').append(problem.getLength());
+		int selectionOffset = context.getSelectionOffset();
+		int selectionLength = context.getSelectionLength();
+		if (selectionLength != 0 || selectionOffset < problem.getOffset() || selectionOffset > problem.getOffset() + problem.getLength()) {
+			key.append('#').append(selectionOffset).append(':').append(selectionLength);
+		}
+		return key.toString();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		modelStamp.incrementAndGet();
+		clear();
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of problems whose quick fixes were found in the cache
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the number of problems whose quick fixes were computed
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+}
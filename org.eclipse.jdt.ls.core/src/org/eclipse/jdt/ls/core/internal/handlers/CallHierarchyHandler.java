@@ -62,12 +62,19 @@ public class CallHierarchyHandler {
 	private static Map<IJavaElement, MethodWrapper> incomingMethodWrapperCache = new ConcurrentHashMap<>();
 	private static Map<IJavaElement, MethodWrapper> outgoingMethodWrapperCache = new ConcurrentHashMap<>();
 
+	/**
+	 * Releases the method wrappers cached for the last call hierarchy.
+	 */
+	public static void clearCache() {
+		incomingMethodWrapperCache.clear();
+		outgoingMethodWrapperCache.clear();
+	}
+
 	public List<CallHierarchyItem> prepareCallHierarchy(CallHierarchyPrepareParams params, IProgressMonitor monitor) {
 		Assert.isNotNull(params, "params");
 
 		// trigger call hierarchy at a new position, clean the method wrapper cache.
-		incomingMethodWrapperCache.clear();
-		outgoingMethodWrapperCache.clear();
+		clearCache();
 
 		String uri = params.getTextDocument().getUri();
 		int line = params.getPosition().getLine();
@@ -17,15 +17,24 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.JavaCore;
@@ -40,9 +49,16 @@ import org.eclipse.jdt.ls.core.internal.JavaCodeActionKind;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.corrections.DiagnosticsHelper;
 import org.eclipse.jdt.ls.core.internal.corrections.InnovationContext;
+import org.eclipse.jdt.ls.core.internal.corrections.QuickFixCache;
 import org.eclipse.jdt.ls.core.internal.corrections.QuickFixProcessor;
 import org.eclipse.jdt.ls.core.internal.corrections.RefactorProcessor;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.AddImportCorrectionProposal;
 import org.eclipse.jdt.ls.core.internal.corrections.proposals.ChangeCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.ChangeMethodSignatureProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.NewAnnotationMemberProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.NewCUProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.NewMethodCorrectionProposal;
+import org.eclipse.jdt.ls.core.internal.corrections.proposals.NewVariableCorrectionProposal;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.jdt.ls.core.internal.text.correction.AssignToVariableAssistCommandProposal;
@@ -53,6 +69,7 @@ import org.eclipse.jdt.ls.core.internal.text.correction.RefactoringCorrectionCom
 import org.eclipse.jdt.ls.core.internal.text.correction.SourceAssistProcessor;
 import org.eclipse.lsp4j.CodeAction;
 import org.eclipse.lsp4j.CodeActionContext;
+import org.eclipse.lsp4j.CodeActionDisabled;
 import org.eclipse.lsp4j.CodeActionKind;
 import org.eclipse.lsp4j.CodeActionParams;
 import org.eclipse.lsp4j.Command;
@@ -65,6 +82,26 @@ public class CodeActionHandler {
 
 	public static final String COMMAND_ID_APPLY_EDIT = "java.apply.workspaceEdit";
 
+	/**
+	 * The identifier of the quick fixes whose edit is computed by
+	 * codeAction/resolve
+	 */
+	public static final String QUICK_FIX_ACTION_ID = "quickFix";
+
+	private static final long CANCELLATION_CHECK_INTERVAL = 50;
+
+	/**
+	 * Runs the code action processors of the requests concurrently, one
+	 * thread per running processor. Most processors don't check the progress
+	 * monitor, so a processor left out after the code action timeout keeps
+	 * running; it mustn't hold back the processors of the next requests.
+	 */
+	private static final ThreadPoolExecutor PROCESSOR_EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+		Thread thread = new Thread(r, "Code Action Processor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private QuickFixProcessor quickFixProcessor;
 	private RefactorProcessor refactorProcessor;
 	private QuickAssistProcessor quickAssistProcessor;
@@ -82,6 +119,18 @@ public class CodeActionHandler {
 		this.nonProjectFixProcessor = new NonProjectFixProcessor(preferenceManager);
 	}
 
+	/**
+	 * Returns the code actions of the given request.
+	 *
+	 * The processors of the requested kinds run concurrently. As they create
+	 * nodes on their AST, only one of them uses the shared AST, the others
+	 * parse their own AST when they need one. Their code actions are
+	 * returned in a fixed order: non-project quick fixes, quick fixes,
+	 * refactorings, quick assists and source actions. When a code action
+	 * timeout is set and reached, the code actions computed so far are
+	 * returned, and the missing categories are logged and, when the client
+	 * shows disabled code actions, returned as such.
+	 */
 	public List<Either<Command, CodeAction>> getCodeActionCommands(CodeActionParams params, IProgressMonitor monitor) {
 		if (monitor.isCanceled()) {
 			return Collections.emptyList();
@@ -91,6 +140,166 @@ public class CodeActionHandler {
 			return Collections.emptyList();
 		}
 
+		applyFormattingOptions(unit, params);
+
+		CompilationUnit astRoot = getASTRoot(unit, monitor);
+		if (astRoot == null || monitor.isCanceled()) {
+			return Collections.emptyList();
+		}
+
+		InnovationContext context = getContext(unit, astRoot, params);
+		IProblemLocationCore[] locations = getProblemLocationCores(unit, params);
+		if (monitor.isCanceled()) {
+			return Collections.emptyList();
+		}
+
+		List<String> codeActionKinds = new ArrayList<>();
+		if (params.getContext().getOnly() != null && !params.getContext().getOnly().isEmpty()) {
+			codeActionKinds.addAll(params.getContext().getOnly());
+		} else {
+			List<String> defaultCodeActionKinds = Arrays.asList(
+				CodeActionKind.QuickFix,
+				CodeActionKind.Refactor,
+				JavaCodeActionKind.QUICK_ASSIST,
+				CodeActionKind.Source
+			);
+			codeActionKinds.addAll(defaultCodeActionKinds);
+		}
+
+		ProcessorMonitor processorMonitor = new ProcessorMonitor(monitor, preferenceManager.getPreferences().getCodeActionTimeout());
+		List<Category> categories = new ArrayList<>();
+		ChangeCorrectionProposalComparator comparator = new ChangeCorrectionProposalComparator();
+		if (containsKind(codeActionKinds, CodeActionKind.QuickFix)) {
+			// only reads the compilation unit of the context
+			categories.add(new Category("Non-project quick fixes", CodeActionKind.QuickFix, false, false, c -> nonProjectFixProcessor.getCorrections(params, c, locations)));
+			categories.add(new Category("Quick fixes", CodeActionKind.QuickFix, true, true, c -> {
+				List<ChangeCorrectionProposal> quickfixProposals = getQuickFixProposals(c, locations);
+				quickfixProposals.sort(comparator);
+				return getCodeActionsFromProposals(quickfixProposals, params, processorMonitor);
+			}));
+		}
+		if (containsKind(codeActionKinds, CodeActionKind.Refactor)) {
+			categories.add(new Category("Refactorings", CodeActionKind.Refactor, true, true, c -> {
+				List<ChangeCorrectionProposal> refactorProposals = this.refactorProcessor.getProposals(params, c, locations);
+				refactorProposals.sort(comparator);
+				return getCodeActionsFromProposals(refactorProposals, params, processorMonitor);
+			}));
+		}
+		if (containsKind(codeActionKinds, JavaCodeActionKind.QUICK_ASSIST)) {
+			categories.add(new Category("Quick assists", JavaCodeActionKind.QUICK_ASSIST, true, true, c -> {
+				List<ChangeCorrectionProposal> quickassistProposals = this.quickAssistProcessor.getAssists(params, c, locations);
+				quickassistProposals.sort(comparator);
+				return getCodeActionsFromProposals(quickassistProposals, params, processorMonitor);
+			}));
+		}
+		if (containsKind(codeActionKinds, CodeActionKind.Source)) {
+			categories.add(new Category("Source actions", CodeActionKind.Source, false, true, c -> sourceAssistProcessor.getSourceActionCommands(params, c, locations, processorMonitor)));
+		}
+		boolean sharedASTUsed = false;
+		for (Category category : categories) {
+			InnovationContext categoryContext = context;
+			if (category.usesAST) {
+				// without AST, the context parses its own AST when it's first asked for
+				categoryContext = sharedASTUsed ? getContext(unit, null, params) : context;
+				sharedASTUsed = true;
+			}
+			InnovationContext processorContext = categoryContext;
+			category.future = PROCESSOR_EXECUTOR.submit(() -> category.processor.getCodeActions(processorContext));
+		}
+
+		List<Either<Command, CodeAction>> codeActions = new ArrayList<>();
+		List<String> missingCategories = new ArrayList<>();
+		for (Category category : categories) {
+			List<Either<Command, CodeAction>> categoryCodeActions = getResult(category, processorMonitor);
+			if (monitor.isCanceled()) {
+				categories.forEach(c -> c.future.cancel(false));
+				return Collections.emptyList();
+			}
+			if (categoryCodeActions == null) {
+				missingCategories.add(category.label);
+				category.future.cancel(false);
+				Optional<Either<Command, CodeAction>> missingCodeAction = getMissingCodeAction(category, processorMonitor.getTimeout());
+				if (missingCodeAction.isPresent() && !codeActions.contains(missingCodeAction.get())) {
+					codeActions.add(missingCodeAction.get());
+				}
+				continue;
+			}
+			for (Either<Command, CodeAction> codeAction : categoryCodeActions) {
+				if (!category.deduplicate || !codeActions.contains(codeAction)) {
+					codeActions.add(codeAction);
+				}
+			}
+		}
+		if (!missingCategories.isEmpty()) {
+			JavaLanguageServerPlugin.logInfo("Code actions timeout of " + processorMonitor.getTimeout() + " ms reached, left out: " + String.join(", ", missingCategories));
+		}
+		return codeActions;
+	}
+
+	/**
+	 * Waits for the code actions of the given category, until the request is
+	 * canceled or the timeout is reached.
+	 *
+	 * @return the code actions, or <code>null</code> if they weren't computed
+	 *         in time
+	 */
+	private static List<Either<Command, CodeAction>> getResult(Category category, ProcessorMonitor monitor) {
+		while (!monitor.isCanceled()) {
+			try {
+				return category.future.get(Math.min(monitor.getRemainingTime(), CANCELLATION_CHECK_INTERVAL), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check the cancellation and the timeout again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof OperationCanceledException) {
+					return null;
+				}
+				JavaLanguageServerPlugin.logException("Problem resolving " + category.label.toLowerCase(), e.getCause());
+				return Collections.emptyList();
+			}
+		}
+		return category.future.isDone() && !category.future.isCancelled() ? getNow(category) : null;
+	}
+
+	private static List<Either<Command, CodeAction>> getNow(Category category) {
+		try {
+			return category.future.get();
+		} catch (InterruptedException | ExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a disabled code action telling the code actions of the given
+	 * category weren't computed in time, if the client shows them.
+	 */
+	private Optional<Either<Command, CodeAction>> getMissingCodeAction(Category category, int timeout) {
+		if (!preferenceManager.getClientPreferences().isCodeActionDisabledSupported() || !preferenceManager.getClientPreferences().isSupportedCodeActionKind(category.kind)) {
+			return Optional.empty();
+		}
+		CodeAction codeAction = new CodeAction(category.label);
+		codeAction.setKind(category.kind);
+		codeAction.setDisabled(new CodeActionDisabled(category.label + " were not computed within " + timeout + " ms"));
+		return Optional.of(Either.forRight(codeAction));
+	}
+
+	private List<Either<Command, CodeAction>> getCodeActionsFromProposals(List<ChangeCorrectionProposal> proposals, CodeActionParams params, IProgressMonitor monitor) throws CoreException {
+		List<Either<Command, CodeAction>> codeActions = new ArrayList<>();
+		for (int i = 0; i < proposals.size(); i++) {
+			if (monitor.isCanceled()) {
+				break;
+			}
+			Optional<Either<Command, CodeAction>> codeActionFromProposal = getCodeActionFromProposal(proposals.get(i), i, params);
+			if (codeActionFromProposal.isPresent() && !codeActions.contains(codeActionFromProposal.get())) {
+				codeActions.add(codeActionFromProposal.get());
+			}
+		}
+		return codeActions;
+	}
+
+	private static void applyFormattingOptions(ICompilationUnit unit, CodeActionParams params) {
 		Map<String, Object> formattingOptions = ConfigurationHandler.getFormattingOptions(params.getTextDocument().getUri());
 		if (formattingOptions != null && !formattingOptions.isEmpty()) {
 			Object tabSizeValue = formattingOptions.get(Preferences.JAVA_CONFIGURATION_TABSIZE);
@@ -116,103 +325,100 @@ public class CodeActionHandler {
 				unit.setOptions(customOptions);
 			}
 		}
+	}
 
-		CompilationUnit astRoot = getASTRoot(unit, monitor);
-		if (astRoot == null || monitor.isCanceled()) {
-			return Collections.emptyList();
-		}
-
+	private static InnovationContext getContext(ICompilationUnit unit, CompilationUnit astRoot, CodeActionParams params) {
 		int start = DiagnosticsHelper.getStartOffset(unit, params.getRange());
 		int end = DiagnosticsHelper.getEndOffset(unit, params.getRange());
 		InnovationContext context = new InnovationContext(unit, start, end - start);
 		context.setASTRoot(astRoot);
+		return context;
+	}
 
+	private static IProblemLocationCore[] getProblemLocationCores(ICompilationUnit unit, CodeActionParams params) {
 		List<Diagnostic> diagnostics = params.getContext().getDiagnostics().stream().filter((d) -> {
 			return JavaLanguageServerPlugin.SERVER_SOURCE_ID.equals(d.getSource());
 		}).collect(Collectors.toList());
-		IProblemLocationCore[] locations = this.getProblemLocationCores(unit, diagnostics);
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
-		}
-
-		List<String> codeActionKinds = new ArrayList<>();
-		if (params.getContext().getOnly() != null && !params.getContext().getOnly().isEmpty()) {
-			codeActionKinds.addAll(params.getContext().getOnly());
-		} else {
-			List<String> defaultCodeActionKinds = Arrays.asList(
-				CodeActionKind.QuickFix,
-				CodeActionKind.Refactor,
-				JavaCodeActionKind.QUICK_ASSIST,
-				CodeActionKind.Source
-			);
-			codeActionKinds.addAll(defaultCodeActionKinds);
-		}
+		return getProblemLocationCores(unit, diagnostics);
+	}
 
-		List<Either<Command, CodeAction>> codeActions = new ArrayList<>();
+	/**
+	 * Returns the quick fixes of the given problems, from the
+	 * {@link QuickFixCache}. As in {@link QuickFixProcessor}, only the first
+	 * problem of each kind is fixed.
+	 */
+	private List<ChangeCorrectionProposal> getQuickFixProposals(InnovationContext context, IProblemLocationCore[] locations) throws CoreException {
 		List<ChangeCorrectionProposal> proposals = new ArrayList<>();
-		ChangeCorrectionProposalComparator comparator = new ChangeCorrectionProposalComparator();
-		if (containsKind(codeActionKinds, CodeActionKind.QuickFix)) {
-			try {
-				codeActions.addAll(nonProjectFixProcessor.getCorrections(params, context, locations));
-				List<ChangeCorrectionProposal> quickfixProposals = this.quickFixProcessor.getCorrections(context, locations);
-				quickfixProposals.sort(comparator);
-				proposals.addAll(quickfixProposals);
-			} catch (CoreException e) {
-				JavaLanguageServerPlugin.logException("Problem resolving quick fix code actions", e);
+		Set<Integer> handledProblems = new HashSet<>(locations.length);
+		for (IProblemLocationCore location : locations) {
+			if (handledProblems.add(location.getProblemId())) {
+				proposals.addAll(QuickFixCache.getInstance().getCorrections(quickFixProcessor, context, location));
 			}
 		}
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
-		}
+		return proposals;
+	}
 
-		if (containsKind(codeActionKinds, CodeActionKind.Refactor)) {
-			try {
-				List<ChangeCorrectionProposal> refactorProposals = this.refactorProcessor.getProposals(params, context, locations);
-				refactorProposals.sort(comparator);
-				proposals.addAll(refactorProposals);
-			} catch (CoreException e) {
-				JavaLanguageServerPlugin.logException("Problem resolving refactor code actions", e);
-			}
-		}
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
-		}
-		if (containsKind(codeActionKinds, JavaCodeActionKind.QUICK_ASSIST)) {
-			try {
-				List<ChangeCorrectionProposal> quickassistProposals = this.quickAssistProcessor.getAssists(params, context, locations);
-				quickassistProposals.sort(comparator);
-				proposals.addAll(quickassistProposals);
-			} catch (CoreException e) {
-				JavaLanguageServerPlugin.logException("Problem resolving quick assist code actions", e);
-			}
-		}
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
-		}
-		try {
-			for (ChangeCorrectionProposal proposal : proposals) {
-				Optional<Either<Command, CodeAction>> codeActionFromProposal = getCodeActionFromProposal(proposal, params.getContext());
-				if (codeActionFromProposal.isPresent() && !codeActions.contains(codeActionFromProposal.get())) {
-					codeActions.add(codeActionFromProposal.get());
-				}
-			}
-		} catch (CoreException e) {
-			JavaLanguageServerPlugin.logException("Problem converting proposal to code actions", e);
+	/**
+	 * Computes the edit of a quick fix returned without edit, by looking it up
+	 * at its index in the sorted quick fixes of the request parameters. The
+	 * names of the quick fixes aren't unique, the name only checks that the
+	 * quick fixes didn't change since.
+	 *
+	 * @param params
+	 *            the parameters of the code action request
+	 * @param index
+	 *            the index of the quick fix
+	 * @param name
+	 *            the name of the quick fix
+	 * @param monitor
+	 *            a progress monitor
+	 * @return the edit, or <code>null</code> if the quick fix is no longer
+	 *         proposed
+	 * @throws CoreException
+	 *             if the edit can't be computed
+	 */
+	public WorkspaceEdit resolveQuickFix(CodeActionParams params, int index, String name, IProgressMonitor monitor) throws CoreException {
+		final ICompilationUnit unit = JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
+		if (unit == null || monitor.isCanceled()) {
+			return null;
 		}
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
+		applyFormattingOptions(unit, params);
+		CompilationUnit astRoot = getASTRoot(unit, monitor);
+		if (astRoot == null || monitor.isCanceled()) {
+			return null;
 		}
-		if (containsKind(codeActionKinds, CodeActionKind.Source)) {
-			codeActions.addAll(sourceAssistProcessor.getSourceActionCommands(params, context, locations, monitor));
+		InnovationContext context = getContext(unit, astRoot, params);
+		List<ChangeCorrectionProposal> proposals = getQuickFixProposals(context, getProblemLocationCores(unit, params));
+		proposals.sort(new ChangeCorrectionProposalComparator());
+		if (index < 0 || index >= proposals.size() || !name.equals(proposals.get(index).getName())) {
+			return null;
 		}
-		if (monitor.isCanceled()) {
-			return Collections.emptyList();
+		return ChangeUtil.convertToWorkspaceEdit(proposals.get(index).getChange());
+	}
+
+	/**
+	 * Checks whether the edit of the given proposal is costly enough to be
+	 * computed by codeAction/resolve only: the edits adding imports, or
+	 * changing other compilation units, resolve types and parse other files.
+	 */
+	private boolean isResolvedLazily(ChangeCorrectionProposal proposal) {
+		if (!(proposal instanceof AddImportCorrectionProposal || proposal instanceof NewCUProposal || proposal instanceof NewMethodCorrectionProposal || proposal instanceof NewVariableCorrectionProposal
+				|| proposal instanceof NewAnnotationMemberProposal || proposal instanceof ChangeMethodSignatureProposal)) {
+			return false;
 		}
-		return codeActions;
+		return CodeActionKind.QuickFix.equals(proposal.getKind()) && preferenceManager.getClientPreferences().isResolveCodeActionSupported() && preferenceManager.getClientPreferences().isSupportedCodeActionKind(proposal.getKind());
 	}
 
-	private Optional<Either<Command, CodeAction>> getCodeActionFromProposal(ChangeCorrectionProposal proposal, CodeActionContext context) throws CoreException {
+	private Optional<Either<Command, CodeAction>> getCodeActionFromProposal(ChangeCorrectionProposal proposal, int index, CodeActionParams params) throws CoreException {
 		String name = proposal.getName();
+		CodeActionContext context = params.getContext();
+		if (isResolvedLazily(proposal)) {
+			CodeAction codeAction = new CodeAction(name);
+			codeAction.setKind(proposal.getKind());
+			codeAction.setDiagnostics(context.getDiagnostics());
+			codeAction.setData(Arrays.asList(QUICK_FIX_ACTION_ID, params, index, name));
+			return Optional.of(Either.forRight(codeAction));
+		}
 
 		Command command;
 		if (proposal instanceof CUCorrectionCommandProposal) {
@@ -307,4 +513,62 @@ public class CodeActionHandler {
 		return codeActionKinds.stream().anyMatch(kind -> kind.startsWith(baseKind));
 	}
 
+	/**
+	 * The code actions computed by a processor. Their order in the response is
+	 * the order of the categories, whichever processor ends first.
+	 */
+	private static final class Category {
+		private final String label;
+		private final String kind;
+		private final boolean deduplicate;
+		private final boolean usesAST;
+		private final CategoryProcessor processor;
+		private Future<List<Either<Command, CodeAction>>> future;
+
+		Category(String label, String kind, boolean deduplicate, boolean usesAST, CategoryProcessor processor) {
+			this.label = label;
+			this.kind = kind;
+			this.deduplicate = deduplicate;
+			this.usesAST = usesAST;
+			this.processor = processor;
+		}
+	}
+
+	/**
+	 * Computes the code actions of a category in the given context.
+	 */
+	@FunctionalInterface
+	private static interface CategoryProcessor {
+		List<Either<Command, CodeAction>> getCodeActions(InnovationContext context) throws Exception;
+	}
+
+	/**
+	 * A progress monitor canceled with the request, or once the code action
+	 * timeout is reached.
+	 */
+	private static final class ProcessorMonitor extends NullProgressMonitor {
+		private final IProgressMonitor monitor;
+		private final int timeout;
+		private final long deadline;
+
+		ProcessorMonitor(IProgressMonitor monitor, int timeout) {
+			this.monitor = monitor;
+			this.timeout = timeout;
+			this.deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return (monitor != null && monitor.isCanceled()) || getRemainingTime() <= 0;
+		}
+
+		long getRemainingTime() {
+			return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+		}
+
+		int getTimeout() {
+			return timeout;
+		}
+	}
+
 }
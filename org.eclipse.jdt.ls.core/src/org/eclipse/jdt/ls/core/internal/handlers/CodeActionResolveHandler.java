@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.ls.core.internal.JSONUtility;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.text.correction.SourceAssistProcessor;
+import org.eclipse.lsp4j.CodeAction;
+import org.eclipse.lsp4j.CodeActionParams;
+import org.eclipse.lsp4j.WorkspaceEdit;
+
+import com.google.gson.JsonArray;
+
+/**
+ * Computes the edits of the code actions returned without edit. The data of
+ * these code actions holds the identifier of the action and the parameters of
+ * the code action request, followed by the index and the name of the proposal
+ * for the quick fixes.
+ */
+public class CodeActionResolveHandler {
+
+	private final PreferenceManager preferenceManager;
+
+	public CodeActionResolveHandler(PreferenceManager preferenceManager) {
+		this.preferenceManager = preferenceManager;
+	}
+
+	public CodeAction resolve(CodeAction codeAction, IProgressMonitor monitor) {
+		if (codeAction == null || codeAction.getEdit() != null || !(codeAction.getData() instanceof JsonArray)) {
+			return codeAction;
+		}
+		JsonArray data = (JsonArray) codeAction.getData();
+		if (data.size() != 2 && data.size() != 4) {
+			return codeAction;
+		}
+		String actionId = JSONUtility.toModel(data.get(0), String.class);
+		CodeActionParams params = JSONUtility.toLsp4jModel(data.get(1), CodeActionParams.class);
+		try {
+			WorkspaceEdit edit;
+			if (data.size() == 4 && CodeActionHandler.QUICK_FIX_ACTION_ID.equals(actionId)) {
+				int index = JSONUtility.toModel(data.get(2), Integer.class);
+				String name = JSONUtility.toModel(data.get(3), String.class);
+				edit = new CodeActionHandler(preferenceManager).resolveQuickFix(params, index, name, monitor);
+			} else {
+				edit = new SourceAssistProcessor(preferenceManager).resolveSourceAction(actionId, params, monitor);
+			}
+			codeAction.setEdit(edit == null ? new WorkspaceEdit() : edit);
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Problem resolving the " + actionId + " code action", e);
+		}
+		return codeAction;
+	}
+}
@@ -64,9 +64,22 @@ public class CodeLensHandler {
 	public static final String REFERENCES_TYPE = "references";
 
 	private final PreferenceManager preferenceManager;
+	private final ReferenceCountIndex referenceCountIndex;
 
 	public CodeLensHandler(PreferenceManager preferenceManager) {
+		this(preferenceManager, null);
+	}
+
+	/**
+	 * @param preferenceManager
+	 *            the preference manager
+	 * @param referenceCountIndex
+	 *            the index used to resolve references code lenses, or
+	 *            <code>null</code> to search the whole workspace for each lens
+	 */
+	public CodeLensHandler(PreferenceManager preferenceManager, ReferenceCountIndex referenceCountIndex) {
 		this.preferenceManager = preferenceManager;
+		this.referenceCountIndex = referenceCountIndex;
 	}
 
 	public CodeLens resolve(CodeLens lens, IProgressMonitor monitor) {
@@ -141,6 +154,9 @@ public class CodeLensHandler {
 		if (element == null) {
 			return Collections.emptyList();
 		}
+		if (referenceCountIndex != null) {
+			return referenceCountIndex.findReferences(element, monitor);
+		}
 		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
 		final List<Location> result = new ArrayList<>();
 		SearchEngine engine = new SearchEngine();
@@ -12,14 +12,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
-import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.jdt.core.IJavaElement.COMPILATION_UNIT;
 import static org.eclipse.jdt.core.IJavaElement.FIELD;
 import static org.eclipse.jdt.core.IJavaElement.METHOD;
 import static org.eclipse.jdt.core.IJavaElement.PACKAGE_DECLARATION;
 import static org.eclipse.jdt.core.IJavaElement.TYPE;
-import static org.eclipse.jdt.ls.core.internal.JDTUtils.LocationType.FULL_RANGE;
 import static org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin.logInfo;
 import static org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels.ALL_DEFAULT;
 import static org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels.M_APP_RETURNTYPE;
@@ -28,26 +26,37 @@ import static org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels.ROOT_VARI
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IParent;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.SourceRange;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.hover.JavaElementLabels;
+import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
 import org.eclipse.lsp4j.DocumentSymbol;
 import org.eclipse.lsp4j.DocumentSymbolParams;
 import org.eclipse.lsp4j.Location;
@@ -61,6 +70,20 @@ import org.eclipse.xtext.xbase.lib.Exceptions;
 public class DocumentSymbolHandler {
 	private static Range DEFAULT_RANGE = new Range(new Position(0, 0), new Position(0, 0));
 
+	private static final int MAX_CACHED_OUTLINES = 50;
+
+	/**
+	 * The outlines of the recently requested units, by handle identifier
+	 */
+	private static final Map<String, Outline> outlines = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Outline> eldest) {
+			return size() > MAX_CACHED_OUTLINES;
+		}
+	});
+
 	private boolean hierarchicalDocumentSymbolSupported;
 
 	public DocumentSymbolHandler(boolean hierarchicalDocumentSymbolSupported) {
@@ -68,86 +91,126 @@ public class DocumentSymbolHandler {
 	}
 
 	public List<Either<SymbolInformation, DocumentSymbol>> documentSymbol(DocumentSymbolParams params, IProgressMonitor monitor) {
+		JavaClientConnection connection = null;
+		if (params.getPartialResultToken() != null && JavaLanguageServerPlugin.getInstance() != null) {
+			connection = JavaLanguageServerPlugin.getInstance().getClientConnection();
+		}
+		return documentSymbol(params, new PartialResultCollector<>(connection, params.getPartialResultToken()), monitor);
+	}
 
+	/**
+	 * Computes the symbols of the requested document. When the collector
+	 * streams its results, each top-level document symbol is sent to the
+	 * client once built, and the symbol informations are sent in batches.
+	 */
+	public List<Either<SymbolInformation, DocumentSymbol>> documentSymbol(DocumentSymbolParams params, PartialResultCollector<Either<SymbolInformation, DocumentSymbol>> symbols, IProgressMonitor monitor) {
 		ITypeRoot unit = JDTUtils.resolveTypeRoot(params.getTextDocument().getUri());
 		if (unit == null || !unit.exists()) {
 			return Collections.emptyList();
 		}
 
 		if (hierarchicalDocumentSymbolSupported) {
-			List<DocumentSymbol> symbols = this.getHierarchicalOutline(unit, monitor);
-			return symbols.stream().map(Either::<SymbolInformation, DocumentSymbol>forRight).collect(toList());
+			this.getHierarchicalOutline(unit, symbols, monitor);
 		} else {
-			SymbolInformation[] elements = this.getOutline(unit, monitor);
-			return Arrays.asList(elements).stream().map(Either::<SymbolInformation, DocumentSymbol>forLeft).collect(toList());
+			this.getOutline(unit, symbols, monitor);
 		}
+		return symbols.getResults();
+	}
+
+	/**
+	 * Releases the outlines of the recently requested units.
+	 */
+	public static void clearCache() {
+		outlines.clear();
 	}
 
-	private SymbolInformation[] getOutline(ITypeRoot unit, IProgressMonitor monitor) {
+	private void getOutline(ITypeRoot unit, PartialResultCollector<Either<SymbolInformation, DocumentSymbol>> collector, IProgressMonitor monitor) {
 		try {
+			OutlineContext context = new OutlineContext(unit);
+			if (context.outline.symbolInformations != null) {
+				collector.addAll(Stream.of(context.outline.symbolInformations).map(Either::<SymbolInformation, DocumentSymbol>forLeft).collect(toList()));
+				return;
+			}
 			IJavaElement[] elements = unit.getChildren();
-			ArrayList<SymbolInformation> symbols = new ArrayList<>(elements.length);
-			collectChildren(unit, elements, symbols, monitor);
-			return symbols.toArray(new SymbolInformation[symbols.size()]);
+			Set<SymbolInformation> symbols = new LinkedHashSet<>(elements.length);
+			collectChildren(context, elements, symbols, collector, monitor);
+			context.outline.symbolInformations = symbols.toArray(new SymbolInformation[symbols.size()]);
+			context.save();
 		} catch (JavaModelException e) {
+			collector.clear();
 			if (!unit.exists()) {
 				JavaLanguageServerPlugin.logError("Problem getting outline for " + unit.getElementName() + ": File not found.");
 			} else {
 				JavaLanguageServerPlugin.logException("Problem getting outline for " + unit.getElementName(), e);
 			}
 		}
-		return new SymbolInformation[0];
 	}
 
-	private void collectChildren(ITypeRoot unit, IJavaElement[] elements, ArrayList<SymbolInformation> symbols,
-			IProgressMonitor monitor)
+	private void collectChildren(OutlineContext context, IJavaElement[] elements, Set<SymbolInformation> symbols,
+			PartialResultCollector<Either<SymbolInformation, DocumentSymbol>> collector, IProgressMonitor monitor)
 			throws JavaModelException {
 		for (IJavaElement element : elements) {
 			if (monitor.isCanceled()) {
 				throw new OperationCanceledException();
 			}
 			if (element instanceof IParent) {
-				collectChildren(unit, filter(((IParent) element).getChildren()), symbols, monitor);
+				collectChildren(context, filter(((IParent) element).getChildren()), symbols, collector, monitor);
 			}
 			int type = element.getElementType();
 			if (type != IJavaElement.TYPE && type != IJavaElement.FIELD && type != IJavaElement.METHOD) {
 				continue;
 			}
 
-			Location location = JDTUtils.toLocation(element);
-			if (location != null) {
+			Range range = context.toRange(JDTUtils.getNameRange(element));
+			if (range != null) {
 				SymbolInformation si = new SymbolInformation();
-				String name = JavaElementLabels.getElementLabel(element, JavaElementLabels.ALL_DEFAULT);
-				si.setName(name == null ? element.getElementName() : name);
-				si.setKind(mapKind(element));
+				Labels labels = context.getLabels(element);
+				si.setName(labels.name);
+				si.setKind(labels.kind);
 				if (element.getParent() != null) {
 					si.setContainerName(element.getParent().getElementName());
 				}
-				location.setUri(ResourceUtils.toClientUri(location.getUri()));
-				si.setLocation(location);
-				if (!symbols.contains(si)) {
-					symbols.add(si);
+				si.setLocation(new Location(context.uri, range));
+				if (symbols.add(si)) {
+					collector.add(Either.forLeft(si));
 				}
 			}
 		}
 	}
 
-	private List<DocumentSymbol> getHierarchicalOutline(ITypeRoot unit, IProgressMonitor monitor) {
+	private void getHierarchicalOutline(ITypeRoot unit, PartialResultCollector<Either<SymbolInformation, DocumentSymbol>> collector, IProgressMonitor monitor) {
 		try {
-			return Stream.of(filter(unit.getChildren())).map(child -> toDocumentSymbol(child, monitor)).filter(Objects::nonNull).collect(Collectors.toList());
+			OutlineContext context = new OutlineContext(unit);
+			if (context.outline.documentSymbols != null) {
+				collector.addAll(context.outline.documentSymbols.stream().map(Either::<SymbolInformation, DocumentSymbol>forRight).collect(toList()));
+				return;
+			}
+			List<DocumentSymbol> documentSymbols = new ArrayList<>();
+			for (IJavaElement child : filter(unit.getChildren())) {
+				DocumentSymbol symbol = toDocumentSymbol(context, child, monitor);
+				if (symbol != null) {
+					documentSymbols.add(symbol);
+					collector.add(Either.forRight(symbol));
+					// don't wait for the next top-level type
+					collector.flush();
+				}
+			}
+			context.outline.documentSymbols = documentSymbols;
+			context.save();
 		} catch (OperationCanceledException e) {
+			collector.clear();
 			logInfo("User abort while collecting the document symbols.");
 		} catch (JavaModelException e) {
+			collector.clear();
 			if (!unit.exists()) {
 				JavaLanguageServerPlugin.logError("Problem getting outline for " + unit.getElementName() + ": File not found.");
 			} else {
 				JavaLanguageServerPlugin.logException("Problem getting outline for " + unit.getElementName(), e);
 			}
 		}
-		return emptyList();
 	}
 
-	private DocumentSymbol toDocumentSymbol(IJavaElement unit, IProgressMonitor monitor) {
+	private DocumentSymbol toDocumentSymbol(OutlineContext context, IJavaElement unit, IProgressMonitor monitor) {
 		int type = unit.getElementType();
 		if (type != TYPE && type != FIELD && type != METHOD && type != PACKAGE_DECLARATION && type != COMPILATION_UNIT) {
 			return null;
@@ -157,21 +220,23 @@ public class DocumentSymbolHandler {
 		}
 		DocumentSymbol symbol = new DocumentSymbol();
 		try {
-			String name = getName(unit);
-			symbol.setName(name);
-			symbol.setRange(getRange(unit));
-			symbol.setSelectionRange(getSelectionRange(unit));
-			symbol.setKind(mapKind(unit));
+			Labels labels = context.getLabels(unit);
+			symbol.setName(labels.name);
+			symbol.setRange(getRange(context, JDTUtils.getSourceRange(unit)));
+			symbol.setSelectionRange(getRange(context, JDTUtils.getNameRange(unit)));
+			symbol.setKind(labels.kind);
 			symbol.setDeprecated(isDeprecated(unit));
-			symbol.setDetail(getDetail(unit, name));
+			symbol.setDetail(context.getDetail(unit, labels));
 			if (unit instanceof IParent) {
-				//@formatter:off
 				IJavaElement[] children = filter(((IParent) unit).getChildren());
-				symbol.setChildren(Stream.of(children)
-						.map(child -> toDocumentSymbol(child, monitor))
-						.filter(Objects::nonNull)
-						.collect(Collectors.toList()));
-				//@formatter:off
+				List<DocumentSymbol> childSymbols = new ArrayList<>(children.length);
+				for (IJavaElement child : children) {
+					DocumentSymbol childSymbol = toDocumentSymbol(context, child, monitor);
+					if (childSymbol != null) {
+						childSymbols.add(childSymbol);
+					}
+				}
+				symbol.setChildren(childSymbols);
 			}
 		} catch (JavaModelException e) {
 			Exceptions.sneakyThrow(e);
@@ -179,19 +244,22 @@ public class DocumentSymbolHandler {
 		return symbol;
 	}
 
-	private String getName(IJavaElement element) {
-		String name = JavaElementLabels.getElementLabel(element, ALL_DEFAULT);
-		return name == null ? element.getElementName() : name;
+	private static int getDetailLimit() {
+		PreferenceManager preferenceManager = JavaLanguageServerPlugin.getPreferencesManager();
+		if (preferenceManager == null) {
+			return Preferences.JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_DEFAULT;
+		}
+		return preferenceManager.getPreferences().getDocumentSymbolDetailLimit();
 	}
 
-	private Range getRange(IJavaElement element) throws JavaModelException {
-		Location location = JDTUtils.toLocation(element, FULL_RANGE);
-		return location == null ? DEFAULT_RANGE : location.getRange();
+	private static String getName(IJavaElement element) {
+		String name = JavaElementLabels.getElementLabel(element, ALL_DEFAULT);
+		return name == null ? element.getElementName() : name;
 	}
 
-	private Range getSelectionRange(IJavaElement element) throws JavaModelException {
-		Location location = JDTUtils.toLocation(element);
-		return location == null ? DEFAULT_RANGE : location.getRange();
+	private static Range getRange(OutlineContext context, ISourceRange sourceRange) {
+		Range range = context.toRange(sourceRange);
+		return range == null ? DEFAULT_RANGE : range;
 	}
 
 	private boolean isDeprecated(IJavaElement element) throws JavaModelException {
@@ -201,7 +269,7 @@ public class DocumentSymbolHandler {
 		return false;
 	}
 
-	private String getDetail(IJavaElement element, String name) {
+	private static String getDetail(IJavaElement element, String name) {
 		String nameWithDetails = JavaElementLabels.getElementLabel(element, ALL_DEFAULT | M_APP_RETURNTYPE | ROOT_VARIABLE);
 		if (nameWithDetails != null && nameWithDetails.startsWith(name)) {
 			return nameWithDetails.substring(name.length());
@@ -209,13 +277,13 @@ public class DocumentSymbolHandler {
 		return "";
 	}
 
-	private IJavaElement[] filter(IJavaElement[] elements) {
+	private static IJavaElement[] filter(IJavaElement[] elements) {
 		return Stream.of(elements)
 				.filter(e -> (!isInitializer(e) && !isSyntheticElement(e)))
 				.toArray(IJavaElement[]::new);
 	}
 
-	private boolean isInitializer(IJavaElement element) {
+	private static boolean isInitializer(IJavaElement element) {
 		if (element.getElementType() == IJavaElement.METHOD) {
 			String name = element.getElementName();
 			if ((name != null && name.indexOf('<') >= 0)) {
@@ -225,7 +293,7 @@ public class DocumentSymbolHandler {
 		return false;
 	}
 
-	private boolean isSyntheticElement(IJavaElement element) {
+	private static boolean isSyntheticElement(IJavaElement element) {
 		if (!(element instanceof IMember)) {
 			return false;
 		}
@@ -301,4 +369,201 @@ public class DocumentSymbolHandler {
 		return SymbolKind.String;
 	}
 
+	/**
+	 * Returns the part of the given element its labels and kind depend on. It
+	 * is read from the element info, so it's much cheaper than the labels.
+	 */
+	private static String getStructureKey(IJavaElement element) throws JavaModelException {
+		StringBuilder key = new StringBuilder(element.getHandleIdentifier());
+		if (element instanceof IMember) {
+			key.append('|').append(((IMember) element).getFlags());
+		}
+		if (element instanceof IMethod) {
+			IMethod method = (IMethod) element;
+			key.append('|').append(method.getReturnType());
+			key.append('|').append(String.join(",", method.getParameterNames()));
+			key.append('|').append(String.join(",", method.getTypeParameterSignatures()));
+		} else if (element instanceof IField) {
+			IField field = (IField) element;
+			key.append('|').append(field.getTypeSignature()).append('|').append(field.isEnumConstant());
+		} else if (element instanceof IType) {
+			IType type = (IType) element;
+			key.append('|').append(String.join(",", type.getTypeParameterSignatures()));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * The outline of a unit. The symbols are computed for a single content
+	 * stamp and detail limit, the labels are kept while the structure of their
+	 * element and the detail limit don't change.
+	 */
+	private static final class Outline {
+		private final String stamp;
+		private final int detailLimit;
+		private final Map<String, Labels> labels = new HashMap<>();
+		private List<DocumentSymbol> documentSymbols;
+		private SymbolInformation[] symbolInformations;
+
+		Outline(String stamp, int detailLimit) {
+			this.stamp = stamp;
+			this.detailLimit = detailLimit;
+		}
+	}
+
+	/**
+	 * The labels of an element. The detail is only computed for the document
+	 * symbols which show it.
+	 */
+	private static final class Labels {
+		private final String key;
+		private final String name;
+		private final SymbolKind kind;
+		private IJavaElement element;
+		private String detail;
+
+		Labels(String key, IJavaElement element) {
+			this.key = key;
+			this.element = element;
+			this.name = getName(element);
+			this.kind = mapKind(element);
+		}
+
+		// the cached labels are shared by the concurrent requests
+		synchronized boolean hasDetail() {
+			return element == null;
+		}
+
+		synchronized String getDetail() {
+			if (element != null) {
+				detail = DocumentSymbolHandler.getDetail(element, name);
+				element = null;
+			}
+			return detail;
+		}
+	}
+
+	/**
+	 * Computes the symbols of a unit in a single pass, converting the source
+	 * ranges with a table of the line offsets.
+	 */
+	private static final class OutlineContext {
+		private final ITypeRoot unit;
+		private final String stamp;
+		private final Outline previous;
+		private final Outline outline;
+		private final String uri;
+		private final int[] lineOffsets;
+		private final int length;
+		private final int detailLimit = getDetailLimit();
+		private int memberCount;
+
+		OutlineContext(ITypeRoot unit) throws JavaModelException {
+			this.unit = unit;
+			IBuffer buffer = unit.getBuffer();
+			String stamp = JDTUtils.getContentStamp(unit);
+			this.stamp = stamp == null ? null : stamp + ":" + (buffer != null) + ":" + detailLimit;
+			Outline cached = this.stamp == null ? null : outlines.get(unit.getHandleIdentifier());
+			if (cached != null && cached.stamp.equals(this.stamp)) {
+				this.previous = cached;
+				this.outline = cached;
+				this.uri = null;
+				this.lineOffsets = null;
+				this.length = 0;
+				return;
+			}
+			// the known details depend on the detail limit
+			this.previous = cached != null && cached.detailLimit == detailLimit ? cached : null;
+			this.outline = new Outline(this.stamp, detailLimit);
+			if (unit instanceof ICompilationUnit) {
+				this.uri = ResourceUtils.toClientUri(JDTUtils.toURI((ICompilationUnit) unit));
+			} else {
+				String classFileUri = JDTUtils.toUri((IClassFile) unit);
+				this.uri = classFileUri == null ? null : ResourceUtils.toClientUri(classFileUri);
+			}
+			String contents = buffer == null ? null : buffer.getContents();
+			this.lineOffsets = contents == null ? null : computeLineOffsets(contents);
+			this.length = contents == null ? 0 : contents.length();
+		}
+
+		Labels getLabels(IJavaElement element) throws JavaModelException {
+			String key = getStructureKey(element);
+			String handle = element.getHandleIdentifier();
+			Labels labels = outline.labels.get(handle);
+			if (labels == null && previous != null) {
+				labels = previous.labels.get(handle);
+			}
+			if (labels == null || !labels.key.equals(key)) {
+				labels = new Labels(key, element);
+			}
+			outline.labels.put(handle, labels);
+			return labels;
+		}
+
+		/**
+		 * Returns the detail of the given element, or <code>null</code> past
+		 * the detail limit, unless it's already known.
+		 */
+		String getDetail(IJavaElement element, Labels labels) {
+			int type = element.getElementType();
+			if (type == TYPE || type == FIELD || type == METHOD) {
+				memberCount++;
+				if (detailLimit > 0 && memberCount > detailLimit && !labels.hasDetail()) {
+					return null;
+				}
+			}
+			return labels.getDetail();
+		}
+
+		/**
+		 * Returns the range of the given source range, or <code>null</code>
+		 * if it isn't available.
+		 */
+		Range toRange(ISourceRange sourceRange) {
+			if (uri == null || !SourceRange.isAvailable(sourceRange)) {
+				return null;
+			}
+			int offset = sourceRange.getOffset();
+			int length = sourceRange.getLength();
+			if (offset <= 0 && length <= 0) {
+				return new Range(new Position(0, 0), new Position(0, 0));
+			}
+			return new Range(toPosition(offset), toPosition(offset + length));
+		}
+
+		private Position toPosition(int offset) {
+			if (lineOffsets == null || offset < 0 || offset > length) {
+				return new Position(0, 0);
+			}
+			int line = Arrays.binarySearch(lineOffsets, offset);
+			if (line < 0) {
+				line = -line - 2;
+			}
+			return new Position(line, offset - lineOffsets[line]);
+		}
+
+		void save() {
+			if (stamp != null) {
+				outlines.put(unit.getHandleIdentifier(), outline);
+			}
+		}
+
+		private static int[] computeLineOffsets(String contents) {
+			int[] offsets = new int[16];
+			int lines = 1;
+			for (int i = 0; i < contents.length(); i++) {
+				char c = contents.charAt(i);
+				if (c == '\r' && i + 1 < contents.length() && contents.charAt(i + 1) == '\n') {
+					i++;
+				} else if (c != '\r' && c != '\n') {
+					continue;
+				}
+				if (lines == offsets.length) {
+					offsets = Arrays.copyOf(offsets, lines * 2);
+				}
+				offsets[lines++] = i + 1;
+			}
+			return Arrays.copyOf(offsets, lines);
+		}
+	}
 }
@@ -25,6 +25,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -38,6 +39,8 @@ import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.ls.core.internal.BaseJDTLanguageServer;
 import org.eclipse.jdt.ls.core.internal.BuildWorkspaceStatus;
+import org.eclipse.jdt.ls.core.internal.HandoffCache;
+import org.eclipse.jdt.ls.core.internal.HandoffCache.Snapshot;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JVMConfigurator;
@@ -48,6 +51,7 @@ import org.eclipse.jdt.ls.core.internal.JobHelpers;
 import org.eclipse.jdt.ls.core.internal.LanguageServerWorkingCopyOwner;
 import org.eclipse.jdt.ls.core.internal.ServiceStatus;
 import org.eclipse.jdt.ls.core.internal.codemanipulation.GenerateGetterSetterOperation.AccessorField;
+import org.eclipse.jdt.ls.core.internal.corext.refactoring.rename.TextMatchIndex;
 import org.eclipse.jdt.ls.core.internal.handlers.FindLinksHandler.FindLinksParams;
 import org.eclipse.jdt.ls.core.internal.handlers.GenerateAccessorsHandler.GenerateAccessorsParams;
 import org.eclipse.jdt.ls.core.internal.handlers.GenerateConstructorsHandler.CheckConstructorsResponse;
@@ -159,6 +163,7 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 	private DocumentLifeCycleHandler documentLifeCycleHandler;
 	private WorkspaceDiagnosticsHandler workspaceDiagnosticsHandler;
 	private ClasspathUpdateHandler classpathUpdateHandler;
+	private ReferenceCountIndex referenceCountIndex;
 	private JVMConfigurator jvmConfigurator;
 	private WorkspaceExecuteCommandHandler commandHandler;
 
@@ -178,6 +183,12 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 					classpathUpdateHandler.removeElementChangeListener();
 					classpathUpdateHandler = null;
 				}
+				if (referenceCountIndex != null) {
+					referenceCountIndex.removeElementChangedListener();
+					referenceCountIndex.save();
+					referenceCountIndex = null;
+				}
+				TextMatchIndex.shutdown();
 				ResourcesPlugin.getWorkspace().save(true, monitor);
 			} catch (CoreException e) {
 				logException(e.getMessage(), e);
@@ -232,6 +243,11 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 	@Override
 	public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
 		logInfo(">> initialize");
+		if (referenceCountIndex == null && JavaLanguageServerPlugin.getInstance() != null) {
+			// listen before the projects are refreshed, so changes made while the server was down are seen
+			referenceCountIndex = new ReferenceCountIndex(JavaLanguageServerPlugin.getInstance().getStateLocation().toFile());
+			referenceCountIndex.addElementChangedListener();
+		}
 		InitHandler handler = new InitHandler(pm, preferenceManager, client, commandHandler);
 		return CompletableFuture.completedFuture(handler.initialize(params));
 	}
@@ -369,6 +385,7 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 			}
 		}
 		CodeActionOptions options = new CodeActionOptions(codeActionKinds);
+		options.setResolveProvider(preferenceManager.getClientPreferences().isResolveCodeActionSupported());
 		return options;
 	}
 
@@ -629,6 +646,12 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 		boolean hierarchicalDocumentSymbolSupported = preferenceManager.getClientPreferences().isHierarchicalDocumentSymbolSupported();
 		DocumentSymbolHandler handler = new DocumentSymbolHandler(hierarchicalDocumentSymbolSupported);
 		return computeAsync((monitor) -> {
+			if (hierarchicalDocumentSymbolSupported) {
+				Snapshot snapshot = getHandoffSnapshot(params.getTextDocument().getUri());
+				if (snapshot != null && snapshot.getDocumentSymbols() != null) {
+					return snapshot.getDocumentSymbols().stream().map(Either::<SymbolInformation, DocumentSymbol>forRight).collect(Collectors.toList());
+				}
+			}
 			waitForLifecycleJobs(monitor);
 			return handler.documentSymbol(params, monitor);
 		});
@@ -647,6 +670,19 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 		});
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.lsp4j.services.TextDocumentService#resolveCodeAction(org.eclipse.lsp4j.CodeAction)
+	 */
+	@Override
+	public CompletableFuture<CodeAction> resolveCodeAction(CodeAction unresolved) {
+		logInfo(">> codeAction/resolve");
+		CodeActionResolveHandler handler = new CodeActionResolveHandler(preferenceManager);
+		return computeAsync((monitor) -> {
+			waitForLifecycleJobs(monitor);
+			return handler.resolve(unresolved, monitor);
+		});
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.lsp4j.services.TextDocumentService#codeLens(org.eclipse.lsp4j.CodeLensParams)
 	 */
@@ -666,7 +702,7 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 	@Override
 	public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
 		logInfo(">> codeLens/resolve");
-		CodeLensHandler handler = new CodeLensHandler(preferenceManager);
+		CodeLensHandler handler = new CodeLensHandler(preferenceManager, referenceCountIndex);
 		return computeAsync((monitor) -> {
 			waitForLifecycleJobs(monitor);
 			return handler.resolve(unresolved, monitor);
@@ -841,11 +877,23 @@ public class JDTLanguageServer extends BaseJDTLanguageServer implements Language
 	public CompletableFuture<List<FoldingRange>> foldingRange(FoldingRangeRequestParams params) {
 		logInfo(">> document/foldingRange");
 		return computeAsyncWithClientProgress((monitor) -> {
+			Snapshot snapshot = getHandoffSnapshot(params.getTextDocument().getUri());
+			if (snapshot != null && snapshot.getFoldingRanges() != null) {
+				return snapshot.getFoldingRanges();
+			}
 			waitForLifecycleJobs(monitor);
 			return new FoldingRangeHandler().foldingRange(params, monitor);
 		});
 	}
 
+	/**
+	 * Returns the results the syntax server computed for the given document,
+	 * while the workspace is initialized.
+	 */
+	private static Snapshot getHandoffSnapshot(String uri) {
+		return JobHelpers.isInitializing() ? HandoffCache.getInstance().get(uri) : null;
+	}
+
 	@Override
 	public CompletableFuture<List<SelectionRange>> selectionRange(SelectionRangeParams params) {
 		logInfo(">> document/selectionRange");
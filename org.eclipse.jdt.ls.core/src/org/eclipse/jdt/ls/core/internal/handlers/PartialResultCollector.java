@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Collects the results of a request. When the client provided a
+ * <code>partialResultToken</code>, the results are streamed to the client in
+ * batches, and the final response of the request must be empty. Otherwise all
+ * the results are kept and returned by {@link #getResults()}.
+ *
+ * This class is thread safe.
+ */
+public final class PartialResultCollector<T> {
+
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	public static final long DEFAULT_FLUSH_INTERVAL = 200;
+
+	private final JavaClientConnection connection;
+	private final Either<String, Integer> token;
+	private final int batchSize;
+	private final long flushInterval;
+	private final List<T> results = new ArrayList<>();
+	private long lastFlush;
+
+	public PartialResultCollector(JavaClientConnection connection, Either<String, Integer> token) {
+		this(connection, token, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL);
+	}
+
+	/**
+	 * @param connection
+	 *            the client connection, may be <code>null</code>
+	 * @param token
+	 *            the partial result token of the request, may be
+	 *            <code>null</code>
+	 * @param batchSize
+	 *            the number of results triggering a partial result
+	 * @param flushInterval
+	 *            the maximum delay, in milliseconds, before pending results are
+	 *            sent when a new result is added
+	 */
+	public PartialResultCollector(JavaClientConnection connection, Either<String, Integer> token, int batchSize, long flushInterval) {
+		this.connection = connection;
+		this.token = token;
+		this.batchSize = Math.max(1, batchSize);
+		this.flushInterval = flushInterval;
+		this.lastFlush = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return whether the results are streamed to the client
+	 */
+	public boolean isStreaming() {
+		return token != null && connection != null && connection.isPartialResultSupported();
+	}
+
+	public synchronized void add(T result) {
+		results.add(result);
+		flushIfNeeded();
+	}
+
+	public synchronized void addAll(Collection<? extends T> newResults) {
+		results.addAll(newResults);
+		flushIfNeeded();
+	}
+
+	private void flushIfNeeded() {
+		if (isStreaming() && (results.size() >= batchSize || System.currentTimeMillis() - lastFlush >= flushInterval)) {
+			flush();
+		}
+	}
+
+	/**
+	 * Sends the pending results to the client, if streaming.
+	 */
+	public synchronized void flush() {
+		if (!isStreaming() || results.isEmpty()) {
+			return;
+		}
+		connection.sendPartialResult(token, new ArrayList<>(results));
+		results.clear();
+		lastFlush = System.currentTimeMillis();
+	}
+
+	/**
+	 * Flushes the pending results and returns the response of the request:
+	 * all the results when not streaming, an empty list otherwise.
+	 *
+	 * @return the results to return as the request response
+	 */
+	public synchronized List<T> getResults() {
+		if (isStreaming()) {
+			flush();
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(results);
+	}
+
+	/**
+	 * Discards the pending results.
+	 */
+	public synchronized void clear() {
+		results.clear();
+	}
+}
@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.handlers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+
+/**
+ * A reverse reference index used by the references code lenses. For each
+ * method, field or type whose lens was resolved, it keeps the compilation units
+ * referencing the element and the reference ranges in each of them.
+ *
+ * The index is maintained incrementally from the Java model deltas (reconcile
+ * and build): when a compilation unit changes, only the entries whose element
+ * name occurs in the unit, or which were referenced from the unit, are marked
+ * dirty for that unit. A dirty entry is refreshed by searching the dirty units
+ * only, instead of the whole workspace.
+ *
+ * The index is stored in the plugin state location between sessions, with the
+ * modification stamps of the source compilation units. The units whose stamps
+ * changed since, outside of the server or after an unclean shutdown, are
+ * processed as changed units when the index is first used.
+ */
+public class ReferenceCountIndex implements IElementChangedListener {
+
+	private static final String SERIALIZATION_FILE_NAME = ".reference-counts";
+	private static final int MAX_ENTRIES = 10000;
+
+	private final File stateFile;
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() > MAX_ENTRIES) {
+				unindex(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+	/**
+	 * Element keys by element simple name
+	 */
+	private final Map<String, Set<String>> keysByName = new HashMap<>();
+	/**
+	 * Element keys by referencing compilation unit
+	 */
+	private final Map<String, Set<String>> keysByUnit = new HashMap<>();
+	/**
+	 * Handles of the compilation units changed since the last resolution
+	 */
+	private final Set<String> changedUnits = ConcurrentHashMap.newKeySet();
+	private final Set<String> removedContainers = ConcurrentHashMap.newKeySet();
+	private volatile boolean invalidateAll;
+	/**
+	 * The (modification stamp, local time stamp) of the source compilation
+	 * units when the loaded index was saved, until they're checked
+	 */
+	private Map<String, long[]> savedStamps;
+
+	public ReferenceCountIndex(File stateLocation) {
+		this.stateFile = stateLocation == null ? null : new File(stateLocation, SERIALIZATION_FILE_NAME);
+		load();
+	}
+
+	public void addElementChangedListener() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	public void removeElementChangedListener() {
+		JavaCore.removeElementChangedListener(this);
+	}
+
+	/**
+	 * Returns the locations of the source references to the given element,
+	 * searching only the compilation units which changed since the element was
+	 * last resolved.
+	 *
+	 * @param element
+	 *            the referenced element
+	 * @param monitor
+	 *            a progress monitor
+	 * @return the reference locations
+	 * @throws CoreException
+	 *             if the search fails
+	 */
+	public List<Location> findReferences(IJavaElement element, IProgressMonitor monitor) throws CoreException {
+		processChanges();
+		String key = element.getHandleIdentifier();
+		Entry entry;
+		Set<String> dirtyUnits;
+		boolean full;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry(element.getElementName());
+				entries.put(key, entry);
+				keysByName.computeIfAbsent(entry.name, k -> new HashSet<>()).add(key);
+			}
+			full = !entry.complete;
+			dirtyUnits = new HashSet<>(entry.dirtyUnits);
+			entry.dirtyUnits.clear();
+		}
+		if (full || !dirtyUnits.isEmpty()) {
+			Map<String, Contribution> found = search(element, full ? null : dirtyUnits, monitor);
+			if (monitor.isCanceled()) {
+				synchronized (entries) {
+					entry.dirtyUnits.addAll(dirtyUnits);
+				}
+				return Collections.emptyList();
+			}
+			synchronized (entries) {
+				if (entries.get(key) != entry) {
+					// evicted or invalidated while searching
+					Map<String, Contribution> contributions = new TreeMap<>();
+					if (!full) {
+						contributions.putAll(entry.contributions);
+						contributions.keySet().removeAll(dirtyUnits);
+					}
+					contributions.putAll(found);
+					return toLocations(contributions);
+				}
+				if (full) {
+					for (String unit : entry.contributions.keySet()) {
+						unindexUnit(unit, key);
+					}
+					entry.contributions.clear();
+					entry.complete = true;
+				} else {
+					for (String unit : dirtyUnits) {
+						if (entry.contributions.remove(unit) != null) {
+							unindexUnit(unit, key);
+						}
+					}
+				}
+				for (Map.Entry<String, Contribution> contribution : found.entrySet()) {
+					entry.contributions.put(contribution.getKey(), contribution.getValue());
+					keysByUnit.computeIfAbsent(contribution.getKey(), k -> new HashSet<>()).add(key);
+				}
+				entry.updateCount();
+			}
+		}
+		synchronized (entries) {
+			return entry.toLocations();
+		}
+	}
+
+	private static List<Location> toLocations(Map<String, Contribution> contributions) {
+		Entry entry = new Entry(null);
+		entry.contributions.putAll(contributions);
+		entry.updateCount();
+		return entry.toLocations();
+	}
+
+	private Map<String, Contribution> search(IJavaElement element, Set<String> units, IProgressMonitor monitor) throws CoreException {
+		Map<String, Contribution> result = new HashMap<>();
+		SearchPattern pattern = SearchPattern.createPattern(element, IJavaSearchConstants.REFERENCES);
+		if (pattern == null) {
+			return result;
+		}
+		IJavaSearchScope scope;
+		if (units == null) {
+			IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+			scope = SearchEngine.createJavaSearchScope(projects, IJavaSearchScope.SOURCES);
+		} else {
+			List<IJavaElement> existingUnits = new ArrayList<>(units.size());
+			for (String unit : units) {
+				IJavaElement cu = JavaCore.create(unit);
+				if (cu != null && cu.exists()) {
+					existingUnits.add(cu);
+				}
+			}
+			if (existingUnits.isEmpty()) {
+				return result;
+			}
+			scope = SearchEngine.createJavaSearchScope(existingUnits.toArray(new IJavaElement[existingUnits.size()]), IJavaSearchScope.SOURCES);
+		}
+		new SearchEngine().search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, scope, new SearchRequestor() {
+
+			@Override
+			public void acceptSearchMatch(SearchMatch match) throws CoreException {
+				Object o = match.getElement();
+				if (o instanceof IJavaElement) {
+					ICompilationUnit compilationUnit = (ICompilationUnit) ((IJavaElement) o).getAncestor(IJavaElement.COMPILATION_UNIT);
+					if (compilationUnit == null) {
+						return;
+					}
+					Location location = JDTUtils.toLocation(compilationUnit, match.getOffset(), match.getLength());
+					if (location != null) {
+						String unit = compilationUnit.getPrimary().getHandleIdentifier();
+						result.computeIfAbsent(unit, k -> new Contribution(location.getUri())).add(location.getRange());
+					}
+				}
+			}
+		}, monitor);
+		return result;
+	}
+
+	/**
+	 * Marks the entries affected by the compilation units changed since the
+	 * last call as dirty for these units.
+	 */
+	private void processChanges() {
+		checkSavedStamps();
+		if (invalidateAll) {
+			synchronized (entries) {
+				invalidateAll = false;
+				changedUnits.clear();
+				removedContainers.clear();
+				entries.clear();
+				keysByName.clear();
+				keysByUnit.clear();
+			}
+			return;
+		}
+		if (changedUnits.isEmpty() && removedContainers.isEmpty()) {
+			return;
+		}
+		List<String> units = new ArrayList<>(changedUnits);
+		changedUnits.removeAll(units);
+		List<String> containers = new ArrayList<>(removedContainers);
+		removedContainers.removeAll(containers);
+		synchronized (entries) {
+			if (entries.isEmpty()) {
+				return;
+			}
+			for (String container : containers) {
+				for (String unit : keysByUnit.keySet()) {
+					if (unit.startsWith(container)) {
+						markDirty(unit, keysByUnit.get(unit));
+					}
+				}
+			}
+		}
+		for (String unit : units) {
+			// scan outside of the lock, reading the unit may be slow
+			Set<String> names = getIdentifiers(unit);
+			synchronized (entries) {
+				markDirty(unit, keysByUnit.get(unit));
+				for (String name : names) {
+					markDirty(unit, keysByName.get(name));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the compilation units added, removed or changed since the loaded
+	 * index was saved as changed.
+	 */
+	private synchronized void checkSavedStamps() {
+		if (savedStamps == null) {
+			return;
+		}
+		Map<String, long[]> stamps = savedStamps;
+		savedStamps = null;
+		for (Map.Entry<String, long[]> current : getUnitStamps().entrySet()) {
+			long[] saved = stamps.remove(current.getKey());
+			if (saved == null || !Arrays.equals(saved, current.getValue()) || saved[0] == IResource.NULL_STAMP) {
+				changedUnits.add(current.getKey());
+			}
+		}
+		changedUnits.addAll(stamps.keySet());
+	}
+
+	/**
+	 * Returns the stamps of the source compilation units of the workspace.
+	 * The units open in a working copy, whose contents may differ from their
+	 * file, get a null stamp.
+	 */
+	private static Map<String, long[]> getUnitStamps() {
+		Map<String, long[]> stamps = new HashMap<>();
+		try {
+			ResourcesPlugin.getWorkspace().getRoot().accept(proxy -> {
+				if (proxy.getType() != IResource.FILE) {
+					return true;
+				}
+				if (JavaCore.isJavaLikeFileName(proxy.getName())) {
+					IFile file = (IFile) proxy.requestResource();
+					IJavaElement element = JavaCore.create(file);
+					if (element instanceof ICompilationUnit) {
+						ICompilationUnit unit = (ICompilationUnit) element;
+						long[] stamp = unit.isWorkingCopy() ? new long[] { IResource.NULL_STAMP, IResource.NULL_STAMP } : new long[] { file.getModificationStamp(), file.getLocalTimeStamp() };
+						stamps.put(unit.getHandleIdentifier(), stamp);
+					}
+				}
+				return false;
+			}, IResource.NONE);
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException("Failed to collect the compilation unit stamps", e);
+		}
+		return stamps;
+	}
+
+	private void markDirty(String unit, Set<String> keys) {
+		if (keys == null) {
+			return;
+		}
+		for (String key : keys) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				entry.dirtyUnits.add(unit);
+			}
+		}
+	}
+
+	private void unindex(String key, Entry entry) {
+		Set<String> keys = keysByName.get(entry.name);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				keysByName.remove(entry.name);
+			}
+		}
+		for (String unit : entry.contributions.keySet()) {
+			unindexUnit(unit, key);
+		}
+	}
+
+	private void unindexUnit(String unit, String key) {
+		Set<String> keys = keysByUnit.get(unit);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				keysByUnit.remove(unit);
+			}
+		}
+	}
+
+	/**
+	 * Returns the identifiers occurring in the given compilation unit,
+	 * including those in comments and strings. Any reference to an element
+	 * contains the element name, so this is a safe over-approximation of the
+	 * elements the unit can reference.
+	 */
+	private static Set<String> getIdentifiers(String handle) {
+		Set<String> identifiers = new HashSet<>();
+		IJavaElement element = JavaCore.create(handle);
+		if (!(element instanceof ICompilationUnit) || !element.exists()) {
+			return identifiers;
+		}
+		ICompilationUnit unit = (ICompilationUnit) element;
+		try {
+			if (unit.isWorkingCopy()) {
+				IBuffer buffer = unit.getBuffer();
+				if (buffer != null) {
+					scanIdentifiers(buffer.getCharacters(), identifiers);
+				}
+			} else {
+				IFile file = (IFile) unit.getResource();
+				if (file != null && file.exists()) {
+					try (Reader reader = new InputStreamReader(file.getContents(true), file.getCharset())) {
+						StringBuilder content = new StringBuilder();
+						char[] buffer = new char[8192];
+						int read;
+						while ((read = reader.read(buffer)) != -1) {
+							content.append(buffer, 0, read);
+						}
+						scanIdentifiers(content.toString().toCharArray(), identifiers);
+					}
+				}
+			}
+		} catch (CoreException | IOException e) {
+			JavaLanguageServerPlugin.logException("Failed to scan " + handle, e);
+		}
+		return identifiers;
+	}
+
+	private static void scanIdentifiers(char[] chars, Set<String> identifiers) {
+		if (chars == null) {
+			return;
+		}
+		int i = 0;
+		while (i < chars.length) {
+			if (Character.isJavaIdentifierStart(chars[i])) {
+				int start = i++;
+				while (i < chars.length && Character.isJavaIdentifierPart(chars[i])) {
+					i++;
+				}
+				identifiers.add(new String(chars, start, i - start));
+			} else {
+				i++;
+			}
+		}
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		processDelta(event.getDelta());
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element = delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				processChildren(delta);
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED)) != 0) {
+					invalidateAll = true;
+				} else {
+					processChildren(delta);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED) {
+					removedContainers.add(element.getHandleIdentifier());
+				} else if (delta.getKind() == IJavaElementDelta.ADDED) {
+					addUnits(element);
+				} else {
+					processChildren(delta);
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				ICompilationUnit unit = (ICompilationUnit) element;
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0) {
+					changedUnits.add(unit.getPrimary().getHandleIdentifier());
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	private void processChildren(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			processDelta(child);
+		}
+	}
+
+	private void addUnits(IJavaElement container) {
+		try {
+			if (container instanceof IPackageFragment) {
+				for (ICompilationUnit unit : ((IPackageFragment) container).getCompilationUnits()) {
+					changedUnits.add(unit.getHandleIdentifier());
+				}
+			} else {
+				// a new source folder may reference anything
+				invalidateAll = true;
+			}
+		} catch (JavaModelException e) {
+			invalidateAll = true;
+		}
+	}
+
+	/**
+	 * Stores the index in the plugin state location.
+	 */
+	public void save() {
+		if (stateFile == null) {
+			return;
+		}
+		processChanges();
+		Map<String, Entry> snapshot;
+		synchronized (entries) {
+			snapshot = new LinkedHashMap<>(entries);
+		}
+		Map<String, long[]> stamps = getUnitStamps();
+		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
+			outStream.writeObject(snapshot);
+			outStream.writeObject(stamps);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while serialization of reference counts", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void load() {
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		Map<String, Entry> loaded;
+		Map<String, long[]> stamps;
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
+			loaded = (Map<String, Entry>) ois.readObject();
+			stamps = (Map<String, long[]>) ois.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while deserialization of reference counts", e);
+			return;
+		}
+		synchronized (this) {
+			savedStamps = stamps;
+		}
+		synchronized (entries) {
+			for (Map.Entry<String, Entry> e : loaded.entrySet()) {
+				String key = e.getKey();
+				Entry entry = e.getValue();
+				entries.put(key, entry);
+				keysByName.computeIfAbsent(entry.name, k -> new HashSet<>()).add(key);
+				for (String unit : entry.contributions.keySet()) {
+					keysByUnit.computeIfAbsent(unit, k -> new HashSet<>()).add(key);
+				}
+			}
+		}
+	}
+
+	private static final class Entry implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final Map<String, Contribution> contributions = new TreeMap<>();
+		private final Set<String> dirtyUnits = new HashSet<>();
+		private boolean complete;
+		private int count;
+
+		private Entry(String name) {
+			this.name = name;
+		}
+
+		private void updateCount() {
+			int newCount = 0;
+			for (Contribution contribution : contributions.values()) {
+				newCount += contribution.ranges.length / 4;
+			}
+			count = newCount;
+		}
+
+		private List<Location> toLocations() {
+			List<Location> locations = new ArrayList<>(count);
+			for (Contribution contribution : contributions.values()) {
+				int[] ranges = contribution.ranges;
+				for (int i = 0; i + 3 < ranges.length; i += 4) {
+					locations.add(new Location(contribution.uri, new Range(new Position(ranges[i], ranges[i + 1]), new Position(ranges[i + 2], ranges[i + 3]))));
+				}
+			}
+			return locations;
+		}
+	}
+
+	/**
+	 * The references of an element in one compilation unit, stored as flat
+	 * (start line, start character, end line, end character) quadruples.
+	 */
+	private static final class Contribution implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String uri;
+		private int[] ranges = new int[0];
+
+		private Contribution(String uri) {
+			this.uri = uri;
+		}
+
+		private void add(Range range) {
+			int length = ranges.length;
+			int[] newRanges = new int[length + 4];
+			System.arraycopy(ranges, 0, newRanges, 0, length);
+			newRanges[length] = range.getStart().getLine();
+			newRanges[length + 1] = range.getStart().getCharacter();
+			newRanges[length + 2] = range.getEnd().getLine();
+			newRanges[length + 3] = range.getEnd().getCharacter();
+			ranges = newRanges;
+		}
+	}
+}
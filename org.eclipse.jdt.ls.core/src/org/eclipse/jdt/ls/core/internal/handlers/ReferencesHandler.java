@@ -40,6 +40,7 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.corext.codemanipulation.GetterSetterUtil;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.Location;
@@ -63,13 +64,25 @@ public final class ReferencesHandler {
 	}
 
 	public List<Location> findReferences(ReferenceParams param, IProgressMonitor monitor) {
-		final List<Location> locations = new ArrayList<>();
+		JavaClientConnection connection = null;
+		if (param.getPartialResultToken() != null && JavaLanguageServerPlugin.getInstance() != null) {
+			connection = JavaLanguageServerPlugin.getInstance().getClientConnection();
+		}
+		return findReferences(param, new PartialResultCollector<>(connection, param.getPartialResultToken()), monitor);
+	}
+
+	/**
+	 * Searches the references of the element at the requested position and of
+	 * its accessors in a single search pass. When the collector streams its
+	 * results, references are sent to the client while the search progresses.
+	 */
+	public List<Location> findReferences(ReferenceParams param, PartialResultCollector<Location> locations, IProgressMonitor monitor) {
 		ITypeRoot typeRoot = null;
 		try {
 			boolean returnCompilationUnit = preferenceManager == null ? false : preferenceManager.isClientSupportsClassFileContent() && (preferenceManager.getPreferences().isIncludeDecompiledSources());
 			typeRoot = JDTUtils.resolveTypeRoot(param.getTextDocument().getUri(), returnCompilationUnit, monitor);
 			if (typeRoot == null) {
-				return locations;
+				return locations.getResults();
 			}
 			IJavaElement elementToSearch = JDTUtils.findElementAtSelection(typeRoot, param.getPosition().getLine(), param.getPosition().getCharacter(), this.preferenceManager, monitor);
 			if (elementToSearch == null) {
@@ -77,24 +90,19 @@ public final class ReferencesHandler {
 				elementToSearch = typeRoot.getElementAt(offset);
 			}
 			if (elementToSearch == null) {
-				return locations;
-			}
-			search(elementToSearch, locations, monitor);
-			if (monitor.isCanceled()) {
-				return Collections.emptyList();
+				return locations.getResults();
 			}
+			List<IJavaElement> elementsToSearch = new ArrayList<>();
+			elementsToSearch.add(elementToSearch);
 			if (preferenceManager.getPreferences().isIncludeAccessors() && elementToSearch instanceof IField) { // IField
 				IField field = (IField) elementToSearch;
 				IMethod getter = GetterSetterUtil.getGetter(field);
 				if (getter != null) {
-					search(getter, locations, monitor);
-				}
-				if (monitor.isCanceled()) {
-					return Collections.emptyList();
+					elementsToSearch.add(getter);
 				}
 				IMethod setter = GetterSetterUtil.getSetter(field);
 				if (setter != null) {
-					search(setter, locations, monitor);
+					elementsToSearch.add(setter);
 				}
 				if (monitor.isCanceled()) {
 					return Collections.emptyList();
@@ -109,20 +117,22 @@ public final class ReferencesHandler {
 					for (IMethod method : builder.getMethods()) {
 						String[] parameters = method.getParameterTypes();
 						if (parameters.length == 1 && field.getElementName().equals(method.getElementName()) && fieldSignature.equals(parameters[0])) {
-							search(method, locations, monitor);
+							elementsToSearch.add(method);
 						}
 					}
 				}
-				if (monitor.isCanceled()) {
-					return Collections.emptyList();
-				}
+			}
+			search(elementsToSearch, locations, monitor);
+			if (monitor.isCanceled()) {
+				locations.clear();
+				return Collections.emptyList();
 			}
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Find references failure ", e);
 		} finally {
 			JDTUtils.discardClassFileWorkingCopy(typeRoot);
 		}
-		return locations;
+		return locations.getResults();
 	}
 
 	private String getBuilderName(IField field) {
@@ -149,11 +159,22 @@ public final class ReferencesHandler {
 		return declaringType.getFullyQualifiedName() + "." + declaringType.getElementName() + "Builder";
 	}
 
-	private void search(IJavaElement elementToSearch, final List<Location> locations, IProgressMonitor monitor) throws CoreException, JavaModelException {
+	private void search(List<IJavaElement> elementsToSearch, final PartialResultCollector<Location> locations, IProgressMonitor monitor) throws CoreException, JavaModelException {
 		boolean includeClassFiles = preferenceManager.isClientSupportsClassFileContent();
 		boolean includeDecompiledSources = preferenceManager.getPreferences().isIncludeDecompiledSources();
+		SearchPattern pattern = null;
+		for (IJavaElement elementToSearch : elementsToSearch) {
+			SearchPattern elementPattern = SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
+			if (elementPattern == null) {
+				continue;
+			}
+			// combine all the patterns so the index is only queried once
+			pattern = pattern == null ? elementPattern : SearchPattern.createOrPattern(pattern, elementPattern);
+		}
+		if (pattern == null) {
+			return;
+		}
 		SearchEngine engine = new SearchEngine();
-		SearchPattern pattern = SearchPattern.createPattern(elementToSearch, IJavaSearchConstants.REFERENCES);
 		engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, createSearchScope(), new SearchRequestor() {
 
 			@Override
@@ -13,19 +13,28 @@
 
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.jdt.core.BufferChangedEvent;
 import org.eclipse.jdt.core.CompletionProposal;
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IBufferChangedListener;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -57,8 +66,26 @@ public class SignatureHelpHandler {
 
 	private static final int SEARCH_BOUND = 2000;
 
+	/**
+	 * The session of the last invocation signature help was computed for
+	 */
+	private static volatile SignatureHelpSession lastSession;
+
+	private static final AtomicBoolean listening = new AtomicBoolean();
+
 	private PreferenceManager preferenceManager;
 
+	/**
+	 * Releases the session of the last invocation signature help was computed
+	 * for. The next request computes a new one.
+	 */
+	public static void clearSession() {
+		SignatureHelpSession session = lastSession;
+		if (session != null) {
+			session.invalidate();
+		}
+	}
+
 	public SignatureHelpHandler(PreferenceManager preferenceManager) {
 		this.preferenceManager = preferenceManager;
 	}
@@ -73,46 +100,36 @@ public class SignatureHelpHandler {
 
 		try {
 			ICompilationUnit unit = JDTUtils.resolveCompilationUnit(position.getTextDocument().getUri());
-			final int offset = JsonRpcHelpers.toOffset(unit.getBuffer(), position.getPosition().getLine(), position.getPosition().getCharacter());
-			int[] contextInfomation = getContextInfomation(unit.getBuffer(), offset);
+			IBuffer buffer = unit.getBuffer();
+			final int offset = JsonRpcHelpers.toOffset(buffer, position.getPosition().getLine(), position.getPosition().getCharacter());
+			int[] contextInfomation = getContextInfomation(buffer, offset);
 			ASTNode node = getNode(unit, contextInfomation, monitor);
 			if (node == null) {
 				return help;
 			}
-			SignatureHelpRequestor collector = new SignatureHelpRequestor(unit, contextInfomation[0] + 1);
 			if (offset > -1 && !monitor.isCanceled()) {
-				unit.codeComplete(contextInfomation[0] + 1, collector, monitor);
-				help = collector.getSignatureHelp(monitor);
 				IMethod method = getMethod(node);
-				if (help.getSignatures().isEmpty()) {
-					int pos = offset;
-					if (method != null) {
-						int start = node.getStartPosition();
-						pos = start + method.getElementName().length();
-					}
-					unit.codeComplete(pos, collector, monitor);
-					help = collector.getSignatureHelp(monitor);
+				SignatureHelpSession session = getSession(unit, buffer, contextInfomation[0], node, method, offset, monitor);
+				if (session == null) {
+					return help;
 				}
-				if (!monitor.isCanceled() && help != null) {
+				help = session.newSignatureHelp();
+				if (!monitor.isCanceled()) {
+					// the completion at the cursor is only needed when the overload can't be chosen from the method binding
+					boolean atCursor = contextInfomation[0] + 1 != offset;
 					SignatureHelp help2 = null;
 					SignatureHelpRequestor collector2 = null;
-					if (contextInfomation[0] + 1 != offset) {
-						collector2 = new SignatureHelpRequestor(unit, offset);
-						unit.codeComplete(offset, collector2, monitor);
-						help2 = collector2.getSignatureHelp(monitor);
-					}
 					int currentParameter = contextInfomation[1];
 					int size = currentParameter + 1;
 					List<SignatureInformation> infos = help.getSignatures();
 					int activeParameter = currentParameter < 0 ? 0 : currentParameter;
 					if (node != null) {
 						IJavaProject javaProject = unit.getJavaProject();
-						if (help2 != null) {
+						if (atCursor) {
 							if (method != null) {
 								for (int i = 0; i < infos.size(); i++) {
 									if (infos.get(i).getParameters().size() >= size) {
-										CompletionProposal proposal = collector.getInfoProposals().get(infos.get(i));
-										IMethod m = JDTUtils.resolveMethod(proposal, javaProject);
+										IMethod m = session.resolveMethod(infos.get(i), javaProject);
 										if (JDTUtils.isSameParameters(m, method)) {
 											help.setActiveSignature(i);
 											help.setActiveParameter(activeParameter);
@@ -122,10 +139,12 @@ public class SignatureHelpHandler {
 								}
 							}
 							if (!monitor.isCanceled() && help.getActiveSignature() == null) {
+								collector2 = new SignatureHelpRequestor(unit, offset);
+								unit.codeComplete(offset, collector2, monitor);
+								help2 = collector2.getSignatureHelp(monitor);
 								for (int i = 0; i < infos.size(); i++) {
 									if (infos.get(i).getParameters().size() >= size) {
-										CompletionProposal proposal = collector.getInfoProposals().get(infos.get(i));
-										IMethod m = JDTUtils.resolveMethod(proposal, javaProject);
+										IMethod m = session.resolveMethod(infos.get(i), javaProject);
 										if (isSameParameters(m, help2, collector2, javaProject)) {
 											help.setActiveSignature(i);
 											help.setActiveParameter(activeParameter);
@@ -139,8 +158,7 @@ public class SignatureHelpHandler {
 							if (method != null) {
 								for (int i = 0; i < infos.size(); i++) {
 									if (infos.get(i).getParameters().size() >= size) {
-										CompletionProposal proposal = collector.getInfoProposals().get(infos.get(i));
-										IMethod m = JDTUtils.resolveMethod(proposal, javaProject);
+										IMethod m = session.resolveMethod(infos.get(i), javaProject);
 										if (JDTUtils.isSameParameters(method, m)) {
 											help.setActiveSignature(i);
 											help.setActiveParameter(activeParameter);
@@ -152,7 +170,7 @@ public class SignatureHelpHandler {
 						}
 						if (!monitor.isCanceled() && help.getActiveSignature() == null) {
 							for (int i = 0; i < infos.size(); i++) {
-								CompletionProposal proposal = collector.getInfoProposals().get(infos.get(i));
+								CompletionProposal proposal = session.getProposal(infos.get(i));
 								if (Flags.isVarargs(proposal.getFlags())) {
 									help.setActiveSignature(i);
 									char[][] infoTypes = Signature.getParameterTypes(SignatureUtil.fix83600(proposal.getSignature()));
@@ -183,6 +201,43 @@ public class SignatureHelpHandler {
 		return help;
 	}
 
+	/**
+	 * Returns the session of the invocation starting at the given offset,
+	 * computing the candidate overloads if the invocation changed.
+	 *
+	 * @return the session, or <code>null</code> if the request was cancelled
+	 */
+	private SignatureHelpSession getSession(ICompilationUnit unit, IBuffer buffer, int invocationStart, ASTNode node, IMethod method, int offset, IProgressMonitor monitor) throws JavaModelException {
+		SignatureHelpSession session = lastSession;
+		if (session != null && session.matches(unit, buffer, invocationStart)) {
+			return session;
+		}
+		SignatureHelpRequestor collector = new SignatureHelpRequestor(unit, invocationStart + 1);
+		unit.codeComplete(invocationStart + 1, collector, monitor);
+		SignatureHelp help = collector.getSignatureHelp(monitor);
+		// the overloads found from the cursor position don't belong to the invocation
+		boolean reusable = true;
+		if (help.getSignatures().isEmpty()) {
+			int pos = offset;
+			if (method != null) {
+				int start = node.getStartPosition();
+				pos = start + method.getElementName().length();
+			} else {
+				reusable = false;
+			}
+			unit.codeComplete(pos, collector, monitor);
+			help = collector.getSignatureHelp(monitor);
+		}
+		if (monitor.isCanceled() || help == null) {
+			return null;
+		}
+		session = new SignatureHelpSession(unit, buffer, invocationStart, collector, help.getSignatures());
+		if (reusable) {
+			session.start();
+		}
+		return session;
+	}
+
 	private boolean isSameParameters(IMethod m, SignatureHelp help, SignatureHelpRequestor collector, IJavaProject javaProject) throws JavaModelException {
 		if (m == null || help == null || javaProject == null) {
 			return false;
@@ -311,4 +366,107 @@ public class SignatureHelpHandler {
 		}
 		return result;
 	}
+
+	/**
+	 * The candidate overloads of an invocation. They only depend on the text
+	 * before the opening parenthesis, so they are reused while the arguments
+	 * are typed. LSP signature help requests don't carry a document version,
+	 * the session is instead discarded as soon as the buffer changes before
+	 * the parenthesis, or the Java model changes.
+	 */
+	private static final class SignatureHelpSession implements IBufferChangedListener {
+
+		private final String handle;
+		private final IBuffer buffer;
+		private final int invocationStart;
+		private final SignatureHelpRequestor collector;
+		private final List<SignatureInformation> signatures;
+		private final Map<SignatureInformation, IMethod> methods = new HashMap<>();
+		private volatile boolean valid = true;
+
+		SignatureHelpSession(ICompilationUnit unit, IBuffer buffer, int invocationStart, SignatureHelpRequestor collector, List<SignatureInformation> signatures) {
+			this.handle = unit.getHandleIdentifier();
+			this.buffer = buffer;
+			this.invocationStart = invocationStart;
+			this.collector = collector;
+			this.signatures = new ArrayList<>(signatures);
+		}
+
+		/**
+		 * Makes this session the one reused by the next requests.
+		 */
+		void start() {
+			if (listening.compareAndSet(false, true)) {
+				JavaCore.addElementChangedListener(new SessionInvalidator(), ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+			}
+			buffer.addBufferChangedListener(this);
+			SignatureHelpSession previous = lastSession;
+			lastSession = this;
+			if (previous != null) {
+				previous.invalidate();
+			}
+		}
+
+		boolean matches(ICompilationUnit unit, IBuffer buffer, int invocationStart) {
+			return valid && this.buffer == buffer && this.invocationStart == invocationStart && handle.equals(unit.getHandleIdentifier());
+		}
+
+		SignatureHelp newSignatureHelp() {
+			SignatureHelp help = new SignatureHelp();
+			help.getSignatures().addAll(signatures);
+			return help;
+		}
+
+		CompletionProposal getProposal(SignatureInformation info) {
+			return collector.getInfoProposals().get(info);
+		}
+
+		synchronized IMethod resolveMethod(SignatureInformation info, IJavaProject javaProject) throws JavaModelException {
+			if (methods.containsKey(info)) {
+				return methods.get(info);
+			}
+			IMethod method = JDTUtils.resolveMethod(getProposal(info), javaProject);
+			methods.put(info, method);
+			return method;
+		}
+
+		@Override
+		public void bufferChanged(BufferChangedEvent event) {
+			if (event.getBuffer().isClosed() || event.getOffset() <= invocationStart) {
+				invalidate();
+			}
+		}
+
+		void invalidate() {
+			valid = false;
+			buffer.removeBufferChangedListener(this);
+			if (lastSession == this) {
+				lastSession = null;
+			}
+		}
+	}
+
+	/**
+	 * Discards the last session when the Java model changes, including the
+	 * reconciliation of another working copy. The reconciliation of the
+	 * session's own compilation unit is left to the buffer listener, as typing
+	 * the arguments reconciles it.
+	 */
+	private static final class SessionInvalidator implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			SignatureHelpSession session = lastSession;
+			if (session == null) {
+				return;
+			}
+			if (event.getType() == ElementChangedEvent.POST_RECONCILE) {
+				IJavaElement element = event.getDelta().getElement();
+				if (element != null && session.handle.equals(element.getHandleIdentifier())) {
+					return;
+				}
+			}
+			session.invalidate();
+		}
+	}
 }
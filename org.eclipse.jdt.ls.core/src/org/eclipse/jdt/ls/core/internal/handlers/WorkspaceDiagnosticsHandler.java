@@ -12,18 +12,28 @@
  *******************************************************************************/
 package org.eclipse.jdt.ls.core.internal.handlers;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.internal.resources.CheckMissingNaturesListener;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
@@ -31,21 +41,26 @@ import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
+import org.eclipse.jdt.ls.core.internal.StatusFactory;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
+import org.eclipse.jdt.ls.core.internal.text.LineTable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4j.Diagnostic;
@@ -66,9 +81,31 @@ import org.eclipse.m2e.core.internal.Messages;
 public final class WorkspaceDiagnosticsHandler implements IResourceChangeListener, IResourceDeltaVisitor {
 
 	public static final String PROJECT_CONFIGURATION_IS_NOT_UP_TO_DATE_WITH_POM_XML = "Project configuration is not up-to-date with pom.xml, requires an update.";
+	public static final String PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS = "WorkspaceDiagnosticsPublishJobs";
+	private static final int MAX_CACHED_LINE_TABLES = 2000;
+	private static final int PUBLISH_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
 	private final JavaClientConnection connection;
 	private final ProjectsManager projectsManager;
 	private final boolean isDiagnosticTagSupported;
+	/**
+	 * Resources whose diagnostics must be (re-)published, in the order their
+	 * deltas were received.
+	 */
+	private final Map<IResource, PendingAction> pending = new LinkedHashMap<>();
+	private final Map<IFile, CachedLineTable> lineTables = new LinkedHashMap<IFile, CachedLineTable>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IFile, CachedLineTable> eldest) {
+			return size() > MAX_CACHED_LINE_TABLES;
+		}
+	};
+	private final WorkspaceJob publishJob;
+	/**
+	 * Converts the markers of the pending resources, reading their files. Its
+	 * threads end once idle.
+	 */
+	private final ThreadPoolExecutor publishExecutor;
 
 	@Deprecated
 	public WorkspaceDiagnosticsHandler(JavaClientConnection connection, ProjectsManager projectsManager) {
@@ -79,6 +116,27 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		this.connection = connection;
 		this.projectsManager = projectsManager;
 		this.isDiagnosticTagSupported = prefs != null ? prefs.isDiagnosticTagSupported() : false;
+		this.publishJob = new WorkspaceJob("Publish workspace diagnostics") {
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+				return publishPending(monitor);
+			}
+
+			/* (non-Javadoc)
+			 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+			 */
+			@Override
+			public boolean belongsTo(Object family) {
+				return PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS.equals(family);
+			}
+		};
+		this.publishJob.setSystem(true);
+		this.publishExecutor = new ThreadPoolExecutor(PUBLISH_THREADS, PUBLISH_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "Workspace Diagnostics Publisher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.publishExecutor.allowCoreThreadTimeOut(true);
 	}
 
 	public void addResourceChangeListener() {
@@ -87,6 +145,13 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 
 	public void removeResourceChangeListener() {
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		publishJob.cancel();
+		synchronized (pending) {
+			pending.clear();
+		}
+		synchronized (lineTables) {
+			lineTables.clear();
+		}
 	}
 
 	@Override
@@ -97,7 +162,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("failed to send diagnostics", e);
 		}
-
+		schedulePublish();
 	}
 
 	/*
@@ -120,16 +185,21 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		// If delete a folder directly, no way to clean up the diagnostics for it's children.
 		// The resource delta visitor will make sure to clean up all stale diagnostics.
 		if (!resource.isAccessible()) { // Check if resource is accessible.
+			if (resource.getType() == IResource.FILE) {
+				synchronized (lineTables) {
+					lineTables.remove(resource);
+				}
+			}
 			if (isSupportedDiagnosticsResource(resource)) {
-				cleanUpDiagnostics(resource);
+				enqueue(resource, PendingAction.CLEAN);
 				return resource.getType() == IResource.PROJECT;
 			}
 
 			// If delete a project folder directly, make sure to clean up its build file diagnostics.
 			if (projectsManager.isBuildLikeFileName(resource.getName())) {
-				cleanUpDiagnostics(resource);
+				enqueue(resource, PendingAction.CLEAN);
 				if(!resource.getParent().isAccessible()) { // Clean up the project folder diagnostics.
-					cleanUpDiagnostics(resource.getParent(), Platform.OS_WIN32.equals(Platform.getOS()));
+					enqueue(resource.getParent(), Platform.OS_WIN32.equals(Platform.getOS()) ? PendingAction.CLEAN_FOLDER : PendingAction.CLEAN);
 				}
 			}
 
@@ -140,10 +210,10 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (JavaLanguageServerPlugin.getProjectsManager().getDefaultProject().equals(resource.getProject())) {
 				return false;
 			}
-			IProject project = (IProject) resource;
-			// report problems for other projects
-			IMarker[] markers = project.findMarkers(null, true, IResource.DEPTH_ZERO);
-			publishMarkers(project, markers);
+			// report problems for other projects, only when their markers may have changed
+			if (hasProjectMarkerChanges(delta)) {
+				enqueue(resource, PendingAction.PUBLISH);
+			}
 			return true;
 		}
 		// No marker changes continue to visit
@@ -151,38 +221,180 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			return false;
 		}
 		IFile file = (IFile) resource;
-		IDocument document = null;
-		IMarker[] markers = null;
 		// Check if it is a Java ...
+		if (JavaCore.isJavaLikeFileName(file.getName())) {
+			if (hasMarkerDeltas(delta, IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, IJavaModelMarker.TASK_MARKER)) {
+				enqueue(file, PendingAction.PUBLISH);
+			}
+		} // or a build file
+		else if (projectsManager.isBuildFile(file)) {
+			enqueue(file, PendingAction.PUBLISH);
+		}
+		return false;
+	}
+
+	/**
+	 * Project level diagnostics only need to be re-published when the project
+	 * markers changed, when the project appeared, or when the markers of its
+	 * pom.xml changed (project configuration markers are published along with
+	 * the pom.xml ones).
+	 */
+	private static boolean hasProjectMarkerChanges(IResourceDelta delta) {
+		if (delta.getKind() == IResourceDelta.ADDED || (delta.getFlags() & (IResourceDelta.MARKERS | IResourceDelta.OPEN)) != 0) {
+			return true;
+		}
+		IResourceDelta pomDelta = delta.findMember(new Path("pom.xml"));
+		return pomDelta != null && (pomDelta.getFlags() & IResourceDelta.MARKERS) != 0;
+	}
+
+	private static boolean hasMarkerDeltas(IResourceDelta delta, String... markerTypes) {
+		for (IMarkerDelta markerDelta : delta.getMarkerDeltas()) {
+			String type = markerDelta.getType();
+			for (String markerType : markerTypes) {
+				if (markerType.equals(type)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void enqueue(IResource resource, PendingAction action) {
+		synchronized (pending) {
+			// move the resource to the end of the queue so the latest action wins
+			pending.remove(resource);
+			pending.put(resource, action);
+		}
+	}
+
+	private void schedulePublish() {
+		synchronized (pending) {
+			if (pending.isEmpty()) {
+				return;
+			}
+		}
+		publishJob.schedule();
+	}
+
+	private IStatus publishPending(IProgressMonitor monitor) {
+		List<Map.Entry<IResource, PendingAction>> entries;
+		synchronized (pending) {
+			entries = new ArrayList<>(pending.entrySet());
+			pending.clear();
+		}
+		if (entries.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		// converting markers is independent per resource, the results are published in the queue order
+		List<Future<List<PublishDiagnosticsParams>>> results = new ArrayList<>(entries.size());
+		for (Map.Entry<IResource, PendingAction> entry : entries) {
+			results.add(publishExecutor.submit(() -> {
+				if (monitor.isCanceled()) {
+					return Collections.<PublishDiagnosticsParams> emptyList();
+				}
+				try {
+					return computeDiagnostics(entry.getKey(), entry.getValue());
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException("Failed to compute diagnostics for " + entry.getKey(), e);
+					return Collections.<PublishDiagnosticsParams> emptyList();
+				}
+			}));
+		}
+		for (Future<List<PublishDiagnosticsParams>> result : results) {
+			try {
+				result.get().forEach(connection::publishDiagnostics);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				results.forEach(r -> r.cancel(false));
+				return Status.CANCEL_STATUS;
+			} catch (ExecutionException e) {
+				JavaLanguageServerPlugin.logException("Failed to compute diagnostics", e.getCause());
+			}
+		}
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		return Status.OK_STATUS;
+	}
+
+	private List<PublishDiagnosticsParams> computeDiagnostics(IResource resource, PendingAction action) throws CoreException {
+		if (action != PendingAction.PUBLISH) {
+			String uri = JDTUtils.getFileURI(resource);
+			if (uri == null) {
+				return Collections.emptyList();
+			}
+			if (action == PendingAction.CLEAN_FOLDER && !uri.endsWith("/")) {
+				uri = uri + "/";
+			}
+			return Collections.singletonList(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
+		}
+		if (!resource.isAccessible()) {
+			// deleted after being queued, the clean up action follows it in the queue
+			return Collections.emptyList();
+		}
+		if (resource.getType() == IResource.PROJECT) {
+			IProject project = (IProject) resource;
+			IMarker[] markers = project.findMarkers(null, true, IResource.DEPTH_ZERO);
+			return computeProjectDiagnostics(project, markers);
+		}
+		IFile file = (IFile) resource;
+		String uri = JDTUtils.getFileURI(resource);
+		List<Diagnostic> diagnostics;
 		if (JavaCore.isJavaLikeFileName(file.getName())) {
 			ICompilationUnit cu = (ICompilationUnit) JavaCore.create(file);
 			// Clear the diagnostics for the resource not on the classpath
-			IJavaProject javaProject = cu.getJavaProject();
+			IJavaProject javaProject = cu == null ? null : cu.getJavaProject();
 			if (javaProject == null || !javaProject.isOnClasspath(cu)) {
-				String uri = JDTUtils.getFileURI(resource);
-				this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
-				return false;
+				return Collections.singletonList(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
 			}
-
 			IMarker[] javaMarkers = resource.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ONE);
 			IMarker[] taskMarkers = resource.findMarkers(IJavaModelMarker.TASK_MARKER, false, IResource.DEPTH_ONE);
-			markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
+			IMarker[] markers = Arrays.copyOf(javaMarkers, javaMarkers.length + taskMarkers.length);
 			System.arraycopy(taskMarkers, 0, markers, javaMarkers.length, taskMarkers.length);
-			document = JsonRpcHelpers.toDocument(cu.getBuffer());
-		} // or a build file
-		else if (projectsManager.isBuildFile(file)) {
+			if (cu.isWorkingCopy()) {
+				// the buffer of a working copy is already open, no need to read the file
+				diagnostics = toDiagnosticsArray(JsonRpcHelpers.toDocument(cu.getBuffer()), markers, isDiagnosticTagSupported);
+			} else {
+				diagnostics = toDiagnosticsArray(getLineTable(file), markers, isDiagnosticTagSupported);
+			}
+		} else {
 			//all errors on that build file should be relevant
-			markers = file.findMarkers(null, true, 1);
-			document = JsonRpcHelpers.toDocument(file);
+			IMarker[] markers = file.findMarkers(null, true, 1);
+			diagnostics = toDiagnosticsArray(getLineTable(file), markers, isDiagnosticTagSupported);
 		}
-		if (document != null) {
-			String uri = JDTUtils.getFileURI(resource);
-			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), toDiagnosticsArray(document, markers, isDiagnosticTagSupported)));
+		return Collections.singletonList(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
+	}
+
+	/**
+	 * Returns the line table of the given file, reading the file only when its
+	 * modification stamp changed since the table was computed.
+	 */
+	private LineTable getLineTable(IFile file) throws CoreException {
+		long stamp = file.getModificationStamp();
+		CachedLineTable cached;
+		synchronized (lineTables) {
+			cached = lineTables.get(file);
 		}
-		return false;
+		if (cached != null && cached.stamp == stamp) {
+			return cached.lineTable;
+		}
+		LineTable lineTable;
+		try (Reader reader = new InputStreamReader(file.getContents(true), file.getCharset())) {
+			lineTable = LineTable.of(reader);
+		} catch (IOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Can not read " + file.getFullPath(), e));
+		}
+		synchronized (lineTables) {
+			lineTables.put(file, new CachedLineTable(stamp, lineTable));
+		}
+		return lineTable;
 	}
 
 	private void publishMarkers(IProject project, IMarker[] markers) throws CoreException {
+		computeProjectDiagnostics(project, markers).forEach(connection::publishDiagnostics);
+	}
+
+	private List<PublishDiagnosticsParams> computeProjectDiagnostics(IProject project, IMarker[] markers) throws CoreException {
 		Range range = new Range(new Position(0, 0), new Position(0, 0));
 
 		List<IMarker> projectMarkers = new ArrayList<>(markers.length);
@@ -200,17 +412,18 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 				projectMarkers.add(marker);
 			}
 		}
+		List<PublishDiagnosticsParams> result = new ArrayList<>(2);
 		List<Diagnostic> diagnostics = toDiagnosticArray(range, projectMarkers, isDiagnosticTagSupported);
 		String clientUri = ResourceUtils.toClientUri(uri);
-		connection.publishDiagnostics(new PublishDiagnosticsParams(clientUri, diagnostics));
+		result.add(new PublishDiagnosticsParams(clientUri, diagnostics));
 		if (pom.exists()) {
-			IDocument document = JsonRpcHelpers.toDocument(pom);
-			diagnostics = toDiagnosticsArray(document, pom.findMarkers(null, true, IResource.DEPTH_ZERO), isDiagnosticTagSupported);
+			diagnostics = toDiagnosticsArray(getLineTable(pom), pom.findMarkers(null, true, IResource.DEPTH_ZERO), isDiagnosticTagSupported);
 			List<Diagnostic> diagnosicts2 = toDiagnosticArray(range, pomMarkers, isDiagnosticTagSupported);
 			diagnostics.addAll(diagnosicts2);
 			String pomSuffix = clientUri.endsWith("/") ? "pom.xml" : "/pom.xml";
-			connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(clientUri + pomSuffix), diagnostics));
+			result.add(new PublishDiagnosticsParams(ResourceUtils.toClientUri(clientUri + pomSuffix), diagnostics));
 		}
+		return result;
 	}
 
 	public List<IMarker> publishDiagnostics(IProgressMonitor monitor) throws CoreException {
@@ -264,23 +477,23 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			if (file == null) {
 				continue;
 			}
-			IDocument document = null;
 			String uri = JDTUtils.getFileURI(file);
-			if (JavaCore.isJavaLikeFileName(file.getName())) {
-				ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
-				//ignoring working copies, they're handled in the DocumentLifecycleHandler
-				if (cu != null && !cu.isWorkingCopy()) {
-					try {
-						document = JsonRpcHelpers.toDocument(cu.getBuffer());
-					} catch (JavaModelException e) {
-						JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + uri, e);
+			IMarker[] markers = entry.getValue().toArray(new IMarker[0]);
+			List<Diagnostic> diagnostics = null;
+			try {
+				if (JavaCore.isJavaLikeFileName(file.getName())) {
+					ICompilationUnit cu = JDTUtils.resolveCompilationUnit(uri);
+					//ignoring working copies, they're handled in the DocumentLifecycleHandler
+					if (cu != null && !cu.isWorkingCopy()) {
+						diagnostics = toDiagnosticsArray(getLineTable(file), markers, isDiagnosticTagSupported);
 					}
+				} else if (projectsManager.isBuildFile(file)) {
+					diagnostics = toDiagnosticsArray(getLineTable(file), markers, isDiagnosticTagSupported);
 				}
-			} else if (projectsManager.isBuildFile(file)) {
-				document = JsonRpcHelpers.toDocument(file);
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Failed to publish diagnostics for " + uri, e);
 			}
-			if (document != null) {
-				List<Diagnostic> diagnostics = WorkspaceDiagnosticsHandler.toDiagnosticsArray(document, entry.getValue().toArray(new IMarker[0]), isDiagnosticTagSupported);
+			if (diagnostics != null) {
 				connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), diagnostics));
 			}
 		}
@@ -338,14 +551,30 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 	 * @return a list of {@link Diagnostic}s
 	 */
 	public static List<Diagnostic> toDiagnosticsArray(IDocument document, IMarker[] markers, boolean isDiagnosticTagSupported) {
+		return toDiagnosticsArray(LineMapper.of(document), markers, isDiagnosticTagSupported);
+	}
+
+	/**
+	 * Transforms {@link IMarker}s of a file into a list of {@link Diagnostic}s,
+	 * using the {@link LineTable} of the file content.
+	 *
+	 * @param lineTable
+	 * @param markers
+	 * @return a list of {@link Diagnostic}s
+	 */
+	public static List<Diagnostic> toDiagnosticsArray(LineTable lineTable, IMarker[] markers, boolean isDiagnosticTagSupported) {
+		return toDiagnosticsArray(LineMapper.of(lineTable), markers, isDiagnosticTagSupported);
+	}
+
+	private static List<Diagnostic> toDiagnosticsArray(LineMapper lines, IMarker[] markers, boolean isDiagnosticTagSupported) {
 		List<Diagnostic> diagnostics = Stream.of(markers)
-				.map(m -> toDiagnostic(document, m, isDiagnosticTagSupported))
+				.map(m -> toDiagnostic(lines, m, isDiagnosticTagSupported))
 				.filter(d -> d != null)
 				.collect(Collectors.toList());
 		return diagnostics;
 	}
 
-	private static Diagnostic toDiagnostic(IDocument document, IMarker marker, boolean isDiagnosticTagSupported) {
+	private static Diagnostic toDiagnostic(LineMapper lines, IMarker marker, boolean isDiagnosticTagSupported) {
 		if (marker == null || !marker.exists()) {
 			return null;
 		}
@@ -355,7 +584,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		int problemId = marker.getAttribute(IJavaModelMarker.ID, 0);
 		d.setCode(String.valueOf(problemId));
 		d.setSeverity(convertSeverity(marker.getAttribute(IMarker.SEVERITY, -1)));
-		d.setRange(convertRange(document, marker));
+		d.setRange(convertRange(lines, marker));
 		if (isDiagnosticTagSupported) {
 			d.setTags(DiagnosticsHandler.getDiagnosticTag(problemId));
 		}
@@ -366,15 +595,17 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 	 * @param marker
 	 * @return
 	 */
-	private static Range convertRange(IDocument document, IMarker marker) {
+	private static Range convertRange(LineMapper lines, IMarker marker) {
 		int line = marker.getAttribute(IMarker.LINE_NUMBER, -1) - 1;
 		if (line < 0) {
 			int end = marker.getAttribute(IMarker.CHAR_END, -1);
 			int start = marker.getAttribute(IMarker.CHAR_START, -1);
 			if (start >= 0 && end >= start) {
-				int[] startPos = JsonRpcHelpers.toLine(document, start);
-				int[] endPos = JsonRpcHelpers.toLine(document, end);
-				return new Range(new Position(startPos[0], startPos[1]), new Position(endPos[0], endPos[1]));
+				int[] startPos = lines.toLine(start);
+				int[] endPos = lines.toLine(end);
+				if (startPos != null && endPos != null) {
+					return new Range(new Position(startPos[0], startPos[1]), new Position(endPos[0], endPos[1]));
+				}
 			}
 			return new Range(new Position(0, 0), new Position(0, 0));
 		}
@@ -388,7 +619,7 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 			} else {
 				int lineOffset = 0;
 				try {
-					lineOffset = document.getLineOffset(line);
+					lineOffset = lines.getLineOffset(line);
 				} catch (BadLocationException unlikelyException) {
 					JavaLanguageServerPlugin.logException(unlikelyException.getMessage(), unlikelyException);
 					return new Range(new Position(line, 0), new Position(line, 0));
@@ -419,20 +650,6 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		return DiagnosticSeverity.Information;
 	}
 
-	private void cleanUpDiagnostics(IResource resource) {
-		cleanUpDiagnostics(resource, false);
-	}
-
-	private void cleanUpDiagnostics(IResource resource, boolean addTrailingSlash) {
-		String uri = JDTUtils.getFileURI(resource);
-		if (uri != null) {
-			if (addTrailingSlash && !uri.endsWith("/")) {
-				uri = uri + "/";
-			}
-			this.connection.publishDiagnostics(new PublishDiagnosticsParams(ResourceUtils.toClientUri(uri), Collections.emptyList()));
-		}
-	}
-
 	private boolean isSupportedDiagnosticsResource(IResource resource) {
 		if (resource.getType() == IResource.PROJECT) {
 			return true;
@@ -441,4 +658,61 @@ public final class WorkspaceDiagnosticsHandler implements IResourceChangeListene
 		IFile file = (IFile) resource;
 		return JavaCore.isJavaLikeFileName(file.getName()) || projectsManager.isBuildFile(file);
 	}
+
+	private static enum PendingAction {
+		PUBLISH, CLEAN, CLEAN_FOLDER
+	}
+
+	private static final class CachedLineTable {
+		private final long stamp;
+		private final LineTable lineTable;
+
+		private CachedLineTable(long stamp, LineTable lineTable) {
+			this.stamp = stamp;
+			this.lineTable = lineTable;
+		}
+	}
+
+	/**
+	 * Maps offsets to lines, backed either by an {@link IDocument} or a
+	 * {@link LineTable}.
+	 */
+	private interface LineMapper {
+
+		int getLineOffset(int line) throws BadLocationException;
+
+		int[] toLine(int offset);
+
+		static LineMapper of(IDocument document) {
+			return new LineMapper() {
+				@Override
+				public int getLineOffset(int line) throws BadLocationException {
+					return document.getLineOffset(line);
+				}
+
+				@Override
+				public int[] toLine(int offset) {
+					return JsonRpcHelpers.toLine(document, offset);
+				}
+			};
+		}
+
+		static LineMapper of(LineTable lineTable) {
+			return new LineMapper() {
+				@Override
+				public int getLineOffset(int line) throws BadLocationException {
+					int offset = lineTable.getLineOffset(line);
+					if (offset < 0) {
+						throw new BadLocationException("Line " + line + " is outside of the file");
+					}
+					return offset;
+				}
+
+				@Override
+				public int[] toLine(int offset) {
+					return lineTable.toLine(offset);
+				}
+			};
+		}
+	}
 }
@@ -18,12 +18,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
@@ -80,6 +84,92 @@ public class DigestStore {
 
 	}
 
+	/**
+	 * Checks the digest of the given path against the stored one, without
+	 * updating it.
+	 *
+	 * @param p
+	 *            Path to the file in questions
+	 * @return whether the file changed since the last
+	 *         {@link #updateDigest(Path)}, or if no digest was stored yet
+	 * @throws CoreException
+	 *             if a digest cannot be computed
+	 */
+	public boolean isDigestChanged(Path p) throws CoreException {
+		try {
+			String digest = computeDigest(p);
+			synchronized (fileDigests) {
+				return !digest.equals(fileDigests.get(p.toString()));
+			}
+		} catch (NoSuchAlgorithmException | IOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Exception computing digest for " + p, e));
+		}
+	}
+
+	/**
+	 * Updates the digest of a set of files, stored under the given key.
+	 *
+	 * @param key
+	 *            the key of the digest, e.g. the build the files configure
+	 * @param files
+	 *            the files, missing files are ignored
+	 * @return whether the content of the files, or the set of existing files,
+	 *         changed since the last update
+	 * @throws CoreException
+	 *             if a digest cannot be computed
+	 */
+	public boolean updateDigest(String key, Collection<Path> files) throws CoreException {
+		String digest = computeDigest(key, files);
+		synchronized (fileDigests) {
+			if (!digest.equals(fileDigests.get(key))) {
+				fileDigests.put(key, digest);
+				serializeFileDigests();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Checks the digest of a set of files against the one stored under the
+	 * given key, without updating it.
+	 *
+	 * @param key
+	 *            the key of the digest
+	 * @param files
+	 *            the files, missing files are ignored
+	 * @return whether the files changed since the last
+	 *         {@link #updateDigest(String, Collection)}, or if no digest was
+	 *         stored yet
+	 * @throws CoreException
+	 *             if a digest cannot be computed
+	 */
+	public boolean isDigestChanged(String key, Collection<Path> files) throws CoreException {
+		String digest = computeDigest(key, files);
+		synchronized (fileDigests) {
+			return !digest.equals(fileDigests.get(key));
+		}
+	}
+
+	private String computeDigest(String key, Collection<Path> files) throws CoreException {
+		List<Path> sorted = new ArrayList<>(files);
+		sorted.sort(null);
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			for (Path file : sorted) {
+				if (Files.isRegularFile(file)) {
+					md.update(file.toString().getBytes(StandardCharsets.UTF_8));
+					md.update((byte) 0);
+					md.update(Files.readAllBytes(file));
+					md.update((byte) 0);
+				}
+			}
+			return Arrays.toString(md.digest());
+		} catch (NoSuchAlgorithmException | IOException e) {
+			throw new CoreException(StatusFactory.newErrorStatus("Exception computing digest for " + key, e));
+		}
+	}
+
 	private void serializeFileDigests() {
 		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
 			outStream.writeObject(fileDigests);
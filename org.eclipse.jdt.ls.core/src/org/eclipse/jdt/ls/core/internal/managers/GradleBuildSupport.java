@@ -22,6 +22,7 @@ import java.util.Optional;
 import org.eclipse.buildship.core.BuildConfiguration;
 import org.eclipse.buildship.core.GradleBuild;
 import org.eclipse.buildship.core.GradleCore;
+import org.eclipse.buildship.core.SynchronizationResult;
 import org.eclipse.buildship.core.internal.CorePlugin;
 import org.eclipse.buildship.core.internal.launch.GradleClasspathProvider;
 import org.eclipse.buildship.core.internal.util.file.FileUtils;
@@ -84,7 +85,10 @@ public class GradleBuildSupport implements IBuildSupport {
 			boolean shouldUpdate = (buildFile.exists() && JavaLanguageServerPlugin.getDigestStore().updateDigest(buildFile.toPath()))
 					|| (settingsFile.exists() && JavaLanguageServerPlugin.getDigestStore().updateDigest(settingsFile.toPath()));
 			if (isRoot || shouldUpdate) {
-				gradleBuild.synchronize(monitor);
+				SynchronizationResult result = gradleBuild.synchronize(monitor);
+				if (isRoot && result.getStatus().isOK()) {
+					GradleProjectImporter.updateConfigurationDigest(project.getLocation().toFile().toPath());
+				}
 			}
 		}
 	}
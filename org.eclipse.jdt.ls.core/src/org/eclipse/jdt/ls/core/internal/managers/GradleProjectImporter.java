@@ -15,12 +15,23 @@ package org.eclipse.jdt.ls.core.internal.managers;
 import static java.util.Arrays.asList;
 
 import java.io.File;
-import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.buildship.core.BuildConfiguration;
@@ -63,6 +74,8 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 
 	public static final String BUILD_GRADLE_DESCRIPTOR = "build.gradle";
 	public static final String SETTINGS_GRADLE_DESCRIPTOR = "settings.gradle";
+	public static final String SETTINGS_GRADLE_KTS_DESCRIPTOR = "settings.gradle.kts";
+	public static final String BUILD_SRC = "buildSrc";
 
 	public static final GradleDistribution DEFAULT_DISTRIBUTION = GradleDistribution.forVersion(GradleVersion.current().getVersion());
 
@@ -79,6 +92,10 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 			.replaceAll("\n", System.lineSeparator());
 	//@formatter:on
 
+	private static final String CONFIGURATION_DIGEST_PREFIX = "gradle-configuration:";
+
+	private static final Pattern INCLUDE_BUILD_PATTERN = Pattern.compile("includeBuild\\s*\\(?\\s*['\"]([^'\"]+)['\"]");
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.jdt.ls.core.internal.managers.IProjectImporter#applies(org.eclipse.core.runtime.IProgressMonitor)
 	 */
@@ -121,7 +138,16 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		subMonitor.setTaskName(IMPORTING_GRADLE_PROJECTS);
 		JavaLanguageServerPlugin.logInfo(IMPORTING_GRADLE_PROJECTS);
 		subMonitor.worked(1);
-		directories.forEach(d -> importDir(d, subMonitor.newChild(1)));
+		// the roots are independent: find the modified ones concurrently, as
+		// reading their configuration files can take a while
+		Set<Path> modified = directories.parallelStream().filter(d -> shouldSynchronize(d.toFile())).collect(Collectors.toSet());
+		Set<Path> failed = new HashSet<>();
+		for (Path directory : directories) {
+			IProgressMonitor childMonitor = subMonitor.newChild(1);
+			if (modified.contains(directory) && (subMonitor.isCanceled() || !synchronize(directory, childMonitor))) {
+				failed.add(directory);
+			}
+		}
 		// store the digest for the imported gradle projects.
 		ProjectUtils.getGradleProjects().forEach(project -> {
 			File buildFile = project.getFile(BUILD_GRADLE_DESCRIPTOR).getLocation().toFile();
@@ -133,6 +159,10 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 				if (settingsFile.exists()) {
 					JavaLanguageServerPlugin.getDigestStore().updateDigest(settingsFile.toPath());
 				}
+				Path location = project.getLocation().toFile().toPath();
+				if (failed.stream().noneMatch(location::startsWith)) {
+					updateConfigurationDigest(location);
+				}
 			} catch (CoreException e) {
 				JavaLanguageServerPlugin.logException("Failed to update digest for gradle build file", e);
 			}
@@ -140,13 +170,6 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		subMonitor.done();
 	}
 
-	private void importDir(Path projectFolder, IProgressMonitor monitor) {
-		if (monitor.isCanceled()) {
-			return;
-		}
-		startSynchronization(projectFolder, monitor);
-	}
-
 
 	public static GradleDistribution getGradleDistribution(Path rootFolder) {
 		PreferenceManager preferencesManager = JavaLanguageServerPlugin.getPreferencesManager();
@@ -254,14 +277,20 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		File location = projectFolder.toFile();
 		boolean shouldSynchronize = shouldSynchronize(location);
 		if (shouldSynchronize) {
-			BuildConfiguration build = getBuildConfiguration(projectFolder);
-			SynchronizationResult result = GradleCore.getWorkspace().createBuild(build).synchronize(monitor);
-			if (!result.getStatus().isOK()) {
-				JavaLanguageServerPlugin.log(result.getStatus());
-			}
+			synchronize(projectFolder, monitor);
 		}
 	}
 
+	private boolean synchronize(Path projectFolder, IProgressMonitor monitor) {
+		BuildConfiguration build = getBuildConfiguration(projectFolder);
+		SynchronizationResult result = GradleCore.getWorkspace().createBuild(build).synchronize(monitor);
+		if (!result.getStatus().isOK()) {
+			JavaLanguageServerPlugin.log(result.getStatus());
+			return false;
+		}
+		return true;
+	}
+
 	public static BuildConfiguration getBuildConfiguration(Path rootFolder) {
 		GradleDistribution distribution = getGradleDistribution(rootFolder);
 		File javaHome = getGradleJavaHomeFile();
@@ -318,26 +347,114 @@ public class GradleProjectImporter extends AbstractProjectImporter {
 		PersistentModel model = CorePlugin.modelPersistence().loadModel(project);
 		if (model.isPresent()) {
 			File persistentFile = CorePlugin.getInstance().getStateLocation().append("project-preferences").append(project.getName()).toFile();
-			if (persistentFile.exists()) {
-				long modified = persistentFile.lastModified();
-				if (projectDir.exists()) {
-					File[] files = projectDir.listFiles(new FilenameFilter() {
-
-						@Override
-						public boolean accept(File dir, String name) {
-							if (name != null && name.endsWith(GradleBuildSupport.GRADLE_SUFFIX)) {
-								return new File(dir, name).lastModified() > modified;
-							}
-							return false;
-						}
-					});
-					shouldSynchronize = files != null && files.length > 0;
+			if (persistentFile.exists() && projectDir.exists()) {
+				Path location = projectDir.toPath();
+				try {
+					shouldSynchronize = JavaLanguageServerPlugin.getDigestStore().isDigestChanged(CONFIGURATION_DIGEST_PREFIX + location, getConfigurationFiles(location));
+				} catch (CoreException e) {
+					JavaLanguageServerPlugin.logException(e.getMessage(), e);
 				}
 			}
 		}
 		return shouldSynchronize;
 	}
 
+	/**
+	 * Updates the digest of the files affecting the configuration of the Gradle
+	 * project in the given folder, once it has been synchronized.
+	 *
+	 * @param projectFolder
+	 *            the folder of the Gradle project
+	 * @return whether the configuration files changed since the last update
+	 * @throws CoreException
+	 *             if the digest cannot be computed
+	 */
+	public static boolean updateConfigurationDigest(Path projectFolder) throws CoreException {
+		return JavaLanguageServerPlugin.getDigestStore().updateDigest(CONFIGURATION_DIGEST_PREFIX + projectFolder, getConfigurationFiles(projectFolder));
+	}
+
+	/**
+	 * Returns the files affecting the configuration of the Gradle project in the
+	 * given folder: its build scripts and settings, gradle.properties, the
+	 * wrapper properties, the version catalogs, the buildSrc tree, and the same
+	 * files of the builds it includes.
+	 *
+	 * @param projectFolder
+	 *            the folder of the Gradle project
+	 * @return the configuration files
+	 */
+	public static List<Path> getConfigurationFiles(Path projectFolder) {
+		List<Path> files = new ArrayList<>();
+		collectConfigurationFiles(projectFolder, files, new HashSet<>());
+		return files;
+	}
+
+	private static void collectConfigurationFiles(Path folder, List<Path> files, Set<Path> visited) {
+		if (!Files.isDirectory(folder) || !visited.add(folder.toAbsolutePath().normalize())) {
+			return;
+		}
+		try (DirectoryStream<Path> children = Files.newDirectoryStream(folder, child -> isConfigurationFile(child.getFileName().toString()))) {
+			children.forEach(files::add);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to list the Gradle files of " + folder, e);
+		}
+		Path gradleFolder = folder.resolve("gradle");
+		files.add(gradleFolder.resolve("wrapper").resolve("gradle-wrapper.properties"));
+		if (Files.isDirectory(gradleFolder)) {
+			try (DirectoryStream<Path> catalogs = Files.newDirectoryStream(gradleFolder, "*.versions.toml")) {
+				catalogs.forEach(files::add);
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Unable to list the version catalogs of " + folder, e);
+			}
+		}
+		collectBuildSrcFiles(folder.resolve(BUILD_SRC), files);
+		for (String settings : asList(SETTINGS_GRADLE_DESCRIPTOR, SETTINGS_GRADLE_KTS_DESCRIPTOR)) {
+			Path settingsFile = folder.resolve(settings);
+			if (Files.isRegularFile(settingsFile)) {
+				try {
+					Matcher matcher = INCLUDE_BUILD_PATTERN.matcher(new String(Files.readAllBytes(settingsFile), StandardCharsets.UTF_8));
+					while (matcher.find()) {
+						collectConfigurationFiles(folder.resolve(matcher.group(1)), files, visited);
+					}
+				} catch (IOException e) {
+					JavaLanguageServerPlugin.logException("Unable to read " + settingsFile, e);
+				}
+			}
+		}
+	}
+
+	private static boolean isConfigurationFile(String name) {
+		return name.endsWith(GradleBuildSupport.GRADLE_SUFFIX) || name.endsWith(GradleBuildSupport.GRADLE_SUFFIX + ".kts") || name.equals(GradleBuildSupport.GRADLE_PROPERTIES);
+	}
+
+	private static void collectBuildSrcFiles(Path buildSrc, List<Path> files) {
+		if (!Files.isDirectory(buildSrc)) {
+			return;
+		}
+		try {
+			Files.walkFileTree(buildSrc, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+					String name = dir.getFileName().toString();
+					if (!dir.equals(buildSrc) && (name.startsWith(".") || name.equals("build") || name.equals("bin"))) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					if (attrs.isRegularFile()) {
+						files.add(file);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to list the files of " + buildSrc, e);
+		}
+	}
+
 	@Override
 	public void reset() {
 	}
@@ -62,7 +62,7 @@ public class InvisibleProjectBuildSupport extends EclipseBuildSupport implements
 		}
 		for (String pattern: libraries.getInclude()) {
 			if (matchPattern(projectFolder, pattern, resourcePath)) {
-				UpdateClasspathJob.getInstance().updateClasspath(JavaCore.create(project), libraries);
+				UpdateClasspathJob.getInstance().updateClasspath(JavaCore.create(project), libraries, resource.getLocation().toFile().toPath());
 				return false; // update if included in any pattern
 			}
 		}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.m2e.core.project.IMavenProjectImportResult;
+import org.eclipse.m2e.core.project.IProjectConfigurationManager;
+import org.eclipse.m2e.core.project.MavenProjectInfo;
+import org.eclipse.m2e.core.project.ProjectImportConfiguration;
+
+/**
+ * Imports Maven projects in batches sized from the heap headroom.
+ *
+ * The projects are imported in reactor order, so parents and upstream modules
+ * are configured before the modules depending on them. The memory used by
+ * each imported project is measured on the previous batches, and the next
+ * batch only takes as many projects as half of the free heap can hold.
+ */
+public class MavenImportScheduler {
+
+	private static final long INITIAL_PROJECT_FOOTPRINT = 4 * 1024 * 1024; // 4m
+	private static final long MIN_PROJECT_FOOTPRINT = 512 * 1024;
+	private static final double HEADROOM_RATIO = 0.5;
+
+	private final IProjectConfigurationManager configurationManager;
+	private long projectFootprint = INITIAL_PROJECT_FOOTPRINT;
+	private int batchCount;
+
+	public MavenImportScheduler(IProjectConfigurationManager configurationManager) {
+		this.configurationManager = configurationManager;
+	}
+
+	/**
+	 * Imports the given projects.
+	 *
+	 * @param projects
+	 *            the projects to import
+	 * @param monitor
+	 *            a progress monitor
+	 * @return the import results
+	 * @throws CoreException
+	 *             if a batch fails to import
+	 */
+	public List<IMavenProjectImportResult> importProjects(Collection<MavenProjectInfo> projects, SubMonitor monitor) throws CoreException {
+		List<MavenProjectInfo> remaining = sortByReactorOrder(projects);
+		List<IMavenProjectImportResult> results = new ArrayList<>(remaining.size());
+		int total = remaining.size();
+		monitor.setWorkRemaining(total);
+		while (!remaining.isEmpty()) {
+			int size = getBatchSize(getHeapHeadroom(), projectFootprint, remaining.size());
+			List<MavenProjectInfo> batch = new ArrayList<>(remaining.subList(0, size));
+			remaining = remaining.subList(size, remaining.size());
+			if (size < total) {
+				int percent = (total - remaining.size()) * 100 / total;
+				monitor.setTaskName(percent + "% " + MavenProjectImporter.IMPORTING_MAVEN_PROJECTS);
+			}
+			results.addAll(importBatch(batch, monitor.split(size)));
+		}
+		return results;
+	}
+
+	/**
+	 * @return the number of batches imported so far
+	 */
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	private List<IMavenProjectImportResult> importBatch(List<MavenProjectInfo> batch, SubMonitor monitor) throws CoreException {
+		List<MemoryPoolMXBean> pools = getHeapPools();
+		pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+		long usedBefore = getUsed(pools, false);
+		long start = System.currentTimeMillis();
+		List<IMavenProjectImportResult> result = configurationManager.importProjects(batch, new ProjectImportConfiguration(), monitor);
+		long elapsed = System.currentTimeMillis() - start;
+		long peak = getUsed(pools, true);
+		batchCount++;
+		// the spike of the batch bounds the memory a project needs while it is configured
+		long footprint = Math.max(MIN_PROJECT_FOOTPRINT, (peak - usedBefore) / batch.size());
+		projectFootprint = (projectFootprint + footprint) / 2;
+		JavaLanguageServerPlugin.logInfo("Imported Maven batch " + batchCount + ": " + batch.size() + " project(s) in " + elapsed + "ms, peak heap " + toMegabytes(peak) + "MB");
+		return result;
+	}
+
+	/**
+	 * Returns the size of the next batch.
+	 *
+	 * @param headroom
+	 *            the free heap, in bytes
+	 * @param projectFootprint
+	 *            the estimated memory needed to import a project, in bytes
+	 * @param remaining
+	 *            the number of projects left to import
+	 * @return the number of projects of the next batch
+	 */
+	public static int getBatchSize(long headroom, long projectFootprint, int remaining) {
+		long size = (long) (headroom * HEADROOM_RATIO) / Math.max(1, projectFootprint);
+		return (int) Math.max(1, Math.min(size, remaining));
+	}
+
+	/**
+	 * Sorts the projects so that parents and dependencies come before the
+	 * projects referencing them. Otherwise the order is unchanged.
+	 *
+	 * @param projects
+	 *            the projects
+	 * @return the sorted projects
+	 */
+	public static List<MavenProjectInfo> sortByReactorOrder(Collection<MavenProjectInfo> projects) {
+		Map<String, MavenProjectInfo> byKey = new HashMap<>();
+		for (MavenProjectInfo project : projects) {
+			String key = getKey(project.getModel());
+			if (key != null) {
+				byKey.putIfAbsent(key, project);
+			}
+		}
+		Set<MavenProjectInfo> all = new HashSet<>(projects);
+		Set<MavenProjectInfo> sorted = new LinkedHashSet<>();
+		Set<MavenProjectInfo> visiting = new HashSet<>();
+		for (MavenProjectInfo project : projects) {
+			visit(project, all, byKey, sorted, visiting);
+		}
+		return new ArrayList<>(sorted);
+	}
+
+	private static void visit(MavenProjectInfo project, Set<MavenProjectInfo> all, Map<String, MavenProjectInfo> byKey, Set<MavenProjectInfo> sorted, Set<MavenProjectInfo> visiting) {
+		if (sorted.contains(project) || !visiting.add(project)) {
+			return; // already sorted, or a dependency cycle
+		}
+		List<MavenProjectInfo> upstream = new ArrayList<>();
+		if (project.getParent() != null) {
+			upstream.add(project.getParent());
+		}
+		Model model = project.getModel();
+		if (model != null) {
+			Parent parent = model.getParent();
+			if (parent != null) {
+				upstream.add(byKey.get(parent.getGroupId() + ":" + parent.getArtifactId()));
+			}
+			for (Dependency dependency : model.getDependencies()) {
+				String groupId = resolveGroupId(model, dependency.getGroupId());
+				upstream.add(byKey.get(groupId + ":" + dependency.getArtifactId()));
+			}
+		}
+		for (MavenProjectInfo dependency : upstream) {
+			if (dependency != null && all.contains(dependency)) {
+				visit(dependency, all, byKey, sorted, visiting);
+			}
+		}
+		visiting.remove(project);
+		sorted.add(project);
+	}
+
+	private static String getKey(Model model) {
+		if (model == null || model.getArtifactId() == null) {
+			return null;
+		}
+		return getGroupId(model) + ":" + model.getArtifactId();
+	}
+
+	private static String getGroupId(Model model) {
+		String groupId = model.getGroupId();
+		if (groupId == null && model.getParent() != null) {
+			groupId = model.getParent().getGroupId();
+		}
+		return groupId;
+	}
+
+	/**
+	 * Resolves the placeholders commonly used for the group id of the modules
+	 * of a reactor. The models are not interpolated yet, so the properties
+	 * defined by a parent pom are unknown, and the dependencies using them are
+	 * not ordered.
+	 */
+	private static String resolveGroupId(Model model, String groupId) {
+		if (groupId == null || !groupId.startsWith("${") || !groupId.endsWith("}")) {
+			return groupId;
+		}
+		String property = groupId.substring(2, groupId.length() - 1);
+		switch (property) {
+			case "project.groupId":
+			case "pom.groupId":
+			case "groupId":
+				return getGroupId(model);
+			case "project.parent.groupId":
+			case "parent.groupId":
+				return model.getParent() == null ? groupId : model.getParent().getGroupId();
+			default:
+				return model.getProperties().getProperty(property, groupId);
+		}
+	}
+
+	/**
+	 * Returns the free heap. The usage measured after the last garbage
+	 * collection is used when available, as it only counts live objects.
+	 */
+	private static long getHeapHeadroom() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : getHeapPools()) {
+			MemoryUsage usage = pool.isCollectionUsageThresholdSupported() ? pool.getCollectionUsage() : null;
+			used += (usage != null ? usage : pool.getUsage()).getUsed();
+		}
+		return Math.max(0, Runtime.getRuntime().maxMemory() - used);
+	}
+
+	private static List<MemoryPoolMXBean> getHeapPools() {
+		List<MemoryPoolMXBean> pools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pools.add(pool);
+			}
+		}
+		return pools;
+	}
+
+	private static long getUsed(List<MemoryPoolMXBean> pools, boolean peak) {
+		long used = 0;
+		for (MemoryPoolMXBean pool : pools) {
+			MemoryUsage usage = peak ? pool.getPeakUsage() : pool.getUsage();
+			if (usage != null) {
+				used += usage.getUsed();
+			}
+		}
+		return used;
+	}
+
+	private static long toMegabytes(long bytes) {
+		return bytes / (1024 * 1024);
+	}
+}
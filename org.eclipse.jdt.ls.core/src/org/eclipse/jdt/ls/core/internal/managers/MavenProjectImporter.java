@@ -13,6 +13,11 @@
 package org.eclipse.jdt.ls.core.internal.managers;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -21,6 +26,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.internal.resources.Workspace;
@@ -38,6 +46,9 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.ls.core.internal.AbstractProjectImporter;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
@@ -53,19 +64,22 @@ import org.eclipse.m2e.core.project.IMavenProjectImportResult;
 import org.eclipse.m2e.core.project.IProjectConfigurationManager;
 import org.eclipse.m2e.core.project.LocalProjectScanner;
 import org.eclipse.m2e.core.project.MavenProjectInfo;
-import org.eclipse.m2e.core.project.ProjectImportConfiguration;
 
 @SuppressWarnings("restriction")
 public class MavenProjectImporter extends AbstractProjectImporter {
 
-	private static final int MAX_PROJECTS_TO_IMPORT = 50;
-
-	private static final long MAX_MEMORY = 1536 * 1024 * 1024; // 1.5g
-
 	public static final String IMPORTING_MAVEN_PROJECTS = "Importing Maven project(s)";
 
 	public static final String POM_FILE = "pom.xml";
 
+	private static final String OUTPUT_FOLDER = "target";
+
+	/**
+	 * The prefix of the folders of the output folder containing generated
+	 * sources, such as generated-sources and generated-test-sources
+	 */
+	private static final String GENERATED_FOLDER_PREFIX = "generated-";
+
 	private Set<MavenProjectInfo> projectInfos = null;
 
 	private IProjectConfigurationManager configurationManager;
@@ -163,35 +177,16 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 			}
 		}
 		if (!toImport.isEmpty()) {
-			if (toImport.size() > MAX_PROJECTS_TO_IMPORT && Runtime.getRuntime().maxMemory() <= MAX_MEMORY) {
-				JavaLanguageServerPlugin.logInfo("Projects size:" + toImport.size());
-				Iterator<MavenProjectInfo> iter = toImport.iterator();
-				List<IMavenProjectImportResult> results = new ArrayList<>(MAX_PROJECTS_TO_IMPORT);
-				SubMonitor monitor2 = SubMonitor.convert(monitor, toImport.size() * 2);
-				int it = 1;
-				while (iter.hasNext()) {
-					int percent = Math.min(100, it++ * 100 * MAX_PROJECTS_TO_IMPORT / (toImport.size() + 1));
-					monitor2.setTaskName(percent + "% " + IMPORTING_MAVEN_PROJECTS);
-					List<MavenProjectInfo> importPartial = new ArrayList<>();
-					int i = 0;
-					while (i++ < MAX_PROJECTS_TO_IMPORT && iter.hasNext()) {
-						importPartial.add(iter.next());
-					}
-					ProjectImportConfiguration importConfig = new ProjectImportConfiguration();
-					List<IMavenProjectImportResult> result = configurationManager.importProjects(importPartial, importConfig, monitor2.split(MAX_PROJECTS_TO_IMPORT));
-					results.addAll(result);
-					monitor2.setWorkRemaining(toImport.size() * 2 - it * MAX_PROJECTS_TO_IMPORT);
-				}
+			MavenImportScheduler scheduler = new MavenImportScheduler(configurationManager);
+			List<IMavenProjectImportResult> results = scheduler.importProjects(toImport, subMonitor.split(75));
+			if (scheduler.getBatchCount() > 1) {
 				List<IProject> imported = new ArrayList<>(results.size());
 				for (IMavenProjectImportResult result : results) {
-					imported.add(result.getProject());
+					if (result.getProject() != null) {
+						imported.add(result.getProject());
+					}
 				}
-				monitor2.setTaskName("Updating Maven project(s)");
-				updateProjects(imported, lastWorkspaceStateSaved, monitor2.split(projects.size()));
-				monitor2.done();
-			} else {
-				ProjectImportConfiguration importConfig = new ProjectImportConfiguration();
-				configurationManager.importProjects(toImport, importConfig, subMonitor.split(75));
+				updateProjects(imported, lastWorkspaceStateSaved, subMonitor.split(0));
 			}
 		}
 		subMonitor.setWorkRemaining(20);
@@ -212,20 +207,28 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		if (projects.isEmpty()) {
 			return;
 		}
+		SubMonitor subMonitor = SubMonitor.convert(monitor, projects.size());
+		Pattern resourceFilter = getResourceFilter();
+		List<IProject> changed = new ArrayList<>();
 		Iterator<IProject> iterator = projects.iterator();
 		while (iterator.hasNext()) {
 			IProject project = iterator.next();
-			project.open(monitor);
-			if (Platform.OS_WIN32.equals(Platform.getOS())) {
-				project.refreshLocal(IResource.DEPTH_ONE, monitor);
-				((Workspace) ResourcesPlugin.getWorkspace()).getRefreshManager().refresh(project);
-			} else {
-				project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+			project.open(subMonitor.split(1));
+			boolean pomChanged = needsMavenUpdate(project, lastWorkspaceStateSaved);
+			if (pomChanged || hasChanges(project, lastWorkspaceStateSaved, resourceFilter)) {
+				changed.add(project);
 			}
-			if (!needsMavenUpdate(project, lastWorkspaceStateSaved)) {
+			if (!pomChanged) {
 				iterator.remove();
 			}
 		}
+		JavaLanguageServerPlugin.logInfo(changed.size() + " of the existing Maven project(s) changed since the last session");
+		if (changed.isEmpty()) {
+			return;
+		}
+
+		subMonitor.setWorkRemaining(changed.size());
+		refreshProjects(changed, subMonitor);
 		if (projects.isEmpty()) {
 			return;
 		}
@@ -246,8 +249,141 @@ public class MavenProjectImporter extends AbstractProjectImporter {
 		}.schedule();
 	}
 
+	/**
+	 * Refreshes the given projects before the import returns, so that the
+	 * workspace matches the file system once the projects are reported as
+	 * imported. Each project is refreshed by its own job, under the project
+	 * rule, unless the current thread holds a rule the jobs would wait for.
+	 */
+	private void refreshProjects(List<IProject> projects, SubMonitor subMonitor) throws CoreException {
+		ISchedulingRule currentRule = Job.getJobManager().currentRule();
+		if (projects.size() == 1 || currentRule != null) {
+			for (IProject project : projects) {
+				refreshProject(project, subMonitor.split(1));
+			}
+			return;
+		}
+		JobGroup refreshGroup = new JobGroup("Refresh Maven projects", Runtime.getRuntime().availableProcessors(), projects.size());
+		for (IProject project : projects) {
+			WorkspaceJob job = new WorkspaceJob("Refresh " + project.getName()) {
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+					refreshProject(project, monitor);
+					return Status.OK_STATUS;
+				}
+			};
+			job.setRule(ResourcesPlugin.getWorkspace().getRuleFactory().refreshRule(project));
+			job.setSystem(true);
+			job.setJobGroup(refreshGroup);
+			job.schedule();
+		}
+		try {
+			refreshGroup.join(0, subMonitor.split(projects.size()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			refreshGroup.cancel();
+			throw new OperationCanceledException();
+		}
+		IStatus result = refreshGroup.getResult();
+		if (result != null && result.matches(IStatus.ERROR)) {
+			throw new CoreException(result);
+		}
+	}
+
+	private static void refreshProject(IProject project, IProgressMonitor monitor) throws CoreException {
+		if (Platform.OS_WIN32.equals(Platform.getOS())) {
+			project.refreshLocal(IResource.DEPTH_ONE, monitor);
+			((Workspace) ResourcesPlugin.getWorkspace()).getRefreshManager().refresh(project);
+		} else {
+			project.refreshLocal(IResource.DEPTH_INFINITE, monitor);
+		}
+	}
+
 	private boolean needsMavenUpdate(IProject project, long lastWorkspaceStateSaved) {
-		return project.getFile(POM_FILE).getLocalTimeStamp() > lastWorkspaceStateSaved;
+		File pom = project.getFile(POM_FILE).getLocation().toFile();
+		if (pom.lastModified() > lastWorkspaceStateSaved) {
+			return true;
+		}
+		try {
+			return digestStore.isDigestChanged(pom.toPath());
+		} catch (CoreException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			return true;
+		}
+	}
+
+	/**
+	 * Returns whether a file or folder of the project was modified since the
+	 * given time. The output folder, except for its generated sources, the
+	 * nested modules (checked as separate projects) and the resources excluded
+	 * by the resource filters are skipped.
+	 */
+	private boolean hasChanges(IProject project, long since, Pattern resourceFilter) {
+		if (project.getLocation() == null) {
+			return true;
+		}
+		java.nio.file.Path root = project.getLocation().toFile().toPath();
+		java.nio.file.Path output = root.resolve(OUTPUT_FOLDER);
+		AtomicBoolean changed = new AtomicBoolean();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<java.nio.file.Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+					if (dir.equals(output)) {
+						// only its generated sources are checked
+						return FileVisitResult.CONTINUE;
+					}
+					if (!dir.equals(root)) {
+						String name = dir.getFileName().toString();
+						if (isFiltered(name) || (output.equals(dir.getParent()) && !name.startsWith(GENERATED_FOLDER_PREFIX)) || Files.isRegularFile(dir.resolve(POM_FILE))) {
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+					}
+					return check(attrs);
+				}
+
+				@Override
+				public FileVisitResult visitFile(java.nio.file.Path file, BasicFileAttributes attrs) throws IOException {
+					return isFiltered(file.getFileName().toString()) || output.equals(file.getParent()) ? FileVisitResult.CONTINUE : check(attrs);
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(java.nio.file.Path file, IOException exc) throws IOException {
+					return FileVisitResult.CONTINUE;
+				}
+
+				private boolean isFiltered(String name) {
+					return resourceFilter != null && resourceFilter.matcher(name).matches();
+				}
+
+				private FileVisitResult check(BasicFileAttributes attrs) {
+					if (attrs.lastModifiedTime().toMillis() > since) {
+						changed.set(true);
+						return FileVisitResult.TERMINATE;
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to check the changes of " + project.getName(), e);
+			return true;
+		}
+		return changed.get();
+	}
+
+	private static Pattern getResourceFilter() {
+		PreferenceManager preferencesManager = JavaLanguageServerPlugin.getPreferencesManager();
+		List<String> resourceFilters = preferencesManager == null ? null : preferencesManager.getPreferences().getResourceFilters();
+		if (resourceFilters == null || resourceFilters.isEmpty()) {
+			return null;
+		}
+		try {
+			// the same expression as the filters created by ProjectsManager.configureFilters
+			return Pattern.compile(String.join("|", resourceFilters));
+		} catch (PatternSyntaxException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			return null;
+		}
 	}
 
 	private Set<MavenProjectInfo> getMavenProjects(File directory, MavenModelManager modelManager, IProgressMonitor monitor) throws OperationCanceledException {
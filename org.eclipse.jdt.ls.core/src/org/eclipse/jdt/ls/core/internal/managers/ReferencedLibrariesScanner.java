@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.ProjectUtils;
+
+/**
+ * Collects the binaries matching the referenced libraries globs, along with
+ * their detected sources.
+ *
+ * The result of scanning the base folder of the globs is kept, and updated
+ * from the reported file changes instead of scanning the folder again. A
+ * folder is scanned again when the modification time of one of its
+ * sub-folders changed without a reported change, e.g. when the client doesn't
+ * watch it. Changes are recorded by each scan of a folder containing them,
+ * so that collecting the libraries of a project doesn't consume the changes
+ * of the other projects.
+ */
+public class ReferencedLibrariesScanner {
+
+	private final Map<ScanKey, FolderScan> scans = new ConcurrentHashMap<>();
+	private final Map<IPath, Set<ScanKey>> keysByProjectFolder = new HashMap<>();
+
+	/**
+	 * Records a change of the given file, applied to the cached scans on the
+	 * next collection.
+	 *
+	 * @param file
+	 *            the created, changed or deleted file
+	 */
+	public void fileChanged(Path file) {
+		if (file != null) {
+			Path path = file.toAbsolutePath().normalize();
+			for (FolderScan scan : scans.values()) {
+				if (path.startsWith(scan.base) && !path.equals(scan.base)) {
+					scan.changes.add(path);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the binaries matching the given globs.
+	 *
+	 * @param projectFolder
+	 *            the folder the relative globs are resolved against
+	 * @param include
+	 *            the include globs
+	 * @param exclude
+	 *            the exclude globs
+	 * @param monitor
+	 *            a progress monitor
+	 * @return the binaries, mapped to their detected sources, or to
+	 *         <code>null</code> when no sources were found
+	 */
+	public synchronized Map<Path, IPath> collectLibraries(IPath projectFolder, Set<String> include, Set<String> exclude, IProgressMonitor monitor) {
+		Map<Path, IPath> libraries = new LinkedHashMap<>();
+		Map<IPath, Set<String>> includeByPrefix = ProjectUtils.groupGlobsByPrefix(projectFolder, include);
+		Set<IPath> excludeResolved = exclude.stream().map(glob -> ProjectUtils.resolveGlobPath(projectFolder, glob)).collect(Collectors.toSet());
+		Set<ScanKey> keys = new HashSet<>();
+		for (Map.Entry<IPath, Set<String>> prefix : includeByPrefix.entrySet()) {
+			if (monitor.isCanceled()) {
+				return libraries;
+			}
+			IPath baseDir = prefix.getKey();
+			Path base = baseDir.toFile().toPath();
+			if (Files.isRegularFile(base)) {
+				if (ProjectUtils.isBinary(base)) {
+					libraries.put(base, ProjectUtils.detectSources(base));
+				}
+				continue; // base is a regular file path
+			}
+			Set<String> subExclude = excludeResolved.stream().map(glob -> glob.makeRelativeTo(baseDir).toOSString()).collect(Collectors.toSet());
+			ScanKey key = new ScanKey(base, prefix.getValue(), subExclude);
+			keys.add(key);
+			FolderScan scan = scans.get(key);
+			if (scan == null) {
+				if (!Files.isDirectory(base)) {
+					continue; // base does not exist
+				}
+				scan = new FolderScan(key);
+				scan.scan(monitor);
+				if (!monitor.isCanceled()) {
+					scans.put(key, scan);
+				}
+			} else {
+				scan.update(monitor);
+			}
+			libraries.putAll(scan.libraries);
+		}
+
+		// forget the scans of the globs which are no longer used by this project
+		Set<ScanKey> previousKeys = keysByProjectFolder.put(projectFolder, keys);
+		if (previousKeys != null) {
+			previousKeys.removeAll(keys);
+			for (ScanKey key : previousKeys) {
+				if (keysByProjectFolder.values().stream().noneMatch(k -> k.contains(key))) {
+					scans.remove(key);
+				}
+			}
+		}
+		return libraries;
+	}
+
+	/**
+	 * Discards all the cached scans.
+	 */
+	public synchronized void reset() {
+		scans.clear();
+		keysByProjectFolder.clear();
+	}
+
+	private static final class ScanKey {
+		private final Path base;
+		private final Set<String> include;
+		private final Set<String> exclude;
+
+		ScanKey(Path base, Set<String> include, Set<String> exclude) {
+			this.base = base;
+			this.include = new HashSet<>(include);
+			this.exclude = new HashSet<>(exclude);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(base, include, exclude);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ScanKey)) {
+				return false;
+			}
+			ScanKey other = (ScanKey) obj;
+			return base.equals(other.base) && include.equals(other.include) && exclude.equals(other.exclude);
+		}
+	}
+
+	/**
+	 * Matches paths relative to a base folder the same way
+	 * {@link DirectoryScanner} does when scanning.
+	 */
+	private static final class LibraryMatcher extends DirectoryScanner {
+
+		LibraryMatcher(Set<String> include, Set<String> exclude) {
+			setIncludes(include.toArray(new String[include.size()]));
+			setExcludes(exclude.toArray(new String[exclude.size()]));
+			addDefaultExcludes();
+			setupDefaultFilters();
+			setupMatchPatterns();
+		}
+
+		boolean isLibrary(String name, Path file) {
+			return isIncluded(name) && !isExcluded(name) && ProjectUtils.isBinary(file);
+		}
+
+		boolean shouldScan(String name) {
+			return (isIncluded(name) && !isExcluded(name)) || couldHoldIncluded(name);
+		}
+	}
+
+	private static final class FolderScan {
+		private final Path base;
+		private final LibraryMatcher matcher;
+		private final Map<Path, IPath> libraries = new TreeMap<>();
+		/**
+		 * The scanned folders, with their modification time
+		 */
+		private final Map<Path, Long> folders = new HashMap<>();
+		/**
+		 * The changes reported in the base folder since the last update
+		 */
+		private final Set<Path> changes = ConcurrentHashMap.newKeySet();
+
+		FolderScan(ScanKey key) {
+			this.base = key.base;
+			this.matcher = new LibraryMatcher(key.include, key.exclude);
+		}
+
+		void scan(IProgressMonitor monitor) {
+			changes.clear();
+			libraries.clear();
+			folders.clear();
+			if (Files.isDirectory(base)) {
+				scanFolder(base, new HashSet<>(), monitor);
+			}
+		}
+
+		private void scanFolder(Path folder, Set<Path> visited, IProgressMonitor monitor) {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			try {
+				if (!visited.add(folder.toRealPath())) {
+					return; // symbolic link cycle
+				}
+			} catch (IOException e) {
+				return;
+			}
+			folders.put(folder, lastModified(folder));
+			try (DirectoryStream<Path> children = Files.newDirectoryStream(folder)) {
+				for (Path child : children) {
+					String name = base.relativize(child).toString();
+					if (Files.isDirectory(child)) {
+						if (matcher.shouldScan(name)) {
+							scanFolder(child, visited, monitor);
+						}
+					} else if (matcher.isLibrary(name, child)) {
+						libraries.put(child, ProjectUtils.detectSources(child));
+					}
+				}
+			} catch (IOException e) {
+				JavaLanguageServerPlugin.logException("Unable to scan " + folder, e);
+			}
+		}
+
+		/**
+		 * Applies the reported file changes, then scans again if a folder
+		 * changed in some other way.
+		 */
+		void update(IProgressMonitor monitor) {
+			List<Path> reported = new ArrayList<>(changes);
+			changes.removeAll(reported);
+			for (Path file : reported) {
+				if (!apply(file)) {
+					scan(monitor);
+					return;
+				}
+			}
+			for (Map.Entry<Path, Long> folder : folders.entrySet()) {
+				if (lastModified(folder.getKey()) != folder.getValue().longValue()) {
+					scan(monitor);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * @return <code>false</code> if the change can't be applied without
+		 *         scanning again
+		 */
+		private boolean apply(Path file) {
+			Path folder = file.getParent();
+			if (folders.containsKey(file) || Files.isDirectory(file)) {
+				return false; // a folder was created or deleted
+			}
+			if (!folders.containsKey(folder)) {
+				// not in a scanned folder: either not matching, or in a new
+				// folder, detected from the modification time of its parent
+				return true;
+			}
+			String name = base.relativize(file).toString();
+			if (matcher.isLibrary(name, file)) {
+				if (Files.isRegularFile(file)) {
+					libraries.put(file, ProjectUtils.detectSources(file));
+				} else {
+					libraries.remove(file);
+				}
+			} else {
+				String fileName = file.getFileName().toString();
+				if (fileName.endsWith(ProjectUtils.SOURCE_JAR_SUFFIX)) {
+					Path binary = folder.resolve(fileName.substring(0, fileName.length() - ProjectUtils.SOURCE_JAR_SUFFIX.length()) + ProjectUtils.JAR_SUFFIX);
+					if (libraries.containsKey(binary)) {
+						libraries.put(binary, ProjectUtils.detectSources(binary));
+					}
+				}
+			}
+			folders.put(folder, lastModified(folder));
+			return true;
+		}
+
+		private static long lastModified(Path folder) {
+			return folder.toFile().lastModified();
+		}
+	}
+}
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,8 @@ public class UpdateClasspathJob extends WorkspaceJob {
 
 	private static final UpdateClasspathJob instance = new UpdateClasspathJob();
 
+	private final ReferencedLibrariesScanner scanner = new ReferencedLibrariesScanner();
+
 	UpdateClasspathJob() {
 		super("Update classpath Job");
 	}
@@ -93,7 +96,7 @@ public class UpdateClasspathJob extends WorkspaceJob {
 	private void doUpdateClasspath(IJavaProject javaProject, Set<String> include, Set<String> exclude, Map<String, String> sources, IProgressMonitor monitor) throws CoreException {
 		JavaLanguageServerPlugin.logInfo(">> Updating classpath for project " + javaProject.getElementName());
 		final IPath realFolder = ProjectUtils.getProjectRealFolder(javaProject.getProject());
-		final Set<Path> binaries = ProjectUtils.collectBinaries(realFolder, include, exclude, monitor);
+		final Map<Path, IPath> binaries = scanner.collectLibraries(realFolder, include, exclude, monitor);
 		final Map<Path, IPath> expandedSources = new HashMap<>();
 		for (final Map.Entry<String, String> entry: sources.entrySet()) { // Expand sources to absolute path
 			final Path realFolderPath = realFolder.toFile().toPath();
@@ -101,12 +104,12 @@ public class UpdateClasspathJob extends WorkspaceJob {
 			final Path source = realFolderPath.resolve(entry.getValue());
 			expandedSources.put(binary, new org.eclipse.core.runtime.Path(source.toString()));
 		}
-		final Map<Path, IPath> libraries = new HashMap<>();
-		for (final Path binary: binaries) {
-			if (expandedSources.containsKey(binary)) {
-				libraries.put(binary, expandedSources.get(binary));
-			} else { // If not specified in source map, try to detect it
-				libraries.put(binary, ProjectUtils.detectSources(binary));
+		final Map<Path, IPath> libraries = new LinkedHashMap<>();
+		for (final Map.Entry<Path, IPath> binary: binaries.entrySet()) {
+			if (expandedSources.containsKey(binary.getKey())) {
+				libraries.put(binary.getKey(), expandedSources.get(binary.getKey()));
+			} else { // If not specified in source map, use the detected one
+				libraries.put(binary.getKey(), binary.getValue());
 			}
 		}
 		ProjectUtils.updateBinaries(javaProject, libraries, monitor);
@@ -129,6 +132,23 @@ public class UpdateClasspathJob extends WorkspaceJob {
 		updateClasspath(project, libraries.getInclude(), libraries.getExclude(), libraries.getSources());
 	}
 
+	/**
+	 * Updates the classpath of the project after a change of a library file.
+	 * Only the changed file is checked, rather than scanning the library
+	 * folders again.
+	 *
+	 * @param project
+	 *            the project to update
+	 * @param libraries
+	 *            the referenced libraries
+	 * @param changedFile
+	 *            the created, changed or deleted file
+	 */
+	public void updateClasspath(IJavaProject project, ReferencedLibraries libraries, Path changedFile) {
+		scanner.fileChanged(changedFile);
+		updateClasspath(project, libraries);
+	}
+
 	public void updateClasspath(IJavaProject project) {
 		updateClasspath(project, JavaLanguageServerPlugin.getPreferencesManager().getPreferences().getReferencedLibraries());
 	}
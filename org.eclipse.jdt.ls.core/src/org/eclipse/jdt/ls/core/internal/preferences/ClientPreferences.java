@@ -326,6 +326,34 @@ public class ClientPreferences {
 		//@formatter:on
 	}
 
+	/**
+	 * {@code true} if the client has explicitly set the
+	 * {@code textDocument.codeAction.resolveSupport.properties} to a list
+	 * containing {@code edit}, so the edits of the code actions can be
+	 * computed on <code>codeAction/resolve</code>. Otherwise, {@code false}.
+	 */
+	public boolean isResolveCodeActionSupported() {
+		//@formatter:off
+		return v3supported && capabilities.getTextDocument().getCodeAction() != null
+				&& capabilities.getTextDocument().getCodeAction().getResolveSupport() != null
+				&& capabilities.getTextDocument().getCodeAction().getResolveSupport().getProperties() != null
+				&& capabilities.getTextDocument().getCodeAction().getResolveSupport().getProperties().contains("edit");
+		//@formatter:on
+	}
+
+	/**
+	 * {@code true} if the client has explicitly set the
+	 * {@code textDocument.codeAction.disabledSupport} to {@code true}, so the
+	 * code actions which can't be applied are shown with the reason.
+	 * Otherwise, {@code false}.
+	 */
+	public boolean isCodeActionDisabledSupported() {
+		//@formatter:off
+		return v3supported && capabilities.getTextDocument().getCodeAction() != null
+				&& isTrue(capabilities.getTextDocument().getCodeAction().getDisabledSupport());
+		//@formatter:on
+	}
+
 	/**
 	 * {@code true} if the client has explicitly set the
 	 * {@code textDocument.publishDiagnostics.tagSupport} to
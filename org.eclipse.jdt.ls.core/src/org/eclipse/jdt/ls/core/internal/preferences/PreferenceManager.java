@@ -44,6 +44,7 @@ import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
 import org.eclipse.jdt.internal.corext.util.CodeFormatterUtil;
 import org.eclipse.jdt.ls.core.internal.IConstants;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.JavaModelCaches;
 import org.eclipse.jdt.ls.core.internal.StatusFactory;
 import org.eclipse.jface.text.templates.Template;
 import org.eclipse.lsp4j.ClientCapabilities;
@@ -193,6 +194,7 @@ public class PreferenceManager {
 		Hashtable<String, String> options = JavaCore.getOptions();
 		preferences.updateTabSizeInsertSpaces(options);
 		JavaCore.setOptions(options);
+		JavaModelCaches.configure(preferences);
 		// TODO serialize preferences
 	}
 
@@ -193,6 +193,15 @@ public class Preferences {
 	 */
 	public static final String RENAME_ENABLED_KEY = "java.rename.enabled";
 
+	/**
+	 * Preference key for the verification of the rename changes, either
+	 * <code>exhaustive</code> (the workspace is searched again for the new
+	 * name) or <code>fast</code> (only the changed compilation units are
+	 * resolved again, so a new name shadowing references in the other units
+	 * isn't detected). Defaults to <code>exhaustive</code>.
+	 */
+	public static final String RENAME_VERIFICATION_KEY = "java.rename.verification";
+
 	/**
 	 * Preference key to enable/disable executeCommand.
 	 */
@@ -290,6 +299,80 @@ public class Preferences {
 	public static final String JAVA_COMPLETION_MAX_RESULTS_KEY = "java.completion.maxResults";
 	public static final int JAVA_COMPLETION_MAX_RESULTS_DEFAULT = 50;
 
+	/**
+	 * Preference key to enable/disable handing off the document symbols and
+	 * folding ranges computed by the syntax server to the standard server.
+	 * Defaults to false.
+	 */
+	public static final String JAVA_SERVER_HANDOFF_ENABLED_KEY = "java.server.handoff.enabled";
+
+	/**
+	 * Preference key for the number of minutes without any request after which
+	 * the server releases its caches. Defaults to 10, 0 disables it.
+	 */
+	public static final String JAVA_SERVER_IDLE_TIMEOUT_KEY = "java.server.idleTimeout";
+	public static final int JAVA_SERVER_IDLE_TIMEOUT_DEFAULT = 10;
+
+	/**
+	 * Preference key for the number of milliseconds a code action request can
+	 * spend checking the source actions deferred to codeAction/resolve. The
+	 * deferred source actions which weren't checked in time are left out.
+	 * Defaults to 0, which disables it.
+	 */
+	public static final String JAVA_CODEACTION_SOURCE_ACTIONS_BUDGET_KEY = "java.codeAction.sourceActionsBudget";
+	public static final int JAVA_CODEACTION_SOURCE_ACTIONS_BUDGET_DEFAULT = 0;
+
+	/**
+	 * Preference key for the number of milliseconds a code action request can
+	 * take. The code actions computed in time are returned, the others are
+	 * left out. Defaults to 0, which doesn't limit the time.
+	 */
+	public static final String JAVA_CODEACTION_TIMEOUT_KEY = "java.codeAction.timeout";
+	public static final int JAVA_CODEACTION_TIMEOUT_DEFAULT = 0;
+
+	/**
+	 * Preference key for the number of members of a document whose document
+	 * symbols have a detail. The details of the other members, which require
+	 * formatting their signature, are left out. Defaults to 2000, 0 disables
+	 * it.
+	 */
+	public static final String JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_KEY = "java.documentSymbol.detailLimit";
+	public static final int JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_DEFAULT = 2000;
+
+	/**
+	 * Preference key for the size of the Java model cache of compilation units
+	 * and class files, in percent of the JDT default. Defaults to 100.
+	 */
+	public static final String JAVA_SERVER_MODEL_CACHE_OPENABLE_RATIO_KEY = "java.server.modelCache.openableRatio";
+
+	/**
+	 * Preference key for the size of the Java model caches of package fragment
+	 * roots and package fragments, in percent of the JDT default. Defaults to
+	 * 100.
+	 */
+	public static final String JAVA_SERVER_MODEL_CACHE_ELEMENT_RATIO_KEY = "java.server.modelCache.elementRatio";
+
+	/**
+	 * Preference key for the size of the Java model cache of binary types read
+	 * from jars, in percent of the JDT default. Defaults to 100.
+	 */
+	public static final String JAVA_SERVER_MODEL_CACHE_JAR_TYPE_RATIO_KEY = "java.server.modelCache.jarTypeRatio";
+
+	/**
+	 * Preference key for the size of the cache of compilation unit buffers, in
+	 * percent of the JDT default. Defaults to 100.
+	 */
+	public static final String JAVA_SERVER_MODEL_CACHE_BUFFER_RATIO_KEY = "java.server.modelCache.bufferRatio";
+
+	/**
+	 * Preference key for the percentage of the maximum heap size the Java model
+	 * caches should use. The cache ratios are scaled to fit it. Defaults to 0,
+	 * which disables it.
+	 */
+	public static final String JAVA_SERVER_MODEL_CACHE_MEMORY_BUDGET_KEY = "java.server.modelCache.memoryBudget";
+
+	public static final int JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT = 100;
+
 	/**
 	 * A named preference that controls if the Java code assist only inserts
 	 * completions. When set to true, code completion overwrites the current text.
@@ -443,6 +526,7 @@ public class Preferences {
 	private Map<String, Object> configuration;
 	private Severity incompleteClasspathSeverity;
 	private FeatureStatus updateBuildConfigurationStatus;
+	private RenameVerification renameVerification;
 	private boolean referencesCodeLensEnabled;
 	private boolean importGradleEnabled;
 	private boolean importGradleOfflineEnabled;
@@ -503,6 +587,16 @@ public class Preferences {
 	private Collection<IPath> triggerFiles;
 	private int parallelBuildsCount;
 	private int maxCompletionResults;
+	private boolean handoffEnabled;
+	private int idleTimeout;
+	private int sourceActionsBudget;
+	private int codeActionTimeout;
+	private int documentSymbolDetailLimit;
+	private int modelCacheOpenableRatio;
+	private int modelCacheElementRatio;
+	private int modelCacheJarTypeRatio;
+	private int modelCacheBufferRatio;
+	private int modelCacheMemoryBudget;
 	private int importOnDemandThreshold;
 	private int staticImportOnDemandThreshold;
 	private Set<RuntimeEnvironment> runtimes = new HashSet<>();
@@ -568,6 +662,22 @@ public class Preferences {
 		}
 	}
 
+	public static enum RenameVerification {
+		fast, exhaustive;
+
+		static RenameVerification fromString(String value, RenameVerification defaultVerification) {
+			if (value != null) {
+				String val = value.toLowerCase();
+				try {
+					return valueOf(val);
+				} catch (Exception e) {
+					//fall back to default verification
+				}
+			}
+			return defaultVerification;
+		}
+	}
+
 	public static enum FeatureStatus {
 		disabled, interactive, automatic ;
 
@@ -637,6 +747,7 @@ public class Preferences {
 		configuration = null;
 		incompleteClasspathSeverity = Severity.warning;
 		updateBuildConfigurationStatus = FeatureStatus.interactive;
+		renameVerification = RenameVerification.exhaustive;
 		importGradleEnabled = true;
 		importGradleOfflineEnabled = false;
 		gradleWrapperEnabled = true;
@@ -682,6 +793,16 @@ public class Preferences {
 		filteredTypes = JAVA_COMPLETION_FILTERED_TYPES_DEFAULT;
 		parallelBuildsCount = PreferenceInitializer.PREF_MAX_CONCURRENT_BUILDS_DEFAULT;
 		maxCompletionResults = JAVA_COMPLETION_MAX_RESULTS_DEFAULT;
+		handoffEnabled = false;
+		idleTimeout = JAVA_SERVER_IDLE_TIMEOUT_DEFAULT;
+		sourceActionsBudget = JAVA_CODEACTION_SOURCE_ACTIONS_BUDGET_DEFAULT;
+		codeActionTimeout = JAVA_CODEACTION_TIMEOUT_DEFAULT;
+		documentSymbolDetailLimit = JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_DEFAULT;
+		modelCacheOpenableRatio = JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT;
+		modelCacheElementRatio = JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT;
+		modelCacheJarTypeRatio = JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT;
+		modelCacheBufferRatio = JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT;
+		modelCacheMemoryBudget = 0;
 		importOnDemandThreshold = IMPORTS_ONDEMANDTHRESHOLD_DEFAULT;
 		staticImportOnDemandThreshold = IMPORTS_STATIC_ONDEMANDTHRESHOLD_DEFAULT;
 		referencedLibraries = JAVA_PROJECT_REFERENCED_LIBRARIES_DEFAULT;
@@ -710,6 +831,9 @@ public class Preferences {
 		prefs.setUpdateBuildConfigurationStatus(
 				FeatureStatus.fromString(updateBuildConfiguration, FeatureStatus.interactive));
 
+		String renameVerification = getString(configuration, RENAME_VERIFICATION_KEY, null);
+		prefs.setRenameVerification(RenameVerification.fromString(renameVerification, RenameVerification.exhaustive));
+
 		boolean importGradleEnabled = getBoolean(configuration, IMPORT_GRADLE_ENABLED, true);
 		prefs.setImportGradleEnabled(importGradleEnabled);
 		boolean insertSpaces = getBoolean(configuration, JAVA_CONFIGURATION_INSERTSPACES, true);
@@ -884,6 +1008,27 @@ public class Preferences {
 		int maxCompletions = getInt(configuration, JAVA_COMPLETION_MAX_RESULTS_KEY, JAVA_COMPLETION_MAX_RESULTS_DEFAULT);
 		prefs.setMaxCompletionResults(maxCompletions);
 
+		boolean handoffEnabled = getBoolean(configuration, JAVA_SERVER_HANDOFF_ENABLED_KEY, false);
+		prefs.setHandoffEnabled(handoffEnabled);
+
+		int idleTimeout = getInt(configuration, JAVA_SERVER_IDLE_TIMEOUT_KEY, JAVA_SERVER_IDLE_TIMEOUT_DEFAULT);
+		prefs.setIdleTimeout(idleTimeout);
+
+		int sourceActionsBudget = getInt(configuration, JAVA_CODEACTION_SOURCE_ACTIONS_BUDGET_KEY, JAVA_CODEACTION_SOURCE_ACTIONS_BUDGET_DEFAULT);
+		prefs.setSourceActionsBudget(sourceActionsBudget);
+
+		int codeActionTimeout = getInt(configuration, JAVA_CODEACTION_TIMEOUT_KEY, JAVA_CODEACTION_TIMEOUT_DEFAULT);
+		prefs.setCodeActionTimeout(codeActionTimeout);
+
+		int documentSymbolDetailLimit = getInt(configuration, JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_KEY, JAVA_DOCUMENT_SYMBOL_DETAIL_LIMIT_DEFAULT);
+		prefs.setDocumentSymbolDetailLimit(documentSymbolDetailLimit);
+
+		prefs.setModelCacheOpenableRatio(getInt(configuration, JAVA_SERVER_MODEL_CACHE_OPENABLE_RATIO_KEY, JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT));
+		prefs.setModelCacheElementRatio(getInt(configuration, JAVA_SERVER_MODEL_CACHE_ELEMENT_RATIO_KEY, JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT));
+		prefs.setModelCacheJarTypeRatio(getInt(configuration, JAVA_SERVER_MODEL_CACHE_JAR_TYPE_RATIO_KEY, JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT));
+		prefs.setModelCacheBufferRatio(getInt(configuration, JAVA_SERVER_MODEL_CACHE_BUFFER_RATIO_KEY, JAVA_SERVER_MODEL_CACHE_RATIO_DEFAULT));
+		prefs.setModelCacheMemoryBudget(getInt(configuration, JAVA_SERVER_MODEL_CACHE_MEMORY_BUDGET_KEY, 0));
+
 		int onDemandThreshold = getInt(configuration, IMPORTS_ONDEMANDTHRESHOLD, IMPORTS_ONDEMANDTHRESHOLD_DEFAULT);
 		prefs.setImportOnDemandThreshold(onDemandThreshold);
 
@@ -1189,6 +1334,11 @@ public class Preferences {
 		return this;
 	}
 
+	public Preferences setRenameVerification(RenameVerification renameVerification) {
+		this.renameVerification = renameVerification;
+		return this;
+	}
+
 	private Preferences setIncompleteClasspathSeverity(Severity severity) {
 		this.incompleteClasspathSeverity = severity;
 		return this;
@@ -1222,6 +1372,10 @@ public class Preferences {
 		return updateBuildConfigurationStatus;
 	}
 
+	public RenameVerification getRenameVerification() {
+		return renameVerification;
+	}
+
 	public List<String> getJavaImportExclusions() {
 		return javaImportExclusions;
 	}
@@ -1519,6 +1673,130 @@ public class Preferences {
 		return this;
 	}
 
+	public boolean isHandoffEnabled() {
+		return handoffEnabled;
+	}
+
+	public Preferences setHandoffEnabled(boolean handoffEnabled) {
+		this.handoffEnabled = handoffEnabled;
+		return this;
+	}
+
+	public int getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the number of minutes without any request after which the server
+	 * releases its caches. If idleTimeout is set to 0 or lower, the caches are
+	 * never released.
+	 *
+	 * @param idleTimeout
+	 */
+	public Preferences setIdleTimeout(int idleTimeout) {
+		this.idleTimeout = Math.max(idleTimeout, 0);
+		return this;
+	}
+
+	public int getSourceActionsBudget() {
+		return sourceActionsBudget;
+	}
+
+	/**
+	 * Sets the number of milliseconds a code action request can spend
+	 * checking the source actions deferred to codeAction/resolve. If
+	 * sourceActionsBudget is set to 0 or lower, the time isn't limited.
+	 *
+	 * @param sourceActionsBudget
+	 */
+	public Preferences setSourceActionsBudget(int sourceActionsBudget) {
+		this.sourceActionsBudget = Math.max(sourceActionsBudget, 0);
+		return this;
+	}
+
+	public int getCodeActionTimeout() {
+		return codeActionTimeout;
+	}
+
+	/**
+	 * Sets the number of milliseconds a code action request can take. If
+	 * codeActionTimeout is set to 0 or lower, the time isn't limited.
+	 *
+	 * @param codeActionTimeout
+	 */
+	public Preferences setCodeActionTimeout(int codeActionTimeout) {
+		this.codeActionTimeout = Math.max(codeActionTimeout, 0);
+		return this;
+	}
+
+	public int getDocumentSymbolDetailLimit() {
+		return documentSymbolDetailLimit;
+	}
+
+	/**
+	 * Sets the number of members of a document whose document symbols have a
+	 * detail. If documentSymbolDetailLimit is set to 0 or lower, all the
+	 * document symbols have a detail.
+	 *
+	 * @param documentSymbolDetailLimit
+	 */
+	public Preferences setDocumentSymbolDetailLimit(int documentSymbolDetailLimit) {
+		this.documentSymbolDetailLimit = Math.max(documentSymbolDetailLimit, 0);
+		return this;
+	}
+
+	public int getModelCacheOpenableRatio() {
+		return modelCacheOpenableRatio;
+	}
+
+	public Preferences setModelCacheOpenableRatio(int modelCacheOpenableRatio) {
+		this.modelCacheOpenableRatio = Math.max(modelCacheOpenableRatio, 1);
+		return this;
+	}
+
+	public int getModelCacheElementRatio() {
+		return modelCacheElementRatio;
+	}
+
+	public Preferences setModelCacheElementRatio(int modelCacheElementRatio) {
+		this.modelCacheElementRatio = Math.max(modelCacheElementRatio, 1);
+		return this;
+	}
+
+	public int getModelCacheJarTypeRatio() {
+		return modelCacheJarTypeRatio;
+	}
+
+	public Preferences setModelCacheJarTypeRatio(int modelCacheJarTypeRatio) {
+		this.modelCacheJarTypeRatio = Math.max(modelCacheJarTypeRatio, 1);
+		return this;
+	}
+
+	public int getModelCacheBufferRatio() {
+		return modelCacheBufferRatio;
+	}
+
+	public Preferences setModelCacheBufferRatio(int modelCacheBufferRatio) {
+		this.modelCacheBufferRatio = Math.max(modelCacheBufferRatio, 1);
+		return this;
+	}
+
+	public int getModelCacheMemoryBudget() {
+		return modelCacheMemoryBudget;
+	}
+
+	/**
+	 * Sets the percentage of the maximum heap size the Java model caches
+	 * should use. If modelCacheMemoryBudget is set to 0 or lower, the cache
+	 * ratios are used as is.
+	 *
+	 * @param modelCacheMemoryBudget
+	 */
+	public Preferences setModelCacheMemoryBudget(int modelCacheMemoryBudget) {
+		this.modelCacheMemoryBudget = Math.max(0, Math.min(modelCacheMemoryBudget, 100));
+		return this;
+	}
+
 	public ReferencedLibraries getReferencedLibraries() {
 		return referencedLibraries;
 	}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search.text;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentDescription;
+import org.eclipse.jdt.ls.core.internal.search.text.FileCharSequenceProvider.FileCharSequenceException;
+
+/**
+ * Provides the content of local files as {@link CharSequence}s backed by the
+ * raw bytes of the file.
+ * <p>
+ * Large files are memory-mapped, smaller ones are read in a single call. When
+ * the charset maps ASCII bytes to themselves and the content is pure ASCII,
+ * characters are read straight from the bytes; otherwise the content is
+ * decoded on first access. {@link #mayContain(CharSequence, String)} looks for
+ * an ASCII literal in the bytes, without decoding.
+ * </p>
+ * <p>
+ * Files without a local location, or non-ASCII files too large to be decoded
+ * in memory, are streamed by a {@link FileCharSequenceProvider}.
+ * </p>
+ */
+public class MappedFileCharSequenceProvider {
+
+	/**
+	 * Files at least this large are memory-mapped rather than read.
+	 */
+	private static final long MAPPING_THRESHOLD = 256 * 1024;
+	/**
+	 * Non-ASCII files larger than this are streamed instead of being decoded
+	 * at once.
+	 */
+	private static final long MAX_DECODED_SIZE = 16 * 1024 * 1024;
+	/**
+	 * Mapped files can't be modified or deleted on Windows until the mapping
+	 * is garbage collected, and the files searched are about to be changed by
+	 * a refactoring.
+	 */
+	private static final boolean CAN_MAP = !Platform.OS_WIN32.equals(Platform.getOS());
+
+	private final FileCharSequenceProvider fallback = new FileCharSequenceProvider();
+
+	public CharSequence newCharSequence(IFile file) throws CoreException, IOException {
+		IPath location = file.getLocation();
+		File localFile = location == null ? null : location.toFile();
+		if (localFile == null || !localFile.isFile() || localFile.length() > Integer.MAX_VALUE) {
+			return fallback.newCharSequence(file);
+		}
+		Charset charset = Charset.forName(file.getCharset());
+		ByteBuffer bytes = read(localFile);
+		if (StandardCharsets.UTF_8.equals(charset) && hasUTF8ByteOrderMark(bytes)) {
+			bytes.position(IContentDescription.BOM_UTF_8.length);
+			bytes = bytes.slice();
+		}
+		boolean asciiCompatible = isAsciiCompatible(charset);
+		if (asciiCompatible && isAscii(bytes)) {
+			return new AsciiCharSequence(bytes, asciiCompatible);
+		}
+		if (bytes.remaining() > MAX_DECODED_SIZE) {
+			return fallback.newCharSequence(file);
+		}
+		return new DecodedCharSequence(bytes, charset, asciiCompatible);
+	}
+
+	public void releaseCharSequence(CharSequence seq) throws IOException {
+		// mapped and decoded contents are reclaimed by the garbage collector
+		fallback.releaseCharSequence(seq);
+	}
+
+	/**
+	 * Checks whether the given content may contain the given literal. The
+	 * answer is exact, unless the content was streamed from a non-ASCII
+	 * compatible charset, in which case this may return <code>true</code>
+	 * while the literal doesn't occur.
+	 *
+	 * @param seq
+	 *            a content returned by {@link #newCharSequence(IFile)}
+	 * @param literal
+	 *            the literal to look for
+	 * @return <code>false</code> if the content doesn't contain the literal
+	 */
+	public static boolean mayContain(CharSequence seq, String literal) {
+		if (literal.isEmpty()) {
+			return true;
+		}
+		if (seq instanceof MappedCharSequence) {
+			MappedCharSequence mapped = (MappedCharSequence) seq;
+			byte[] bytes = toAscii(literal);
+			if (bytes != null && mapped.fAsciiCompatible) {
+				// ASCII characters are encoded as the same single bytes, other
+				// characters never encode to ASCII bytes in UTF-8 or single byte charsets
+				return indexOf(mapped.fBytes, bytes) >= 0;
+			}
+		}
+		if (seq instanceof String) {
+			return ((String) seq).contains(literal);
+		}
+		if (seq instanceof MappedCharSequence || seq instanceof DocumentCharSequence) {
+			return indexOf(seq, literal) >= 0;
+		}
+		// streamed sequences are searched by the matcher directly
+		return true;
+	}
+
+	private static ByteBuffer read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (CAN_MAP && size >= MAPPING_THRESHOLD) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// keep reading, the file may be served in several chunks
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	private static boolean hasUTF8ByteOrderMark(ByteBuffer bytes) {
+		byte[] bom = IContentDescription.BOM_UTF_8;
+		if (bytes.remaining() < bom.length) {
+			return false;
+		}
+		for (int i = 0; i < bom.length; i++) {
+			if (bytes.get(bytes.position() + i) != bom[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the charset decodes every byte lower than 0x80 to the
+	 *         same character, independently of its surroundings, and encodes
+	 *         other characters without such bytes
+	 */
+	static boolean isAsciiCompatible(Charset charset) {
+		String name = charset.name();
+		return name.equals("US-ASCII") || name.equals("UTF-8") || name.startsWith("ISO-8859-") || name.startsWith("windows-125"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	private static boolean isAscii(ByteBuffer bytes) {
+		int limit = bytes.limit();
+		for (int i = bytes.position(); i < limit; i++) {
+			if (bytes.get(i) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte[] toAscii(String literal) {
+		byte[] bytes = new byte[literal.length()];
+		for (int i = 0; i < bytes.length; i++) {
+			char c = literal.charAt(i);
+			if (c >= 0x80) {
+				return null;
+			}
+			bytes[i] = (byte) c;
+		}
+		return bytes;
+	}
+
+	private static int indexOf(ByteBuffer buffer, byte[] bytes) {
+		byte first = bytes[0];
+		int max = buffer.limit() - bytes.length;
+		for (int i = buffer.position(); i <= max; i++) {
+			if (buffer.get(i) != first) {
+				continue;
+			}
+			int j = 1;
+			while (j < bytes.length && buffer.get(i + j) == bytes[j]) {
+				j++;
+			}
+			if (j == bytes.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(CharSequence seq, String literal) {
+		char first = literal.charAt(0);
+		int max = seq.length() - literal.length();
+		for (int i = 0; i <= max; i++) {
+			if (seq.charAt(i) != first) {
+				continue;
+			}
+			int j = 1;
+			while (j < literal.length() && seq.charAt(i + j) == literal.charAt(j)) {
+				j++;
+			}
+			if (j == literal.length()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private abstract static class MappedCharSequence implements CharSequence {
+
+		protected final ByteBuffer fBytes;
+		protected final boolean fAsciiCompatible;
+
+		protected MappedCharSequence(ByteBuffer bytes, boolean asciiCompatible) {
+			fBytes = bytes;
+			fAsciiCompatible = asciiCompatible;
+		}
+	}
+
+	/**
+	 * Content of a pure ASCII file, read from the bytes without decoding.
+	 */
+	private static final class AsciiCharSequence extends MappedCharSequence {
+
+		public AsciiCharSequence(ByteBuffer bytes, boolean asciiCompatible) {
+			super(bytes, asciiCompatible);
+		}
+
+		@Override
+		public int length() {
+			return fBytes.remaining();
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= fBytes.remaining()) {
+				throw new IndexOutOfBoundsException("index must be between 0 and length"); //$NON-NLS-1$
+			}
+			return (char) fBytes.get(fBytes.position() + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end < start || end > fBytes.remaining()) {
+				throw new IndexOutOfBoundsException("invalid range"); //$NON-NLS-1$
+			}
+			ByteBuffer duplicate = fBytes.duplicate();
+			duplicate.position(fBytes.position() + start);
+			duplicate.limit(fBytes.position() + end);
+			return new AsciiCharSequence(duplicate.slice(), fAsciiCompatible);
+		}
+
+		@Override
+		public String toString() {
+			int length = fBytes.remaining();
+			if (fBytes.hasArray()) {
+				return new String(fBytes.array(), fBytes.arrayOffset() + fBytes.position(), length, StandardCharsets.US_ASCII);
+			}
+			byte[] bytes = new byte[length];
+			fBytes.duplicate().get(bytes);
+			return new String(bytes, StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * Content of a file decoded on first access. Malformed input is replaced,
+	 * as done by the readers of {@link FileCharSequenceProvider}.
+	 */
+	private static final class DecodedCharSequence extends MappedCharSequence {
+
+		private final Charset fCharset;
+		private CharBuffer fChars;
+
+		public DecodedCharSequence(ByteBuffer bytes, Charset charset, boolean asciiCompatible) {
+			super(bytes, asciiCompatible);
+			fCharset = charset;
+		}
+
+		private CharBuffer getChars() {
+			if (fChars == null) {
+				try {
+					fChars = fCharset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE).decode(fBytes.duplicate());
+				} catch (CharacterCodingException e) {
+					throw new FileCharSequenceException(e);
+				}
+			}
+			return fChars;
+		}
+
+		@Override
+		public int length() {
+			return getChars().length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return getChars().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return getChars().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return getChars().toString();
+		}
+	}
+}
@@ -184,6 +184,119 @@ public class PatternConstructor {
 		return createPattern(pattern.toString(), true, true, isCaseSensitive, false);
 	}
 
+	/**
+	 * Returns the longest literal which every match of the given pattern contains, so that
+	 * contents without it can be skipped before running the pattern. Patterns with
+	 * alternations, groups, character classes or case insensitive matching are not analyzed.
+	 *
+	 * @param pattern the pattern
+	 * @return the required literal, or <code>null</code> if none is known
+	 */
+	public static String getRequiredLiteral(Pattern pattern) {
+		int flags= pattern.flags();
+		if ((flags & (Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.CANON_EQ)) != 0) {
+			return null;
+		}
+		String regex= pattern.pattern();
+		if ((flags & Pattern.LITERAL) != 0) {
+			return regex.isEmpty() ? null : regex;
+		}
+		String longest= ""; //$NON-NLS-1$
+		StringBuilder current= new StringBuilder();
+		int length= regex.length();
+		int i= 0;
+		while (i < length) {
+			char ch= regex.charAt(i++);
+			String literal;
+			switch (ch) {
+				case '\\':
+					if (i == length) {
+						return null;
+					}
+					char ch1= regex.charAt(i++);
+					if (ch1 == 'Q') {
+						int end= regex.indexOf("\\E", i); //$NON-NLS-1$
+						literal= end < 0 ? regex.substring(i) : regex.substring(i, end);
+						i= end < 0 ? length : end + 2;
+					} else if (!Character.isLetterOrDigit(ch1)) {
+						literal= String.valueOf(ch1);
+					} else if ("bBdDsSwWhHvVAzZG".indexOf(ch1) >= 0) { //$NON-NLS-1$
+						literal= null;
+					} else {
+						// escapes with arguments, back references, ...
+						return null;
+					}
+					break;
+				case '.':
+				case '^':
+				case '$':
+					literal= null;
+					break;
+				case '(':
+				case ')':
+				case '[':
+				case ']':
+				case '{':
+				case '}':
+				case '|':
+				case '*':
+				case '+':
+				case '?':
+					return null;
+				default:
+					literal= String.valueOf(ch);
+					break;
+			}
+
+			// quantifier applying to the last character of the literal
+			boolean optional= false;
+			boolean repeated= false;
+			if (i < length) {
+				char quantifier= regex.charAt(i);
+				if (quantifier == '?' || quantifier == '*') {
+					optional= true;
+					i++;
+				} else if (quantifier == '+') {
+					repeated= true;
+					i++;
+				} else if (quantifier == '{') {
+					int end= regex.indexOf('}', i);
+					if (end < 0) {
+						return null;
+					}
+					String bounds= regex.substring(i + 1, end);
+					int comma= bounds.indexOf(',');
+					String min= comma < 0 ? bounds : bounds.substring(0, comma);
+					try {
+						optional= Integer.parseInt(min.trim()) == 0;
+					} catch (NumberFormatException e) {
+						return null;
+					}
+					repeated= !optional;
+					i= end + 1;
+				}
+				if ((optional || repeated) && i < length && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+					// reluctant or possessive quantifier
+					i++;
+				}
+			}
+
+			if (literal != null && !literal.isEmpty()) {
+				current.append(optional ? literal.substring(0, literal.length() - 1) : literal);
+			}
+			if (literal == null || optional || repeated) {
+				if (current.length() > longest.length()) {
+					longest= current.toString();
+				}
+				current.setLength(0);
+			}
+		}
+		if (current.length() > longest.length()) {
+			longest= current.toString();
+		}
+		return longest.isEmpty() ? null : longest;
+	}
+
 
 	public static StringBuilder appendAsRegEx(boolean isStringMatcher, String pattern, StringBuilder buffer) {
         boolean isEscaped= false;
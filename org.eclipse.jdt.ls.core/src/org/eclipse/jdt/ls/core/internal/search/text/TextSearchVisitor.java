@@ -63,8 +63,12 @@ public class TextSearchVisitor {
 
 	public static final boolean TRACING= "true".equalsIgnoreCase(Platform.getDebugOption("org.eclipse.search/perf")); //$NON-NLS-1$ //$NON-NLS-2$
 	private static final int NUMBER_OF_LOGICAL_THREADS= Runtime.getRuntime().availableProcessors();
-	private static final int FILES_PER_JOB= 50;
-	private static final int MAX_JOBS_COUNT= 100;
+	/**
+	 * The number of bytes a job claims at once. Batches are sized by bytes rather than by files,
+	 * so that a few large files don't keep one thread busy while the others are idle.
+	 */
+	private static final long BYTES_PER_BATCH= 4 * 1024 * 1024;
+	private static final int MAX_FILES_PER_BATCH= 200;
 
 	public static class ReusableMatchAccess extends TextSearchMatchAccess {
 
@@ -127,14 +131,53 @@ public class TextSearchVisitor {
 	}
 
 	/**
-	 * A job to find matches in a set of files.
+	 * The files to search, sorted by location. Jobs repeatedly claim the next batch of files
+	 * until none are left, so faster jobs take over the work the slower ones didn't start.
 	 */
-	private class TextSearchJob extends Job {
+	private static class FileQueue {
 		private final IFile[] fFiles;
-		private final int fBegin;
-		private final int fEnd;
+		private int fNext;
+
+		public FileQueue(IFile[] files) {
+			fFiles= files;
+		}
+
+		/**
+		 * Claims the next batch of files.
+		 *
+		 * @return the range <code>{ begin, end }</code> of the claimed files, or <code>null</code>
+		 *         if all the files have been claimed
+		 */
+		public synchronized int[] next() {
+			if (fNext >= fFiles.length) {
+				return null;
+			}
+			int begin= fNext;
+			long bytes= 0;
+			do {
+				bytes+= getSize(fFiles[fNext++]);
+			} while (fNext < fFiles.length && bytes < BYTES_PER_BATCH && fNext - begin < MAX_FILES_PER_BATCH);
+			return new int[] { begin, fNext };
+		}
+
+		public IFile[] getFiles() {
+			return fFiles;
+		}
+
+		private static long getSize(IFile file) {
+			IPath location= file.getLocation();
+			// unknown sizes count as a small file
+			return location == null ? 1 : Math.max(1, location.toFile().length());
+		}
+	}
+
+	/**
+	 * A job to find matches in the files of a queue.
+	 */
+	private class TextSearchJob extends Job {
+		private final FileQueue fQueue;
 		private final Map<IFile, IDocument> fDocumentsInEditors;
-		private FileCharSequenceProvider fileCharSequenceProvider;
+		private MappedFileCharSequenceProvider fileCharSequenceProvider;
 
 		private IPath previousLocationFromFile;
 		// occurences need to be passed to FileSearchResultCollector with growing offset
@@ -143,19 +186,15 @@ public class TextSearchVisitor {
 
 
 		/**
-		 * Searches for matches in a set of files.
+		 * Searches for matches in the files of a queue.
 		 *
-		 * @param files an array of IFiles, a portion of which is to be processed
-		 * @param begin the first element in the file array to process
-		 * @param end one past the last element in the array to process
+		 * @param queue the queue of the files to process, shared with other jobs
 		 * @param documentsInEditors a map from IFile to IDocument for all open, dirty editors
 		 */
-		public TextSearchJob(IFile[] files, int begin, int end, Map<IFile, IDocument> documentsInEditors) {
-			super(files[begin].getName());
+		public TextSearchJob(FileQueue queue, Map<IFile, IDocument> documentsInEditors) {
+			super("Text Search"); //$NON-NLS-1$
 			setSystem(true);
-			fFiles= files;
-			fBegin= begin;
-			fEnd= end;
+			fQueue= queue;
 			fDocumentsInEditors= documentsInEditors;
 		}
 
@@ -163,17 +202,25 @@ public class TextSearchVisitor {
 		protected IStatus run(IProgressMonitor inner) {
 			MultiStatus multiStatus=
 					new MultiStatus(IConstants.PLUGIN_ID, IStatus.OK, "Problems encountered during text search.", null);
-			SubMonitor subMonitor= SubMonitor.convert(inner, fEnd - fBegin);
-			this.fileCharSequenceProvider= new FileCharSequenceProvider();
-			for (int i= fBegin; i < fEnd && !fFatalError; i++) {
-				IStatus status= processFile(fFiles[i], subMonitor.split(1));
-				// Only accumulate interesting status
-				if (!status.isOK())
-				 {
-					multiStatus.add(status);
-				// Group cancellation is propagated to this job's monitor.
-				// Stop processing and return the status for the completed jobs.
+			this.fileCharSequenceProvider= new MappedFileCharSequenceProvider();
+			IFile[] files= fQueue.getFiles();
+			SubMonitor progress= SubMonitor.convert(inner);
+			int[] batch;
+			// Group cancellation is propagated to this job's monitor.
+			// Stop processing and return the status for the completed files.
+			try {
+				while (!fFatalError && !inner.isCanceled() && (batch= fQueue.next()) != null) {
+					progress.setWorkRemaining(batch[1] - batch[0]);
+					for (int i= batch[0]; i < batch[1] && !fFatalError; i++) {
+						IStatus status= processFile(files[i], progress.split(1));
+						// Only accumulate interesting status
+						if (!status.isOK()) {
+							multiStatus.add(status);
+						}
+					}
 				}
+			} catch (OperationCanceledException e) {
+				// the job was canceled
 			}
 			if (charsequenceForPreviousLocation != null) {
 				try {
@@ -226,12 +273,18 @@ public class TextSearchVisitor {
 					}
 					try {
 						charsequenceForPreviousLocation= fileCharSequenceProvider.newCharSequence(file);
+						occurencesForPreviousLocation= Collections.emptyList();
+						previousLocationFromFile= file.getLocation();
+						if (fRequiredLiteral != null && !MappedFileCharSequenceProvider.mayContain(charsequenceForPreviousLocation, fRequiredLiteral)) {
+							// rejected without running the pattern
+							occurencesForPreviousLocation= Collections.emptyList();
+							return Status.OK_STATUS;
+						}
 						if (hasBinaryContent(charsequenceForPreviousLocation, file) && !fCollector.reportBinaryFile(file)) {
 							occurencesForPreviousLocation= Collections.emptyList();
 							return Status.OK_STATUS;
 						}
 						occurencesForPreviousLocation= locateMatches(file, charsequenceForPreviousLocation, matcher, monitor);
-						previousLocationFromFile= file.getLocation();
 					} catch (FileCharSequenceProvider.FileCharSequenceException e) {
 						e.throwWrappedException();
 					}
@@ -277,6 +330,10 @@ public class TextSearchVisitor {
 
 	private final TextSearchRequestor fCollector;
 	private final Pattern fSearchPattern;
+	/**
+	 * A literal every match contains, used to skip files before running the pattern
+	 */
+	private final String fRequiredLiteral;
 
 	private IProgressMonitor fProgressMonitor;
 
@@ -295,6 +352,7 @@ public class TextSearchVisitor {
 		fStatus = new MultiStatus(IConstants.PLUGIN_ID, IStatus.OK, "Problems encountered during text search.", null);
 
 		fSearchPattern= searchPattern;
+		fRequiredLiteral= PatternConstructor.getRequiredLiteral(searchPattern);
 
 		fIsLightweightAutoRefresh= Platform.getPreferencesService().getBoolean(ResourcesPlugin.PI_RESOURCES, ResourcesPlugin.PREF_LIGHTWEIGHT_AUTO_REFRESH, false, null);
 	}
@@ -308,14 +366,8 @@ public class TextSearchVisitor {
 		fNumberOfFilesToScan= files.length;
 		fCurrentFile= null;
 		int maxThreads= fCollector.canRunInParallel() ? NUMBER_OF_LOGICAL_THREADS : 1;
-		int jobCount= 1;
-		if (maxThreads > 1) {
-			jobCount= (files.length + FILES_PER_JOB - 1) / FILES_PER_JOB;
-		}
-		// Too many job references can cause OOM, see bug 514961
-		if (jobCount > MAX_JOBS_COUNT) {
-			jobCount= MAX_JOBS_COUNT;
-		}
+		// one job per thread, each job claims batches of files until all are processed
+		int jobCount= Math.min(maxThreads, files.length);
 		final JobGroup jobGroup= new TextSearchJobGroup("Text Search", maxThreads, jobCount); //$NON-NLS-1$
 		long startTime= TRACING ? System.currentTimeMillis() : 0;
 
@@ -365,7 +417,6 @@ public class TextSearchVisitor {
 			try {
 				fCollector.beginReporting();
 				Map<IFile, IDocument> documentsInEditors = Collections.emptyMap();
-				int filesPerJob = Math.max(1, files.length / jobCount);
 				IFile[] filesByLocation= new IFile[files.length];
 				System.arraycopy(files, 0, filesByLocation, 0, files.length);
 				// Sorting files to search by location allows to more easily reuse
@@ -385,9 +436,9 @@ public class TextSearchVisitor {
 					}
 					return o1.getLocation().toString().compareTo(o2.getLocation().toString());
 				});
-				for (int first= 0; first < filesByLocation.length; first += filesPerJob) {
-					int end= Math.min(filesByLocation.length, first + filesPerJob);
-					Job job= new TextSearchJob(filesByLocation, first, end, documentsInEditors);
+				FileQueue queue= new FileQueue(filesByLocation);
+				for (int i= 0; i < jobCount; i++) {
+					Job job= new TextSearchJob(queue, documentsInEditors);
 					job.setJobGroup(jobGroup);
 					job.schedule();
 				}
@@ -13,8 +13,13 @@
 
 package org.eclipse.jdt.ls.core.internal.syntaxserver;
 
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
@@ -26,6 +31,8 @@ import org.eclipse.jdt.internal.core.JavaProject;
 import org.eclipse.jdt.internal.core.NameLookup;
 import org.eclipse.jdt.internal.core.SearchableEnvironment;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager;
+import org.eclipse.jdt.ls.core.internal.syntaxserver.TypeNameIndex.TypeName;
 
 public class ModelBasedSearchableEnvironment extends SearchableEnvironment {
 	public ModelBasedSearchableEnvironment(JavaProject javaProject, WorkingCopyOwner owner, boolean excludeTestCode) throws JavaModelException {
@@ -38,11 +45,47 @@ public class ModelBasedSearchableEnvironment extends SearchableEnvironment {
 			throw new OperationCanceledException();
 		}
 
-		JavaLanguageServerPlugin.logInfo("Search engine disabled, searching directly.");
-		// Look for types in the model instead of a search request
+		if (findIndexedTypes(prefix, findMembers, matchRule, searchFor, storage)) {
+			return;
+		}
+		// Look for types in the model instead of a search request, until the project is indexed
 		findTypes(new String(prefix), storage, convertSearchFilterToModelFilter(searchFor));
 	}
 
+	private boolean findIndexedTypes(char[] prefix, boolean findMembers, int matchRule, int searchFor, ISearchRequestor storage) {
+		ProjectsManager projectsManager = JavaLanguageServerPlugin.getProjectsManager();
+		if (!(projectsManager instanceof SyntaxProjectsManager)) {
+			return false;
+		}
+		TypeNameIndex index = ((SyntaxProjectsManager) projectsManager).getTypeNameIndex();
+		try {
+			Set<String> roots = TypeNameIndex.getRoots(this.project);
+			if (!index.isIndexed(roots)) {
+				((SyntaxProjectsManager) projectsManager).indexTypeNames();
+				return false;
+			}
+			String pathToSkip = getPathToSkip();
+			for (TypeName type : index.findTypes(prefix, findMembers, matchRule, searchFor, roots)) {
+				if (pathToSkip == null || !pathToSkip.equals(type.getPath())) {
+					storage.acceptType(type.getPackageName().toCharArray(), type.getSimpleName().toCharArray(), type.getEnclosingTypeNames(), type.getModifiers(), null);
+				}
+			}
+			return true;
+		} catch (JavaModelException e) {
+			JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			return false;
+		}
+	}
+
+	private String getPathToSkip() {
+		if (this.unitToSkip instanceof IJavaElement) {
+			IResource resource = ((IJavaElement) this.unitToSkip).getResource();
+			IPath location = resource == null ? null : resource.getLocation();
+			return location == null ? null : location.toOSString();
+		}
+		return null;
+	}
+
 	private static int convertSearchFilterToModelFilter(int searchFilter) {
 		switch (searchFilter) {
 			case IJavaSearchConstants.CLASS:
@@ -63,7 +106,8 @@ public class ModelBasedSearchableEnvironment extends SearchableEnvironment {
 	}
 
 	/**
-	 * Find types in the Java models. Currently it doesn't support searching inner types.
+	 * Find types in the Java models, used until the type names of the project
+	 * are indexed. Currently it doesn't support searching inner types.
 	 */
 	public void findTypes(String prefix, ISearchRequestor storage, int type) {
 		CompletionResultRequestor requestor = new CompletionResultRequestor(storage, this.unitToSkip, this.project, this.nameLookup);
@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -34,6 +35,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.ls.core.internal.BaseJDTLanguageServer;
+import org.eclipse.jdt.ls.core.internal.HandoffCache;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JSONUtility;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection.JavaLanguageClient;
@@ -48,6 +50,7 @@ import org.eclipse.jdt.ls.core.internal.handlers.FoldingRangeHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.HoverHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.NavigateToDefinitionHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.NavigateToTypeDefinitionHandler;
+import org.eclipse.jdt.ls.core.internal.handlers.PartialResultCollector;
 import org.eclipse.jdt.ls.core.internal.handlers.SelectionRangeHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.WorkspaceEventsHandler;
 import org.eclipse.jdt.ls.core.internal.handlers.WorkspaceFolderChangeHandler;
@@ -275,7 +278,13 @@ public class SyntaxLanguageServer extends BaseJDTLanguageServer implements Langu
 		DocumentSymbolHandler handler = new DocumentSymbolHandler(hierarchicalDocumentSymbolSupported);
 		return computeAsync((monitor) -> {
 			waitForLifecycleJobs(monitor);
-			return handler.documentSymbol(params, monitor);
+			// the syntax server doesn't stream the symbols
+			List<Either<SymbolInformation, DocumentSymbol>> symbols = handler.documentSymbol(params, new PartialResultCollector<>(null, null), monitor);
+			if (hierarchicalDocumentSymbolSupported && !monitor.isCanceled() && HandoffCache.isEnabled()) {
+				List<DocumentSymbol> documentSymbols = symbols.stream().map(Either::getRight).collect(Collectors.toList());
+				HandoffCache.getInstance().put(params.getTextDocument().getUri(), snapshot -> snapshot.setDocumentSymbols(documentSymbols));
+			}
+			return symbols;
 		});
 	}
 
@@ -312,7 +321,11 @@ public class SyntaxLanguageServer extends BaseJDTLanguageServer implements Langu
 		logInfo(">> document/foldingRange");
 		return computeAsync((monitor) -> {
 			waitForLifecycleJobs(monitor);
-			return new FoldingRangeHandler().foldingRange(params, monitor);
+			List<FoldingRange> foldingRanges = new FoldingRangeHandler().foldingRange(params, monitor);
+			if (!monitor.isCanceled() && HandoffCache.isEnabled()) {
+				HandoffCache.getInstance().put(params.getTextDocument().getUri(), snapshot -> snapshot.setFoldingRanges(foldingRanges));
+			}
+			return foldingRanges;
 		});
 	}
 
@@ -30,6 +30,7 @@ import java.util.stream.Stream;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ISaveContext;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -80,8 +81,53 @@ public class SyntaxProjectsManager extends ProjectsManager {
 		}
 	};
 
+	private final TypeNameIndex typeNameIndex;
+
+	private Job typeNameIndexJob = new Job("Index type names") {
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				IJavaProject[] projects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+				long start = System.currentTimeMillis();
+				typeNameIndex.index(projects, monitor);
+				JavaLanguageServerPlugin.logInfo("Type names indexed in " + (System.currentTimeMillis() - start) + "ms");
+			} catch (JavaModelException e) {
+				JavaLanguageServerPlugin.logException(e.getMessage(), e);
+			}
+			return Status.OK_STATUS;
+		}
+	};
+
 	public SyntaxProjectsManager(PreferenceManager preferenceManager) {
 		super(preferenceManager);
+		this.typeNameIndex = new TypeNameIndex(JavaLanguageServerPlugin.getInstance().getStateLocation().toFile());
+		typeNameIndexJob.setSystem(true);
+		typeNameIndexJob.setPriority(Job.DECORATE);
+	}
+
+	@Override
+	public void initializeProjects(Collection<IPath> rootPaths, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		super.initializeProjects(rootPaths, monitor);
+		indexTypeNames();
+	}
+
+	public TypeNameIndex getTypeNameIndex() {
+		return typeNameIndex;
+	}
+
+	/**
+	 * Schedules the update of the type name index with the current projects.
+	 */
+	public void indexTypeNames() {
+		typeNameIndexJob.schedule();
+	}
+
+	@Override
+	public void saving(ISaveContext context) throws CoreException {
+		if (context.getKind() == ISaveContext.FULL_SAVE) {
+			typeNameIndex.save();
+		}
 	}
 
 	@Override
@@ -213,6 +259,10 @@ public class SyntaxProjectsManager extends ProjectsManager {
 				IBuildSupport buildSupport = bs.get();
 				buildSupport.fileChanged(resource, changeType, new NullProgressMonitor());
 			}
+			IPath location = resource.getLocation();
+			if (location != null) {
+				typeNameIndex.fileChanged(location.toFile().toPath(), resource.getProject().getDefaultCharset());
+			}
 		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Problem refreshing workspace", e);
 		}
@@ -0,0 +1,862 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.syntaxserver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+
+/**
+ * An index of the type names declared in the source folders and the binary
+ * roots (JDK modules, libraries) of the syntax server projects, used by the
+ * code completion instead of the search engine.
+ *
+ * Source files are scanned with the Java scanner only, to collect the top
+ * level and member types they declare. Binary roots are indexed from the
+ * names of their class files. Only the files and roots whose modification
+ * time changed are scanned again, and the index is stored in the plugin
+ * state location between sessions.
+ *
+ * The names are looked up in sorted key tables, rebuilt when the index
+ * changed: the lower case simple names for the prefix matches, the CamelCase
+ * initials for the CamelCase matches, and the lower case words of the names
+ * for the subword matches.
+ */
+public class TypeNameIndex {
+
+	private static final String SERIALIZATION_FILE_NAME = ".type-names";
+	private static final String JAVA_EXTENSION = ".java";
+	private static final String CLASS_EXTENSION = ".class";
+	private static final char[] RECORD = "record".toCharArray();
+
+	private final File stateFile;
+	/**
+	 * The indexed source files and binary roots, by key
+	 */
+	private final Map<String, Container> containers = new HashMap<>();
+	/**
+	 * The source folder locations and binary root keys completely indexed
+	 */
+	private final Set<String> roots = new HashSet<>();
+	private final Set<String> sourceRoots = new HashSet<>();
+	private volatile Table table;
+
+	public TypeNameIndex(File stateLocation) {
+		this.stateFile = stateLocation == null ? null : new File(stateLocation, SERIALIZATION_FILE_NAME);
+		load();
+	}
+
+	/**
+	 * Returns the roots of the given project, as stored in the index: the
+	 * locations of its source folders and the keys of its binary roots.
+	 *
+	 * @param project
+	 *            the project
+	 * @return the roots of the project
+	 * @throws JavaModelException
+	 *             if the package fragment roots can't be computed
+	 */
+	public static Set<String> getRoots(IJavaProject project) throws JavaModelException {
+		Set<String> result = new HashSet<>();
+		for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+			String key = getKey(root);
+			if (key != null) {
+				result.add(key);
+			}
+		}
+		return result;
+	}
+
+	private static String getKey(IPackageFragmentRoot root) throws JavaModelException {
+		if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+			IResource resource = root.getResource();
+			IPath location = resource == null ? null : resource.getLocation();
+			return location == null ? null : location.toOSString();
+		}
+		return root.getPath().toOSString() + "|" + root.getElementName();
+	}
+
+	/**
+	 * @param roots
+	 *            source folder locations and binary root keys
+	 * @return <code>true</code> if all the given roots are indexed
+	 */
+	public synchronized boolean isIndexed(Collection<String> roots) {
+		return this.roots.containsAll(roots);
+	}
+
+	/**
+	 * Brings the index up to date with the source folders and binary roots of
+	 * the given projects. The indexed files and roots which are no longer part
+	 * of these projects are removed.
+	 *
+	 * @param projects
+	 *            the projects to index
+	 * @param monitor
+	 *            a progress monitor
+	 */
+	public void index(IJavaProject[] projects, IProgressMonitor monitor) {
+		Set<String> seenContainers = new HashSet<>();
+		Set<String> seenRoots = new HashSet<>();
+		for (IJavaProject project : projects) {
+			try {
+				String charset = project.getProject().getDefaultCharset();
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					if (monitor.isCanceled()) {
+						return;
+					}
+					String key = getKey(root);
+					if (key == null || !seenRoots.add(key)) {
+						continue;
+					}
+					if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+						indexSourceFolder(Paths.get(key), key, charset, seenContainers, monitor);
+					} else {
+						seenContainers.add(key);
+						indexBinaryRoot(root, key);
+					}
+					if (!monitor.isCanceled()) {
+						synchronized (this) {
+							roots.add(key);
+							if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+								sourceRoots.add(key);
+							}
+						}
+					}
+				}
+			} catch (CoreException e) {
+				JavaLanguageServerPlugin.logException("Unable to index the types of " + project.getElementName(), e);
+			}
+		}
+		if (!monitor.isCanceled()) {
+			synchronized (this) {
+				roots.retainAll(seenRoots);
+				sourceRoots.retainAll(seenRoots);
+				if (containers.keySet().retainAll(seenContainers)) {
+					table = null;
+				}
+			}
+		}
+	}
+
+	private void indexSourceFolder(Path folder, String root, String charset, Set<String> seen, IProgressMonitor monitor) {
+		if (!Files.isDirectory(folder)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(folder)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				if (file.getFileName().toString().endsWith(JAVA_EXTENSION) && Files.isRegularFile(file)) {
+					String path = file.toString();
+					seen.add(path);
+					long stamp = file.toFile().lastModified();
+					if (!isUpToDate(path, root, stamp)) {
+						indexSource(file, root, charset, stamp);
+					}
+				}
+			}
+		} catch (IOException | UncheckedIOException e) {
+			JavaLanguageServerPlugin.logException("Unable to index " + folder, e);
+		}
+	}
+
+	private void indexSource(Path file, String root, String charset, long stamp) {
+		try {
+			char[] contents = new String(Files.readAllBytes(file), toCharset(charset)).toCharArray();
+			indexSource(file.toString(), root, contents, stamp);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Unable to index " + file, e);
+		}
+	}
+
+	/**
+	 * Indexes the types declared in the given source contents, replacing the
+	 * types previously indexed for the file.
+	 *
+	 * @param path
+	 *            the path of the source file
+	 * @param root
+	 *            the location of the source folder
+	 * @param contents
+	 *            the contents of the file
+	 * @param stamp
+	 *            the modification time of the file
+	 */
+	public void indexSource(String path, String root, char[] contents, long stamp) {
+		put(path, new Container(root, stamp, scanSource(path, root, contents)));
+	}
+
+	private void indexBinaryRoot(IPackageFragmentRoot root, String key) throws JavaModelException {
+		long stamp = root.getPath().toFile().lastModified();
+		if (isUpToDate(key, key, stamp)) {
+			return;
+		}
+		List<TypeName> names = new ArrayList<>();
+		for (IJavaElement child : root.getChildren()) {
+			if (child instanceof IPackageFragment) {
+				IPackageFragment fragment = (IPackageFragment) child;
+				String packageName = fragment.getElementName();
+				for (IClassFile classFile : fragment.getAllClassFiles()) {
+					TypeName name = toTypeName(packageName, classFile.getElementName(), key);
+					if (name != null) {
+						names.add(name);
+					}
+				}
+			}
+		}
+		put(key, new Container(key, stamp, names));
+	}
+
+	/**
+	 * Returns the type of the given class file, or <code>null</code> for
+	 * module and package descriptors, anonymous and local types.
+	 */
+	private static TypeName toTypeName(String packageName, String fileName, String root) {
+		if (!fileName.endsWith(CLASS_EXTENSION)) {
+			return null;
+		}
+		String binaryName = fileName.substring(0, fileName.length() - CLASS_EXTENSION.length());
+		if ("module-info".equals(binaryName) || "package-info".equals(binaryName)) {
+			return null;
+		}
+		String[] segments = binaryName.split("\\$", -1);
+		for (String segment : segments) {
+			if (segment.isEmpty() || Character.isDigit(segment.charAt(0))) {
+				return null;
+			}
+		}
+		String enclosingName = String.join(".", Arrays.asList(segments).subList(0, segments.length - 1));
+		return new TypeName(packageName, segments[segments.length - 1], enclosingName, Flags.AccPublic, true, root, null);
+	}
+
+	private synchronized boolean isUpToDate(String key, String root, long stamp) {
+		Container container = containers.get(key);
+		return container != null && container.stamp == stamp && container.root.equals(root);
+	}
+
+	private synchronized void put(String key, Container container) {
+		containers.put(key, container);
+		table = null;
+	}
+
+	/**
+	 * Updates the index after a change of the given file or folder. Only the
+	 * changes under an indexed source folder are considered.
+	 *
+	 * @param file
+	 *            the created, changed or deleted file or folder
+	 * @param charset
+	 *            the charset of the Java files
+	 */
+	public void fileChanged(Path file, String charset) {
+		String root = getSourceRoot(file);
+		if (root == null) {
+			return;
+		}
+		String path = file.toString();
+		if (Files.isDirectory(file)) {
+			Set<String> seen = new HashSet<>();
+			indexSourceFolder(file, root, charset, seen, new NullProgressMonitor());
+			removeUnder(path, seen);
+		} else if (path.endsWith(JAVA_EXTENSION) && Files.isRegularFile(file)) {
+			indexSource(file, root, charset, file.toFile().lastModified());
+		} else {
+			synchronized (this) {
+				if (containers.remove(path) != null) {
+					table = null;
+				}
+			}
+			removeUnder(path, new HashSet<>());
+		}
+	}
+
+	private synchronized String getSourceRoot(Path file) {
+		String result = null;
+		for (String root : sourceRoots) {
+			if (file.startsWith(root) && (result == null || root.length() > result.length())) {
+				result = root;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the indexed files in the given folder, except the given ones.
+	 */
+	private synchronized void removeUnder(String folder, Set<String> keep) {
+		String prefix = folder.endsWith(File.separator) ? folder : folder + File.separator;
+		if (containers.entrySet().removeIf(e -> e.getKey().startsWith(prefix) && !keep.contains(e.getKey()))) {
+			table = null;
+		}
+	}
+
+	/**
+	 * Returns the types matching the given prefix.
+	 *
+	 * @param prefix
+	 *            the simple name pattern, optionally qualified by a package or
+	 *            an enclosing type name
+	 * @param findMembers
+	 *            whether member types are returned
+	 * @param matchRule
+	 *            the {@link SearchPattern} match rule
+	 * @param searchFor
+	 *            the kind of types, as an {@link IJavaSearchConstants} type
+	 *            kind. The kind of binary types isn't known, they are always
+	 *            returned
+	 * @param roots
+	 *            the roots to search, or <code>null</code> to search all of
+	 *            them
+	 * @return the matching types
+	 */
+	public List<TypeName> findTypes(char[] prefix, boolean findMembers, int matchRule, int searchFor, Set<String> roots) {
+		int dot = CharOperation.lastIndexOf('.', prefix);
+		String qualifier = dot < 0 ? null : new String(prefix, 0, dot);
+		char[] pattern = dot < 0 ? prefix : CharOperation.subarray(prefix, dot + 1, prefix.length);
+		Table current = getTable();
+		Collection<TypeName> candidates;
+		if (pattern.length == 0 || (matchRule & SearchPattern.R_SUBSTRING_MATCH) != 0) {
+			candidates = current.all;
+		} else {
+			candidates = new LinkedHashSet<>();
+			current.names.collect(new String(CharOperation.toLowerCase(pattern)), candidates);
+			if ((matchRule & (SearchPattern.R_CAMELCASE_MATCH | SearchPattern.R_CAMELCASE_SAME_PART_COUNT_MATCH)) != 0) {
+				current.camelCases.collect(getInitials(pattern), candidates);
+			}
+			if ((matchRule & SearchPattern.R_SUBWORD_MATCH) != 0) {
+				current.words.collect(String.valueOf(Character.toLowerCase(pattern[0])), candidates);
+			}
+		}
+		List<TypeName> result = new ArrayList<>();
+		for (TypeName type : candidates) {
+			if ((roots == null || roots.contains(type.root)) && (findMembers || !type.isMember()) && acceptsKind(type, searchFor) && matchesQualifier(type, qualifier) && matches(pattern, type.simpleName.toCharArray(), matchRule)) {
+				result.add(type);
+			}
+		}
+		return result;
+	}
+
+	private static boolean matches(char[] pattern, char[] name, int matchRule) {
+		if (pattern.length == 0) {
+			return true;
+		}
+		boolean caseSensitive = (matchRule & SearchPattern.R_CASE_SENSITIVE) != 0;
+		if ((matchRule & SearchPattern.R_PREFIX_MATCH) != 0 ? CharOperation.prefixEquals(pattern, name, caseSensitive) : CharOperation.equals(pattern, name, caseSensitive)) {
+			return true;
+		}
+		if ((matchRule & SearchPattern.R_CAMELCASE_MATCH) != 0 && CharOperation.camelCaseMatch(pattern, name)) {
+			return true;
+		}
+		if ((matchRule & SearchPattern.R_CAMELCASE_SAME_PART_COUNT_MATCH) != 0 && CharOperation.camelCaseMatch(pattern, name, true)) {
+			return true;
+		}
+		if ((matchRule & SearchPattern.R_SUBSTRING_MATCH) != 0 && CharOperation.substringMatch(pattern, name)) {
+			return true;
+		}
+		return (matchRule & SearchPattern.R_SUBWORD_MATCH) != 0 && CharOperation.subWordMatch(pattern, name);
+	}
+
+	private static boolean matchesQualifier(TypeName type, String qualifier) {
+		if (qualifier == null) {
+			return true;
+		}
+		String enclosingName = type.enclosingName;
+		if (enclosingName.isEmpty()) {
+			return type.packageName.equals(qualifier);
+		}
+		return enclosingName.equals(qualifier) || enclosingName.endsWith("." + qualifier) || (type.packageName + "." + enclosingName).equals(qualifier);
+	}
+
+	private static boolean acceptsKind(TypeName type, int searchFor) {
+		if (type.binary) {
+			return true;
+		}
+		int modifiers = type.modifiers;
+		boolean isAnnotation = Flags.isAnnotation(modifiers);
+		boolean isInterface = Flags.isInterface(modifiers) && !isAnnotation;
+		boolean isEnum = Flags.isEnum(modifiers);
+		boolean isClass = !isAnnotation && !isInterface && !isEnum;
+		switch (searchFor) {
+			case IJavaSearchConstants.CLASS:
+				return isClass;
+			case IJavaSearchConstants.INTERFACE:
+				return isInterface;
+			case IJavaSearchConstants.ENUM:
+				return isEnum;
+			case IJavaSearchConstants.ANNOTATION_TYPE:
+				return isAnnotation;
+			case IJavaSearchConstants.CLASS_AND_ENUM:
+				return isClass || isEnum;
+			case IJavaSearchConstants.CLASS_AND_INTERFACE:
+				return isClass || isInterface;
+			case IJavaSearchConstants.INTERFACE_AND_ANNOTATION:
+				return isInterface || isAnnotation;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Returns the lower case initials of the CamelCase parts of the given name,
+	 * e.g. <code>hm</code> for <code>HashMap</code>.
+	 */
+	private static String getInitials(char[] name) {
+		StringBuilder initials = new StringBuilder();
+		for (int i = 0; i < name.length; i++) {
+			if (i == 0 || Character.isUpperCase(name[i])) {
+				initials.append(Character.toLowerCase(name[i]));
+			}
+		}
+		return initials.toString();
+	}
+
+	/**
+	 * Returns the lower case words of the given name, split at the case
+	 * changes, digits and underscores.
+	 */
+	private static Set<String> getWords(String name) {
+		Set<String> words = new HashSet<>();
+		int start = 0;
+		for (int i = 1; i <= name.length(); i++) {
+			if (i == name.length() || isWordStart(name, i)) {
+				if (start < i) {
+					words.add(name.substring(start, i).toLowerCase());
+				}
+				start = name.charAt(i - 1) == '_' || (i < name.length() && name.charAt(i) == '_') ? i + 1 : i;
+			}
+		}
+		return words;
+	}
+
+	private static boolean isWordStart(String name, int i) {
+		char c = name.charAt(i);
+		char previous = name.charAt(i - 1);
+		if (c == '_' || previous == '_') {
+			return true;
+		}
+		if (Character.isDigit(c)) {
+			return !Character.isDigit(previous);
+		}
+		if (Character.isUpperCase(c)) {
+			// the last upper case letter of an acronym starts the next word, e.g. URLConnection
+			return !Character.isUpperCase(previous) || (i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1)));
+		}
+		return Character.isDigit(previous);
+	}
+
+	private Table getTable() {
+		Table current = table;
+		if (current == null) {
+			synchronized (this) {
+				current = table;
+				if (current == null) {
+					current = new Table(containers.values());
+					table = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the top level and member types declared in the given source.
+	 * Local and anonymous types are ignored.
+	 */
+	private static List<TypeName> scanSource(String path, String root, char[] contents) {
+		List<TypeName> result = new ArrayList<>();
+		IScanner scanner = ToolFactory.createScanner(false, false, false, JavaCore.VERSION_15, JavaCore.VERSION_15);
+		scanner.setSource(contents);
+		String packageName = "";
+		Deque<TypeFrame> types = new ArrayDeque<>();
+		TypeFrame pending = null;
+		int depth = 0;
+		int parenDepth = 0;
+		int modifiers = 0;
+		int previous = ITerminalSymbols.TokenNameEOF;
+		try {
+			int token;
+			while ((token = scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF) {
+				int kind = -1;
+				switch (token) {
+					case ITerminalSymbols.TokenNamepackage:
+						if (depth == 0 && types.isEmpty()) {
+							packageName = readQualifiedName(scanner);
+						}
+						break;
+					case ITerminalSymbols.TokenNamepublic:
+						modifiers |= Flags.AccPublic;
+						break;
+					case ITerminalSymbols.TokenNameprotected:
+						modifiers |= Flags.AccProtected;
+						break;
+					case ITerminalSymbols.TokenNameprivate:
+						modifiers |= Flags.AccPrivate;
+						break;
+					case ITerminalSymbols.TokenNamestatic:
+						modifiers |= Flags.AccStatic;
+						break;
+					case ITerminalSymbols.TokenNamefinal:
+						modifiers |= Flags.AccFinal;
+						break;
+					case ITerminalSymbols.TokenNameabstract:
+						modifiers |= Flags.AccAbstract;
+						break;
+					case ITerminalSymbols.TokenNameclass:
+						kind = 0;
+						break;
+					case ITerminalSymbols.TokenNameinterface:
+						kind = previous == ITerminalSymbols.TokenNameAT ? Flags.AccInterface | Flags.AccAnnotation : Flags.AccInterface;
+						break;
+					case ITerminalSymbols.TokenNameenum:
+						kind = Flags.AccEnum;
+						break;
+					case ITerminalSymbols.TokenNameLPAREN:
+						parenDepth++;
+						break;
+					case ITerminalSymbols.TokenNameRPAREN:
+						parenDepth = Math.max(0, parenDepth - 1);
+						break;
+					case ITerminalSymbols.TokenNameLBRACE:
+						if (parenDepth == 0) {
+							depth++;
+							if (pending != null) {
+								pending.bodyDepth = depth;
+								types.push(pending);
+								pending = null;
+							}
+							modifiers = 0;
+						}
+						break;
+					case ITerminalSymbols.TokenNameRBRACE:
+						if (parenDepth == 0) {
+							if (!types.isEmpty() && types.peek().bodyDepth == depth) {
+								types.pop();
+							}
+							depth = Math.max(0, depth - 1);
+							modifiers = 0;
+						}
+						break;
+					case ITerminalSymbols.TokenNameSEMICOLON:
+						pending = null;
+						modifiers = 0;
+						break;
+					default:
+						// a record is declared with a restricted identifier
+						if (CharOperation.equals(RECORD, scanner.getCurrentTokenSource())) {
+							kind = 0;
+						}
+						break;
+				}
+				if (kind != -1 && previous != ITerminalSymbols.TokenNameDOT && parenDepth == 0 && (types.isEmpty() ? depth == 0 : depth == types.peek().bodyDepth)) {
+					previous = token;
+					token = scanner.getNextToken();
+					if (token == ITerminalSymbols.TokenNameIdentifier) {
+						String name = new String(scanner.getCurrentTokenSource());
+						String enclosingName = getEnclosingName(types);
+						int flags = modifiers | kind;
+						if (!types.isEmpty() && Flags.isInterface(types.peek().modifiers)) {
+							flags |= Flags.AccPublic | Flags.AccStatic;
+						}
+						pending = new TypeFrame(name, flags);
+						result.add(new TypeName(packageName, name, enclosingName, flags, false, root, path));
+					}
+					modifiers = 0;
+				}
+				previous = token;
+			}
+		} catch (InvalidInputException e) {
+			// keep the types found so far
+		}
+		return result;
+	}
+
+	private static String getEnclosingName(Deque<TypeFrame> types) {
+		StringBuilder name = new StringBuilder();
+		for (Iterator<TypeFrame> it = types.descendingIterator(); it.hasNext();) {
+			if (name.length() > 0) {
+				name.append('.');
+			}
+			name.append(it.next().name);
+		}
+		return name.toString();
+	}
+
+	private static String readQualifiedName(IScanner scanner) throws InvalidInputException {
+		StringBuilder name = new StringBuilder();
+		int token;
+		while ((token = scanner.getNextToken()) == ITerminalSymbols.TokenNameIdentifier || token == ITerminalSymbols.TokenNameDOT) {
+			name.append(scanner.getCurrentTokenSource());
+		}
+		return name.toString();
+	}
+
+	private static Charset toCharset(String charset) {
+		try {
+			return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+		} catch (IllegalArgumentException e) {
+			return StandardCharsets.UTF_8;
+		}
+	}
+
+	public void save() {
+		if (stateFile == null) {
+			return;
+		}
+		Map<String, Container> containersSnapshot;
+		Set<String> rootsSnapshot;
+		Set<String> sourceRootsSnapshot;
+		synchronized (this) {
+			containersSnapshot = new HashMap<>(containers);
+			rootsSnapshot = new HashSet<>(roots);
+			sourceRootsSnapshot = new HashSet<>(sourceRoots);
+		}
+		try (ObjectOutputStream outStream = new ObjectOutputStream(new FileOutputStream(stateFile))) {
+			outStream.writeObject(containersSnapshot);
+			outStream.writeObject(rootsSnapshot);
+			outStream.writeObject(sourceRootsSnapshot);
+		} catch (IOException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while serialization of type names", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void load() {
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(stateFile))) {
+			Map<String, Container> loadedContainers = (Map<String, Container>) ois.readObject();
+			Set<String> loadedRoots = (Set<String>) ois.readObject();
+			Set<String> loadedSourceRoots = (Set<String>) ois.readObject();
+			synchronized (this) {
+				containers.putAll(loadedContainers);
+				roots.addAll(loadedRoots);
+				sourceRoots.addAll(loadedSourceRoots);
+				table = null;
+			}
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			JavaLanguageServerPlugin.logException("Exception occured while deserialization of type names", e);
+		}
+	}
+
+	/**
+	 * An indexed type.
+	 */
+	public static final class TypeName implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String packageName;
+		private final String simpleName;
+		private final String enclosingName;
+		private final int modifiers;
+		private final boolean binary;
+		private final String root;
+		private final String path;
+
+		TypeName(String packageName, String simpleName, String enclosingName, int modifiers, boolean binary, String root, String path) {
+			this.packageName = packageName;
+			this.simpleName = simpleName;
+			this.enclosingName = enclosingName;
+			this.modifiers = modifiers;
+			this.binary = binary;
+			this.root = root;
+			this.path = path;
+		}
+
+		public String getPackageName() {
+			return packageName;
+		}
+
+		public String getSimpleName() {
+			return simpleName;
+		}
+
+		/**
+		 * @return the dot separated names of the enclosing types, empty for a
+		 *         top level type
+		 */
+		public String getEnclosingName() {
+			return enclosingName;
+		}
+
+		/**
+		 * @return the enclosing type names, or <code>null</code> for a top
+		 *         level type
+		 */
+		public char[][] getEnclosingTypeNames() {
+			return enclosingName.isEmpty() ? null : CharOperation.splitOn('.', enclosingName.toCharArray());
+		}
+
+		/**
+		 * @return the {@link Flags} of the type. Binary types are reported as
+		 *         public classes
+		 */
+		public int getModifiers() {
+			return modifiers;
+		}
+
+		public boolean isBinary() {
+			return binary;
+		}
+
+		public boolean isMember() {
+			return !enclosingName.isEmpty();
+		}
+
+		/**
+		 * @return the source file declaring the type, or <code>null</code> for
+		 *         a binary type
+		 */
+		public String getPath() {
+			return path;
+		}
+	}
+
+	private static final class Container implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String root;
+		private final long stamp;
+		private final List<TypeName> types;
+
+		Container(String root, long stamp, List<TypeName> types) {
+			this.root = root;
+			this.stamp = stamp;
+			this.types = types;
+		}
+	}
+
+	private static final class TypeFrame {
+		private final String name;
+		private final int modifiers;
+		private int bodyDepth;
+
+		TypeFrame(String name, int modifiers) {
+			this.name = name;
+			this.modifiers = modifiers;
+		}
+	}
+
+	private static final class Table {
+		private final List<TypeName> all = new ArrayList<>();
+		private final KeyTable names;
+		private final KeyTable camelCases;
+		private final KeyTable words;
+
+		Table(Collection<Container> containers) {
+			List<String> nameKeys = new ArrayList<>();
+			List<String> camelCaseKeys = new ArrayList<>();
+			List<String> wordKeys = new ArrayList<>();
+			List<TypeName> wordTypes = new ArrayList<>();
+			for (Container container : containers) {
+				for (TypeName type : container.types) {
+					all.add(type);
+					nameKeys.add(type.simpleName.toLowerCase());
+					camelCaseKeys.add(getInitials(type.simpleName.toCharArray()));
+					for (String word : getWords(type.simpleName)) {
+						wordKeys.add(word);
+						wordTypes.add(type);
+					}
+				}
+			}
+			names = new KeyTable(nameKeys, all);
+			camelCases = new KeyTable(camelCaseKeys, all);
+			words = new KeyTable(wordKeys, wordTypes);
+		}
+	}
+
+	/**
+	 * Types sorted by key, looked up by key prefix.
+	 */
+	private static final class KeyTable {
+		private final String[] keys;
+		private final TypeName[] types;
+
+		KeyTable(List<String> keys, List<TypeName> types) {
+			Integer[] order = new Integer[keys.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+			this.keys = new String[order.length];
+			this.types = new TypeName[order.length];
+			for (int i = 0; i < order.length; i++) {
+				this.keys[i] = keys.get(order[i]);
+				this.types[i] = types.get(order[i]);
+			}
+		}
+
+		void collect(String prefix, Collection<TypeName> result) {
+			int low = 0;
+			int high = keys.length;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (keys[middle].compareTo(prefix) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			for (int i = low; i < keys.length && keys[i].startsWith(prefix); i++) {
+				result.add(types[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.text;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * An immutable table of line start offsets, computed in a single pass over a
+ * text. It converts between offsets and (line, column) pairs without keeping
+ * the text itself, so it is cheap to cache per file.
+ *
+ * Line delimiters follow {@link org.eclipse.jface.text.IDocument}
+ * conventions: <code>\n</code>, <code>\r</code> and <code>\r\n</code>.
+ */
+public final class LineTable {
+
+	private final int[] lineOffsets;
+	private final int length;
+
+	private LineTable(int[] lineOffsets, int length) {
+		this.lineOffsets = lineOffsets;
+		this.length = length;
+	}
+
+	/**
+	 * Computes the line table of the given text.
+	 *
+	 * @param text
+	 *            the text, must not be <code>null</code>
+	 * @return the line table
+	 */
+	public static LineTable of(CharSequence text) {
+		int[] offsets = new int[16];
+		int count = 1;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\r') {
+				if (i + 1 < length && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+			} else if (c != '\n') {
+				continue;
+			}
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = i + 1;
+		}
+		return new LineTable(Arrays.copyOf(offsets, count), length);
+	}
+
+	/**
+	 * Computes the line table of the characters read from the given reader,
+	 * without materializing the whole text.
+	 *
+	 * @param reader
+	 *            the reader, not closed by this method
+	 * @return the line table
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static LineTable of(Reader reader) throws IOException {
+		int[] offsets = new int[16];
+		int count = 1;
+		int length = 0;
+		boolean pendingCR = false;
+		char[] buffer = new char[8192];
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			for (int i = 0; i < read; i++, length++) {
+				char c = buffer[i];
+				if (pendingCR) {
+					pendingCR = false;
+					if (c == '\n') {
+						// extend the \r\n delimiter, the line starts after it
+						offsets[count - 1] = length + 1;
+						continue;
+					}
+				}
+				if (c != '\r' && c != '\n') {
+					continue;
+				}
+				pendingCR = c == '\r';
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = length + 1;
+			}
+		}
+		return new LineTable(Arrays.copyOf(offsets, count), length);
+	}
+
+	/**
+	 * @return the number of lines, at least 1
+	 */
+	public int getNumberOfLines() {
+		return lineOffsets.length;
+	}
+
+	/**
+	 * @return the length of the text this table was computed from
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the offset of the first character of the given line.
+	 *
+	 * @param line
+	 *            the 0-based line number
+	 * @return the line offset or -1 if the line does not exist
+	 */
+	public int getLineOffset(int line) {
+		if (line < 0 || line >= lineOffsets.length) {
+			return -1;
+		}
+		return lineOffsets[line];
+	}
+
+	/**
+	 * Returns the 0-based line containing the given offset.
+	 *
+	 * @param offset
+	 *            the offset
+	 * @return the line or -1 if the offset is outside of the text
+	 */
+	public int getLineOfOffset(int offset) {
+		if (offset < 0 || offset > length) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(lineOffsets, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Converts an offset to a line number and column.
+	 *
+	 * @param offset
+	 *            the offset
+	 * @return an array <code>{ line, column }</code>, or <code>null</code> if
+	 *         the offset is outside of the text
+	 */
+	public int[] toLine(int offset) {
+		int line = getLineOfOffset(offset);
+		if (line < 0) {
+			return null;
+		}
+		return new int[] { line, offset - lineOffsets[line] };
+	}
+
+	/**
+	 * Converts a line and column to an offset.
+	 *
+	 * @param line
+	 *            the 0-based line
+	 * @param column
+	 *            the 0-based column
+	 * @return the offset or -1 if the line does not exist
+	 */
+	public int toOffset(int line, int column) {
+		int lineOffset = getLineOffset(line);
+		return lineOffset < 0 ? -1 : lineOffset + column;
+	}
+}
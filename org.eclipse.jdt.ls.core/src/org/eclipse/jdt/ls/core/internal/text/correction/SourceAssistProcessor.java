@@ -35,7 +35,11 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
@@ -87,22 +91,42 @@ public class SourceAssistProcessor {
 	public static final String COMMAND_ID_ACTION_GENERATECONSTRUCTORSPROMPT = "java.action.generateConstructorsPrompt";
 	public static final String COMMAND_ID_ACTION_GENERATEDELEGATEMETHODSPROMPT = "java.action.generateDelegateMethodsPrompt";
 
+	// the source actions whose edit is computed on codeAction/resolve
+	public static final String SOURCE_ACTION_ORGANIZE_IMPORTS = "organizeImports";
+	public static final String SOURCE_ACTION_GENERATE_ACCESSORS = "generateAccessors";
+	public static final String SOURCE_ACTION_GENERATE_TO_STRING = "generateToString";
+	public static final String SOURCE_ACTION_GENERATE_CONSTRUCTORS = "generateConstructors";
+	public static final String SOURCE_ACTION_GENERATE_FINAL_MODIFIERS = "generateFinalModifiers";
+
 	private PreferenceManager preferenceManager;
 
 	public SourceAssistProcessor(PreferenceManager preferenceManager) {
 		this.preferenceManager = preferenceManager;
 	}
 
+	/**
+	 * Returns the source actions available at the given selection.
+	 *
+	 * When the client resolves the edits of the code actions, the edits aren't
+	 * computed here: the source actions are returned with the identifier of
+	 * the action and the parameters as data, and their availability is
+	 * estimated from the AST only, so the edit of a deferred source action may
+	 * turn out to be empty when it's resolved. The deferred source actions
+	 * which would take longer than the source actions budget to check are left
+	 * out. The budget doesn't apply when the edits are computed here.
+	 */
 	public List<Either<Command, CodeAction>> getSourceActionCommands(CodeActionParams params, IInvocationContext context, IProblemLocationCore[] locations, IProgressMonitor monitor) {
 		List<Either<Command, CodeAction>> $ = new ArrayList<>();
 		ICompilationUnit cu = context.getCompilationUnit();
 		IType type = getSelectionType(context);
+		// only the deferred source actions can be left out, the client gets the others with their edits
+		int sourceActionsBudget = preferenceManager.getClientPreferences().isResolveCodeActionSupported() ? preferenceManager.getPreferences().getSourceActionsBudget() : 0;
+		SourceActionsBudget budget = new SourceActionsBudget(sourceActionsBudget);
 
 		// Generate Constructor quickassist
 		Optional<Either<Command, CodeAction>> generateConstructors = null;
 		try {
-			IJavaElement element = JDTUtils.findElementAtSelection(cu, params.getRange().getEnd().getLine(), params.getRange().getEnd().getCharacter(), this.preferenceManager, new NullProgressMonitor());
-			if (element instanceof IField) {
+			if (isFieldSelected(params, context) && !budget.isSpent()) {
 				generateConstructors = getGenerateConstructorsAction(params, context, type, JavaCodeActionKind.QUICK_ASSIST, monitor);
 				addSourceActionCommand($, params.getContext(), generateConstructors);
 			}
@@ -114,8 +138,17 @@ public class SourceAssistProcessor {
 		if (preferenceManager.getClientPreferences().isAdvancedOrganizeImportsSupported()) {
 			Optional<Either<Command, CodeAction>> organizeImports = getOrganizeImportsAction(params);
 			addSourceActionCommand($, params.getContext(), organizeImports);
+		} else if (isResolveSupported(CodeActionKind.SourceOrganizeImports)) {
+			// offered unless there is surely nothing to do: no import to remove or sort, and no
+			// problem which may be a missing import. The resolved edit may still be empty.
+			CompilationUnit astRoot = context.getASTRoot();
+			if (!astRoot.imports().isEmpty() || astRoot.getProblems().length > 0) {
+				Optional<Either<Command, CodeAction>> organizeImports = getUnresolvedAction(params, CorrectionMessages.ReorgCorrectionsSubProcessor_organizeimports_description, CodeActionKind.SourceOrganizeImports,
+						SOURCE_ACTION_ORGANIZE_IMPORTS);
+				addSourceActionCommand($, params.getContext(), organizeImports);
+			}
 		} else {
-			TextEdit organizeImportsEdit = getOrganizeImportsProposal(context);
+			TextEdit organizeImportsEdit = getOrganizeImportsProposal(context, monitor);
 			Optional<Either<Command, CodeAction>> organizeImports = convertToWorkspaceEditAction(params.getContext(), context.getCompilationUnit(), CorrectionMessages.ReorgCorrectionsSubProcessor_organizeimports_description,
 					CodeActionKind.SourceOrganizeImports, organizeImportsEdit);
 			addSourceActionCommand($, params.getContext(), organizeImports);
@@ -128,17 +161,19 @@ public class SourceAssistProcessor {
 		}
 
 		// Generate Getter and Setter
-		Optional<Either<Command, CodeAction>> getterSetter = getGetterSetterAction(params, context, type);
-		addSourceActionCommand($, params.getContext(), getterSetter);
+		if (!budget.isSpent()) {
+			Optional<Either<Command, CodeAction>> getterSetter = getGetterSetterAction(params, context, type);
+			addSourceActionCommand($, params.getContext(), getterSetter);
+		}
 
 		// Generate hashCode() and equals()
-		if (supportsHashCodeEquals(context, type, monitor)) {
+		if (!budget.isSpent() && supportsHashCodeEquals(context, type, monitor)) {
 			Optional<Either<Command, CodeAction>> hashCodeEquals = getHashCodeEqualsAction(params);
 			addSourceActionCommand($, params.getContext(), hashCodeEquals);
 		}
 
 		// Generate toString()
-		if (supportsGenerateToString(type)) {
+		if (!budget.isSpent() && supportsGenerateToString(type)) {
 			boolean nonStaticFields = true;
 			try {
 				nonStaticFields = hasFields(type, false);
@@ -148,6 +183,9 @@ public class SourceAssistProcessor {
 			if (nonStaticFields) {
 				Optional<Either<Command, CodeAction>> generateToStringCommand = getGenerateToStringAction(params);
 				addSourceActionCommand($, params.getContext(), generateToStringCommand);
+			} else if (isResolveSupported(JavaCodeActionKind.SOURCE_GENERATE_TO_STRING)) {
+				Optional<Either<Command, CodeAction>> generateToStringCommand = getUnresolvedAction(params, ActionMessages.GenerateToStringAction_label, JavaCodeActionKind.SOURCE_GENERATE_TO_STRING, SOURCE_ACTION_GENERATE_TO_STRING);
+				addSourceActionCommand($, params.getContext(), generateToStringCommand);
 			} else {
 				TextEdit toStringEdit = GenerateToStringHandler.generateToString(type, new LspVariableBinding[0], monitor);
 				Optional<Either<Command, CodeAction>> generateToStringCommand = convertToWorkspaceEditAction(params.getContext(), context.getCompilationUnit(), ActionMessages.GenerateToStringAction_label,
@@ -158,7 +196,7 @@ public class SourceAssistProcessor {
 
 		// Generate Constructors
 		if (generateConstructors == null) {
-			generateConstructors = getGenerateConstructorsAction(params, context, type, JavaCodeActionKind.SOURCE_GENERATE_CONSTRUCTORS, monitor);
+			generateConstructors = budget.isSpent() ? Optional.empty() : getGenerateConstructorsAction(params, context, type, JavaCodeActionKind.SOURCE_GENERATE_CONSTRUCTORS, monitor);
 		} else if (generateConstructors.isPresent()) {
 			Command command = new Command(ActionMessages.GenerateConstructorsAction_ellipsisLabel, COMMAND_ID_ACTION_GENERATECONSTRUCTORSPROMPT, Collections.singletonList(params));
 			if (preferenceManager.getClientPreferences().isSupportedCodeActionKind(JavaCodeActionKind.SOURCE_GENERATE_CONSTRUCTORS)) {
@@ -174,16 +212,98 @@ public class SourceAssistProcessor {
 		addSourceActionCommand($, params.getContext(), generateConstructors);
 
 		// Generate Delegate Methods
-		Optional<Either<Command, CodeAction>> generateDelegateMethods = getGenerateDelegateMethodsAction(params, context, type);
-		addSourceActionCommand($, params.getContext(), generateDelegateMethods);
+		if (!budget.isSpent()) {
+			Optional<Either<Command, CodeAction>> generateDelegateMethods = getGenerateDelegateMethodsAction(params, context, type);
+			addSourceActionCommand($, params.getContext(), generateDelegateMethods);
+		}
 
 		// Add final modifiers where possible
-		Optional<Either<Command, CodeAction>> generateFinalModifiers = addFinalModifierWherePossibleAction(context);
-		addSourceActionCommand($, params.getContext(), generateFinalModifiers);
+		if (!budget.isSpent()) {
+			Optional<Either<Command, CodeAction>> generateFinalModifiers = addFinalModifierWherePossibleAction(params, context);
+			addSourceActionCommand($, params.getContext(), generateFinalModifiers);
+		}
 
+		if (budget.isSpent()) {
+			JavaLanguageServerPlugin.logInfo("Source actions budget of " + budget.getBudget() + " ms spent, the remaining source actions are left out");
+		}
 		return $;
 	}
 
+	/**
+	 * Computes the edit of a source action returned without edit by
+	 * {@link #getSourceActionCommands(CodeActionParams, IInvocationContext, IProblemLocationCore[], IProgressMonitor)}.
+	 *
+	 * @param actionId
+	 *            the identifier of the source action
+	 * @param params
+	 *            the parameters of the code action request
+	 * @param monitor
+	 *            the progress monitor
+	 * @return the edit of the source action, which may be empty, or
+	 *         <code>null</code> if it isn't available anymore
+	 * @throws CoreException
+	 */
+	public WorkspaceEdit resolveSourceAction(String actionId, CodeActionParams params, IProgressMonitor monitor) throws CoreException {
+		InnovationContext context = getInnovationContext(params, monitor);
+		if (context == null) {
+			return null;
+		}
+		ICompilationUnit cu = context.getCompilationUnit();
+		IType type = getSelectionType(context);
+		switch (actionId) {
+			case SOURCE_ACTION_ORGANIZE_IMPORTS:
+				return convertToWorkspaceEdit(cu, getOrganizeImportsProposal(context, monitor));
+			case SOURCE_ACTION_GENERATE_ACCESSORS:
+				AccessorField[] accessors = GenerateGetterSetterOperation.getUnimplementedAccessors(type);
+				if (accessors == null || accessors.length == 0) {
+					return null;
+				}
+				GenerateGetterSetterOperation operation = new GenerateGetterSetterOperation(type, context.getASTRoot(), preferenceManager.getPreferences().isCodeGenerationTemplateGenerateComments());
+				return convertToWorkspaceEdit(cu, operation.createTextEdit(null, accessors));
+			case SOURCE_ACTION_GENERATE_TO_STRING:
+				return convertToWorkspaceEdit(cu, GenerateToStringHandler.generateToString(type, new LspVariableBinding[0], monitor));
+			case SOURCE_ACTION_GENERATE_CONSTRUCTORS:
+				CheckConstructorsResponse status = GenerateConstructorsHandler.checkConstructorStatus(type, monitor);
+				if (status.constructors.length == 0) {
+					return null;
+				}
+				return convertToWorkspaceEdit(type.getCompilationUnit(), GenerateConstructorsHandler.generateConstructors(type, status.constructors, status.fields, monitor));
+			case SOURCE_ACTION_GENERATE_FINAL_MODIFIERS:
+				FixCorrectionProposal proposal = getFinalModifiersProposal(context);
+				return proposal == null ? null : ChangeUtil.convertToWorkspaceEdit(proposal.getChange());
+			default:
+				return null;
+		}
+	}
+
+	private boolean isResolveSupported(String kind) {
+		return preferenceManager.getClientPreferences().isResolveCodeActionSupported() && preferenceManager.getClientPreferences().isSupportedCodeActionKind(kind);
+	}
+
+	private Optional<Either<Command, CodeAction>> getUnresolvedAction(CodeActionParams params, String name, String kind, String actionId) {
+		CodeAction codeAction = new CodeAction(name);
+		codeAction.setKind(kind);
+		codeAction.setDiagnostics(params.getContext().getDiagnostics());
+		codeAction.setData(Arrays.asList(actionId, params));
+		return Optional.of(Either.forRight(codeAction));
+	}
+
+	private boolean isFieldSelected(CodeActionParams params, IInvocationContext context) throws JavaModelException {
+		ICompilationUnit cu = context.getCompilationUnit();
+		if (preferenceManager.getClientPreferences().isResolveCodeActionSupported()) {
+			// resolve the name at the selection end from the AST, without code select
+			int offset = DiagnosticsHelper.getEndOffset(cu, params.getRange());
+			ASTNode node = NodeFinder.perform(context.getASTRoot(), offset, 0);
+			if (node instanceof SimpleName) {
+				IBinding binding = ((SimpleName) node).resolveBinding();
+				return binding instanceof IVariableBinding && ((IVariableBinding) binding).isField();
+			}
+			return false;
+		}
+		IJavaElement element = JDTUtils.findElementAtSelection(cu, params.getRange().getEnd().getLine(), params.getRange().getEnd().getCharacter(), this.preferenceManager, new NullProgressMonitor());
+		return element instanceof IField;
+	}
+
 	private void addSourceActionCommand(List<Either<Command, CodeAction>> result, CodeActionContext context, Optional<Either<Command, CodeAction>> target) {
 		if (!target.isPresent()) {
 			return;
@@ -201,18 +321,20 @@ public class SourceAssistProcessor {
 		result.add(targetAction);
 	}
 
-	private TextEdit getOrganizeImportsProposal(IInvocationContext context) {
+	private TextEdit getOrganizeImportsProposal(IInvocationContext context, IProgressMonitor monitor) {
 		ICompilationUnit unit = context.getCompilationUnit();
 		CompilationUnit astRoot = context.getASTRoot();
 		OrganizeImportsOperation op = new OrganizeImportsOperation(unit, astRoot, true, false, true, null);
 		try {
-			TextEdit edit = op.createTextEdit(null);
+			TextEdit edit = op.createTextEdit(monitor);
 			TextEdit staticEdit = OrganizeImportsHandler.wrapStaticImports(edit, astRoot, unit);
 			if (staticEdit.getChildrenSize() > 0) {
 				return staticEdit;
 			}
 			return edit;
-		} catch (OperationCanceledException | CoreException e) {
+		} catch (OperationCanceledException e) {
+			// the request was canceled
+		} catch (CoreException e) {
 			JavaLanguageServerPlugin.logException("Resolve organize imports source action", e);
 		}
 
@@ -251,6 +373,8 @@ public class SourceAssistProcessor {
 			AccessorField[] accessors = GenerateGetterSetterOperation.getUnimplementedAccessors(type);
 			if (accessors == null || accessors.length == 0) {
 				return Optional.empty();
+			} else if ((accessors.length == 1 || !preferenceManager.getClientPreferences().isAdvancedGenerateAccessorsSupported()) && isResolveSupported(JavaCodeActionKind.SOURCE_GENERATE_ACCESSORS)) {
+				return getUnresolvedAction(params, ActionMessages.GenerateGetterSetterAction_label, JavaCodeActionKind.SOURCE_GENERATE_ACCESSORS, SOURCE_ACTION_GENERATE_ACCESSORS);
 			} else if (accessors.length == 1 || !preferenceManager.getClientPreferences().isAdvancedGenerateAccessorsSupported()) {
 				GenerateGetterSetterOperation operation = new GenerateGetterSetterOperation(type, context.getASTRoot(), preferenceManager.getPreferences().isCodeGenerationTemplateGenerateComments());
 				TextEdit edit = operation.createTextEdit(null, accessors);
@@ -349,6 +473,9 @@ public class SourceAssistProcessor {
 			if (status.constructors.length == 0) {
 				return Optional.empty();
 			}
+			if (status.constructors.length == 1 && status.fields.length == 0 && isResolveSupported(kind)) {
+				return getUnresolvedAction(params, ActionMessages.GenerateConstructorsAction_label, kind, SOURCE_ACTION_GENERATE_CONSTRUCTORS);
+			}
 			if (status.constructors.length == 1 && status.fields.length == 0) {
 				TextEdit edit = GenerateConstructorsHandler.generateConstructors(type, status.constructors, status.fields, monitor);
 				return convertToWorkspaceEditAction(params.getContext(), type.getCompilationUnit(), ActionMessages.GenerateConstructorsAction_label, kind, edit);
@@ -390,14 +517,25 @@ public class SourceAssistProcessor {
 		}
 	}
 
-	private Optional<Either<Command, CodeAction>> addFinalModifierWherePossibleAction(IInvocationContext context) {
+	private FixCorrectionProposal getFinalModifiersProposal(IInvocationContext context) {
 		IProposableFix fix = (IProposableFix) VariableDeclarationFixCore.createCleanUp(context.getASTRoot(), true, true, true);
 
 		if (fix == null) {
+			return null;
+		}
+
+		return new FixCorrectionProposal(fix, null, IProposalRelevance.MAKE_VARIABLE_DECLARATION_FINAL, context, JavaCodeActionKind.SOURCE_GENERATE_FINAL_MODIFIERS);
+	}
+
+	private Optional<Either<Command, CodeAction>> addFinalModifierWherePossibleAction(CodeActionParams params, IInvocationContext context) {
+		FixCorrectionProposal proposal = getFinalModifiersProposal(context);
+		if (proposal == null) {
 			return Optional.empty();
 		}
+		if (isResolveSupported(proposal.getKind())) {
+			return getUnresolvedAction(params, ActionMessages.GenerateFinalModifiersAction_label, proposal.getKind(), SOURCE_ACTION_GENERATE_FINAL_MODIFIERS);
+		}
 
-		FixCorrectionProposal proposal = new FixCorrectionProposal(fix, null, IProposalRelevance.MAKE_VARIABLE_DECLARATION_FINAL, context, JavaCodeActionKind.SOURCE_GENERATE_FINAL_MODIFIERS);
 		WorkspaceEdit edit;
 		try {
 			edit = ChangeUtil.convertToWorkspaceEdit(proposal.getChange());
@@ -517,4 +655,25 @@ public class SourceAssistProcessor {
 	public static ICompilationUnit getCompilationUnit(CodeActionParams params) {
 		return JDTUtils.resolveCompilationUnit(params.getTextDocument().getUri());
 	}
+
+	/**
+	 * The deadline of the source actions checked from the AST.
+	 */
+	private static final class SourceActionsBudget {
+		private final int budget;
+		private final long deadline;
+
+		SourceActionsBudget(int budget) {
+			this.budget = budget;
+			this.deadline = budget > 0 ? System.currentTimeMillis() + budget : Long.MAX_VALUE;
+		}
+
+		boolean isSpent() {
+			return System.currentTimeMillis() > deadline;
+		}
+
+		int getBudget() {
+			return budget;
+		}
+	}
 }
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.syntaxserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.ls.core.internal.syntaxserver.TypeNameIndex.TypeName;
+import org.junit.Test;
+
+public class TypeNameIndexTest {
+
+	private static final String ROOT = "/work/src";
+
+	//@formatter:off
+	private static final String SOURCE =
+			"package org.sample;\n" +
+			"import java.util.List;\n" +
+			"@SuppressWarnings({\"unused\"})\n" +
+			"public class HashMapEntry {\n" +
+			"	private static class Node { class Leaf {} }\n" +
+			"	public interface Visitor {}\n" +
+			"	enum Color { RED { void m() {} }, BLUE; }\n" +
+			"	Class<?> type = String.class;\n" +
+			"	void run() {\n" +
+			"		class Local {}\n" +
+			"		new Object() { class Anonymous {} };\n" +
+			"	}\n" +
+			"	record Point(int x, int y) {}\n" +
+			"}\n" +
+			"@interface Marker {}\n";
+	//@formatter:on
+
+	private static final int RULE = SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CAMELCASE_MATCH | SearchPattern.R_SUBWORD_MATCH;
+
+	@Test
+	public void testScanSource() throws Exception {
+		TypeNameIndex index = newIndex();
+		Set<String> names = findTypes(index, "", true, RULE, IJavaSearchConstants.TYPE);
+		assertEquals(new TreeSet<>(List.of("org.sample.HashMapEntry", "org.sample.HashMapEntry.Node", "org.sample.HashMapEntry.Node.Leaf", "org.sample.HashMapEntry.Visitor", "org.sample.HashMapEntry.Color", "org.sample.HashMapEntry.Point", "org.sample.Marker")), names);
+
+		TypeName visitor = index.findTypes("Visitor".toCharArray(), true, RULE, IJavaSearchConstants.TYPE, null).get(0);
+		assertEquals("HashMapEntry", visitor.getEnclosingName());
+		assertTrue(Flags.isInterface(visitor.getModifiers()));
+		assertEquals("/work/src/org/sample/HashMapEntry.java", visitor.getPath());
+	}
+
+	@Test
+	public void testMatchRules() throws Exception {
+		TypeNameIndex index = newIndex();
+		assertEquals(Collections.singleton("org.sample.HashMapEntry"), findTypes(index, "hashm", false, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.singleton("org.sample.HashMapEntry"), findTypes(index, "HME", false, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.singleton("org.sample.HashMapEntry"), findTypes(index, "entry", false, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.emptySet(), findTypes(index, "entry", false, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.emptySet(), findTypes(index, "hashm", false, SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CASE_SENSITIVE, IJavaSearchConstants.TYPE));
+	}
+
+	@Test
+	public void testFilters() throws Exception {
+		TypeNameIndex index = newIndex();
+		assertEquals(Collections.emptySet(), findTypes(index, "Leaf", false, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.singleton("org.sample.HashMapEntry.Node.Leaf"), findTypes(index, "Node.L", true, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.singleton("org.sample.HashMapEntry.Node.Leaf"), findTypes(index, "org.sample.HashMapEntry.Node.L", true, RULE, IJavaSearchConstants.TYPE));
+		assertEquals(Collections.singleton("org.sample.Marker"), findTypes(index, "", true, RULE, IJavaSearchConstants.ANNOTATION_TYPE));
+		assertEquals(Collections.singleton("org.sample.HashMapEntry.Color"), findTypes(index, "", true, RULE, IJavaSearchConstants.ENUM));
+		assertEquals(Collections.emptyList(), index.findTypes("Hash".toCharArray(), true, RULE, IJavaSearchConstants.TYPE, Collections.singleton("/other/src")));
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		File stateLocation = Files.createTempDirectory("type-names").toFile();
+		try {
+			TypeNameIndex index = new TypeNameIndex(stateLocation);
+			index.indexSource("/work/src/org/sample/HashMapEntry.java", ROOT, SOURCE.toCharArray(), 1);
+			index.save();
+			TypeNameIndex loaded = new TypeNameIndex(stateLocation);
+			assertEquals(findTypes(index, "", true, RULE, IJavaSearchConstants.TYPE), findTypes(loaded, "", true, RULE, IJavaSearchConstants.TYPE));
+		} finally {
+			FileUtils.deleteDirectory(stateLocation);
+		}
+	}
+
+	private static TypeNameIndex newIndex() {
+		TypeNameIndex index = new TypeNameIndex(null);
+		index.indexSource("/work/src/org/sample/HashMapEntry.java", ROOT, SOURCE.toCharArray(), 1);
+		return index;
+	}
+
+	private static Set<String> findTypes(TypeNameIndex index, String prefix, boolean findMembers, int matchRule, int searchFor) {
+		return index.findTypes(prefix.toCharArray(), findMembers, matchRule, searchFor, null).stream().map(type -> {
+			String container = type.getEnclosingName().isEmpty() ? type.getPackageName() : type.getPackageName() + "." + type.getEnclosingName();
+			return container + "." + type.getSimpleName();
+		}).collect(Collectors.toCollection(TreeSet::new));
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.BufferChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CodeSelectCacheTest {
+
+	private CodeSelectCache cache;
+	private ITypeRoot root;
+	private IBuffer buffer;
+	private IJavaElement[] elements;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = CodeSelectCache.getInstance();
+		cache.clear();
+		root = mock(ITypeRoot.class);
+		buffer = mock(IBuffer.class);
+		elements = new IJavaElement[] { mock(IJavaElement.class) };
+		when(root.getHandleIdentifier()).thenReturn("=hello/src<java{Foo.java");
+		when(root.codeSelect(10, 0)).thenReturn(elements);
+	}
+
+	@After
+	public void tearDown() {
+		cache.clear();
+	}
+
+	@Test
+	public void testResultIsReused() throws Exception {
+		IJavaElement[] first = cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+		IJavaElement[] second = cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+		assertArrayEquals(elements, first);
+		assertArrayEquals(elements, second);
+		assertNotSame(first, second);
+		verify(root, times(1)).codeSelect(10, 0);
+	}
+
+	@Test
+	public void testBufferChange() throws Exception {
+		cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+		cache.bufferChanged(new BufferChangedEvent(buffer, 0, 0, "a"));
+		cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+		verify(root, times(2)).codeSelect(10, 0);
+
+		// another buffer for the same type root
+		cache.codeSelect(root, mock(IBuffer.class), 10, new NullProgressMonitor());
+		verify(root, times(3)).codeSelect(10, 0);
+	}
+
+	@Test
+	public void testConcurrentSelections() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(root.codeSelect(10, 0)).thenAnswer(invocation -> {
+			started.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return elements;
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<IJavaElement[]> first = executor.submit(() -> cache.codeSelect(root, buffer, 10, new NullProgressMonitor()));
+			started.await(10, TimeUnit.SECONDS);
+			Future<IJavaElement[]> second = executor.submit(() -> cache.codeSelect(root, buffer, 10, new NullProgressMonitor()));
+			release.countDown();
+			assertArrayEquals(elements, first.get(10, TimeUnit.SECONDS));
+			assertArrayEquals(elements, second.get(10, TimeUnit.SECONDS));
+			verify(root, times(1)).codeSelect(10, 0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.ls.core.internal.HandoffCache.Snapshot;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.FoldingRange;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HandoffCacheTest {
+
+	private static final String CONTENTS = "package foo;\npublic class Foo {\n}\n";
+
+	private File directory;
+	private HandoffCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("handoff").toFile();
+		cache = new HandoffCache(directory);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(directory);
+	}
+
+	@Test
+	public void testSnapshot() throws Exception {
+		Range range = new Range(new Position(1, 0), new Position(2, 1));
+		DocumentSymbol symbol = new DocumentSymbol("Foo", SymbolKind.Class, range, range);
+		cache.putSnapshot(CONTENTS, snapshot -> snapshot.setDocumentSymbols(Collections.singletonList(symbol)));
+		cache.putSnapshot(CONTENTS, snapshot -> snapshot.setFoldingRanges(Collections.singletonList(new FoldingRange(1, 2))));
+
+		// another server reads the snapshot
+		Snapshot snapshot = new HandoffCache(directory).getSnapshot(CONTENTS);
+		assertEquals(Collections.singletonList(symbol), snapshot.getDocumentSymbols());
+		assertEquals(Collections.singletonList(new FoldingRange(1, 2)), snapshot.getFoldingRanges());
+	}
+
+	@Test
+	public void testChangedContents() throws Exception {
+		cache.putSnapshot(CONTENTS, snapshot -> snapshot.setFoldingRanges(Collections.singletonList(new FoldingRange(1, 2))));
+		assertNull(cache.getSnapshot(CONTENTS + "//"));
+	}
+}
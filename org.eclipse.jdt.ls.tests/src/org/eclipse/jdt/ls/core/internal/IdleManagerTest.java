@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdleManagerTest {
+
+	private static final long TIMEOUT = 10 * 60 * 1000L;
+
+	private IdleManager idleManager;
+
+	@Before
+	public void setUp() {
+		idleManager = new IdleManager();
+	}
+
+	@After
+	public void tearDown() {
+		idleManager.shutdown();
+	}
+
+	@Test
+	public void testGetStage() {
+		assertEquals(0, IdleManager.getStage(TIMEOUT - 1, TIMEOUT));
+		assertEquals(1, IdleManager.getStage(TIMEOUT, TIMEOUT));
+		assertEquals(2, IdleManager.getStage(2 * TIMEOUT + 1, TIMEOUT));
+		assertEquals(2, IdleManager.getStage(3 * TIMEOUT, TIMEOUT));
+		assertEquals(2, IdleManager.getStage(100 * TIMEOUT, TIMEOUT));
+	}
+
+	@Test
+	public void testStageTransitions() throws Exception {
+		ITypeRoot root = mock(ITypeRoot.class);
+		IBuffer buffer = mock(IBuffer.class);
+		when(root.getHandleIdentifier()).thenReturn("=hello/src<java{Foo.java");
+		when(root.codeSelect(10, 0)).thenReturn(new IJavaElement[] { mock(IJavaElement.class) });
+		CodeSelectCache cache = CodeSelectCache.getInstance();
+		cache.clear();
+		try {
+			long start = System.currentTimeMillis();
+			cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+			assertEquals(0, idleManager.check(start + TIMEOUT - 1, TIMEOUT));
+			cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+			verify(root, times(1)).codeSelect(10, 0);
+
+			// the caches are released after the timeout
+			assertEquals(1, idleManager.check(start + TIMEOUT, TIMEOUT));
+			cache.codeSelect(root, buffer, 10, new NullProgressMonitor());
+			verify(root, times(2)).codeSelect(10, 0);
+
+			// the binary roots are closed once the jobs are done
+			JobHelpers.waitForJobsToComplete();
+			assertEquals(2, idleManager.check(start + 3 * TIMEOUT, TIMEOUT));
+
+			// a message from the client starts over
+			MessageConsumer consumer = idleManager.apply(message -> {
+			});
+			consumer.consume(new NotificationMessage());
+			long now = System.currentTimeMillis();
+			assertEquals(0, idleManager.check(now, TIMEOUT));
+			assertEquals(1, idleManager.check(now + TIMEOUT, TIMEOUT));
+		} finally {
+			cache.clear();
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		assertEquals(0, IdleManager.getStage(100 * TIMEOUT, 0));
+	}
+}
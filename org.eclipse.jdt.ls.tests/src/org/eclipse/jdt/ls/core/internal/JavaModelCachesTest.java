@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathAttribute;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.After;
+import org.junit.Test;
+
+public class JavaModelCachesTest extends AbstractProjectsManagerBasedTest {
+
+	private static final long MAX_MEMORY = 1024L * 1024 * 1024;
+
+	@After
+	public void restoreLimits() {
+		JavaModelCaches.configure(JavaLanguageServerPlugin.getPreferencesManager().getPreferences());
+	}
+
+	@Test
+	public void testDefaultLimits() {
+		Map<String, Integer> limits = JavaModelCaches.computeLimits(100, 100, 100, 100, 0, MAX_MEMORY);
+		assertEquals(Integer.valueOf(4000), limits.get(JavaModelCaches.OPENABLE_CACHE));
+		assertEquals(Integer.valueOf(800), limits.get(JavaModelCaches.ROOT_CACHE));
+		assertEquals(Integer.valueOf(8000), limits.get(JavaModelCaches.PACKAGE_CACHE));
+		assertEquals(Integer.valueOf(4000), limits.get(JavaModelCaches.JAR_TYPE_CACHE));
+		assertEquals(Integer.valueOf(60), limits.get(JavaModelCaches.BUFFER_CACHE));
+	}
+
+	@Test
+	public void testRatios() {
+		Map<String, Integer> limits = JavaModelCaches.computeLimits(200, 50, 100, 100, 0, MAX_MEMORY);
+		assertEquals(Integer.valueOf(8000), limits.get(JavaModelCaches.OPENABLE_CACHE));
+		assertEquals(Integer.valueOf(400), limits.get(JavaModelCaches.ROOT_CACHE));
+		assertEquals(Integer.valueOf(4000), limits.get(JavaModelCaches.PACKAGE_CACHE));
+	}
+
+	@Test
+	public void testMemoryBudget() {
+		Map<String, Integer> small = JavaModelCaches.computeLimits(100, 100, 100, 100, 5, MAX_MEMORY);
+		Map<String, Integer> large = JavaModelCaches.computeLimits(100, 100, 100, 100, 50, MAX_MEMORY);
+		int defaultOpenable = JavaModelCaches.computeLimits(100, 100, 100, 100, 0, MAX_MEMORY).get(JavaModelCaches.OPENABLE_CACHE);
+		assertTrue(small.get(JavaModelCaches.OPENABLE_CACHE) < defaultOpenable);
+		assertTrue(large.get(JavaModelCaches.OPENABLE_CACHE) > defaultOpenable);
+		assertEquals(10d, (double) large.get(JavaModelCaches.OPENABLE_CACHE) / small.get(JavaModelCaches.OPENABLE_CACHE), 0.01);
+	}
+
+	@Test
+	public void testJarTypeLimitAfterClasspathChange() throws Exception {
+		importProjects("eclipse/hello");
+		IProject project = WorkspaceHelper.getProject("hello");
+		IJavaProject javaProject = JavaCore.create(project);
+		JavaModelCaches.configure(100, 100, 50, 100, 0);
+		int limit = JavaModelCaches.computeLimits(100, 100, 50, 100, 0, Runtime.getRuntime().maxMemory()).get(JavaModelCaches.JAR_TYPE_CACHE);
+		assertEquals(limit, JavaModelCaches.getStatistics().get(JavaModelCaches.JAR_TYPE_CACHE).getLimit());
+
+		// JDT replaces the jar type cache with a default sized one
+		JavaModelManager.getJavaModelManager().resetJarTypeCache();
+		JavaProjectHelper.addSourceContainer(javaProject, "src2", new Path[0], new Path[0], null, new IClasspathAttribute[0]);
+		assertEquals(limit, JavaModelCaches.getStatistics().get(JavaModelCaches.JAR_TYPE_CACHE).getLimit());
+	}
+}
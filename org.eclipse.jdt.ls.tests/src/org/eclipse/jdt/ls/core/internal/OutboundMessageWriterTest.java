@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.lsp4j.MessageParams;
+import org.eclipse.lsp4j.MessageType;
+import org.eclipse.lsp4j.jsonrpc.JsonRpcException;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+import org.junit.Test;
+
+public class OutboundMessageWriterTest {
+
+	@Test
+	public void testWrite() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		MessageJsonHandler jsonHandler = new MessageJsonHandler(Collections.emptyMap());
+		OutboundMessageWriter writer = new OutboundMessageWriter(output, jsonHandler, 100);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			NotificationMessage notification = newLogMessage("message é " + i);
+			writer.consume(notification);
+			String json = jsonHandler.serialize(notification);
+			expected.append("Content-Length: ").append(json.getBytes(StandardCharsets.UTF_8).length).append("\r\n\r\n").append(json);
+		}
+		waitForOutput(output, expected.toString().getBytes(StandardCharsets.UTF_8).length);
+		assertEquals(expected.toString(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testDropLowPriority() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ByteArrayOutputStream output = new ByteArrayOutputStream() {
+			@Override
+			public synchronized void write(byte[] b, int off, int len) {
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.write(b, off, len);
+			}
+		};
+		OutboundMessageWriter writer = new OutboundMessageWriter(output, new MessageJsonHandler(Collections.emptyMap()), 2);
+		// the writer is blocked on the first message, the responses fill the queue
+		writer.consume(newResponse("0", "first"));
+		for (int i = 1; i <= 3; i++) {
+			writer.consume(newResponse(String.valueOf(i), "response " + i));
+		}
+		// the caller is not blocked, the notification is dropped
+		writer.consume(newLogMessage("dropped"));
+		ProgressReport report = new ProgressReport("progress");
+		report.setComplete(true);
+		NotificationMessage end = new NotificationMessage();
+		end.setMethod("language/progressReport");
+		end.setParams(report);
+		writer.consume(end);
+		assertEquals(1, writer.getDroppedCount());
+		release.countDown();
+
+		waitForOutput(output, Integer.MAX_VALUE, () -> new String(output.toByteArray(), StandardCharsets.UTF_8).contains("\"complete\":true"));
+		String written = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(written.contains("response 3"));
+		assertFalse(written.contains("dropped"));
+	}
+
+	@Test
+	public void testSerializationFailure() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		MessageJsonHandler jsonHandler = new MessageJsonHandler(Collections.emptyMap()) {
+			@Override
+			public void serialize(Message message, Writer output) {
+				if (message instanceof ResponseMessage && "unserializable".equals(((ResponseMessage) message).getResult())) {
+					throw new IllegalStateException("failed");
+				}
+				super.serialize(message, output);
+			}
+		};
+		OutboundMessageWriter writer = new OutboundMessageWriter(output, jsonHandler, 100);
+		writer.consume(newResponse("1", "unserializable"));
+		waitForOutput(output, Integer.MAX_VALUE, () -> output.size() > 0);
+		String written = new String(output.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(written, written.contains("\"id\":\"1\""));
+		assertTrue(written, written.contains("\"code\":-32603"));
+		assertFalse(written, written.contains("unserializable"));
+	}
+
+	@Test
+	public void testWriteFailure() throws Exception {
+		OutputStream output = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("closed");
+			}
+		};
+		OutboundMessageWriter writer = new OutboundMessageWriter(output, new MessageJsonHandler(Collections.emptyMap()), 100);
+		writer.consume(newResponse("1", "lost"));
+		long timeout = System.currentTimeMillis() + 10000;
+		while (System.currentTimeMillis() < timeout) {
+			try {
+				writer.consume(newResponse("2", "rejected"));
+			} catch (JsonRpcException e) {
+				assertTrue(e.getCause() instanceof IOException);
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("The messages are not rejected");
+	}
+
+	@Test
+	public void testLowPriority() {
+		assertTrue(OutboundMessageWriter.isLowPriority(newLogMessage("message")));
+		assertFalse(OutboundMessageWriter.isLowPriority(new ResponseMessage()));
+	}
+
+	private static void waitForOutput(ByteArrayOutputStream output, int size) throws InterruptedException {
+		waitForOutput(output, size, () -> false);
+	}
+
+	private static void waitForOutput(ByteArrayOutputStream output, int size, BooleanSupplier done) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 10000;
+		while (output.size() < size && !done.getAsBoolean() && System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static ResponseMessage newResponse(String id, Object result) {
+		ResponseMessage response = new ResponseMessage();
+		response.setId(id);
+		response.setResult(result);
+		return response;
+	}
+
+	private static NotificationMessage newLogMessage(String message) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setMethod("window/logMessage");
+		notification.setParams(new MessageParams(MessageType.Info, message));
+		return notification;
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
+import org.eclipse.jdt.ls.core.internal.JavaModelCaches;
+import org.eclipse.jdt.ls.core.internal.JavaModelCaches.CacheStatistics;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+import org.junit.After;
+import org.junit.Test;
+
+public class JavaModelCacheCommandTest {
+
+	@After
+	public void tearDown() {
+		JavaModelCaches.configure(JavaLanguageServerPlugin.getPreferencesManager().getPreferences());
+	}
+
+	@Test
+	public void testStatistics() {
+		Map<String, CacheStatistics> statistics = JavaModelCacheCommand.tuneModelCaches(null);
+		assertEquals(5, statistics.size());
+		assertTrue(statistics.get(JavaModelCaches.ROOT_CACHE).getLimit() > 0);
+	}
+
+	@Test
+	public void testTuneModelCaches() {
+		Preferences preferences = JavaLanguageServerPlugin.getPreferencesManager().getPreferences();
+		int elementRatio = preferences.getModelCacheElementRatio();
+		Map<String, Object> settings = new HashMap<>();
+		settings.put(Preferences.JAVA_SERVER_MODEL_CACHE_ELEMENT_RATIO_KEY, 50);
+		settings.put(Preferences.JAVA_SERVER_MODEL_CACHE_BUFFER_RATIO_KEY, "200");
+
+		Map<String, CacheStatistics> statistics = JavaModelCacheCommand.tuneModelCaches(settings);
+		Map<String, Integer> limits = JavaModelCaches.computeLimits(preferences.getModelCacheOpenableRatio(), 50, preferences.getModelCacheJarTypeRatio(), 200, preferences.getModelCacheMemoryBudget(), Runtime.getRuntime().maxMemory());
+		assertEquals(limits.get(JavaModelCaches.ROOT_CACHE).intValue(), statistics.get(JavaModelCaches.ROOT_CACHE).getLimit());
+		assertEquals(limits.get(JavaModelCaches.PACKAGE_CACHE).intValue(), statistics.get(JavaModelCaches.PACKAGE_CACHE).getLimit());
+		assertEquals(limits.get(JavaModelCaches.BUFFER_CACHE).intValue(), statistics.get(JavaModelCaches.BUFFER_CACHE).getLimit());
+
+		// the command doesn't change the preferences, they're applied again on the next change
+		assertEquals(elementRatio, preferences.getModelCacheElementRatio());
+		JavaModelCaches.configure(preferences);
+		limits = JavaModelCaches.computeLimits(preferences.getModelCacheOpenableRatio(), elementRatio, preferences.getModelCacheJarTypeRatio(), preferences.getModelCacheBufferRatio(), preferences.getModelCacheMemoryBudget(), Runtime.getRuntime().maxMemory());
+		assertEquals(limits.get(JavaModelCaches.ROOT_CACHE).intValue(), JavaModelCaches.getStatistics().get(JavaModelCaches.ROOT_CACHE).getLimit());
+	}
+}
@@ -24,6 +24,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractInvisibleProjectBasedTest;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.ResolveTypeHierarchyItemParams;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TypeHierarchyDirection;
 import org.eclipse.lsp4j.TypeHierarchyItem;
@@ -41,6 +42,7 @@ public class TypeHierarchyCommandTest extends AbstractInvisibleProjectBasedTest
 		importProjects("maven/salut");
 		fJProject = WorkspaceHelper.getProject("salut");
 		fCommand = new TypeHierarchyCommand();
+		TypeHierarchyCommand.clearCache();
 	}
 
 	@Test
@@ -114,4 +116,31 @@ public class TypeHierarchyCommandTest extends AbstractInvisibleProjectBasedTest
 			}
 		}
 	}
+
+	@Test
+	public void testResolveSubTypeHierarchy() throws Exception {
+		IProgressMonitor monitor = new NullProgressMonitor();
+		TypeHierarchyParams params = new TypeHierarchyParams();
+		String uriString = fJProject.getFile("src/main/java/org/sample/CallHierarchy.java").getLocationURI().toString();
+		params.setTextDocument(new TextDocumentIdentifier(uriString));
+		params.setResolve(1);
+		params.setDirection(TypeHierarchyDirection.Children);
+		params.setPosition(new Position(2, 43));
+		TypeHierarchyItem item = fCommand.typeHierarchy(params, monitor);
+		assertNotNull(item);
+		assertEquals(item.getChildren().size(), 9);
+		TypeHierarchyItem toStringBuilder = item.getChildren().stream().filter(child -> "ToStringBuilder".equals(child.getName())).findFirst().orElse(null);
+		assertNotNull(toStringBuilder);
+		assertNull(toStringBuilder.getChildren());
+
+		// expands the child from the hierarchy of the focus type
+		ResolveTypeHierarchyItemParams resolveParams = new ResolveTypeHierarchyItemParams();
+		resolveParams.setItem(toStringBuilder);
+		resolveParams.setResolve(1);
+		resolveParams.setDirection(TypeHierarchyDirection.Children);
+		TypeHierarchyItem resolved = fCommand.resolveTypeHierarchy(resolveParams, monitor);
+		assertNotNull(resolved);
+		assertEquals(resolved.getChildren().size(), 1);
+		assertEquals(resolved.getChildren().get(0).getName(), "ReflectionToStringBuilder");
+	}
 }
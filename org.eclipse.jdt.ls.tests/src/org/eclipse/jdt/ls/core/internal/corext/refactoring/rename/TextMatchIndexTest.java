@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.corext.refactoring.rename;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.ls.core.internal.ChangeUtil;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.TextEditUtil;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.ltk.core.refactoring.CheckConditionsOperation;
+import org.eclipse.ltk.core.refactoring.CreateChangeOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextMatchIndexTest extends AbstractProjectsManagerBasedTest {
+
+	private IProject project;
+	private IFile file;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("hello");
+		file = project.getFile("src/test1/TextMatch.java");
+		setContents(file, "package test1;\n/** See test1.Renamed#value_2 */\npublic class TextMatch {\n\tString s = \"$quoted\";\n}\n");
+	}
+
+	@Test
+	public void testMayContain() throws Exception {
+		TextMatchIndex index = TextMatchIndex.getInstance();
+		assertTrue(index.mayContain(file, "Renamed"));
+		assertTrue(index.mayContain(file, "value_2"));
+		assertTrue(index.mayContain(file, "quoted"));
+		assertTrue(index.mayContain(file, "TextMatch"));
+		assertFalse(index.mayContain(file, "Missing"));
+		assertFalse(index.mayContain(file, "value_3"));
+	}
+
+	@Test
+	public void testFileChange() throws Exception {
+		TextMatchIndex index = TextMatchIndex.getInstance();
+		assertTrue(index.mayContain(file, "quoted"));
+		setContents(file, "package test1;\n/** See Added */\npublic class TextMatch {\n}\n");
+		assertTrue(index.mayContain(file, "Added"));
+		assertTrue(index.mayContain(file, "TextMatch"));
+		assertFalse(index.mayContain(file, "quoted"));
+		assertFalse(index.mayContain(file, "value_2"));
+	}
+
+	@Test
+	public void testNonWordName() throws Exception {
+		TextMatchIndex index = TextMatchIndex.getInstance();
+		assertTrue(index.mayContain(file, "Missing$Inner"));
+		assertTrue(index.mayContain(file, ""));
+	}
+
+	@Test
+	public void testRenameTextualMatches() throws Exception {
+		setContents(project.getFile("src/test1/Counter.java"), "package test1;\npublic class Counter {\n\tint tally;\n}\n");
+		String mention = "package test1;\n/** Reads the tally */\npublic class Mention {\n}\n";
+		IFile mentionFile = project.getFile("src/test1/Mention.java");
+		setContents(mentionFile, mention);
+		IFile unsavedFile = project.getFile("src/test1/Unsaved.java");
+		setContents(unsavedFile, "package test1;\npublic class Unsaved {\n}\n");
+		// not a working copy: the saved file, which doesn't contain the name, is checked instead of the buffer
+		ICompilationUnit unsaved = JavaCore.createCompilationUnitFrom(unsavedFile);
+		unsaved.getBuffer().setContents("package test1;\n/** Unsaved tally */\npublic class Unsaved {\n}\n");
+		try {
+			ICompilationUnit cu = JavaCore.createCompilationUnitFrom(project.getFile("src/test1/Counter.java"));
+			IField field = cu.getType("Counter").getField("tally");
+			RenameSupport renameSupport = RenameSupport.create(field, "total", RenameSupport.UPDATE_REFERENCES | RenameSupport.UPDATE_TEXTUAL_MATCHES);
+			CheckConditionsOperation check = new CheckConditionsOperation(renameSupport.getRenameRefactoring(), CheckConditionsOperation.ALL_CONDITIONS);
+			CreateChangeOperation create = new CreateChangeOperation(check, RefactoringStatus.FATAL);
+			create.run(new NullProgressMonitor());
+			WorkspaceEdit edit = ChangeUtil.convertToWorkspaceEdit(create.getChange());
+
+			assertEquals(2, edit.getChanges().size());
+			assertEquals("package test1;\npublic class Counter {\n\tint total;\n}\n", TextEditUtil.apply(cu, edit.getChanges().get(JDTUtils.toURI(cu))));
+			ICompilationUnit mentionUnit = JavaCore.createCompilationUnitFrom(mentionFile);
+			assertEquals(mention.replace("tally", "total"), TextEditUtil.apply(mention, edit.getChanges().get(JDTUtils.toURI(mentionUnit))));
+			assertFalse(edit.getChanges().containsKey(JDTUtils.toURI(unsaved)));
+		} finally {
+			unsaved.close();
+		}
+	}
+
+	private static void setContents(IFile file, String contents) throws Exception {
+		ByteArrayInputStream source = new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+		if (file.exists()) {
+			file.setContents(source, true, false, null);
+		} else {
+			file.create(source, true, null);
+		}
+	}
+}
@@ -45,6 +45,7 @@ import org.eclipse.jdt.ls.core.internal.ProjectUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.codemanipulation.AbstractSourceTestCase;
 import org.eclipse.jdt.ls.core.internal.correction.AbstractQuickFixTest;
+import org.eclipse.jdt.ls.core.internal.corrections.QuickFixCache;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.PreferenceManager;
 import org.eclipse.lsp4j.CodeAction;
@@ -58,6 +59,7 @@ import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.junit.Assert;
 import org.junit.Before;
@@ -68,6 +70,8 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.google.gson.Gson;
+
 /**
  * @author Gorkem Ercan
  *
@@ -172,6 +176,172 @@ public class CodeActionHandlerTest extends AbstractCompilationUnitBasedTest {
 		}
 	}
 
+	@Test
+	public void testCodeAction_organizeImportsOverBudget() throws Exception {
+		// the budget only applies to the source actions deferred to codeAction/resolve
+		preferences.setSourceActionsBudget(1);
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+				"public class Foo {\n"+
+				"	void foo() {\n"+
+				"	}\n"+
+				"}\n");
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		params.setRange(CodeActionUtil.getRange(unit, "foo()"));
+		params.setContext(new CodeActionContext(Collections.emptyList(), Collections.singletonList(CodeActionKind.SourceOrganizeImports)));
+		List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+
+		Assert.assertEquals(1, codeActions.size());
+		Assert.assertEquals(CodeActionKind.SourceOrganizeImports, codeActions.get(0).getRight().getKind());
+		Assert.assertNotNull(codeActions.get(0).getRight().getCommand());
+	}
+
+	@Test
+	public void testCodeAction_resolveOrganizeImports() throws Exception {
+		when(clientPreferences.isResolveCodeActionSupported()).thenReturn(true);
+		//@formatter:off
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+				"public class Foo {\n"+
+				"	void foo() {\n"+
+				"	}\n"+
+				"}\n");
+		//@formatter:on
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		params.setRange(CodeActionUtil.getRange(unit, "foo()"));
+		params.setContext(new CodeActionContext(Collections.emptyList(), Collections.singletonList(CodeActionKind.SourceOrganizeImports)));
+		List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+
+		Assert.assertEquals(1, codeActions.size());
+		CodeAction codeAction = codeActions.get(0).getRight();
+		Assert.assertEquals(CodeActionKind.SourceOrganizeImports, codeAction.getKind());
+		Assert.assertNull(codeAction.getEdit());
+		Assert.assertNull(codeAction.getCommand());
+
+		// the data comes back from the client as JSON
+		Gson gson = new MessageJsonHandler(Collections.emptyMap()).getGson();
+		CodeAction unresolved = gson.fromJson(gson.toJson(codeAction), CodeAction.class);
+		CodeAction resolved = server.resolveCodeAction(unresolved).join();
+		Assert.assertNotNull(resolved.getEdit());
+		Assert.assertFalse(resolved.getEdit().getChanges().get(JDTUtils.toURI(unit)).isEmpty());
+	}
+
+	@Test
+	public void testCodeAction_quickFixCache() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		String bar = \"astring\";"+
+				"	}\n"+
+				"}\n");
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = CodeActionUtil.getRange(unit, "bar");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.LocalVariableIsNeverUsed), range)), Collections.singletonList(CodeActionKind.QuickFix)));
+		List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+		Assert.assertFalse("No quick fixes were found", codeActions.isEmpty());
+
+		long hitCount = QuickFixCache.getInstance().getHitCount();
+		List<Either<Command, CodeAction>> cachedCodeActions = getCodeActions(params);
+		Assert.assertEquals(hitCount + 1, QuickFixCache.getInstance().getHitCount());
+		Assert.assertEquals(codeActions.size(), cachedCodeActions.size());
+		for (int i = 0; i < codeActions.size(); i++) {
+			Assert.assertEquals(codeActions.get(i).getRight().getTitle(), cachedCodeActions.get(i).getRight().getTitle());
+		}
+	}
+
+	@Test
+	public void testCodeAction_resolveImportQuickFix() throws Exception {
+		when(clientPreferences.isResolveCodeActionSupported()).thenReturn(true);
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+				"	List foo;\n"+
+				"}\n");
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = CodeActionUtil.getRange(unit, "List");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.UndefinedType), range)), Collections.singletonList(CodeActionKind.QuickFix)));
+		List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+		Optional<CodeAction> importAction = codeActions.stream().map(Either::getRight).filter(a -> a.getTitle().contains("java.util")).findFirst();
+		Assert.assertTrue("No import quick fix was found", importAction.isPresent());
+		CodeAction codeAction = importAction.get();
+		Assert.assertNull(codeAction.getEdit());
+		Assert.assertNull(codeAction.getCommand());
+		Assert.assertNotNull(codeAction.getData());
+
+		// the data comes back from the client as JSON
+		Gson gson = new MessageJsonHandler(Collections.emptyMap()).getGson();
+		CodeAction unresolved = gson.fromJson(gson.toJson(codeAction), CodeAction.class);
+		CodeAction resolved = server.resolveCodeAction(unresolved).join();
+		Assert.assertNotNull(resolved.getEdit());
+		String newText = resolved.getEdit().getChanges().get(JDTUtils.toURI(unit)).stream().map(e -> e.getNewText()).collect(Collectors.joining());
+		Assert.assertTrue(newText, newText.contains("import java.util.List;"));
+	}
+
+	@Test
+	public void testCodeAction_stableOrder() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"import java.sql.*; \n" +
+				"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		String bar = \"astring\";"+
+				"	}\n"+
+				"}\n");
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = CodeActionUtil.getRange(unit, "bar");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.LocalVariableIsNeverUsed), range))));
+		List<String> titles = getCodeActions(params).stream().map(a -> a.getRight().getTitle()).collect(Collectors.toList());
+		Assert.assertFalse("No code actions were found", titles.isEmpty());
+		for (int i = 0; i < 5; i++) {
+			List<Either<Command, CodeAction>> codeActions = getCodeActions(params);
+			Assert.assertEquals(titles, codeActions.stream().map(a -> a.getRight().getTitle()).collect(Collectors.toList()));
+			Assert.assertEquals(CodeActionKind.QuickFix, codeActions.get(0).getRight().getKind());
+			Assert.assertTrue(codeActions.get(codeActions.size() - 1).getRight().getKind().startsWith(CodeActionKind.Source));
+		}
+	}
+
+	@Test
+	public void testCodeAction_canceledWhileProcessing() throws Exception {
+		ICompilationUnit unit = getWorkingCopy(
+				"src/java/Foo.java",
+				"public class Foo {\n"+
+				"	void foo() {\n"+
+				"		String bar = \"astring\";"+
+				"	}\n"+
+				"}\n");
+		CodeActionParams params = new CodeActionParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(unit)));
+		final Range range = CodeActionUtil.getRange(unit, "bar");
+		params.setRange(range);
+		params.setContext(new CodeActionContext(Arrays.asList(getDiagnostic(Integer.toString(IProblem.LocalVariableIsNeverUsed), range)), Collections.singletonList(CodeActionKind.QuickFix)));
+		// the request is canceled once a processor checks it
+		NullProgressMonitor monitor = new NullProgressMonitor() {
+			private volatile boolean canceled;
+
+			@Override
+			public boolean isCanceled() {
+				if (Thread.currentThread().getName().equals("Code Action Processor")) {
+					canceled = true;
+				}
+				return canceled;
+			}
+		};
+		List<Either<Command, CodeAction>> codeActions = new CodeActionHandler(preferenceManager).getCodeActionCommands(params, monitor);
+		Assert.assertTrue(monitor.isCanceled());
+		Assert.assertTrue(codeActions.isEmpty());
+	}
+
 	@Test
 	public void testCodeAction_refactorActionsOnly() throws Exception {
 		ICompilationUnit unit = getWorkingCopy(
@@ -23,11 +23,19 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
@@ -336,6 +344,48 @@ public class CodeLensHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertRange(5, 25, 28, loc.getRange());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testResolveCodeLenseWithIndex() throws Exception {
+		File stateLocation = Files.createTempDirectory("referenceCounts").toFile();
+		ReferenceCountIndex index = new ReferenceCountIndex(stateLocation);
+		index.addElementChangedListener();
+		try {
+			handler = new CodeLensHandler(preferenceManager, index);
+			String source = "src/java/Foo.java";
+			String payload = createCodeLensRequest(source, 5, 13, 16);
+			CodeLens result = handler.resolve(getParams(payload), monitor);
+			assertEquals("1 reference", result.getCommand().getTitle());
+
+			// a new unit referencing the type must be picked up incrementally
+			IPackageFragment pack = JavaCore.create(project).findPackageFragment(project.getFullPath().append("src/java"));
+			pack.createCompilationUnit("Baz.java", "package java;\npublic class Baz {\n  Foo foo;\n}\n", true, monitor);
+			result = handler.resolve(getParams(payload), monitor);
+			Command command = result.getCommand();
+			assertEquals("2 references", command.getTitle());
+			List<Location> locations = (List<Location>) command.getArguments().get(2);
+			assertEquals(2, locations.size());
+			assertTrue(locations.stream().anyMatch(l -> l.getUri().endsWith("src/java/Baz.java")));
+
+			// the index is restored from the state location
+			index.save();
+			ReferenceCountIndex restored = new ReferenceCountIndex(stateLocation);
+			result = new CodeLensHandler(preferenceManager, restored).resolve(getParams(payload), monitor);
+			assertEquals("2 references", result.getCommand().getTitle());
+
+			// the units changed while the index wasn't listening are searched again
+			index.removeElementChangedListener();
+			IFile baz = project.getFile("src/java/Baz.java");
+			baz.setContents(new ByteArrayInputStream("package java;\npublic class Baz {\n}\n".getBytes(StandardCharsets.UTF_8)), true, false, monitor);
+			restored = new ReferenceCountIndex(stateLocation);
+			result = new CodeLensHandler(preferenceManager, restored).resolve(getParams(payload), monitor);
+			assertEquals("1 reference", result.getCommand().getTitle());
+		} finally {
+			index.removeElementChangedListener();
+			FileUtils.deleteDirectory(stateLocation);
+		}
+	}
+
 	@Test
 	public void testResolveCodeLenseBoundaries() {
 		CodeLens result = handler.resolve(null, monitor);
@@ -13,9 +13,17 @@
 package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
@@ -29,8 +37,16 @@ import java.util.stream.Stream;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
+import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
+import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.lsp4j.DocumentSymbol;
@@ -44,6 +60,7 @@ import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.TreeTraverser;
 
@@ -60,6 +77,7 @@ public class DocumentSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		importProjects(Arrays.asList("maven/salut", "eclipse/source-attachment"));
 		project = WorkspaceHelper.getProject("salut");
 		noSourceProject = WorkspaceHelper.getProject("source-attachment");
+		DocumentSymbolHandler.clearCache();
 	}
 
 	@Test
@@ -72,6 +90,88 @@ public class DocumentSymbolHandlerTest extends AbstractProjectsManagerBasedTest
 		testClass("org.apache.commons.lang3.text.WordUtils", true);
 	}
 
+	@Test
+	public void testSymbolsAfterChange() throws Exception {
+		IPackageFragmentRoot sourceFolder = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src/main/java"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n\tint x;\n\tvoid foo() {}\n}\n", false, null);
+		List<? extends SymbolInformation> symbols = getSymbols(cu);
+		assertEquals(Arrays.asList("x", "foo()", "E"), symbols.stream().map(SymbolInformation::getName).collect(toList()));
+		assertSymbolLocations(symbols, cu);
+		assertSame(symbols.get(0).getLocation(), getSymbols(cu).get(0).getLocation());
+
+		cu = pack1.createCompilationUnit("E.java", "package test1;\r\npublic class E {\r\n\tString x;\r\n\r\n\tvoid foo() {}\r\n\tvoid bar(int i) {}\r\n}\r\n", true, null);
+		symbols = getSymbols(cu);
+		assertEquals(Arrays.asList("x", "foo()", "bar(int)", "E"), symbols.stream().map(SymbolInformation::getName).collect(toList()));
+		assertSymbolLocations(symbols, cu);
+		assertEquals(4, symbols.get(1).getLocation().getRange().getStart().getLine());
+	}
+
+	@Test
+	public void testPartialResults() throws Exception {
+		IPackageFragmentRoot sourceFolder = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src/main/java"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n\tint x;\n\tvoid foo() {}\n}\nclass F {\n}\n", true, null);
+		DocumentSymbolParams params = new DocumentSymbolParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(cu)));
+		Either<String, Integer> token = Either.forLeft("symbols");
+		params.setPartialResultToken(token);
+		JavaClientConnection connection = mock(JavaClientConnection.class);
+		when(connection.isPartialResultSupported()).thenReturn(true);
+		List<Either<SymbolInformation, DocumentSymbol>> symbols = new DocumentSymbolHandler(true).documentSymbol(params, new PartialResultCollector<>(connection, token), monitor);
+		assertTrue("symbols are streamed", symbols.isEmpty());
+		// the package declaration and each top-level type are sent on their own
+		ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+		verify(connection, times(3)).sendPartialResult(eq(token), captor.capture());
+		List<String> names = captor.getAllValues().stream().flatMap(result -> ((List<?>) result).stream()).map(symbol -> ((Either<?, ?>) symbol).getRight()).map(symbol -> ((DocumentSymbol) symbol).getName()).collect(toList());
+		assertEquals(Arrays.asList("test1", "E", "F"), names);
+	}
+
+	@Test
+	public void testDetailLimit() throws Exception {
+		IPackageFragmentRoot sourceFolder = JavaCore.create(project).getPackageFragmentRoot(project.getFolder("src/main/java"));
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n\tint x;\n\tvoid foo() {}\n}\n", true, null);
+		int detailLimit = preferenceManager.getPreferences().getDocumentSymbolDetailLimit();
+		try {
+			DocumentSymbol type = getHierarchicalSymbols(cu).get(1);
+			assertNotNull(type.getChildren().get(0).getDetail());
+			assertEquals("() : void", type.getChildren().get(1).getDetail());
+
+			preferenceManager.getPreferences().setDocumentSymbolDetailLimit(2);
+			type = getHierarchicalSymbols(cu).get(1);
+			assertEquals("E", type.getName());
+			assertNotNull(type.getChildren().get(0).getDetail());
+			assertNull(type.getChildren().get(1).getDetail());
+
+			preferenceManager.getPreferences().setDocumentSymbolDetailLimit(detailLimit);
+			type = getHierarchicalSymbols(cu).get(1);
+			assertEquals("() : void", type.getChildren().get(1).getDetail());
+		} finally {
+			preferenceManager.getPreferences().setDocumentSymbolDetailLimit(detailLimit);
+		}
+	}
+
+	private List<DocumentSymbol> getHierarchicalSymbols(ICompilationUnit cu) {
+		DocumentSymbolParams params = new DocumentSymbolParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(cu)));
+		return new DocumentSymbolHandler(true).documentSymbol(params, monitor).stream().map(Either::getRight).collect(toList());
+	}
+
+	private void assertSymbolLocations(List<? extends SymbolInformation> symbols, ICompilationUnit cu) throws JavaModelException {
+		for (IJavaElement element : cu.getTypes()[0].getChildren()) {
+			Location location = JDTUtils.toLocation(element);
+			location.setUri(ResourceUtils.toClientUri(location.getUri()));
+			assertTrue(element.getElementName(), symbols.stream().anyMatch(symbol -> symbol.getLocation().equals(location)));
+		}
+	}
+
+	private List<? extends SymbolInformation> getSymbols(ICompilationUnit cu) {
+		DocumentSymbolParams params = new DocumentSymbolParams();
+		params.setTextDocument(new TextDocumentIdentifier(JDTUtils.toURI(cu)));
+		return new DocumentSymbolHandler(false).documentSymbol(params, monitor).stream().map(Either::getLeft).collect(toList());
+	}
+
 	@Test
 	public void testSyntheticMember() throws Exception {
 		String className = "org.apache.commons.lang3.text.StrTokenizer";
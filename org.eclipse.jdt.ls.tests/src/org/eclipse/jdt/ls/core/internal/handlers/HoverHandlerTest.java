@@ -39,6 +39,7 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.ClassFileUtil;
 import org.eclipse.jdt.ls.core.internal.DependencyUtil;
+import org.eclipse.jdt.ls.core.internal.HoverInfoProvider;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
 import org.eclipse.jdt.ls.core.internal.JavaLanguageServerPlugin;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
@@ -97,6 +98,7 @@ public class HoverHandlerTest extends AbstractProjectsManagerBasedTest {
 		preferenceManager = mock(PreferenceManager.class);
 		when(preferenceManager.getPreferences()).thenReturn(new Preferences());
 		handler = new HoverHandler(preferenceManager);
+		HoverInfoProvider.clearCache();
 	}
 
 	@Test
@@ -286,6 +288,29 @@ public class HoverHandlerTest extends AbstractProjectsManagerBasedTest {
 		assertEquals("<U> U test1.E.bar(U s)", getTitleHover(cu, 4, 17));
 	}
 
+	@Test
+	public void testHoverAfterChange() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n   public static final int X = 1;\n}\n", false, null);
+		assertEquals("int test1.E.X = 1", getTitleHover(cu, 2, 27));
+		assertEquals("int test1.E.X = 1", getTitleHover(cu, 2, 27));
+
+		cu = pack1.createCompilationUnit("E.java", "package test1;\npublic class E {\n   public static final int X = 2;\n}\n", true, null);
+		assertEquals("int test1.E.X = 2", getTitleHover(cu, 2, 27));
+	}
+
+	@Test
+	public void testHoverAfterInheritedJavadocChange() throws Exception {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		pack1.createCompilationUnit("A.java", "package test1;\npublic class A {\n   /** Old javadoc */\n   public void foo() {}\n}\n", false, null);
+		ICompilationUnit cu = pack1.createCompilationUnit("B.java", "package test1;\npublic class B extends A {\n   public void foo() {}\n}\n", false, null);
+		assertEquals("Old javadoc", getHover(cu, 2, 16).getContents().getLeft().get(1).getLeft());
+
+		// the hovered unit doesn't change
+		pack1.createCompilationUnit("A.java", "package test1;\npublic class A {\n   /** New javadoc */\n   public void foo() {}\n}\n", true, null);
+		assertEquals("New javadoc", getHover(cu, 2, 16).getContents().getLeft().get(1).getLeft());
+	}
+
 	@Test
 	public void testHoverInheritedJavadoc() throws Exception {
 		// given
@@ -15,7 +15,10 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.net.URI;
@@ -28,6 +31,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ls.core.internal.JDTUtils;
+import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -37,8 +41,10 @@ import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.ReferenceContext;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 /**
  * ReferencesHandlerTest
@@ -115,6 +121,36 @@ public class ReferencesHandlerTest extends AbstractProjectsManagerBasedTest{
 		}
 	}
 
+	@Test
+	public void testPartialResults() {
+		boolean includeAccessors = preferenceManager.getPreferences().isIncludeAccessors();
+		try {
+			preferenceManager.getPreferences().setIncludeAccessors(true);
+			URI uri = project.getFile("src/org/ref/Apple.java").getRawLocationURI();
+			String fileURI = ResourceUtils.fixURI(uri);
+			ReferenceParams param = new ReferenceParams();
+			param.setPosition(new Position(3, 18));
+			param.setContext(new ReferenceContext(true));
+			param.setTextDocument(new TextDocumentIdentifier(fileURI));
+			Either<String, Integer> token = Either.forLeft("references");
+			param.setPartialResultToken(token);
+			JavaClientConnection connection = mock(JavaClientConnection.class);
+			when(connection.isPartialResultSupported()).thenReturn(true);
+			List<Location> references = handler.findReferences(param, new PartialResultCollector<>(connection, token, 2, Long.MAX_VALUE), monitor);
+			assertNotNull("findReferences should not return null", references);
+			assertTrue("references are streamed", references.isEmpty());
+			ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+			verify(connection, times(3)).sendPartialResult(eq(token), captor.capture());
+			int count = 0;
+			for (Object partialResult : captor.getAllValues()) {
+				count += ((List<?>) partialResult).size();
+			}
+			assertEquals(5, count);
+		} finally {
+			preferenceManager.getPreferences().setIncludeAccessors(includeAccessors);
+		}
+	}
+
 	@Test
 	public void testEnumInClassFile() throws Exception {
 		when(preferenceManager.isClientSupportsClassFileContent()).thenReturn(true);
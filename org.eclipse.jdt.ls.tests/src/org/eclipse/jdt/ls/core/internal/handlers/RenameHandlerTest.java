@@ -15,6 +15,7 @@ package org.eclipse.jdt.ls.core.internal.handlers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +33,7 @@ import org.eclipse.jdt.ls.core.internal.TextEditUtil;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
 import org.eclipse.jdt.ls.core.internal.preferences.ClientPreferences;
 import org.eclipse.jdt.ls.core.internal.preferences.Preferences;
+import org.eclipse.jdt.ls.core.internal.preferences.Preferences.RenameVerification;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.lsp4j.CreateFile;
 import org.eclipse.lsp4j.Position;
@@ -174,6 +176,153 @@ public class RenameHandlerTest extends AbstractProjectsManagerBasedTest {
 				"}\n");
 	}
 
+	@Test
+	public void testRenameFieldVerifications() throws JavaModelException, BadLocationException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class E {\n",
+				"	int myValue = 2;\n",
+				"   public void bar() {\n",
+				"		myValue|* = 3;\n",
+				"   }\n",
+				"}\n"
+		};
+		StringBuilder builder = new StringBuilder();
+		Position pos = mergeCode(builder, codes);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", builder.toString(), false, null);
+		String codeF = "package test1;\n" +
+				"public class F {\n" +
+				"   public int foo(E e) {\n" +
+				"		return e.myValue;\n" +
+				"   }\n" +
+				"}\n";
+		ICompilationUnit cuF = pack1.createCompilationUnit("F.java", codeF, false, null);
+
+		for (RenameVerification verification : RenameVerification.values()) {
+			when(preferenceManager.getPreferences().getRenameVerification()).thenReturn(verification);
+			WorkspaceEdit edit = getRenameEdit(cu, pos, "newname");
+			assertNotNull(edit);
+			assertEquals(2, edit.getChanges().size());
+			assertEquals("package test1;\n" +
+					"public class E {\n" +
+					"	int newname = 2;\n" +
+					"   public void bar() {\n" +
+					"		newname = 3;\n" +
+					"   }\n" +
+					"}\n", TextEditUtil.apply(builder.toString(), edit.getChanges().get(JDTUtils.toURI(cu))));
+			assertEquals(codeF.replace("myValue", "newname"), TextEditUtil.apply(codeF, edit.getChanges().get(JDTUtils.toURI(cuF))));
+		}
+	}
+
+	@Test
+	public void testRenameFieldShadowedByLocalVariable() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class E {\n",
+				"	int myValue|* = 2;\n",
+				"   public void bar() {\n",
+				"		int newname = 1;\n",
+				"		myValue = newname;\n",
+				"   }\n",
+				"}\n"
+		};
+		StringBuilder builder = new StringBuilder();
+		Position pos = mergeCode(builder, codes);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", builder.toString(), false, null);
+
+		for (RenameVerification verification : RenameVerification.values()) {
+			when(preferenceManager.getPreferences().getRenameVerification()).thenReturn(verification);
+			assertRenameFails(cu, pos, "newname", verification);
+		}
+	}
+
+	@Test
+	public void testRenameFieldShadowedBySubclassField() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class E {\n",
+				"	protected int myValue|* = 2;\n",
+				"}\n"
+		};
+		StringBuilder builder = new StringBuilder();
+		Position pos = mergeCode(builder, codes);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", builder.toString(), false, null);
+		pack1.createCompilationUnit("F.java", "package test1;\n" +
+				"public class F extends E {\n" +
+				"	int newname = 1;\n" +
+				"   public void foo() {\n" +
+				"		myValue = 3;\n" +
+				"   }\n" +
+				"}\n", false, null);
+
+		for (RenameVerification verification : RenameVerification.values()) {
+			when(preferenceManager.getPreferences().getRenameVerification()).thenReturn(verification);
+			assertRenameFails(cu, pos, "newname", verification);
+		}
+	}
+
+	@Test
+	public void testRenameFieldShadowingOuterField() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class E {\n",
+				"	protected int myValue|* = 2;\n",
+				"}\n"
+		};
+		StringBuilder builder = new StringBuilder();
+		Position pos = mergeCode(builder, codes);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", builder.toString(), false, null);
+		// F doesn't reference myValue, only the exhaustive verification searches it
+		pack1.createCompilationUnit("F.java", "package test1;\n" +
+				"public class F {\n" +
+				"	int newname = 1;\n" +
+				"	class G extends E {\n" +
+				"		public void foo() {\n" +
+				"			newname = 3;\n" +
+				"		}\n" +
+				"	}\n" +
+				"}\n", false, null);
+
+		when(preferenceManager.getPreferences().getRenameVerification()).thenReturn(RenameVerification.exhaustive);
+		assertRenameFails(cu, pos, "newname", RenameVerification.exhaustive);
+	}
+
+	@Test
+	public void testRenameMethodShadowedByInnerMethod() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class E {\n",
+				"   public void bar|*() {\n",
+				"   }\n",
+				"   class Inner {\n",
+				"      public void newname() {\n",
+				"      }\n",
+				"      public void foo() {\n",
+				"         bar();\n",
+				"      }\n",
+				"   }\n",
+				"}\n"
+		};
+		StringBuilder builder = new StringBuilder();
+		Position pos = mergeCode(builder, codes);
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", builder.toString(), false, null);
+
+		for (RenameVerification verification : RenameVerification.values()) {
+			when(preferenceManager.getPreferences().getRenameVerification()).thenReturn(verification);
+			assertRenameFails(cu, pos, "newname", verification);
+		}
+	}
+
 	@Test
 	public void testRenameMethod() throws JavaModelException, BadLocationException {
 		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
@@ -461,6 +610,42 @@ public class RenameHandlerTest extends AbstractProjectsManagerBasedTest {
 
 	}
 
+	@Test
+	public void testRenameOverrideMethodAfterChange() throws JavaModelException, BadLocationException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+
+		String[] codes = {
+				"package test1;\n",
+				"public class A {\n",
+				"   public void foo|*(){}\n",
+				"}\n"
+		};
+		StringBuilder builderA = new StringBuilder();
+		Position pos = mergeCode(builderA, codes);
+		ICompilationUnit cuA = pack1.createCompilationUnit("A.java", builderA.toString(), false, null);
+
+		WorkspaceEdit edit = getRenameEdit(cuA, pos, "newname");
+		assertNotNull(edit);
+		assertEquals(edit.getChanges().size(), 1);
+
+		// the overriding methods found for the first rename must not be reused
+		String source = "package test1;\n" +
+				"public class B extends A {\n" +
+				"   public void foo() {}\n" +
+				"}\n";
+		ICompilationUnit cuB = pack1.createCompilationUnit("B.java", source, false, null);
+
+		edit = getRenameEdit(cuA, pos, "newname");
+		assertNotNull(edit);
+		assertEquals(edit.getChanges().size(), 2);
+		assertEquals(TextEditUtil.apply(source, edit.getChanges().get(JDTUtils.toURI(cuB))),
+				"package test1;\n" +
+				"public class B extends A {\n" +
+				"   public void newname() {}\n" +
+				"}\n"
+				);
+	}
+
 	@Test
 	public void testRenameInterfaceMethod() throws JavaModelException, BadLocationException {
 		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
@@ -843,4 +1028,13 @@ public class RenameHandlerTest extends AbstractProjectsManagerBasedTest {
 		RenameParams params = new RenameParams(identifier, pos, newName);
 		return handler.rename(params, monitor);
 	}
+
+	private void assertRenameFails(ICompilationUnit cu, Position pos, String newName, RenameVerification verification) {
+		try {
+			getRenameEdit(cu, pos, newName);
+			fail("The " + verification + " verification doesn't report the shadowed references");
+		} catch (ResponseErrorException e) {
+			// expected
+		}
+	}
 }
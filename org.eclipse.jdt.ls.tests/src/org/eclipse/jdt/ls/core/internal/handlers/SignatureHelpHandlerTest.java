@@ -117,6 +117,70 @@ public class SignatureHelpHandlerTest extends AbstractCompilationUnitBasedTest {
 		assertEquals(help.getSignatures().get(help.getActiveSignature()).getLabel(), "foo(int s, String s) : int");
 	}
 
+	@Test
+	public void testSignatureHelp_typingArguments() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("   public int foo(String s) { }\n");
+		buf.append("   public int foo(int s) { }\n");
+		buf.append("   public int foo(int s, String s) { }\n");
+		buf.append("   public int bar(String s) { this.foo( ) }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		SignatureHelp help = getSignatureHelp(cu, 5, 39);
+		assertNotNull(help);
+		assertEquals(3, help.getSignatures().size());
+		assertEquals((Integer) 0, help.getActiveParameter());
+
+		// type the arguments after the parenthesis, the overloads of the invocation are reused
+		String source = cu.getSource();
+		cu.getBuffer().replace(source.indexOf("this.foo(") + "this.foo(".length(), 0, "2, ");
+		help = getSignatureHelp(cu, 5, 42);
+		assertNotNull(help);
+		assertEquals(3, help.getSignatures().size());
+		assertEquals((Integer) 1, help.getActiveParameter());
+		assertEquals("foo(int s, String s) : int", help.getSignatures().get(help.getActiveSignature()).getLabel());
+
+		// change the invoked method, the overloads are computed again
+		source = cu.getSource();
+		cu.getBuffer().replace(source.indexOf("this.foo("), "this.foo".length(), "this.bar");
+		help = getSignatureHelp(cu, 5, 42);
+		assertNotNull(help);
+		assertEquals(1, help.getSignatures().size());
+		assertEquals("bar(String s) : int", help.getSignatures().get(0).getLabel());
+	}
+
+	@Test
+	public void testSignatureHelp_reconcileOtherUnit() throws JavaModelException {
+		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit other = pack1.createCompilationUnit("F.java", "package test1;\npublic class F {\n   public int foo(String s) { return 0; }\n}\n", false, null);
+		StringBuilder buf = new StringBuilder();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("   public void bar() { new F().foo( ); }\n");
+		buf.append("}\n");
+		ICompilationUnit cu = pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		SignatureHelp help = getSignatureHelp(cu, 2, 35);
+		assertNotNull(help);
+		assertEquals(1, help.getSignatures().size());
+
+		// an overload added to an unsaved working copy discards the session
+		other.becomeWorkingCopy(null);
+		try {
+			other.getBuffer().setContents("package test1;\npublic class F {\n   public int foo(String s) { return 0; }\n   public int foo(int i) { return 0; }\n}\n");
+			other.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			help = getSignatureHelp(cu, 2, 35);
+			assertNotNull(help);
+			assertEquals(2, help.getSignatures().size());
+		} finally {
+			other.discardWorkingCopy();
+		}
+	}
+
 	@Test
 	public void testSignatureHelp_binary() throws JavaModelException {
 		IPackageFragment pack1 = sourceFolder.createPackageFragment("test1", false, null);
@@ -39,6 +39,8 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.ls.core.internal.JavaClientConnection;
 import org.eclipse.jdt.ls.core.internal.ResourceUtils;
 import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
@@ -504,6 +506,42 @@ public class WorkspaceDiagnosticsHandlerTest extends AbstractProjectsManagerBase
 		assertTrue("Should clean up the children's diagnostics of the deleted package", errors.get(0).getDiagnostics().isEmpty());
 	}
 
+	@Test
+	public void testMarkerDeltas() throws Exception {
+		importProjects("eclipse/hello");
+		IProject project = getProject("hello");
+		IFile foo = project.getFile("src/java/Foo.java");
+		IFile bar = project.getFile("src/java/Bar.java");
+		waitForBackgroundJobs();
+
+		reset(connection);
+		IMarker marker = foo.createMarker(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
+		marker.setAttributes(new String[] { IMarker.SEVERITY, IMarker.MESSAGE, IMarker.CHAR_START, IMarker.CHAR_END }, new Object[] { IMarker.SEVERITY_ERROR, "Marker delta", 0, 7 });
+		// markers of other types don't change the diagnostics
+		bar.createMarker(IMarker.BOOKMARK);
+		waitForPublishedDiagnostics();
+		ArgumentCaptor<PublishDiagnosticsParams> captor = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+		verify(connection, atLeastOnce()).publishDiagnostics(captor.capture());
+		List<PublishDiagnosticsParams> fooCalls = captor.getAllValues().stream().filter(p -> p.getUri().endsWith("Foo.java")).collect(Collectors.toList());
+		assertFalse(fooCalls.isEmpty());
+		assertTrue(fooCalls.get(fooCalls.size() - 1).getDiagnostics().stream().anyMatch(d -> "Marker delta".equals(d.getMessage()) && d.getSeverity() == DiagnosticSeverity.Error));
+		assertFalse(captor.getAllValues().stream().anyMatch(p -> p.getUri().endsWith("Bar.java")));
+
+		reset(connection);
+		marker.delete();
+		waitForPublishedDiagnostics();
+		captor = ArgumentCaptor.forClass(PublishDiagnosticsParams.class);
+		verify(connection, atLeastOnce()).publishDiagnostics(captor.capture());
+		fooCalls = captor.getAllValues().stream().filter(p -> p.getUri().endsWith("Foo.java")).collect(Collectors.toList());
+		assertFalse(fooCalls.isEmpty());
+		assertFalse(fooCalls.get(fooCalls.size() - 1).getDiagnostics().stream().anyMatch(d -> "Marker delta".equals(d.getMessage())));
+	}
+
+	private void waitForPublishedDiagnostics() throws Exception {
+		waitForBackgroundJobs();
+		Job.getJobManager().join(WorkspaceDiagnosticsHandler.PUBLISH_WORKSPACE_DIAGNOSTICS_JOBS, new NullProgressMonitor());
+	}
+
 	private IMarker createMarker(int severity, String msg, int line, int start, int end) {
 		IMarker m = mock(IMarker.class);
 		when(m.exists()).thenReturn(true);
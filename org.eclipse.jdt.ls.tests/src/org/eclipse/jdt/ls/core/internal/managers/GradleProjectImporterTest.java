@@ -23,13 +23,16 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.buildship.core.BuildConfiguration;
 import org.eclipse.buildship.core.FixedVersionGradleDistribution;
 import org.eclipse.buildship.core.GradleDistribution;
@@ -280,9 +283,52 @@ public class GradleProjectImporterTest extends AbstractGradleBasedTest{
 		IProject project = WorkspaceHelper.getProject("gradle1");
 		File gradleBuild = new File(project.getLocation().toFile(), "build.gradle");
 		gradleBuild.setLastModified(System.currentTimeMillis() + 1000);
+		assertFalse(GradleProjectImporter.shouldSynchronize(project.getLocation().toFile()));
+		java.nio.file.Files.write(gradleBuild.toPath(), (System.lineSeparator() + "// changed").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
 		assertTrue(GradleProjectImporter.shouldSynchronize(project.getLocation().toFile()));
 	}
 
+	@Test
+	public void testConfigurationFiles() throws Exception {
+		File root = Files.createTempDir();
+		try {
+			File included = new File(root, "included");
+			write(new File(root, "settings.gradle"), "includeBuild 'included'\ninclude 'app'");
+			write(new File(root, "build.gradle"), "");
+			write(new File(root, "gradle.properties"), "");
+			write(new File(root, "gradle/libs.versions.toml"), "");
+			write(new File(root, "gradle/wrapper/gradle-wrapper.properties"), "");
+			write(new File(root, "buildSrc/build.gradle.kts"), "");
+			write(new File(root, "buildSrc/src/main/java/Plugin.java"), "");
+			write(new File(root, "buildSrc/build/classes/Plugin.class"), "");
+			write(new File(root, "app/src/main/java/App.java"), "");
+			write(new File(included, "settings.gradle.kts"), "includeBuild(\"..\")");
+			write(new File(included, "build.gradle.kts"), "");
+
+			List<Path> files = GradleProjectImporter.getConfigurationFiles(root.toPath());
+			for (String path : Arrays.asList("settings.gradle", "build.gradle", "gradle.properties", "gradle/libs.versions.toml", "gradle/wrapper/gradle-wrapper.properties", "buildSrc/build.gradle.kts",
+					"buildSrc/src/main/java/Plugin.java", "included/settings.gradle.kts", "included/build.gradle.kts")) {
+				assertTrue(path, files.contains(new File(root, path).toPath()));
+			}
+			assertFalse(files.contains(new File(root, "buildSrc/build/classes/Plugin.class").toPath()));
+			assertFalse(files.contains(new File(root, "app/src/main/java/App.java").toPath()));
+
+			DigestStore digestStore = JavaLanguageServerPlugin.getDigestStore();
+			String key = root.getAbsolutePath();
+			assertTrue(digestStore.updateDigest(key, files));
+			assertFalse(digestStore.isDigestChanged(key, GradleProjectImporter.getConfigurationFiles(root.toPath())));
+			write(new File(root, "buildSrc/src/main/java/Plugin.java"), "class Plugin {}");
+			assertTrue(digestStore.isDigestChanged(key, GradleProjectImporter.getConfigurationFiles(root.toPath())));
+		} finally {
+			FileUtils.deleteDirectory(root);
+		}
+	}
+
+	private static void write(File file, String content) throws Exception {
+		file.getParentFile().mkdirs();
+		java.nio.file.Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void testWorkspaceSettings() throws Exception {
 		Map<String, String> env = new HashMap<>();
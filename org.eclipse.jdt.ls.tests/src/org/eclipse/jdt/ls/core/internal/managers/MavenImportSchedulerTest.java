@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.eclipse.m2e.core.project.MavenProjectInfo;
+import org.junit.Test;
+
+public class MavenImportSchedulerTest {
+
+	@Test
+	public void testReactorOrder() {
+		MavenProjectInfo parent = project("parent", null);
+		MavenProjectInfo app = project("app", parent, "${project.groupId}:core");
+		MavenProjectInfo core = project("core", parent, "com.example:api");
+		MavenProjectInfo api = project("api", parent, "org.external:lib");
+
+		List<MavenProjectInfo> sorted = MavenImportScheduler.sortByReactorOrder(Arrays.asList(app, core, parent, api));
+		assertEquals(Arrays.asList(parent, api, core, app), sorted);
+	}
+
+	@Test
+	public void testGroupIdPlaceholders() {
+		MavenProjectInfo parent = project("parent", null);
+		MavenProjectInfo app = project("app", parent, "${project.parent.groupId}:core", "${example.groupId}:api");
+		app.getModel().addProperty("example.groupId", "com.example");
+		MavenProjectInfo core = project("core", parent, "${groupId}:util");
+		MavenProjectInfo api = project("api", parent, "${pom.groupId}:util");
+		MavenProjectInfo util = project("util", parent);
+
+		List<MavenProjectInfo> sorted = MavenImportScheduler.sortByReactorOrder(Arrays.asList(app, core, api, util, parent));
+		assertEquals(Arrays.asList(parent, util, core, api, app), sorted);
+	}
+
+	@Test
+	public void testDependencyCycle() {
+		MavenProjectInfo a = project("a", null, "com.example:b");
+		MavenProjectInfo b = project("b", null, "com.example:a");
+
+		List<MavenProjectInfo> sorted = MavenImportScheduler.sortByReactorOrder(Arrays.asList(a, b));
+		assertEquals(Arrays.asList(b, a), sorted);
+	}
+
+	@Test
+	public void testBatchSize() {
+		long mb = 1024 * 1024;
+		assertEquals(50, MavenImportScheduler.getBatchSize(400 * mb, 4 * mb, 900));
+		assertEquals(10, MavenImportScheduler.getBatchSize(400 * mb, 4 * mb, 10));
+		assertEquals(1, MavenImportScheduler.getBatchSize(0, 4 * mb, 900));
+		assertEquals(900, MavenImportScheduler.getBatchSize(64 * 1024 * mb, 4 * mb, 900));
+	}
+
+	private static MavenProjectInfo project(String artifactId, MavenProjectInfo parent, String... dependencies) {
+		Model model = new Model();
+		model.setArtifactId(artifactId);
+		if (parent == null) {
+			model.setGroupId("com.example");
+		} else {
+			Parent parentReference = new Parent();
+			parentReference.setGroupId("com.example");
+			parentReference.setArtifactId(parent.getModel().getArtifactId());
+			model.setParent(parentReference);
+		}
+		for (String dependency : dependencies) {
+			String[] coordinates = dependency.split(":");
+			Dependency d = new Dependency();
+			d.setGroupId(coordinates[0]);
+			d.setArtifactId(coordinates[1]);
+			model.addDependency(d);
+		}
+		File pom = new File(new File(System.getProperty("java.io.tmpdir"), artifactId), MavenProjectImporter.POM_FILE);
+		return new MavenProjectInfo(artifactId, pom, model, parent);
+	}
+}
@@ -35,6 +35,7 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
@@ -46,6 +47,7 @@ import org.eclipse.jdt.ls.core.internal.WorkspaceHelper;
 import org.eclipse.jdt.ls.core.internal.handlers.ProgressReporterManager;
 import org.eclipse.jdt.ls.core.internal.managers.ProjectsManager.CHANGE_TYPE;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -63,6 +65,8 @@ public class MavenProjectImporterTest extends AbstractMavenBasedTest {
 
 	private MavenUpdateProjectJobSpy jobSpy;
 
+	private long workspaceStateModified;
+
 	private void attachJobSpy() {
 		jobSpy = new MavenUpdateProjectJobSpy();
 		Job.getJobManager().addJobChangeListener(jobSpy);
@@ -75,6 +79,13 @@ public class MavenProjectImporterTest extends AbstractMavenBasedTest {
 		}
 	}
 
+	@After
+	public void restoreWorkspaceState() {
+		if (workspaceStateModified > 0) {
+			MavenPluginActivator.getDefault().getMavenProjectManager().getWorkspaceStateFile().setLastModified(workspaceStateModified);
+		}
+	}
+
 	@Test
 	public void testImportSimpleJavaProject() throws Exception {
 		attachJobSpy();
@@ -208,6 +219,42 @@ public class MavenProjectImporterTest extends AbstractMavenBasedTest {
 		assertEquals("Changed Project should be updated", 1, jobSpy.updateProjectJobCalled);
 	}
 
+	@Test
+	public void testOnlyChangedProjectsAreRefreshed() throws Exception {
+		IProject salut = importMavenProject("salut");
+		File location = salut.getLocation().toFile();
+		long now = System.currentTimeMillis();
+		File workspaceState = MavenPluginActivator.getDefault().getMavenProjectManager().getWorkspaceStateFile();
+		workspaceStateModified = workspaceState.lastModified();
+		assertTrue(workspaceState.setLastModified(now + 60000));
+
+		// changes in the output folder are ignored
+		File output = new File(location, "target/output.txt");
+		output.getParentFile().mkdirs();
+		assertTrue(output.createNewFile());
+		assertTrue(output.setLastModified(now + 120000));
+		importExistingMavenProject("salut");
+		assertFalse(salut.getFile("target/output.txt").exists());
+
+		File added = new File(location, "added.txt");
+		assertTrue(added.createNewFile());
+		assertTrue(added.setLastModified(now + 120000));
+		importExistingMavenProject("salut");
+		assertTrue(salut.getFile("added.txt").exists());
+		if (!Platform.OS_WIN32.equals(Platform.getOS())) {
+			assertTrue(salut.getFile("target/output.txt").exists());
+		}
+
+		// the generated sources are checked
+		assertTrue(added.setLastModified(now));
+		File generated = new File(location, "target/generated-sources/annotations/Generated.java");
+		generated.getParentFile().mkdirs();
+		assertTrue(generated.createNewFile());
+		assertTrue(generated.setLastModified(now + 120000));
+		importExistingMavenProject("salut");
+		assertTrue(salut.getFile("target/generated-sources/annotations/Generated.java").exists());
+	}
+
 	@Test
 	public void testPreexistingIProjectDifferentName() throws Exception {
 		File from = new File(getSourceProjectDirectory(), "maven/salut");
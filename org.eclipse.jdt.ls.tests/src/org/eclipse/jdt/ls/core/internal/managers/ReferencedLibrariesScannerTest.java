@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.managers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReferencedLibrariesScannerTest {
+
+	private File root;
+	private IPath rootPath;
+	private Path lib;
+	private ReferencedLibrariesScanner scanner;
+	private final Set<String> include = Collections.singleton("lib/**/*.jar");
+	private final Set<String> exclude = Collections.singleton("lib/excluded/**");
+
+	@Before
+	public void setUp() throws Exception {
+		root = Files.createTempDirectory("libraries").toFile();
+		rootPath = new org.eclipse.core.runtime.Path(root.getAbsolutePath());
+		lib = Files.createDirectories(root.toPath().resolve("lib"));
+		scanner = new ReferencedLibrariesScanner();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		FileUtils.deleteDirectory(root);
+	}
+
+	@Test
+	public void testCollectLibraries() throws Exception {
+		Path foo = Files.createFile(lib.resolve("foo.jar"));
+		Files.createFile(lib.resolve("foo-sources.jar"));
+		Files.createDirectories(lib.resolve("excluded"));
+		Files.createFile(lib.resolve("excluded/bar.jar"));
+
+		Map<Path, IPath> libraries = collect();
+		assertEquals(Collections.singleton(foo), libraries.keySet());
+		assertEquals("foo-sources.jar", libraries.get(foo).lastSegment());
+	}
+
+	@Test
+	public void testReportedChanges() throws Exception {
+		Path foo = Files.createFile(lib.resolve("foo.jar"));
+		assertEquals(1, collect().size());
+
+		Path bar = Files.createFile(lib.resolve("bar.jar"));
+		scanner.fileChanged(bar);
+		Map<Path, IPath> libraries = collect();
+		assertEquals(2, libraries.size());
+		assertNull(libraries.get(bar));
+
+		Path barSources = Files.createFile(lib.resolve("bar-sources.jar"));
+		scanner.fileChanged(barSources);
+		assertEquals("bar-sources.jar", collect().get(bar).lastSegment());
+
+		Files.delete(foo);
+		scanner.fileChanged(foo);
+		assertEquals(Collections.singleton(bar), collect().keySet());
+	}
+
+	@Test
+	public void testUnreportedChanges() throws Exception {
+		Files.createFile(lib.resolve("foo.jar"));
+		assertEquals(1, collect().size());
+
+		Path nested = Files.createDirectories(lib.resolve("nested"));
+		Path bar = Files.createFile(nested.resolve("bar.jar"));
+		// make sure the modification time differs on file systems with a coarse resolution
+		assertTrue(lib.toFile().setLastModified(lib.toFile().lastModified() - 10000));
+		Map<Path, IPath> libraries = collect();
+		assertEquals(2, libraries.size());
+		assertTrue(libraries.containsKey(bar));
+	}
+
+	@Test
+	public void testChangesOfSeveralProjects() throws Exception {
+		IPath otherPath = rootPath.append("other");
+		Path otherLib = Files.createDirectories(otherPath.toFile().toPath().resolve("lib"));
+		assertEquals(0, collect().size());
+		assertEquals(0, scanner.collectLibraries(otherPath, include, exclude, new NullProgressMonitor()).size());
+
+		long lastModified = otherLib.toFile().lastModified();
+		Path bar = Files.createFile(otherLib.resolve("bar.jar"));
+		// only the reported change can reveal the new library
+		assertTrue(otherLib.toFile().setLastModified(lastModified));
+		scanner.fileChanged(bar);
+		assertEquals(0, collect().size());
+		Map<Path, IPath> libraries = scanner.collectLibraries(otherPath, include, exclude, new NullProgressMonitor());
+		assertEquals(Collections.singleton(bar), libraries.keySet());
+	}
+
+	private Map<Path, IPath> collect() {
+		return scanner.collectLibraries(rootPath, include, exclude, new NullProgressMonitor());
+	}
+}
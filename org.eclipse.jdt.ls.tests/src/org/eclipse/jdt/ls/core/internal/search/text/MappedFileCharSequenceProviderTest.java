@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.content.IContentDescription;
+import org.eclipse.jdt.ls.core.internal.managers.AbstractProjectsManagerBasedTest;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileCharSequenceProviderTest extends AbstractProjectsManagerBasedTest {
+
+	private IProject project;
+	private MappedFileCharSequenceProvider provider;
+
+	@Before
+	public void setup() throws Exception {
+		importProjects("eclipse/hello");
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject("hello");
+		provider = new MappedFileCharSequenceProvider();
+	}
+
+	@Test
+	public void testAsciiFile() throws Exception {
+		String contents = "public class Foo {\n\tint value;\n}\n";
+		IFile file = createFile("ascii.txt", contents.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+		CharSequence seq = provider.newCharSequence(file);
+		try {
+			assertEquals(contents, seq.toString());
+			assertEquals(contents.length(), seq.length());
+			assertEquals('F', seq.charAt(13));
+			assertEquals("Foo", seq.subSequence(13, 16).toString());
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "value"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, ""));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "Missing"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "café"));
+		} finally {
+			provider.releaseCharSequence(seq);
+		}
+	}
+
+	@Test
+	public void testUTF8File() throws Exception {
+		String contents = "String s = \"café 中文\";\n";
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(IContentDescription.BOM_UTF_8);
+		bytes.write(contents.getBytes(StandardCharsets.UTF_8));
+		IFile file = createFile("utf8.txt", bytes.toByteArray(), StandardCharsets.UTF_8);
+		CharSequence seq = provider.newCharSequence(file);
+		try {
+			// the byte order mark is not part of the content
+			assertEquals(contents, seq.toString());
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "String"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "café"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "中文"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "cafe"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "文中"));
+		} finally {
+			provider.releaseCharSequence(seq);
+		}
+	}
+
+	@Test
+	public void testLatin1File() throws Exception {
+		String contents = "// naïve café\nclass Café {}\n";
+		IFile file = createFile("latin1.txt", contents.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1);
+		CharSequence seq = provider.newCharSequence(file);
+		try {
+			assertEquals(contents, seq.toString());
+			assertEquals(contents.length(), seq.length());
+			assertEquals('ï', seq.charAt(5));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "class"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "Café"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "naïve"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "naive"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "interface"));
+		} finally {
+			provider.releaseCharSequence(seq);
+		}
+	}
+
+	@Test
+	public void testUTF16File() throws Exception {
+		String contents = "class Foo {\n\tString s = \"café\";\n}\n";
+		IFile file = createFile("utf16.txt", contents.getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_16);
+		CharSequence seq = provider.newCharSequence(file);
+		try {
+			// the bytes of ASCII characters are not ASCII in UTF-16
+			assertEquals(contents, seq.toString());
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "Foo"));
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "café"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "Bar"));
+		} finally {
+			provider.releaseCharSequence(seq);
+		}
+	}
+
+	@Test
+	public void testLargeFile() throws Exception {
+		StringBuilder contents = new StringBuilder();
+		while (contents.length() < 512 * 1024) {
+			contents.append("int field").append(contents.length()).append(";\n");
+		}
+		contents.append("int last;\n");
+		IFile file = createFile("large.txt", contents.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+		CharSequence seq = provider.newCharSequence(file);
+		try {
+			assertEquals(contents.length(), seq.length());
+			assertEquals(contents.toString(), seq.toString());
+			assertTrue(MappedFileCharSequenceProvider.mayContain(seq, "last;"));
+			assertFalse(MappedFileCharSequenceProvider.mayContain(seq, "first"));
+		} finally {
+			provider.releaseCharSequence(seq);
+		}
+	}
+
+	private IFile createFile(String name, byte[] contents, Charset charset) throws Exception {
+		IFile file = project.getFile(name);
+		file.create(new ByteArrayInputStream(contents), true, null);
+		file.setCharset(charset.name(), null);
+		return file;
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.search.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class PatternConstructorTest {
+
+	@Test
+	public void testRegexLiteral() {
+		assertEquals("Names", getRequiredLiteral("get.*Names", true));
+		assertEquals("foo.bar", getRequiredLiteral("foo\\.bar", true));
+		assertEquals("a.b*c", getRequiredLiteral("\\Qa.b*c\\E", true));
+		assertEquals("word", getRequiredLiteral("\\bword\\b", true));
+		assertEquals("^line", getRequiredLiteral("\\^line$", true));
+	}
+
+	@Test
+	public void testQuantifiers() {
+		// the quantified character is not part of the literal
+		assertEquals("colo", getRequiredLiteral("colou?r", true));
+		assertEquals("ab", getRequiredLiteral("ab+c", true));
+		assertEquals("yz", getRequiredLiteral("x{0,2}yz", true));
+		assertEquals("yz", getRequiredLiteral("x{2}yz", true));
+		assertEquals("tail", getRequiredLiteral("a*?tail", true));
+	}
+
+	@Test
+	public void testStringMatcherLiteral() {
+		assertEquals("Name", getRequiredLiteral("get*Name", false));
+		assertEquals("foo.bar", getRequiredLiteral("foo.bar", false));
+		assertEquals("get", getRequiredLiteral("get?ame", false));
+	}
+
+	@Test
+	public void testWholeWordLiteral() {
+		Pattern pattern = PatternConstructor.createPattern("getName", false, true, true, true);
+		assertEquals("getName", PatternConstructor.getRequiredLiteral(pattern));
+		pattern = PatternConstructor.createPattern("foo.bar", false, true, true, true);
+		assertEquals("foo.bar", PatternConstructor.getRequiredLiteral(pattern));
+	}
+
+	@Test
+	public void testLiteralPattern() {
+		Pattern pattern = Pattern.compile("a|b(c)", Pattern.LITERAL);
+		assertEquals("a|b(c)", PatternConstructor.getRequiredLiteral(pattern));
+		assertNull(PatternConstructor.getRequiredLiteral(Pattern.compile("", Pattern.LITERAL)));
+	}
+
+	@Test
+	public void testCaseInsensitiveLiteral() {
+		// the case of the matches is unknown
+		Pattern pattern = PatternConstructor.createPattern("Foo", false, false);
+		assertNull(PatternConstructor.getRequiredLiteral(pattern));
+		pattern = PatternConstructor.createPattern("getName", false, true, false, true);
+		assertNull(PatternConstructor.getRequiredLiteral(pattern));
+		assertNull(PatternConstructor.getRequiredLiteral(Pattern.compile("(?i)Foo")));
+	}
+
+	@Test
+	public void testNoLiteral() {
+		assertNull(getRequiredLiteral("foo|bar", true));
+		assertNull(getRequiredLiteral("(foo)", true));
+		assertNull(getRequiredLiteral("[abc]def", true));
+		assertNull(getRequiredLiteral("(a)\\1", true));
+		assertNull(getRequiredLiteral("\\x41", true));
+		assertNull(getRequiredLiteral(".*", true));
+		assertNull(getRequiredLiteral("a?", true));
+		assertNull(getRequiredLiteral("*", false));
+	}
+
+	private static String getRequiredLiteral(String pattern, boolean isRegex) {
+		return PatternConstructor.getRequiredLiteral(PatternConstructor.createPattern(pattern, true, isRegex));
+	}
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2021 Red Hat Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ls.core.internal.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+
+public class LineTableTest {
+
+	private static final String TEXT = "package foo;\r\n\r\npublic class Foo {\n\tint i;\r}\n";
+
+	@Test
+	public void testLineOffsets() throws Exception {
+		LineTable lineTable = LineTable.of(TEXT);
+		IDocument document = new Document(TEXT);
+		assertEquals(document.getNumberOfLines(), lineTable.getNumberOfLines());
+		for (int line = 0; line < document.getNumberOfLines(); line++) {
+			assertEquals(document.getLineOffset(line), lineTable.getLineOffset(line));
+		}
+		assertEquals(-1, lineTable.getLineOffset(-1));
+		assertEquals(-1, lineTable.getLineOffset(lineTable.getNumberOfLines()));
+	}
+
+	@Test
+	public void testToLine() throws Exception {
+		LineTable lineTable = LineTable.of(TEXT);
+		IDocument document = new Document(TEXT);
+		for (int offset = 0; offset <= TEXT.length(); offset++) {
+			int line = document.getLineOfOffset(offset);
+			assertArrayEquals("offset " + offset, new int[] { line, offset - document.getLineOffset(line) }, lineTable.toLine(offset));
+		}
+		assertNull(lineTable.toLine(-1));
+		assertNull(lineTable.toLine(TEXT.length() + 1));
+		assertEquals(TEXT.indexOf("int"), lineTable.toOffset(3, 1));
+	}
+
+	@Test
+	public void testReader() throws Exception {
+		LineTable expected = LineTable.of(TEXT);
+		LineTable lineTable = LineTable.of(new StringReader(TEXT));
+		assertEquals(expected.getLength(), lineTable.getLength());
+		assertEquals(expected.getNumberOfLines(), lineTable.getNumberOfLines());
+		for (int line = 0; line < expected.getNumberOfLines(); line++) {
+			assertEquals(expected.getLineOffset(line), lineTable.getLineOffset(line));
+		}
+	}
+}